@@ -7,6 +7,13 @@ CREATE TABLE REG_CLUSTER_LOCK(
 )/
 
 
+CREATE TABLE REG_ID_BLOCK(
+    REG_TABLE_NAME VARCHAR(50) NOT NULL,
+    REG_TENANT_ID DECIMAL(31,0) DEFAULT 0 NOT NULL,
+    REG_NEXT_ID INTEGER NOT NULL,
+    CONSTRAINT PK_REG_ID_BLOCK PRIMARY KEY(REG_TABLE_NAME, REG_TENANT_ID)
+)/
+
 CREATE TABLE REG_LOG(
     REG_LOG_ID DECIMAL(31,0) NOT NULL,
     REG_PATH VARCHAR(750),
@@ -34,6 +41,9 @@ BEGIN ATOMIC
 END/
 
 
+CREATE INDEX REG_LOG_IND_BY_TM
+    ON REG_LOG(REG_TENANT_ID,REG_LOGGED_TIME,REG_LOG_ID)/
+
 CREATE TABLE REG_PATH(
     REG_PATH_ID DECIMAL(31,0)  NOT NULL,
     REG_PATH_VALUE VARCHAR(750) NOT NULL,
@@ -98,6 +108,26 @@ CREATE TABLE REG_CONTENT_HISTORY(
     CONSTRAINT PK_REG_CONTENT_HI1 PRIMARY KEY(REG_CONTENT_ID,REG_TENANT_ID)
 )/
 
+CREATE TABLE REG_CONTENT_DIGEST(
+    REG_DIGEST VARCHAR(64) NOT NULL,
+    REG_CONTENT_ID DECIMAL(31,0) NOT NULL,
+    REG_REF_COUNT INTEGER NOT NULL,
+    REG_TENANT_ID DECIMAL(31,0) DEFAULT 0 NOT NULL,
+    CONSTRAINT PK_REG_CONTENT_DIG1 PRIMARY KEY(REG_CONTENT_ID,REG_TENANT_ID)
+)/
+
+CREATE INDEX REG_CONTENT_DIG_IND_1
+    ON REG_CONTENT_DIGEST(REG_DIGEST,REG_TENANT_ID)/
+
+CREATE TABLE REG_PATH_TOMBSTONE(
+    REG_PATH_VALUE VARCHAR(750) NOT NULL,
+    REG_DELETED_TIME TIMESTAMP NOT NULL,
+    REG_TENANT_ID DECIMAL(31,0) DEFAULT 0 NOT NULL
+)/
+
+CREATE INDEX REG_PATH_TOMB_IND_1
+    ON REG_PATH_TOMBSTONE(REG_TENANT_ID,REG_DELETED_TIME)/
+
 
 CREATE TABLE REG_RESOURCE(
     REG_PATH_ID DECIMAL(31,0) NOT NULL,
@@ -140,6 +170,9 @@ CREATE INDEX REG_RESOURCE_IND_1
 CREATE INDEX REG_RESOURCE_IND_2
     ON REG_RESOURCE(REG_PATH_ID,REG_NAME,REG_TENANT_ID)/
 
+CREATE INDEX REG_RESOURCE_IND_3
+    ON REG_RESOURCE(REG_TENANT_ID,REG_LAST_UPDATED_TIME)/
+
 
 CREATE TABLE REG_RESOURCE_HISTORY(
     REG_PATH_ID DECIMAL(31,0) NOT NULL,
@@ -8,6 +8,15 @@ CREATE TABLE  REG_CLUSTER_LOCK (
              PRIMARY KEY (REG_LOCK_NAME)
 );
 
+--create table REG_ID_BLOCK
+IF NOT  EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[REG_ID_BLOCK]') AND TYPE IN (N'U'))
+CREATE TABLE  REG_ID_BLOCK (
+             REG_TABLE_NAME VARCHAR (50),
+             REG_TENANT_ID INTEGER DEFAULT 0,
+             REG_NEXT_ID INTEGER NOT NULL,
+             PRIMARY KEY (REG_TABLE_NAME, REG_TENANT_ID)
+);
+
 --create table REG_LOG
 
 IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[REG_LOG]') AND TYPE IN (N'U'))
@@ -23,6 +32,10 @@ CREATE TABLE REG_LOG (
              PRIMARY KEY (REG_LOG_ID, REG_TENANT_ID)
 );
 
+IF EXISTS (SELECT NAME FROM SYSINDEXES WHERE NAME = 'REG_LOG_IND_BY_REG_LOGTIME')
+DROP INDEX REG_LOG.REG_LOG_IND_BY_REG_LOGTIME
+CREATE INDEX REG_LOG_IND_BY_REG_LOGTIME ON REG_LOG(REG_TENANT_ID, REG_LOGGED_TIME, REG_LOG_ID);
+
 --create table regpath
 
 IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[REG_PATH]') AND TYPE IN (N'U'))
@@ -62,6 +75,32 @@ CREATE TABLE  REG_CONTENT_HISTORY (
              CONSTRAINT PK_REG_CONTENT_HISTORY PRIMARY KEY(REG_CONTENT_ID, REG_TENANT_ID)
 );
 
+--create table REG_CONTENT_DIGEST
+IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[REG_CONTENT_DIGEST]') AND TYPE IN (N'U'))
+CREATE TABLE  REG_CONTENT_DIGEST (
+             REG_DIGEST VARCHAR (64) NOT NULL,
+             REG_CONTENT_ID INTEGER NOT NULL,
+             REG_REF_COUNT INTEGER NOT NULL,
+             REG_TENANT_ID INTEGER DEFAULT 0,
+             CONSTRAINT PK_REG_CONTENT_DIGEST PRIMARY KEY(REG_CONTENT_ID, REG_TENANT_ID)
+);
+
+IF EXISTS (SELECT NAME FROM SYSINDEXES WHERE NAME = 'REG_CONTENT_DIG_IND_BY_DIGEST')
+DROP INDEX REG_CONTENT_DIGEST.REG_CONTENT_DIG_IND_BY_DIGEST
+CREATE INDEX REG_CONTENT_DIG_IND_BY_DIGEST ON REG_CONTENT_DIGEST(REG_DIGEST, REG_TENANT_ID);
+
+--create table REG_PATH_TOMBSTONE
+IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[REG_PATH_TOMBSTONE]') AND TYPE IN (N'U'))
+CREATE TABLE  REG_PATH_TOMBSTONE (
+             REG_PATH_VALUE VARCHAR (895) NOT NULL,
+             REG_DELETED_TIME DATETIME NOT NULL,
+             REG_TENANT_ID INTEGER DEFAULT 0
+);
+
+IF EXISTS (SELECT NAME FROM SYSINDEXES WHERE NAME = 'REG_PATH_TOMB_IND_BY_TIME')
+DROP INDEX REG_PATH_TOMBSTONE.REG_PATH_TOMB_IND_BY_TIME
+CREATE INDEX REG_PATH_TOMB_IND_BY_TIME ON REG_PATH_TOMBSTONE(REG_TENANT_ID, REG_DELETED_TIME);
+
 
 --create table REG_RESOURCE
 IF NOT  EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[REG_RESOURCE]') AND TYPE IN (N'U'))
@@ -96,6 +135,10 @@ IF EXISTS (SELECT NAME FROM SYSINDEXES WHERE NAME = 'REG_RESOURCE_IND_BY_PATH_ID
 DROP INDEX REG_RESOURCE.REG_RESOURCE_IND_BY_PATH_ID_NAME
 CREATE INDEX REG_RESOURCE_IND_BY_PATH_ID_NAME ON REG_RESOURCE(REG_PATH_ID, REG_NAME, REG_TENANT_ID);
 
+IF EXISTS (SELECT NAME FROM SYSINDEXES WHERE NAME = 'REG_RESOURCE_IND_BY_UPD_TIME')
+DROP INDEX REG_RESOURCE.REG_RESOURCE_IND_BY_UPD_TIME
+CREATE INDEX REG_RESOURCE_IND_BY_UPD_TIME ON REG_RESOURCE(REG_TENANT_ID, REG_LAST_UPDATED_TIME);
+
 
 --create table REG_RESOURCE_HISTORY
 IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[REG_RESOURCE_HISTORY]') AND TYPE IN (N'U'))
@@ -6,6 +6,13 @@ CREATE TABLE IF NOT EXISTS REG_CLUSTER_LOCK (
              PRIMARY KEY (REG_LOCK_NAME)
 )ENGINE NDB;
 
+CREATE TABLE IF NOT EXISTS REG_ID_BLOCK (
+             REG_TABLE_NAME VARCHAR (50),
+             REG_TENANT_ID INTEGER DEFAULT 0,
+             REG_NEXT_ID INTEGER NOT NULL,
+             PRIMARY KEY (REG_TABLE_NAME, REG_TENANT_ID)
+)ENGINE NDB;
+
 CREATE TABLE IF NOT EXISTS REG_LOG (
              REG_LOG_ID INTEGER AUTO_INCREMENT,
              REG_PATH VARCHAR (750),
@@ -17,6 +24,8 @@ CREATE TABLE IF NOT EXISTS REG_LOG (
              PRIMARY KEY (REG_LOG_ID, REG_TENANT_ID)
 )ENGINE NDB;
 
+CREATE INDEX REG_LOG_IND_BY_REG_LOGTIME USING BTREE ON REG_LOG(REG_TENANT_ID, REG_LOGGED_TIME, REG_LOG_ID);
+
 -- The REG_PATH_VALUE should be less than 767 bytes, and hence was fixed at 750.
 -- See CARBON-5917.
 
@@ -44,6 +53,24 @@ CREATE TABLE IF NOT EXISTS REG_CONTENT_HISTORY (
              CONSTRAINT PK_REG_CONTENT_HISTORY PRIMARY KEY(REG_CONTENT_ID, REG_TENANT_ID)
 )ENGINE NDB;
 
+CREATE TABLE IF NOT EXISTS REG_CONTENT_DIGEST (
+             REG_DIGEST VARCHAR (64) NOT NULL,
+             REG_CONTENT_ID INTEGER NOT NULL,
+             REG_REF_COUNT INTEGER NOT NULL,
+             REG_TENANT_ID INTEGER DEFAULT 0,
+             CONSTRAINT PK_REG_CONTENT_DIGEST PRIMARY KEY(REG_CONTENT_ID, REG_TENANT_ID)
+)ENGINE NDB;
+
+CREATE INDEX REG_CONTENT_DIG_IND_BY_DIGEST USING BTREE ON REG_CONTENT_DIGEST(REG_DIGEST, REG_TENANT_ID);
+
+CREATE TABLE IF NOT EXISTS REG_PATH_TOMBSTONE (
+             REG_PATH_VALUE VARCHAR (750) NOT NULL,
+             REG_DELETED_TIME TIMESTAMP NOT NULL,
+             REG_TENANT_ID INTEGER DEFAULT 0
+)ENGINE NDB;
+
+CREATE INDEX REG_PATH_TOMB_IND_BY_TIME USING BTREE ON REG_PATH_TOMBSTONE(REG_TENANT_ID, REG_DELETED_TIME);
+
 CREATE TABLE IF NOT EXISTS REG_RESOURCE (
             REG_PATH_ID         INTEGER NOT NULL,
             REG_NAME            VARCHAR(256) CHARACTER SET latin1 COLLATE latin1_bin,
@@ -60,6 +87,8 @@ CREATE TABLE IF NOT EXISTS REG_RESOURCE (
             CONSTRAINT PK_REG_RESOURCE PRIMARY KEY(REG_VERSION, REG_TENANT_ID)
 )ENGINE NDB;
 
+CREATE INDEX REG_RESOURCE_IND_BY_UPD_TIME USING BTREE ON REG_RESOURCE(REG_TENANT_ID, REG_LAST_UPDATED_TIME);
+
 
 CREATE TABLE IF NOT EXISTS REG_RESOURCE_HISTORY (
             REG_PATH_ID         INTEGER NOT NULL,
@@ -5,6 +5,12 @@ CREATE TABLE REG_CLUSTER_LOCK (
              REG_TENANT_ID INTEGER DEFAULT 0,
              CONSTRAINT PK_REG_CLUSTER_LOCK PRIMARY KEY (REG_LOCK_NAME))
 /
+CREATE TABLE REG_ID_BLOCK (
+             REG_TABLE_NAME VARCHAR2(50),
+             REG_TENANT_ID INTEGER DEFAULT 0,
+             REG_NEXT_ID INTEGER NOT NULL,
+             CONSTRAINT PK_REG_ID_BLOCK PRIMARY KEY (REG_TABLE_NAME, REG_TENANT_ID))
+/
 CREATE TABLE REG_LOG (
              REG_LOG_ID INTEGER,
              REG_PATH VARCHAR2(2000),
@@ -27,6 +33,8 @@ CREATE OR REPLACE TRIGGER REG_LOG_TRIGGER
            		   END;
 /	         
 
+CREATE INDEX REG_LOG_IND_BY_LOGGED_TIME ON REG_LOG(REG_TENANT_ID, REG_LOGGED_TIME, REG_LOG_ID)
+/
 CREATE TABLE REG_PATH(
              REG_PATH_ID INTEGER NULL,
 	         REG_PATH_VALUE VARCHAR2(2000) NOT NULL,
@@ -75,6 +83,22 @@ CREATE TABLE REG_CONTENT_HISTORY (
              REG_TENANT_ID INTEGER DEFAULT 0,
              CONSTRAINT PK_REG_CONTENT_HISTORY PRIMARY KEY(REG_CONTENT_ID, REG_TENANT_ID))
 /
+CREATE TABLE REG_CONTENT_DIGEST (
+             REG_DIGEST VARCHAR2(64) NOT NULL,
+             REG_CONTENT_ID INTEGER NOT NULL,
+             REG_REF_COUNT INTEGER NOT NULL,
+             REG_TENANT_ID INTEGER DEFAULT 0,
+             CONSTRAINT PK_REG_CONTENT_DIGEST PRIMARY KEY(REG_CONTENT_ID, REG_TENANT_ID))
+/
+CREATE INDEX REG_CONTENT_DIG_IND_BY_DIGEST ON REG_CONTENT_DIGEST(REG_DIGEST, REG_TENANT_ID)
+/
+CREATE TABLE REG_PATH_TOMBSTONE (
+             REG_PATH_VALUE VARCHAR2(2000) NOT NULL,
+             REG_DELETED_TIME TIMESTAMP NOT NULL,
+             REG_TENANT_ID INTEGER DEFAULT 0)
+/
+CREATE INDEX REG_PATH_TOMB_IND_BY_TIME ON REG_PATH_TOMBSTONE(REG_TENANT_ID, REG_DELETED_TIME)
+/
 CREATE TABLE REG_RESOURCE (
             REG_PATH_ID         INTEGER NOT NULL,
             REG_NAME            VARCHAR2(256),
@@ -107,6 +131,8 @@ CREATE INDEX REG_RESOURCE_IND_BY_NAME ON REG_RESOURCE(REG_NAME, REG_TENANT_ID)
 /
 CREATE INDEX REG_RESOURCE_IND_BY_PATH_ID ON REG_RESOURCE(REG_PATH_ID, REG_NAME, REG_TENANT_ID)
 /
+CREATE INDEX REG_RESOURCE_IND_BY_UPD_TIME ON REG_RESOURCE(REG_TENANT_ID, REG_LAST_UPDATED_TIME)
+/
 CREATE TABLE REG_RESOURCE_HISTORY (
             REG_PATH_ID         INTEGER NOT NULL,
             REG_NAME            VARCHAR2(256),
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.repository.api;
+
+/**
+ * A page of activities returned by a paginated log query. The page carries an opaque token that is
+ * passed to the next query to continue after the last activity of this page, so that obtaining any
+ * page costs the same, however far the page is from the first one.
+ */
+public class ActivityPage {
+
+    private Activity[] activities;
+    private String nextPageToken;
+    private int count;
+    private boolean countExact;
+
+    /**
+     * Creates a page of activities.
+     *
+     * @param activities    the activities of the page.
+     * @param nextPageToken the token to obtain the next page, or null if this is the last page.
+     * @param count         the number of matching activities, or -1 if it was not requested.
+     * @param countExact    whether the count is the exact number of matching activities.
+     */
+    public ActivityPage(Activity[] activities, String nextPageToken, int count, boolean countExact) {
+        this.activities = activities;
+        this.nextPageToken = nextPageToken;
+        this.count = count;
+        this.countExact = countExact;
+    }
+
+    /**
+     * Get the activities of the page.
+     *
+     * @return the activities, most recent first or oldest first as requested.
+     */
+    public Activity[] getActivities() {
+        return activities;
+    }
+
+    /**
+     * Get the token to obtain the page that follows this page.
+     *
+     * @return the next page token, or null if there are no more activities.
+     */
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    /**
+     * Get the number of activities matching the query, across all the pages. The activities are
+     * only counted up to a limit, beyond which the count is not exact.
+     *
+     * @return the number of matching activities, or -1 if the count was not requested.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Whether the count is the exact number of activities matching the query.
+     *
+     * @return false if the count was not requested, or if there were more matching activities than
+     *         the counting limit.
+     */
+    public boolean isCountExact() {
+        return countExact;
+    }
+}
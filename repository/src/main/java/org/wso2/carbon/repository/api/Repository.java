@@ -18,9 +18,12 @@ package org.wso2.carbon.repository.api;
 
 import org.wso2.carbon.repository.api.exceptions.RepositoryException;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -55,6 +58,19 @@ public interface Repository extends TransactionManager {
      */
     Resource get(String path) throws RepositoryException;
 
+    /**
+     * Returns the resources at the given paths. Resources that are not cached are read in a few
+     * batched queries, instead of a round trip for each path, while the handlers that match a path
+     * are still invoked for it.
+     *
+     * @param paths Paths of the resources.
+     *
+     * @return a map of the given paths to the resources, in the order of the paths. Paths at which
+     *         no resource exists are not included.
+     * @throws RepositoryException if the operation failed.
+     */
+    Map<String, Resource> get(List<String> paths) throws RepositoryException;
+
     /**
      * Returns the Collection at the given path, with the specified number of content starting from
      * specified location
@@ -113,6 +129,17 @@ public interface Repository extends TransactionManager {
      */
     Resource getMetaData(String path) throws RepositoryException;
 
+    /**
+     * Returns the meta data of the resources at the given paths, read in a few batched queries.
+     *
+     * @param paths 			Paths of the resources.
+     *
+     * @return 					a map of the given paths to the resources, in the order of the
+     *                          paths. Paths at which no resource exists are not included.
+     * @throws 					RepositoryException if the operation failed.
+     */
+    Map<String, Resource> getMetaData(List<String> paths) throws RepositoryException;
+
     /**
      * Creates a resource by fetching the resource content from the given URL.
      *
@@ -228,6 +255,35 @@ public interface Repository extends TransactionManager {
      * @see Activity Accepted values for action parameter
      */
     Activity[] getLogs(String resourcePath, int action, String userName, Date from, Date to, boolean recentFirst) throws RepositoryException;
+
+    /**
+     * Returns a page of the logs of the activities occurred in the registry. Pages are obtained in
+     * order by passing the token of the previous page, and the cost of obtaining a page does not
+     * depend on its position.
+     *
+     * @param resourcePath     If given, only the logs related to the resource path will be
+     *                         returned. If null, logs for all resources will be returned.
+     * @param action           Only the logs pertaining to this action will be returned.  For
+     *                         acceptable values, see LogEntry.
+     * @param userName         If given, only the logs for activities done by the given user will
+     *                         be returned. If null, logs for all users will be returned.
+     * @param from             If given, logs for activities occurred after the given date will be
+     *                         returned. If null, there will not be a bound for the starting date.
+     * @param to               If given, logs for activities occurred before the given date will be
+     *                         returned. If null, there will not be a bound for the ending date.
+     * @param recentFirst      If true, returned activities will be most-recent first. If false,
+     *                         returned activities will be oldest first.
+     * @param pageToken        The token of the previous page, or null to obtain the first page.
+     * @param pageLen          The maximum number of activities in the page.
+     * @param countActivities  If true, the matching activities are also counted, up to a limit.
+     *
+     * @return the page of activities.
+     * @throws RepositoryException if there is a problem
+     * @see Activity Accepted values for action parameter
+     */
+    ActivityPage getLogs(String resourcePath, int action, String userName, Date from, Date to,
+                         boolean recentFirst, String pageToken, int pageLen,
+                         boolean countActivities) throws RepositoryException;
     
     /**
      * Search the content of resources
@@ -288,6 +344,47 @@ public interface Repository extends TransactionManager {
      * @throws RepositoryException throws if the operation fail
      */
     void dump(String path, Writer writer) throws RepositoryException;
+
+    /**
+     * Restore the given path from a binary archive written by {@link #dump(String, OutputStream)}.
+     * Any resource at the path is replaced. The sub trees of the archive are restored in separate
+     * transactions, so a failed restore may leave some of them restored; restoring the archive
+     * again replaces them.
+     * <p/>
+     * An incremental archive written by {@link #dump(String, Date, OutputStream)} is applied on
+     * top of the resources at the path, which must have been restored from the archive it
+     * follows. A chain of incremental archives is applied by restoring each of them in order.
+     *
+     * @param path        path to restore
+     * @param inputStream stream containing the archive
+     *
+     * @throws RepositoryException throws if the operation fail
+     */
+    void restore(String path, InputStream inputStream) throws RepositoryException;
+
+    /**
+     * Dump the given path as a binary archive, in which resource content is written as it is.
+     *
+     * @param path         path to dump
+     * @param outputStream stream to write the archive
+     *
+     * @throws RepositoryException throws if the operation fail
+     */
+    void dump(String path, OutputStream outputStream) throws RepositoryException;
+
+    /**
+     * Dump the changes made to the given path after the given time as an incremental binary
+     * archive, holding the resources added or updated since then and the sub trees that were
+     * deleted, moved or replaced. The time at which a dump is started is the time to pass to the
+     * next incremental dump.
+     *
+     * @param path         path to dump
+     * @param since        time of the previous dump
+     * @param outputStream stream to write the archive
+     *
+     * @throws RepositoryException throws if the operation fail
+     */
+    void dump(String path, Date since, OutputStream outputStream) throws RepositoryException;
     
     /**
      * Removes a given version history of a resource.
@@ -167,7 +167,8 @@ public interface Resource {
     /**
      * Method to get the content of the resource. If the resource is a collection this will return
      * an array of string that represent the paths of its children, otherwise it returns a byte
-     * array or a string from the default resource implementation.
+     * array or a string from the default resource implementation. Content too large to be kept in
+     * memory may be returned as an input stream, which has to be closed by the caller.
      *
      * @return the content.
      * @throws RepositoryException throws if the operation fail.
@@ -16,8 +16,11 @@
 
 package org.wso2.carbon.repository.api.handlers;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -92,6 +95,10 @@ public class HandlerContext {
     
     private Reader dumpingReader;
     private Writer dumpingWriter;
+    private InputStream dumpingInputStream;
+    private OutputStream dumpingOutputStream;
+
+    private Date dumpingSince;
     
     private long bytesRead;
     private long bytesWritten;
@@ -451,6 +458,61 @@ public class HandlerContext {
         this.dumpingWriter = dumpingWriter;
     }
 
+    /**
+     * Method to get the Dumping Input Stream, which is set when restoring a binary archive.
+     *
+     * @return the Dumping Input Stream.
+     */
+    public InputStream getDumpingInputStream() {
+        return dumpingInputStream;
+    }
+
+    /**
+     * Method to set Dumping Input Stream.
+     *
+     * @param dumpingInputStream the Dumping Input Stream.
+     */
+    public void setDumpingInputStream(InputStream dumpingInputStream) {
+        this.dumpingInputStream = dumpingInputStream;
+    }
+
+    /**
+     * Method to get the Dumping Output Stream, which is set when dumping a binary archive.
+     *
+     * @return the Dumping Output Stream.
+     */
+    public OutputStream getDumpingOutputStream() {
+        return dumpingOutputStream;
+    }
+
+    /**
+     * Method to set Dumping Output Stream.
+     *
+     * @param dumpingOutputStream the Dumping Output Stream.
+     */
+    public void setDumpingOutputStream(OutputStream dumpingOutputStream) {
+        this.dumpingOutputStream = dumpingOutputStream;
+    }
+
+    /**
+     * Method to get the time after which the dumped resources were changed, which is set when
+     * dumping an incremental binary archive.
+     *
+     * @return the time, or null for a full dump.
+     */
+    public Date getDumpingSince() {
+        return dumpingSince;
+    }
+
+    /**
+     * Method to set the time after which the dumped resources were changed.
+     *
+     * @param dumpingSince the time, or null for a full dump.
+     */
+    public void setDumpingSince(Date dumpingSince) {
+        this.dumpingSince = dumpingSince;
+    }
+
     /**
      * Method to get the Old Resource.
      *
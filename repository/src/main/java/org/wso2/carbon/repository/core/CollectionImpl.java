@@ -44,6 +44,12 @@ public class CollectionImpl extends ResourceImpl implements Collection {
      */
     protected int childCount = -1;
 
+    /**
+     * Whether the children are shared with another instance of the collection, such as the
+     * instance kept in the resource cache.
+     */
+    private boolean contentShared;
+
     /**
      * The default constructor of the CollectionImpl, Create an empty collection with no children.
      */
@@ -78,7 +84,9 @@ public class CollectionImpl extends ResourceImpl implements Collection {
     }
 
     /**
-     * A copy constructor used to create a shallow-copy of this collection.
+     * A copy constructor used to create a shallow-copy of this collection. The children of the
+     * given collection are shared with the copy, and are only copied when the content of the copy
+     * is handed out.
      *
      * @param collection the collection of which the copy is created.
      */
@@ -91,33 +99,7 @@ public class CollectionImpl extends ResourceImpl implements Collection {
             // we are not interested in handling any failures here.
         }
         
-        if (this.content != null) {
-            if (this.content instanceof String[]) {
-                String[] paths = (String[]) this.content;
-                int length = paths.length;
-                String[] output = new String[length];
-                System.arraycopy(paths, 0, output, 0, length);
-                this.content = output;
-            } else if (this.content instanceof Resource[]) {
-                Resource[] paths = (Resource[]) this.content;
-                int length = paths.length;
-                Resource[] output = new Resource[length];
-                System.arraycopy(paths, 0, output, 0, length);
-                
-                for (int i = 0; i < length; i++) {
-                    if (output[i] instanceof CollectionVersionImpl) {
-                        output[i] = new CollectionVersionImpl((CollectionVersionImpl) output[i]);
-                    } else if (output[i] instanceof CollectionImpl) {
-                        output[i] = new CollectionImpl((CollectionImpl) output[i]);
-                    } else if (output[i] instanceof ResourceImpl) {
-                        output[i] = new ResourceImpl((ResourceImpl) output[i]);
-                    }
-                }
-                
-                this.content = output;
-            }
-        }
-        
+        this.contentShared = this.content != null;
         this.childCount = collection.childCount;
     }
 
@@ -134,6 +116,7 @@ public class CollectionImpl extends ResourceImpl implements Collection {
             return;
         }
         
+        contentShared = false;
         if (content instanceof String[]) {
             super.setContentWithNoUpdate(content);
             childCount = ((String[])content).length;
@@ -166,6 +149,7 @@ public class CollectionImpl extends ResourceImpl implements Collection {
         }
         
         if (content instanceof String[] || content instanceof Resource[] || content instanceof String) {
+            contentShared = false;
             super.setContentWithNoUpdate(content);
             return;
         }
@@ -184,6 +168,7 @@ public class CollectionImpl extends ResourceImpl implements Collection {
      */
     public void setChildren(String[] paths) throws RepositoryException {
         String[] temp = fixPaths(paths);
+        contentShared = false;
         content = temp;
         childCount = temp.length;
     }
@@ -196,8 +181,9 @@ public class CollectionImpl extends ResourceImpl implements Collection {
      */
     @Override
     public String[] getChildPaths() throws RepositoryException {
-        if (getContent() instanceof String[]) {
-            return fixPaths((String[])getContent());
+        Object children = loadContent();
+        if (children instanceof String[]) {
+            return fixPaths((String[]) children);
         } else {
             return new String[0];
         }
@@ -344,6 +330,19 @@ public class CollectionImpl extends ResourceImpl implements Collection {
      * @throws RepositoryException On any error.
      */
     public Object getContent() throws RepositoryException {
+        loadContent();
+        copyContentOnWrite();
+        return content;
+    }
+
+    /**
+     * Method to load the children of the collection, without copying children that are shared
+     * with another instance of the collection. The returned content must not be modified.
+     *
+     * @return the content.
+     * @throws RepositoryException if the operation fails.
+     */
+    private Object loadContent() throws RepositoryException {
         setContextInformation();
         
         try {
@@ -363,6 +362,54 @@ public class CollectionImpl extends ResourceImpl implements Collection {
         }
     }
 
+    /**
+     * A method to retrieve content from the original collection. Content obtained this way is
+     * shared with the original collection.
+     *
+     * @throws RepositoryException if the operation failed.
+     */
+    protected void pullContentFromOriginal() throws RepositoryException {
+        if (content == null) {
+            super.pullContentFromOriginal();
+            contentShared = content != null;
+        }
+    }
+
+    /**
+     * Copy the children if they are shared with another instance of the collection. This has to
+     * be called before the children are handed out, as they could then be modified.
+     */
+    protected void copyContentOnWrite() {
+        if (!contentShared) {
+            return;
+        }
+        if (content instanceof String[]) {
+            String[] paths = (String[]) content;
+            int length = paths.length;
+            String[] output = new String[length];
+            System.arraycopy(paths, 0, output, 0, length);
+            content = output;
+        } else if (content instanceof Resource[]) {
+            Resource[] paths = (Resource[]) content;
+            int length = paths.length;
+            Resource[] output = new Resource[length];
+            System.arraycopy(paths, 0, output, 0, length);
+            
+            for (int i = 0; i < length; i++) {
+                if (output[i] instanceof CollectionVersionImpl) {
+                    output[i] = new CollectionVersionImpl((CollectionVersionImpl) output[i]);
+                } else if (output[i] instanceof CollectionImpl) {
+                    output[i] = new CollectionImpl((CollectionImpl) output[i]);
+                } else if (output[i] instanceof ResourceImpl) {
+                    output[i] = new ResourceImpl((ResourceImpl) output[i]);
+                }
+            }
+            
+            content = output;
+        }
+        contentShared = false;
+    }
+
     /**
      * Method to return a shallow copy of a collection.
      *
@@ -201,6 +201,7 @@ public class CollectionVersionImpl extends CollectionImpl {
             setContentWithNoUpdate(childPaths);
         }
         
+        copyContentOnWrite();
         return content;
     }
 }
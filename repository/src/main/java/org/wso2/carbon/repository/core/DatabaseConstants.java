@@ -81,6 +81,11 @@ public class DatabaseConstants {
 	 * Represents the log count field.
 	 */
 	public static final String LOG_COUNT_FIELD = "REG_LOG_COUNT";
+
+	/**
+	 * Represents the log id field.
+	 */
+	public static final String LOG_ID_FIELD = "REG_LOG_ID";
 	
 	/**
 	 * Represents the content id field.
@@ -200,4 +200,41 @@ public class DumpConstants {
      * Element name for children, keep to support backward compatibility in restoring
      */
     public static final String CHILDS = "childs";
+
+    /**
+     * Marker at the start of a binary archive
+     */
+    public static final int ARCHIVE_MAGIC = 0x52454741;
+
+    /**
+     * Version of the binary archive format
+     */
+    public static final int ARCHIVE_FORMAT_VERSION = 2;
+
+    /**
+     * Maximum length in bytes of a string read from a binary archive
+     */
+    public static final int ARCHIVE_MAX_STRING_LENGTH = 16 * 1024 * 1024;
+
+    /**
+     * Archive record that ends the archive, or a segment of it
+     */
+    public static final byte ARCHIVE_RECORD_END = 0;
+
+    /**
+     * Archive record of a resource, followed by its metadata, properties and content
+     */
+    public static final byte ARCHIVE_RECORD_RESOURCE = 1;
+
+    /**
+     * Archive record of a segment, which holds the records of a sub tree and is prefixed by its
+     * length, so that it can be restored independently of the other segments
+     */
+    public static final byte ARCHIVE_RECORD_SEGMENT = 2;
+
+    /**
+     * Archive record of an incremental archive, followed by the relative path of a sub tree that
+     * was removed or replaced since the previous archive
+     */
+    public static final byte ARCHIVE_RECORD_DELETED = 3;
 }
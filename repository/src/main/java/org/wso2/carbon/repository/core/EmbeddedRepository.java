@@ -16,11 +16,19 @@
 
 package org.wso2.carbon.repository.core;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -28,8 +36,11 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.cache.Cache;
 
@@ -37,6 +48,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.context.CarbonContext;
 import org.wso2.carbon.repository.api.Activity;
+import org.wso2.carbon.repository.api.ActivityPage;
 import org.wso2.carbon.repository.api.Collection;
 import org.wso2.carbon.repository.api.Repository;
 import org.wso2.carbon.repository.api.RepositoryConstants;
@@ -49,8 +61,14 @@ import org.wso2.carbon.repository.api.exceptions.RepositoryResourceNotFoundExcep
 import org.wso2.carbon.repository.api.handlers.Handler;
 import org.wso2.carbon.repository.api.handlers.HandlerContext;
 import org.wso2.carbon.repository.api.utils.Actions;
+import org.wso2.carbon.repository.api.utils.Method;
+import org.wso2.carbon.repository.api.utils.RepositoryUtils;
 import org.wso2.carbon.repository.core.caching.CacheResource;
+import org.wso2.carbon.repository.core.caching.CachingHandler;
+import org.wso2.carbon.repository.core.caching.NegativeLookupCache;
+import org.wso2.carbon.repository.core.caching.PathCache;
 import org.wso2.carbon.repository.core.caching.RepositoryCacheKey;
+import org.wso2.carbon.repository.core.caching.ResourceCacheIndex;
 import org.wso2.carbon.repository.core.config.DataBaseConfiguration;
 import org.wso2.carbon.repository.core.config.Mount;
 import org.wso2.carbon.repository.core.config.RemoteConfiguration;
@@ -62,8 +80,10 @@ import org.wso2.carbon.repository.core.handlers.HandlerManager;
 import org.wso2.carbon.repository.core.handlers.builtin.SimulationFilter;
 import org.wso2.carbon.repository.core.queries.QueryProcessorManager;
 import org.wso2.carbon.repository.core.statistics.DBQueryStatisticsLog;
+import org.wso2.carbon.repository.core.statistics.OperationStatistics;
 import org.wso2.carbon.repository.core.statistics.StatisticsRecord;
-import org.wso2.carbon.repository.core.utils.DumpReader;
+import org.wso2.carbon.repository.core.utils.ArchiveReader;
+import org.wso2.carbon.repository.core.utils.ArchiveWriter;
 import org.wso2.carbon.repository.core.utils.InternalConstants;
 import org.wso2.carbon.repository.core.utils.InternalUtils;
 import org.wso2.carbon.repository.core.utils.VersionedPath;
@@ -142,6 +162,9 @@ public class EmbeddedRepository implements Repository {
     private Map<String, String> cacheIds = new HashMap<String, String>();
     private Map<String, DataBaseConfiguration> dbConfigs = new HashMap<String, DataBaseConfiguration>();
     private Map<String, String> pathMap = new HashMap<String, String>();
+
+    // the connection identifier of the last database configuration used for a cache key.
+    private volatile String[] lastConnectionId = null;
     
     private int tenantId = MultitenantConstants.INVALID_TENANT_ID; 
         
@@ -284,6 +307,10 @@ public class EmbeddedRepository implements Repository {
     		setContextInformation();
 	        dataAccessManager.getTransactionManager().rollbackTransaction();
 	        endDBQueryLog(3);
+	        if (!dataAccessManager.getDatabaseTransaction().isStarted()) {
+	            CachingHandler.clearNegativeLookupsOfTransaction();
+	            PathCache.removeEntriesOfTransaction();
+	        }
     	} finally {
     		clearContextInformation();
     	}
@@ -299,6 +326,10 @@ public class EmbeddedRepository implements Repository {
     		setContextInformation();
 	        dataAccessManager.getTransactionManager().commitTransaction();
 	        endDBQueryLog(3);
+	        if (!dataAccessManager.getDatabaseTransaction().isStarted()) {
+	            CachingHandler.clearNegativeLookupsOfTransaction();
+	            PathCache.removeEntriesOfTransaction();
+	        }
     	} finally {
     		clearContextInformation();
     	}
@@ -385,8 +416,62 @@ public class EmbeddedRepository implements Repository {
         }
     }
 
+    @Override
+    public Map<String, Resource> getMetaData(List<String> paths) throws RepositoryException {
+        if(!embeddedRegistryInitialized) {
+            init();
+        }
+
+        boolean transactionSucceeded = false;
+
+        try {
+            setContextInformation();
+
+            List<String> inPaths = new ArrayList<String>(paths.size());
+            Set<String> currentVersionPaths = new LinkedHashSet<String>();
+            for (String path : paths) {
+                String inPath = chrootWrapper.getInPath(path);
+                inPaths.add(inPath);
+                if (InternalUtils.getVersionedPath(new ResourcePath(inPath)).getVersion() == -1) {
+                    currentVersionPaths.add(inPath);
+                }
+            }
+
+            beginTransaction();
+
+            Map<String, Resource> resources = repository.getMetaData(new ArrayList<String>(currentVersionPaths));
+            Map<String, Resource> result = new LinkedHashMap<String, Resource>();
+            for (int i = 0; i < paths.size(); i++) {
+                String inPath = inPaths.get(i);
+                Resource resource;
+                if (currentVersionPaths.contains(inPath)) {
+                    resource = resources.get(inPath);
+                } else {
+                    resource = versionRepository.getMetaData(
+                            InternalUtils.getVersionedPath(new ResourcePath(inPath)));
+                }
+                if (resource != null) {
+                    ((ResourceImpl) resource).setTenantId(tenantId);
+                    result.put(paths.get(i), chrootWrapper.getOutResource(resource));
+                }
+            }
+
+            transactionSucceeded = true;
+
+            return result;
+        } finally {
+            if (transactionSucceeded) {
+                commitTransaction();
+            } else {
+                rollbackTransaction();
+            }
+            clearContextInformation();
+        }
+    }
+
     @Override
     public String put(String suggestedPath, Resource resource) throws RepositoryException {
+        long startTime = System.nanoTime();
     	if(!embeddedRegistryInitialized) {
     		init();
     	}
@@ -469,6 +554,7 @@ public class EmbeddedRepository implements Repository {
                     rollbackTransaction();
                 }
             }
+            recordOperation(Method.PUT, startTime);
             clearContextInformation();
         }
     }
@@ -476,6 +562,7 @@ public class EmbeddedRepository implements Repository {
     @Override
     public String importResource(String suggestedPath, String sourceURL, Resource metaResource)
             throws RepositoryException {
+        long startTime = System.nanoTime();
     	
     	if(!embeddedRegistryInitialized) {
     		init();
@@ -567,12 +654,14 @@ public class EmbeddedRepository implements Repository {
                     rollbackTransaction();
                 }
             }
+            recordOperation(Method.IMPORT, startTime);
             clearContextInformation();
         }
     }
 
     @Override
     public void delete(String path) throws RepositoryException {
+        long startTime = System.nanoTime();
         if(!embeddedRegistryInitialized) {
     		init();
     	}
@@ -628,6 +717,7 @@ public class EmbeddedRepository implements Repository {
                     rollbackTransaction();
                 }
             }
+            recordOperation(Method.DELETE, startTime);
             clearContextInformation();
         }
 
@@ -635,6 +725,7 @@ public class EmbeddedRepository implements Repository {
 
     @Override
     public String rename(String currentPath, String newName) throws RepositoryException {
+        long startTime = System.nanoTime();
     	if(!embeddedRegistryInitialized) {
     		init();
     	}
@@ -697,12 +788,14 @@ public class EmbeddedRepository implements Repository {
                     rollbackTransaction();
                 }
             }
+            recordOperation(Method.RENAME, startTime);
             clearContextInformation();
         }
     }
 
     @Override
     public String move(String currentPath, String newPath) throws RepositoryException {
+        long startTime = System.nanoTime();
     	if(!embeddedRegistryInitialized) {
     		init();
     	}
@@ -768,12 +861,14 @@ public class EmbeddedRepository implements Repository {
                     rollbackTransaction();
                 }
             }
+            recordOperation(Method.MOVE, startTime);
             clearContextInformation();
         }
     }
 
     @Override
     public String copy(String sourcePath, String targetPath) throws RepositoryException {
+        long startTime = System.nanoTime();
     	if(!embeddedRegistryInitialized) {
     		init();
     	}
@@ -839,6 +934,7 @@ public class EmbeddedRepository implements Repository {
                     rollbackTransaction();
                 }
             }
+            recordOperation(Method.COPY, startTime);
             clearContextInformation();
         }
     }
@@ -1014,6 +1110,7 @@ public class EmbeddedRepository implements Repository {
 
     @Override
     public Collection executeQuery(String path, Map<?, ?> parameters) throws RepositoryException {
+        long startTime = System.nanoTime();
     	
         if (log.isTraceEnabled()) {
             String msg = "Preparing operation execute query, path: " + path + ", values: ";
@@ -1157,6 +1254,7 @@ public class EmbeddedRepository implements Repository {
                     rollbackTransaction();
                 }
             }
+            recordOperation(Method.EXECUTE_QUERY, startTime);
             clearContextInformation();
         }
     }
@@ -1206,6 +1304,46 @@ public class EmbeddedRepository implements Repository {
         }
     }
 
+    @Override
+    public ActivityPage getLogs(String resourcePath, int action, String userName, Date from,
+                                Date to, boolean recentFirst, String pageToken, int pageLen,
+                                boolean countActivities) throws RepositoryException {
+    	if(!embeddedRegistryInitialized) {
+    		init();
+    	}
+    	
+        boolean transactionSucceeded = false;
+        try {
+        	setContextInformation();
+        	
+            resourcePath = chrootWrapper.getInPath(resourcePath);
+        	
+            // start the transaction
+            beginTransaction();
+
+            ActivityPage page = logsDAO.getLogs(resourcePath, action, userName, from, to,
+                    recentFirst, pageToken, pageLen, countActivities);
+
+            Activity[] activities = page.getActivities();
+            ResourceActivity[] logEntries = new ResourceActivity[activities.length];
+            for (int i = 0; i < activities.length; i++) {
+                logEntries[i] = (ResourceActivity) activities[i];
+            }
+
+            transactionSucceeded = true;
+
+            return new ActivityPage(chrootWrapper.fixLogEntries(logEntries),
+                    page.getNextPageToken(), page.getCount(), page.isCountExact());
+        } finally {
+            if (transactionSucceeded) {
+                commitTransaction();
+            } else {
+                rollbackTransaction();
+            }
+            clearContextInformation();
+        }
+    }
+
     @Override
     public Collection searchContent(String keywords) throws RepositoryException {
         if (log.isTraceEnabled()) {
@@ -1511,6 +1649,7 @@ public class EmbeddedRepository implements Repository {
 
     @Override
     public void restore(String path, Reader reader) throws RepositoryException {
+        long startTime = System.nanoTime();
         if (log.isTraceEnabled()) {
             log.trace("Preparing operation restore dump, path: " + path + ".");
         }
@@ -1567,18 +1706,14 @@ public class EmbeddedRepository implements Repository {
                     rollbackTransaction();
                 }
             }
-            if (log.isDebugEnabled()) {
-                log.debug("total read: " + DumpReader.getTotalRead());
-                log.debug("total buffered: " + DumpReader.getTotalBuffered());
-                log.debug("maximum buffer size: " + DumpReader.getMaxBufferedSize());
-                log.debug("total buffer read size: " + DumpReader.getTotalBufferedRead());
-            }
+            recordOperation(Method.RESTORE, startTime);
             clearContextInformation();
         }
     }
 
     @Override
     public void dump(String path, Writer writer) throws RepositoryException {
+        long startTime = System.nanoTime();
         if (log.isTraceEnabled()) {
             log.trace("Preparing operation dump, path: " + path + ".");
         }
@@ -1619,10 +1754,316 @@ public class EmbeddedRepository implements Repository {
                     rollbackTransaction();
                 }
             }
+            recordOperation(Method.DUMP, startTime);
             clearContextInformation();
         }
     }
 
+    @Override
+    public void restore(String path, InputStream inputStream) throws RepositoryException {
+        long startTime = System.nanoTime();
+        if (log.isTraceEnabled()) {
+            log.trace("Preparing operation restore archive, path: " + path + ".");
+        }
+
+        if (InternalUtils.isRepositoryReadOnly(this)) {
+            log.warn("Cannot continue the operation restore archive, the coreRegistry is read-only");
+            return;
+        }
+    	
+    	if(!embeddedRegistryInitialized) {
+    		init();
+    	}
+    	
+        HandlerContext context = new HandlerContext(this);
+        List<InputStream> segmentStreams = new ArrayList<InputStream>();
+        
+        try {
+        	setContextInformation();
+        	
+        	path = chrootWrapper.getInPath(path);
+
+            boolean transactionSucceeded = false;
+            beginTransaction();
+
+            try {
+                context.setDumpingInputStream(inputStream);
+                context.setResourcePath(new ResourcePath(path));
+                registryContext.getHandlerManager().restore(context);
+                
+                if (!SimulationFilter.isSimulation()) {
+                    if (!context.isProcessingComplete()) {
+                        try {
+                            CurrentContext.setAttribute(ResourceStorer.IS_LOGGING_ACTIVITY,
+                                    context.isLoggingActivity());
+                            repository.restore(path, new ArchiveReader(inputStream), segmentStreams);
+                        } finally {
+                            CurrentContext.removeAttribute(ResourceStorer.IS_LOGGING_ACTIVITY);
+                        }
+                        if (context.isLoggingActivity()) {
+                            registryContext.getLogWriter().addLog(
+                                    path, CurrentContext.getUser(), Actions.RESTORE, null);
+                        }
+                    }
+
+                    registryContext.getHandlerManager(HandlerLifecycleManager.COMMIT_HANDLER_PHASE).restore(context);
+                    
+                    transactionSucceeded = true;
+                }
+            } finally {
+                if (transactionSucceeded) {
+                    commitTransaction();
+                } else {
+                    try {
+                        registryContext.getHandlerManager(HandlerLifecycleManager.ROLLBACK_HANDLER_PHASE).restore(context);
+                    } finally {
+                        rollbackTransaction();
+                    }
+                }
+            }
+
+            // the sub trees are restored after the root is committed, each in its own transaction,
+            // so that the restored sub trees are kept if another one fails.
+            final String restorePath = path;
+            List<ArchiveTask> tasks = new ArrayList<ArchiveTask>();
+            for (final InputStream segmentStream : segmentStreams) {
+                tasks.add(new ArchiveTask() {
+                    public void execute() throws Exception {
+                        repository.restoreSegment(restorePath, segmentStream);
+                    }
+                });
+            }
+
+            List<Exception> failures = runArchiveTasks(tasks, context.isLoggingActivity());
+            int failureCount = 0;
+            Exception cause = null;
+            for (Exception failure : failures) {
+                if (failure != null) {
+                    failureCount++;
+                    cause = (cause != null) ? cause : failure;
+                }
+            }
+            if (failureCount > 0) {
+                String msg = "Failed to restore " + failureCount + " of " + failures.size() +
+                        " sub trees of the archive at " + path + ". The archive can be restored " +
+                        "again to replace the restored sub trees.";
+                log.error(msg, cause);
+                throw new RepositoryServerContentException(msg, cause);
+            }
+        } finally {
+            for (InputStream segmentStream : segmentStreams) {
+                try {
+                    segmentStream.close();
+                } catch (IOException e) {
+                    log.warn("Failed to close a segment of the restored archive.", e);
+                }
+            }
+            recordOperation(Method.RESTORE, startTime);
+            clearContextInformation();
+        }
+    }
+
+    @Override
+    public void dump(String path, OutputStream outputStream) throws RepositoryException {
+        dump(path, null, outputStream);
+    }
+
+    @Override
+    public void dump(String path, Date since, OutputStream outputStream) throws RepositoryException {
+        long startTime = System.nanoTime();
+        if (log.isTraceEnabled()) {
+            log.trace("Preparing operation dump archive, path: " + path + ", since: " + since + ".");
+        }
+    	
+    	if(!embeddedRegistryInitialized) {
+    		init();
+    	}
+    	
+        boolean transactionSucceeded = false;
+        HandlerContext context = new HandlerContext(this);
+        List<File> segmentFiles = new ArrayList<File>();
+        
+        try {
+        	setContextInformation();
+        	
+        	path = chrootWrapper.getInPath(path);
+
+            beginTransaction();
+
+            context.setResourcePath(new ResourcePath(path));
+            context.setDumpingOutputStream(outputStream);
+            context.setDumpingSince(since);
+            registryContext.getHandlerManager().dump(context);
+            if (!SimulationFilter.isSimulation()) {
+                if (!context.isProcessingComplete()) {
+                    ArchiveWriter writer = new ArchiveWriter(outputStream);
+                    if (since != null) {
+                        // only the changes are dumped, which are not split into segments.
+                        repository.dump(path, since, writer);
+                    } else {
+                        String[] childPaths = repository.dump(path, writer);
+
+                        if (registryContext.getArchiveWorkers() <= 1) {
+                            for (String childPath : childPaths) {
+                                repository.dumpSubTree(childPath, RepositoryConstants.PATH_SEPARATOR +
+                                        RepositoryUtils.getResourceName(childPath), writer);
+                            }
+                        } else {
+                            dumpSegments(childPaths, segmentFiles, writer);
+                        }
+                    }
+                    writer.writeEnd();
+                }
+
+                registryContext.getHandlerManager(HandlerLifecycleManager.COMMIT_HANDLER_PHASE).dump(context);
+
+                transactionSucceeded = true;
+            }
+        } finally {
+            if (transactionSucceeded) {
+                commitTransaction();
+            } else {
+                try {
+                    registryContext.getHandlerManager(HandlerLifecycleManager.ROLLBACK_HANDLER_PHASE).dump(context);
+                } finally {
+                    rollbackTransaction();
+                }
+            }
+            for (File segmentFile : segmentFiles) {
+                if (!segmentFile.delete()) {
+                    log.warn("Failed to delete the temporary file " + segmentFile.getPath() + ".");
+                }
+            }
+            recordOperation(Method.DUMP, startTime);
+            clearContextInformation();
+        }
+    }
+
+    // Dumps each of the given sub trees to a temporary file in its own transaction, and then writes
+    // the files to the archive as segments, in order.
+    private void dumpSegments(String[] childPaths, List<File> segmentFiles, ArchiveWriter writer)
+            throws RepositoryException {
+        List<ArchiveTask> tasks = new ArrayList<ArchiveTask>();
+        try {
+            for (final String childPath : childPaths) {
+                final File segmentFile = File.createTempFile("repository-archive", ".segment");
+                segmentFiles.add(segmentFile);
+                tasks.add(new ArchiveTask() {
+                    public void execute() throws Exception {
+                        OutputStream segmentStream = new FileOutputStream(segmentFile);
+                        try {
+                            ArchiveWriter segmentWriter = new ArchiveWriter(segmentStream);
+                            repository.dumpSubTree(childPath, RepositoryConstants.PATH_SEPARATOR +
+                                    RepositoryUtils.getResourceName(childPath), segmentWriter);
+                            segmentWriter.writeEnd();
+                        } finally {
+                            segmentStream.close();
+                        }
+                    }
+                });
+            }
+        } catch (IOException e) {
+            String msg = "Failed to create a temporary file for the archive. " + e.getMessage();
+            log.error(msg, e);
+            throw new RepositoryServerContentException(msg, e);
+        }
+
+        List<Exception> failures = runArchiveTasks(tasks, false);
+        for (int i = 0; i < failures.size(); i++) {
+            if (failures.get(i) != null) {
+                String msg = "Failed to dump the sub tree at " + childPaths[i] + ".";
+                log.error(msg, failures.get(i));
+                throw new RepositoryServerContentException(msg, failures.get(i));
+            }
+        }
+
+        for (File segmentFile : segmentFiles) {
+            try {
+                InputStream segmentStream = new FileInputStream(segmentFile);
+                try {
+                    writer.writeSegment(segmentStream, segmentFile.length());
+                } finally {
+                    segmentStream.close();
+                }
+            } catch (IOException e) {
+                String msg = "Failed to read the temporary file of the archive. " + e.getMessage();
+                log.error(msg, e);
+                throw new RepositoryServerContentException(msg, e);
+            }
+        }
+    }
+
+    // Runs each of the given tasks in its own transaction, using at most the configured number of
+    // archive workers. Returns the failure of each task, which is null if the task succeeded.
+    private List<Exception> runArchiveTasks(List<ArchiveTask> tasks, final boolean loggingActivity) {
+        List<Exception> failures = new ArrayList<Exception>();
+        int workers = Math.min(registryContext.getArchiveWorkers(), tasks.size());
+
+        if (workers <= 1) {
+            for (ArchiveTask task : tasks) {
+                failures.add(runArchiveTask(task, loggingActivity));
+            }
+            return failures;
+        }
+
+        ExecutorService archiveExecutor = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<Exception>> futures = new ArrayList<Future<Exception>>();
+            for (final ArchiveTask task : tasks) {
+                futures.add(archiveExecutor.submit(new Callable<Exception>() {
+                    public Exception call() {
+                        return runArchiveTask(task, loggingActivity);
+                    }
+                }));
+            }
+            for (Future<Exception> future : futures) {
+                try {
+                    failures.add(future.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failures.add(e);
+                } catch (ExecutionException e) {
+                    failures.add(new RepositoryException(e.getMessage(), e.getCause()));
+                }
+            }
+        } finally {
+            archiveExecutor.shutdownNow();
+        }
+        return failures;
+    }
+
+    private Exception runArchiveTask(ArchiveTask task, boolean loggingActivity) {
+        try {
+            setContextInformation();
+            boolean transactionSucceeded = false;
+            beginTransaction();
+
+            try {
+                CurrentContext.setAttribute(ResourceStorer.IS_LOGGING_ACTIVITY, loggingActivity);
+                task.execute();
+                transactionSucceeded = true;
+            } finally {
+                CurrentContext.removeAttribute(ResourceStorer.IS_LOGGING_ACTIVITY);
+                if (transactionSucceeded) {
+                    commitTransaction();
+                } else {
+                    rollbackTransaction();
+                }
+            }
+            return null;
+        } catch (Exception e) {
+            return e;
+        } finally {
+            clearContextInformation();
+        }
+    }
+
+    // A unit of work of a binary dump or restore, which is run in its own transaction.
+    private interface ArchiveTask {
+
+        void execute() throws Exception;
+    }
+
     @Override
     public String getEventingServiceURL(String path) throws RepositoryException {
         if (log.isTraceEnabled()) {
@@ -1730,6 +2171,7 @@ public class EmbeddedRepository implements Repository {
     
     @Override
     public Resource get(String path) throws RepositoryException {
+        long startTime = System.nanoTime();
         if (log.isTraceEnabled()) {
             log.trace("Preparing operation get, " +
                     "path: " + path + ".");
@@ -1760,6 +2202,7 @@ public class EmbeddedRepository implements Repository {
 	                if (resource.getPropertyValue(RepositoryConstants.REGISTRY_LINK) == null ||
 	                        resource.getPropertyValue(RepositoryConstants.REGISTRY_MOUNT) != null) {
 	                    cache.put(registryCacheKey, new CacheResource<Resource>(resource));
+	                    ResourceCacheIndex.keyAdded(cache, registryCacheKey);
 	                }
 	            } else {
 	                @SuppressWarnings("unchecked")
@@ -1814,10 +2257,116 @@ public class EmbeddedRepository implements Repository {
 	            return resource ;
 	        }
     	} finally {
+    		recordOperation(Method.GET, startTime);
     		clearContextInformation();
     	}
     }
     
+    @Override
+    public Map<String, Resource> get(List<String> paths) throws RepositoryException {
+        long startTime = System.nanoTime();
+        if (log.isTraceEnabled()) {
+            log.trace("Preparing operation get, paths: " + paths.size() + ".");
+        }
+
+        if(!embeddedRegistryInitialized) {
+            init();
+        }
+
+        try {
+            setContextInformation();
+            boolean cacheEnabled = registryContext != null && registryContext.isCacheEnabled();
+
+            @SuppressWarnings("rawtypes")
+            Cache<RepositoryCacheKey, CacheResource> cache = cacheEnabled ? getCache() : null;
+
+            List<String> inPaths = new ArrayList<String>(paths.size());
+            Map<String, Resource> resources = new HashMap<String, Resource>();
+            Map<String, RepositoryCacheKey> cacheKeys = new HashMap<String, RepositoryCacheKey>();
+            Set<String> pathsToRead = new LinkedHashSet<String>();
+
+            for (String path : paths) {
+                String inPath = chrootWrapper.getInPath(path);
+                inPaths.add(inPath);
+                if (resources.containsKey(inPath) || pathsToRead.contains(inPath)) {
+                    continue;
+                }
+                if (!cacheEnabled || getRepositoryService().isNoCachePath(inPath) ||
+                        isCommunityFeatureRequest(inPath)) {
+                    pathsToRead.add(inPath);
+                    continue;
+                }
+
+                RepositoryCacheKey registryCacheKey = getRegistryCacheKey(this, inPath);
+                Object ghostResourceObject = cache.get(registryCacheKey);
+                if (ghostResourceObject != null) {
+                    @SuppressWarnings("unchecked")
+                    Resource resource = ((CacheResource<Resource>) ghostResourceObject).getResource();
+                    if (resource != null) {
+                        resources.put(inPath, resource);
+                        continue;
+                    }
+                } else if (NegativeLookupCache.getResourceCache().isMissing(registryCacheKey)) {
+                    continue;
+                }
+                cacheKeys.put(inPath, registryCacheKey);
+                pathsToRead.add(inPath);
+            }
+
+            Map<String, Resource> readResources = getResources(new ArrayList<String>(pathsToRead));
+            // the paths not read in bulk, such as mounts, symbolic links, versioned paths and
+            // paths served by handlers, are read one by one as a single get would read them.
+            for (String path : pathsToRead) {
+                if (!readResources.containsKey(path)) {
+                    try {
+                        readResources.put(path, getResource(path));
+                    } catch (RepositoryResourceNotFoundException ignored) {
+                        // there is no resource at the path, and it is left out of the result.
+                    }
+                }
+            }
+
+            for (Map.Entry<String, Resource> entry : readResources.entrySet()) {
+                Resource resource = entry.getValue();
+                if (resource == null) {
+                    continue;
+                }
+                RepositoryCacheKey registryCacheKey = cacheKeys.get(entry.getKey());
+                if (registryCacheKey != null &&
+                        (resource.getPropertyValue(RepositoryConstants.REGISTRY_LINK) == null ||
+                        resource.getPropertyValue(RepositoryConstants.REGISTRY_MOUNT) != null)) {
+                    cache.put(registryCacheKey, new CacheResource<Resource>(resource));
+                    ResourceCacheIndex.keyAdded(cache, registryCacheKey);
+                }
+                resources.put(entry.getKey(), resource);
+            }
+
+            Map<String, Resource> result = new LinkedHashMap<String, Resource>();
+            for (int i = 0; i < paths.size(); i++) {
+                Resource resource = resources.get(inPaths.get(i));
+                if (resource == null) {
+                    continue;
+                }
+                if (cacheEnabled) {
+                    if (resource instanceof CollectionVersionImpl) {
+                        resource = new CollectionVersionImpl((CollectionVersionImpl) resource);
+                    } else if (resource instanceof CollectionImpl) {
+                        resource = new CollectionImpl((CollectionImpl) resource);
+                    } else {
+                        resource = new ResourceImpl((ResourceImpl) resource);
+                    }
+                }
+
+                ((ResourceImpl) resource).setTenantId(tenantId);
+                result.put(paths.get(i), chrootWrapper.getOutResource(resource));
+            }
+            return result;
+        } finally {
+            recordOperation(Method.GET, startTime);
+            clearContextInformation();
+        }
+    }
+
     @Override
     public Collection get(String path, int start, int pageSize) throws RepositoryException {
         if (log.isTraceEnabled()) {
@@ -1846,6 +2395,7 @@ public class EmbeddedRepository implements Repository {
 	                collection = getCollection(path, start, pageSize);
 	                if (collection.getPropertyValue(RepositoryConstants.REGISTRY_LINK) == null) {
 	                    cache.put(registryCacheKey, new CacheResource<Resource>(collection));
+	                    ResourceCacheIndex.keyAdded(cache, registryCacheKey);
 	                }
 	            } else {
 	                @SuppressWarnings("unchecked")
@@ -1904,6 +2454,7 @@ public class EmbeddedRepository implements Repository {
     
     @Override
 	public boolean resourceExists(String path) throws RepositoryException {
+        long startTime = System.nanoTime();
         if (log.isTraceEnabled()) {
             log.trace("Preparing operation resource exists, path: " + path + ".");
         }
@@ -1927,13 +2478,17 @@ public class EmbeddedRepository implements Repository {
 			
 			if (cache.containsKey(registryCacheKey)) {
 				return true;
-			} else if (checkResourceExists(path)) {
+			} else if (NegativeLookupCache.getResourceCache().isMissing(registryCacheKey)) {
+				return false;
+			} else if (checkResourceExists(path, registryCacheKey)) {
 				cache.put(registryCacheKey, new CacheResource<Resource>(null));
+				ResourceCacheIndex.keyAdded(cache, registryCacheKey);
 				return true;
 			}
 			
 			return false;
     	} finally {
+    		recordOperation(Method.RESOURCE_EXISTS, startTime);
     		clearContextInformation();
     	}
 	}
@@ -2186,13 +2741,27 @@ public class EmbeddedRepository implements Repository {
                 dataBaseConfiguration = registryContext.getDefaultDataBaseConfiguration();
             }
             if (dataBaseConfiguration != null) {
-                connectionId = (dataBaseConfiguration.getUserName() != null
-                        ? dataBaseConfiguration.getUserName().split("@")[0]:dataBaseConfiguration.getUserName()) + "@" + dataBaseConfiguration.getDbUrl();
+                connectionId = getConnectionId(dataBaseConfiguration);
             }
         }
 
         return InternalUtils.buildRegistryCacheKey(connectionId, tenantId, resourceCachePath);
     }
+
+    // Builds the connection identifier of a database configuration, which is reused while the
+    // user name and URL of the configuration are unchanged, as it is needed for every cache key.
+    private String getConnectionId(DataBaseConfiguration dataBaseConfiguration) {
+        String userName = dataBaseConfiguration.getUserName();
+        String dbUrl = dataBaseConfiguration.getDbUrl();
+        String[] cached = lastConnectionId;
+
+        if (cached != null && cached[0] == userName && cached[1] == dbUrl) {
+            return cached[2];
+        }
+        String connectionId = (userName != null ? userName.split("@")[0] : userName) + "@" + dbUrl;
+        lastConnectionId = new String[] {userName, dbUrl, connectionId};
+        return connectionId;
+    }
     
     private Resource getResource(String path) throws RepositoryException {
         boolean transactionSucceeded = false;
@@ -2250,6 +2819,77 @@ public class EmbeddedRepository implements Repository {
         }
     }
     
+    // Reads the resources at the current version of the given plain paths in bulk, and runs the
+    // handlers engaged for each path found with the resource set on the request context, so that
+    // they use it instead of reading it again. The paths not found in bulk are not returned, and
+    // are left to be read one by one.
+    private Map<String, Resource> getResources(List<String> paths) throws RepositoryException {
+        Map<String, Resource> resources = new HashMap<String, Resource>();
+        if (paths.isEmpty()) {
+            return resources;
+        }
+
+        boolean transactionSucceeded = false;
+        HandlerContext context = new HandlerContext(this);
+        try {
+            beginTransaction();
+
+            List<String> plainPaths = new ArrayList<String>();
+            for (String path : paths) {
+                if (path.equals(new ResourcePath(path).getPath())) {
+                    plainPaths.add(path);
+                }
+            }
+            Map<String, Resource> plainResources = repository.get(plainPaths);
+
+            for (String path : plainPaths) {
+                Resource plainResource = plainResources.get(path);
+                if (plainResource == null) {
+                    continue;
+                }
+
+                context = new HandlerContext(this);
+                context.setResourcePath(new ResourcePath(path));
+                context.setResource(plainResource);
+
+                Resource resource = registryContext.getHandlerManager().get(context);
+
+                if (SimulationFilter.isSimulation()) {
+                    continue;
+                }
+
+                if (resource == null) {
+                    resource = context.getResource();
+                }
+
+                if (resource == null) {
+                    continue;
+                }
+
+                context.setResource(resource);
+
+                registryContext.getHandlerManager(HandlerLifecycleManager.COMMIT_HANDLER_PHASE).get(context);
+
+                resources.put(path, resource);
+            }
+
+            transactionSucceeded = !SimulationFilter.isSimulation();
+
+            return resources;
+        } finally {
+            if (transactionSucceeded) {
+                commitTransaction();
+            } else {
+                try {
+                    registryContext.getHandlerManager(
+                            HandlerLifecycleManager.ROLLBACK_HANDLER_PHASE).get(context);
+                } finally {
+                    rollbackTransaction();
+                }
+            }
+        }
+    }
+
     private Collection getCollection(String path, int start, int pageSize) throws RepositoryException { // Renamed to getCollection from get. Made to private
     	if(!embeddedRegistryInitialized) {
     		init();
@@ -2284,6 +2924,12 @@ public class EmbeddedRepository implements Repository {
     }
 
     private boolean checkResourceExists(String path) throws RepositoryException {
+        return checkResourceExists(path, null);
+    }
+
+    // Checks whether the resource exists, adding the given key to the negative lookup cache if the
+    // resource was found missing in the database, rather than by a handler such as for a mount.
+    private boolean checkResourceExists(String path, RepositoryCacheKey missingKey) throws RepositoryException {
     	if(!embeddedRegistryInitialized) {
     		init();
     	}
@@ -2292,6 +2938,7 @@ public class EmbeddedRepository implements Repository {
             log.trace("Checking if resource exist in resource. path: " + path + ".");
         }
     	
+        long lookupGeneration = NegativeLookupCache.getResourceCache().getGeneration();
         boolean transactionSucceeded = false;
         HandlerContext context = new HandlerContext(this);
         
@@ -2310,6 +2957,10 @@ public class EmbeddedRepository implements Repository {
 
                     output = (versionedPath.getVersion() == -1) ? repository.resourceExists(resourcePath.getPath()) :
                             versionRepository.resourceExists(versionedPath);
+
+                    if (!output && missingKey != null && versionedPath.getVersion() == -1) {
+                        NegativeLookupCache.getResourceCache().addMissing(missingKey, lookupGeneration);
+                    }
                 }
 
                 registryContext.getHandlerManager(HandlerLifecycleManager.COMMIT_HANDLER_PHASE).resourceExists(context);
@@ -2406,6 +3057,16 @@ public class EmbeddedRepository implements Repository {
         CurrentContext.setUserRegistry(this);
     }
 
+    // Records an invocation of an operation and the time it took, for the tenant of the current
+    // session, if operation statistics are enabled.
+    private void recordOperation(Method method, long startTime) {
+        OperationStatistics statistics = OperationStatistics.getInstance();
+        if (statistics.isEnabled()) {
+            statistics.recordOperation(method, CurrentContext.getTenantId(),
+                    System.nanoTime() - startTime);
+        }
+    }
+
     /**
      * Method to clear session information.
      */
@@ -17,6 +17,7 @@
 package org.wso2.carbon.repository.core;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
 
@@ -27,6 +28,7 @@ import org.wso2.carbon.repository.api.utils.RepositoryUtils;
 import org.wso2.carbon.repository.core.config.RepositoryContext;
 import org.wso2.carbon.repository.core.dataobjects.ResourceDO;
 import org.wso2.carbon.repository.core.exceptions.RepositoryServerContentException;
+import org.wso2.carbon.repository.core.utils.SpooledContent;
 import org.wso2.carbon.repository.spi.dao.ResourceDAO;
 import org.wso2.carbon.repository.spi.dataaccess.DataAccessManager;
 
@@ -163,6 +165,13 @@ public class ResourceImpl implements org.wso2.carbon.repository.api.Resource {
      */
     protected Properties properties = new Properties();
 
+    /**
+     * Whether the properties table is shared with another instance of the resource, such as the
+     * instance kept in the resource cache. A shared table is copied before it is modified. Only
+     * copies are marked, so that the instance a copy was created from is never written to.
+     */
+    protected boolean propertiesShared;
+
     /**
      * UUID of the content stored in the database. This ID is set when a resource is retrieved from
      * the database. Upon the first getContentStream() call, a file based content will be created
@@ -299,7 +308,11 @@ public class ResourceImpl implements org.wso2.carbon.repository.api.Resource {
     }
 
     /**
-     * A copy constructor used to create a shallow-copy of this resource.
+     * A copy constructor used to create a shallow-copy of this resource. The properties of the
+     * given resource are shared with the copy, and are only copied when the copy is modified. The
+     * given resource itself is not changed, as it is usually an instance kept in the resource
+     * cache and read by other threads; it must not be modified while copies share its
+     * properties.
      *
      * @param resource the resource of which the copy is created.
      */
@@ -327,9 +340,11 @@ public class ResourceImpl implements org.wso2.carbon.repository.api.Resource {
         this.pathID = resource.pathID;
         this.name = resource.name;
         this.dbBasedContentID = resource.dbBasedContentID;
-        this.properties.putAll(resource.properties);
+        this.properties = resource.properties;
+        this.propertiesShared = true;
 
         this.content = resource.content;
+        retainSpooledContent();
         
         if (resource.content == null) {
             this.original = resource;
@@ -665,6 +680,7 @@ public class ResourceImpl implements org.wso2.carbon.repository.api.Resource {
      */
     public void removePropertyWithNoUpdate(String key) {
         if (key != null) {
+            copyPropertiesOnWrite();
             properties.remove(key);
         }
     }
@@ -678,6 +694,7 @@ public class ResourceImpl implements org.wso2.carbon.repository.api.Resource {
     public void setProperty(String key, String value) {
         List<String> propValues = new ArrayList<String>();
         propValues.add(value);
+        copyPropertiesOnWrite();
         properties.put(key, propValues);
     }
 
@@ -700,6 +717,7 @@ public class ResourceImpl implements org.wso2.carbon.repository.api.Resource {
      * @param value the property values.
      */
     private void setPropertyWithNoUpdate(String key, List<String> value) {
+        copyPropertiesOnWrite();
         properties.put(key, value);
     }
 
@@ -725,6 +743,7 @@ public class ResourceImpl implements org.wso2.carbon.repository.api.Resource {
      * @param value the property value.
      */
     public void addPropertyWithNoUpdate(String key, String value) {
+        copyPropertiesOnWrite();
         List<String> propValues = getPropertyValues(key);
         
         if (propValues != null) {
@@ -744,11 +763,29 @@ public class ResourceImpl implements org.wso2.carbon.repository.api.Resource {
     private void setProperties(Properties properties) {
         if (properties != null) {
             this.properties = properties;
+            this.propertiesShared = false;
         }
 
         setPropertiesModified(true);
     }
 
+    /**
+     * Copy the properties table, and the value lists in it, if it is shared with another instance
+     * of the resource. This has to be called before the properties are modified.
+     */
+    @SuppressWarnings("unchecked")
+    private void copyPropertiesOnWrite() {
+        if (!propertiesShared) {
+            return;
+        }
+        Properties copy = new Properties();
+        for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+            copy.put(entry.getKey(), new ArrayList<String>((List<String>) entry.getValue()));
+        }
+        properties = copy;
+        propertiesShared = false;
+    }
+
     /**
      * Method to get the db id of the content
      *
@@ -773,7 +810,9 @@ public class ResourceImpl implements org.wso2.carbon.repository.api.Resource {
      */
     protected void pullContentFromOriginal() throws RepositoryException {	
         if (content == null && original != null) {
-            content = original.getContent();
+            original.pullContentFromOriginal();
+            content = original.content;
+            retainSpooledContent();
         }
     }
 
@@ -796,6 +835,8 @@ public class ResourceImpl implements org.wso2.carbon.repository.api.Resource {
             return new ByteArrayInputStream(contentBytes);
         } else if (content instanceof InputStream) {
             return (InputStream) content;
+        } else if (content instanceof SpooledContent) {
+            return ((SpooledContent) content).getInputStream();
         } else {
             throw new RepositoryServerContentException("Cannot return input stream for content of type: " + content.getClass().getName());
         }
@@ -824,19 +865,37 @@ public class ResourceImpl implements org.wso2.carbon.repository.api.Resource {
      * @throws RepositoryException throws if the operation fail.
      */
     public void setContentStreamWithNoUpdate(InputStream contentStream) throws RepositoryException {
-        content = RepositoryUtils.getByteArray(contentStream);
+        if (contentStream instanceof SpooledContent.SpooledInputStream) {
+            // spooled content is kept on disk and read again on each getContentStream() call.
+            setContentWithNoUpdate(((SpooledContent.SpooledInputStream) contentStream).getSpooledContent());
+            try {
+                contentStream.close();
+            } catch (IOException ignore) {
+            }
+        } else {
+            setContentWithNoUpdate(RepositoryUtils.getByteArray(contentStream));
+        }
     }
 
     /**
      * Method to get the content of the resource. If the resource is a collection this will return
      * an array of string that represent the paths of its children, otherwise it returns an byte
-     * array or a string from the default resource implementation.
+     * array or a string from the default resource implementation. Content spooled to a temporary
+     * file, which is larger than the content buffer threshold, is returned as a new input stream,
+     * which has to be closed by the caller.
      *
      * @return the content.
      * @throws RepositoryException throws if the operation fail.
      */
     public Object getContent() throws RepositoryException {
         pullContentFromOriginal();
+        if (content instanceof SpooledContent) {
+            SpooledContent spooledContent = (SpooledContent) content;
+            if (spooledContent.getLength() > SpooledContent.getContentBufferThreshold()) {
+                return spooledContent.getInputStream();
+            }
+            setContentWithNoUpdate(spooledContent.getBytes());
+        }
         return content;
     }
 
@@ -860,7 +919,35 @@ public class ResourceImpl implements org.wso2.carbon.repository.api.Resource {
      * @throws RepositoryException throws if the operation fail.
      */
     public void setContentWithNoUpdate(Object content) throws RepositoryException {
-        this.content = content;
+        if (content != this.content) {
+            releaseSpooledContent();
+            this.content = content;
+            retainSpooledContent();
+        }
+    }
+
+    /**
+     * Releases the content of the resource that has been spooled to a temporary file, which is
+     * removed once no other resource holds the content and the last stream over it is closed. The
+     * resource should not be used after it has been closed.
+     */
+    public void close() {
+        releaseSpooledContent();
+    }
+
+    // Method to keep spooled content for as long as it is held by this resource.
+    private void retainSpooledContent() {
+        if (content instanceof SpooledContent) {
+            ((SpooledContent) content).retain();
+        }
+    }
+
+    // Method to release spooled content held by this resource.
+    private void releaseSpooledContent() {
+        if (content instanceof SpooledContent) {
+            ((SpooledContent) content).release();
+            content = null;
+        }
     }
 
     /**
@@ -1094,6 +1181,7 @@ public class ResourceImpl implements org.wso2.carbon.repository.api.Resource {
         resource.setVersionableChange(this.versionableChange);
         resource.setState(this.state);
         resource.setProperties(this.properties);
+        resource.propertiesShared = true;
         resource.setDbBasedContentID(dbBasedContentID);
         
         pullContentFromOriginal();
@@ -166,6 +166,60 @@ public class ResourceStorer {
         return resource;
     }
 
+    /**
+     * Gets the pure resources referred by the given paths. The meta data, content and properties
+     * of the resources are read in as few queries as possible.
+     *
+     * @param paths Paths of "pure" resources. Paths referring to virtual resources are not
+     *              handled.
+     *
+     * @return a map of the given paths to the resources. Paths at which no resource exists are not
+     *         included.
+     * @throws RepositoryException if the operation failed.
+     */
+    public Map<String, Resource> get(List<String> paths) throws RepositoryException {
+        return getResources(paths, true);
+    }
+
+    /**
+     * Gets the meta data of the resources referred by the given paths, in as few queries as
+     * possible.
+     *
+     * @param paths Paths of "pure" resources. Paths referring to virtual resources are not
+     *              handled.
+     *
+     * @return a map of the given paths to the resources. Paths at which no resource exists are not
+     *         included.
+     * @throws RepositoryException if the operation failed.
+     */
+    public Map<String, Resource> getMetaData(List<String> paths) throws RepositoryException {
+        return getResources(paths, false);
+    }
+
+    private Map<String, Resource> getResources(List<String> paths, boolean fill)
+            throws RepositoryException {
+        List<String> purePaths = new ArrayList<String>(paths.size());
+        for (String path : paths) {
+            purePaths.add(InternalUtils.getPureResourcePath(path));
+        }
+
+        Map<String, ResourceImpl> pureResources = resourceDAO.getResourcesMetaData(purePaths);
+        if (fill) {
+            resourceDAO.fillResources(new ArrayList<ResourceImpl>(pureResources.values()));
+        }
+
+        Map<String, Resource> resources = new LinkedHashMap<String, Resource>();
+        for (int i = 0; i < paths.size(); i++) {
+            ResourceImpl resource = pureResources.get(purePaths.get(i));
+            if (resource != null) {
+                resource.setDataAccessManager(dataAccessManager);
+                resource.setTenantId(CurrentContext.getTenantId());
+                resources.put(paths.get(i), resource);
+            }
+        }
+        return resources;
+    }
+
     /**
      * Method to get a paged collection.
      *
@@ -365,6 +419,13 @@ public class ResourceStorer {
         String path = _path;
         path = InternalUtils.getPureResourcePath(path);
 
+        removeSubTree(path);
+        resourceDAO.addTombstone(path);
+    }
+
+    // Method to delete a sub tree without recording a tombstone, when the sub tree is replaced by
+    // a restore, which records a tombstone at its root instead.
+    private void removeSubTree(String path) throws RepositoryException {
         ResourceIDImpl resourceID = resourceDAO.getResourceID(path);
         ResourceDO resourceDO = resourceDAO.getResourceDO(resourceID);
 
@@ -464,6 +525,15 @@ public class ResourceStorer {
      */
     public void deleteSubTree(ResourceIDImpl resourceID, ResourceDO resourceDO, boolean keepAuthorization) throws RepositoryException {
         if (resourceID.isCollection()) {
+            Map<Integer, String> subTreePaths = resourceDAO.getSubTreePaths(resourceID);
+            List<Integer> pathIds = new ArrayList<Integer>(subTreePaths.keySet());
+            
+            // non recursive resources have to be deleted through the registry, one at a time.
+            if (!resourceDAO.isNonRecursiveResourceExist(resourceID, pathIds)) {
+                deleteSubTreeInBulk(subTreePaths, pathIds, keepAuthorization);
+                return;
+            }
+            
             // recursively call for all the resources in the tree..
             List<ResourceIDImpl> childIDs = resourceDAO.getChildPathIds(resourceID);
             for (ResourceIDImpl childID : childIDs) {
@@ -477,6 +547,29 @@ public class ResourceStorer {
         deleteNode(resourceID, resourceDO, keepAuthorization);
     }
 
+    // Method to delete all the resources in the given collections using bulk statements.
+    private void deleteSubTreeInBulk(Map<Integer, String> subTreePaths, List<Integer> pathIds,
+                                     boolean keepAuthorization) throws RepositoryException {
+        if (this.versionOnChange) {
+            // non-collections are versioned on delete, which has to be done one at a time.
+            for (ResourceDO childResourceDO : resourceDAO.getResourceDOs(pathIds)) {
+                if (childResourceDO.getName() == null) {
+                    continue;
+                }
+                String parentPath = subTreePaths.get(childResourceDO.getPathID());
+                ResourceIDImpl childID = new ResourceIDImpl();
+                childID.setPath(parentPath + (parentPath.equals(RepositoryConstants.PATH_SEPARATOR) ?
+                        "" : RepositoryConstants.PATH_SEPARATOR) + childResourceDO.getName());
+                childID.setCollection(false);
+                childID.setName(childResourceDO.getName());
+                childID.setPathID(childResourceDO.getPathID());
+                deleteNode(childID, childResourceDO, keepAuthorization);
+            }
+        }
+        
+        resourceDAO.deleteResources(pathIds);
+    }
+
     /**
      * Method to delete just the node in the collection hierarchy.
      *
@@ -618,6 +711,11 @@ public class ResourceStorer {
         
         ResourceIDImpl sourceID = sourceResource.getResourceIDImpl();
 
+        // moved resources keep their last updated times, so both paths are recorded for
+        // incremental dumps.
+        resourceDAO.addTombstone(oldPath);
+        resourceDAO.addTombstone(newPath);
+
         if (!(sourceResource instanceof CollectionImpl)) {
             prepareMove(oldPath, newPath);
 
@@ -632,7 +730,9 @@ public class ResourceStorer {
             return newPath;
         }
 
-        moveRecursively(sourceID, newPath, targetParentResourceID);
+        if (!moveSubTreeInBulk(sourceID, newPath, targetParentResourceID)) {
+            moveRecursively(sourceID, newPath, targetParentResourceID);
+        }
         String sourceParentPath = RepositoryUtils.getParentPath(oldPath);
         if (sourceParentPath.equals(targetParentPath)) {
             updateParent(targetParentResourceID);
@@ -643,6 +743,34 @@ public class ResourceStorer {
         return newPath;
     }
 
+    // Method to move a collection with its sub tree by changing the values of their path entries,
+    // so that the resources and properties of the sub tree move with the entries, using a few
+    // statements regardless of the size of the sub tree. The sub tree has to be moved one resource
+    // at a time if there are path entries or a resource at the target, if versions or snapshots
+    // of the sub tree have to stay at the source paths, or if the sub tree has non recursive
+    // resources.
+    private boolean moveSubTreeInBulk(ResourceIDImpl sourceID, String targetPath,
+                                      ResourceIDImpl targetParentResourceID) throws RepositoryException {
+        String sourcePath = sourceID.getPath();
+        if (sourcePath.equals(RepositoryConstants.ROOT_PATH) ||
+                targetPath.endsWith(RepositoryConstants.PATH_SEPARATOR) ||
+                targetPath.startsWith(sourcePath + RepositoryConstants.PATH_SEPARATOR) ||
+                !resourceDAO.getPathEntries(targetPath).isEmpty() ||
+                resourceDAO.getResourceID(targetPath, false) != null) {
+            return false;
+        }
+
+        Map<Integer, String> pathEntries = resourceDAO.getPathEntries(sourcePath);
+        List<Integer> pathIds = new ArrayList<Integer>(pathEntries.keySet());
+        if (resourceVersionDAO.isHistoryExist(pathIds) ||
+                resourceDAO.isNonRecursiveResourceExist(sourceID, pathIds)) {
+            return false;
+        }
+
+        resourceDAO.movePathEntries(pathEntries, sourcePath, targetPath, targetParentResourceID);
+        return true;
+    }
+
     /**
      * Method to do a recursive move.
      *
@@ -770,10 +898,6 @@ public class ResourceStorer {
         }
         
         ResourceImpl sourceResource = (ResourceImpl) get(sourcePath);
-        
-        if (sourceResource instanceof CollectionImpl) {
-            resourceDAO.fillChildren((CollectionImpl) sourceResource, 0, -1);
-        }
 
         if (resourceDAO.resourceExists(targetPath)) {
             delete(targetPath);
@@ -786,7 +910,18 @@ public class ResourceStorer {
         put(targetPath, targetResource);
 
         if (sourceResource instanceof CollectionImpl) {
+            ResourceIDImpl sourceID = sourceResource.getResourceIDImpl();
+            Map<Integer, String> subTreePaths = resourceDAO.getSubTreePaths(sourceID);
+            List<Integer> pathIds = new ArrayList<Integer>(subTreePaths.keySet());
+
+            // non recursive resources have to be copied through the registry, one at a time.
+            if (!resourceDAO.isNonRecursiveResourceExist(sourceID, pathIds)) {
+                copySubTreeInBulk(sourceID, targetPath, subTreePaths, pathIds);
+                return targetPath;
+            }
+
             CollectionImpl collection = (CollectionImpl) sourceResource;
+            resourceDAO.fillChildren(collection, 0, -1);
 
             for (String childSourcePath : collection.getChildPaths()) {
                 String childResourceName = RepositoryUtils.getResourceName(childSourcePath);
@@ -802,6 +937,84 @@ public class ResourceStorer {
         return targetPath;
     }
 
+    // Method to copy all the resources below a collection, to a target collection that has
+    // already been added. Content is copied within the database.
+    private void copySubTreeInBulk(ResourceIDImpl sourceID, String targetPath,
+                                   Map<Integer, String> subTreePaths, List<Integer> pathIds)
+            throws RepositoryException {
+        String sourcePath = sourceID.getPath();
+        Map<String, ResourceIDImpl> targetIDs = new HashMap<String, ResourceIDImpl>();
+        targetIDs.put(targetPath, resourceDAO.getResourceID(targetPath, true));
+
+        Map<Integer, ResourceDO> collectionDOs = new HashMap<Integer, ResourceDO>();
+        List<ResourceDO> resourceDOs = new ArrayList<ResourceDO>();
+        for (ResourceDO resourceDO : resourceDAO.getResourceDOs(pathIds)) {
+            if (resourceDO.getName() == null) {
+                collectionDOs.put(resourceDO.getPathID(), resourceDO);
+            } else {
+                resourceDOs.add(resourceDO);
+            }
+        }
+
+        // collections are added in the order of their paths, so that parents are added first.
+        Map<String, Integer> collectionPaths = new TreeMap<String, Integer>();
+        for (Map.Entry<Integer, String> entry : subTreePaths.entrySet()) {
+            if (entry.getKey() != sourceID.getPathID()) {
+                collectionPaths.put(entry.getValue(), entry.getKey());
+            }
+        }
+        for (Map.Entry<String, Integer> entry : collectionPaths.entrySet()) {
+            String childTargetPath = targetPath + entry.getKey().substring(sourcePath.length());
+            CollectionImpl collection = new CollectionImpl(entry.getKey(),
+                    collectionDOs.get(entry.getValue()));
+            copyResource(collection, childTargetPath,
+                    targetIDs.get(RepositoryUtils.getParentPath(childTargetPath)));
+            targetIDs.put(childTargetPath, collection.getResourceIDImpl());
+        }
+
+        for (ResourceDO resourceDO : resourceDOs) {
+            String parentSourcePath = subTreePaths.get(resourceDO.getPathID());
+            String parentTargetPath = targetPath + parentSourcePath.substring(sourcePath.length());
+            ResourceImpl resource = new ResourceImpl(parentSourcePath +
+                    RepositoryConstants.PATH_SEPARATOR + resourceDO.getName(), resourceDO);
+            copyResource(resource, parentTargetPath + RepositoryConstants.PATH_SEPARATOR +
+                    resourceDO.getName(), targetIDs.get(parentTargetPath));
+        }
+    }
+
+    // Method to add a copy of a resource read from the database to the given path. The resource
+    // is changed to refer to the copy.
+    private void copyResource(ResourceImpl resource, String path, ResourceIDImpl parentResourceID)
+            throws RepositoryException {
+        resourceDAO.fillResourcePropertiesWithNoUpdate(resource);
+        int contentID = resource.getDbBasedContentID();
+
+        RepositoryContext registryContext = null;
+        if (CurrentContext.getRespository() != null) {
+            registryContext = InternalUtils.getRepositoryContext(CurrentContext.getRespository());
+        }
+
+        if (registryContext == null) {
+            registryContext = RepositoryContext.getBaseInstance();
+        }
+
+        if (!Boolean.FALSE.equals(CurrentContext.getAttribute(IS_LOGGING_ACTIVITY))) {
+            registryContext.getLogWriter().addLog(
+                    path, CurrentContext.getUser(), Actions.ADD, null);
+        }
+
+        setUUIDForResource(resource);
+        resourceDAO.createAndApplyResourceID(path, parentResourceID, resource);
+        resourceDAO.addResourceWithoutContentId(resource, false);
+
+        if (!(resource instanceof CollectionImpl) && contentID > 0) {
+            resource.setDbBasedContentID(resourceDAO.copyContent(contentID));
+            resourceDAO.updateContentId(resource);
+        }
+
+        resourceDAO.addProperties(resource);
+    }
+
     // Method to add a resource
     private void add(String path, ResourceImpl resource) throws RepositoryException {
         // first add all non-existing parent collections. note that whether the user has
@@ -1007,6 +1220,9 @@ public class ResourceStorer {
             }
         }
         
+        // restored resources keep their last updated times.
+        resourceDAO.addTombstone(path);
+
         DumpReader dumpReader = new DumpReader(reader);
         XMLStreamReader xmlReader;
         
@@ -1024,6 +1240,15 @@ public class ResourceStorer {
             String msg = "Failed to serialize the dumped element at " + path + ".";
             log.error(msg, e);
             throw new RepositoryException(msg, e);
+        } finally {
+            // child resources are restored through readers wrapping the reader of their parent,
+            // so the statistics of the whole restore are logged once, by the outermost reader.
+            if (log.isDebugEnabled() && !(reader instanceof DumpReader)) {
+                log.debug("Restored " + path + ", total read: " + dumpReader.getTotalRead() +
+                        ", total buffered: " + dumpReader.getTotalBuffered() +
+                        ", maximum buffer size: " + dumpReader.getMaxBufferedSize() +
+                        ", total buffer read size: " + dumpReader.getTotalBufferedRead());
+            }
         }
     }
 
@@ -1064,6 +1289,373 @@ public class ResourceStorer {
         }
     }
 
+    /**
+     * Method to start a binary dump, writing the header of the archive and the resource at the
+     * given path. The children of the resource are dumped separately.
+     *
+     * @param _path  the path to obtain the dump from.
+     * @param writer the archive writer.
+     *
+     * @return the paths of the children of the resource.
+     * @throws RepositoryException if the operation failed.
+     */
+    public String[] dump(String _path, ArchiveWriter writer) throws RepositoryException {
+        String path = getArchiveRootPath(_path);
+
+        writer.writeHeader();
+        String[] childPaths = dumpResource(path, "", writer);
+        return (childPaths != null) ? childPaths : new String[0];
+    }
+
+    /**
+     * Method to do an incremental binary dump, writing the header of the archive followed by the
+     * sub trees removed or replaced after the given time, and then the resources added or updated
+     * after it, parents before their children.
+     *
+     * @param _path  the path to obtain the dump from.
+     * @param since  the time after which the dumped resources were changed.
+     * @param writer the archive writer.
+     *
+     * @throws RepositoryException if the operation failed.
+     */
+    public void dump(String _path, Date since, ArchiveWriter writer) throws RepositoryException {
+        String path = getArchiveRootPath(_path);
+
+        writer.writeHeader(since);
+
+        // a replaced sub tree is dumped as a whole, as its resources may keep their old times.
+        Set<String> replacedPaths = new HashSet<String>();
+        for (String tombstone : new TreeSet<String>(resourceDAO.getTombstones(path, since))) {
+            if (isInSubTrees(tombstone, replacedPaths)) {
+                continue;
+            }
+            replacedPaths.add(tombstone);
+            String relativePath = getArchiveRelativePath(path, tombstone);
+            writer.writeDeleted(relativePath);
+            if (resourceDAO.resourceExists(tombstone)) {
+                dumpSubTree(tombstone, relativePath, writer);
+            }
+        }
+
+        for (String changedPath :
+                new TreeSet<String>(resourceDAO.getChangedResourcePaths(path, since))) {
+            if (!isInSubTrees(changedPath, replacedPaths)) {
+                dumpResource(changedPath, getArchiveRelativePath(path, changedPath), writer);
+            }
+        }
+    }
+
+    /**
+     * Method to restore a binary dump. Resources of the archive are restored at once, while each
+     * segment of the archive is returned to be restored separately using
+     * {@link #restoreSegment(String, InputStream)}.
+     *
+     * @param _path          the path to restore from a dump.
+     * @param reader         the archive reader.
+     * @param segmentStreams the list to which the streams of the segments are added.
+     *
+     * @throws RepositoryException if the operation failed.
+     */
+    public void restore(String _path, ArchiveReader reader, List<InputStream> segmentStreams)
+            throws RepositoryException {
+        String path = getArchiveRootPath(_path);
+
+        reader.readHeader();
+        if (!reader.isIncremental()) {
+            // restored resources keep their last updated times.
+            resourceDAO.addTombstone(path);
+        }
+        restoreRecords(path, reader, segmentStreams, !reader.isIncremental());
+    }
+
+    /**
+     * Method to restore a segment of a binary dump.
+     *
+     * @param _path         the path the dump is restored to.
+     * @param segmentStream the stream of the segment.
+     *
+     * @throws RepositoryException if the operation failed.
+     */
+    public void restoreSegment(String _path, InputStream segmentStream) throws RepositoryException {
+        restoreRecords(getArchiveRootPath(_path), new ArchiveReader(segmentStream), null, true);
+    }
+
+    // Method to restore the records of an archive until its end. The resources of an incremental
+    // archive replace only the existing resources, keeping their children.
+    private void restoreRecords(String path, ArchiveReader reader, List<InputStream> segmentStreams,
+                                boolean replaceSubTrees) throws RepositoryException {
+        while (true) {
+            byte recordType = reader.readRecordType();
+
+            if (recordType == DumpConstants.ARCHIVE_RECORD_END) {
+                return;
+            } else if (recordType == DumpConstants.ARCHIVE_RECORD_DELETED) {
+                String deletedPath = getArchiveResourcePath(path, reader.readDeleted());
+                if (deletedPath.equals(RepositoryConstants.ROOT_PATH)) {
+                    CollectionImpl root = (CollectionImpl) resourceDAO.getResourceMetaData(deletedPath);
+                    resourceDAO.fillChildren(root, 0, -1);
+                    for (String childPath : root.getChildPaths()) {
+                        delete(childPath);
+                    }
+                } else if (resourceDAO.resourceExists(deletedPath)) {
+                    delete(deletedPath);
+                }
+            } else if (recordType == DumpConstants.ARCHIVE_RECORD_RESOURCE) {
+                ArchiveReader.Entry entry = reader.readResource();
+                String resourcePath = getArchiveResourcePath(path, entry.getRelativePath());
+
+                try {
+                    restoreResource(resourcePath, entry, replaceSubTrees);
+                } finally {
+                    if (entry.getContentStream() != null) {
+                        try {
+                            entry.getContentStream().close();
+                        } catch (IOException e) {
+                            log.warn("Failed to close the content of the restored resource " +
+                                    resourcePath + ".", e);
+                        }
+                    }
+                }
+            } else if (recordType == DumpConstants.ARCHIVE_RECORD_SEGMENT && segmentStreams != null) {
+                segmentStreams.add(reader.readSegment());
+            } else {
+                String msg = "Invalid archive record of type " + recordType + " to restore at " +
+                        path + ".";
+                log.error(msg);
+                throw new RepositoryServerContentException(msg);
+            }
+        }
+    }
+
+    // Method to obtain the path of the root of a binary dump, without a trailing separator.
+    private String getArchiveRootPath(String path) {
+        if (!path.equals(RepositoryConstants.ROOT_PATH) &&
+                path.endsWith(RepositoryConstants.PATH_SEPARATOR)) {
+            return path.substring(0, path.length() - 1);
+        }
+        return path;
+    }
+
+    // Method to obtain the path of a resource relative to the root of a binary dump.
+    private String getArchiveRelativePath(String rootPath, String path) {
+        if (path.equals(rootPath)) {
+            return "";
+        }
+        return rootPath.equals(RepositoryConstants.ROOT_PATH) ? path :
+                path.substring(rootPath.length());
+    }
+
+    // Method to obtain the path of a resource from its path relative to the root of a binary dump.
+    private String getArchiveResourcePath(String rootPath, String relativePath) {
+        if (relativePath.length() == 0) {
+            return rootPath;
+        }
+        return rootPath.equals(RepositoryConstants.ROOT_PATH) ? relativePath :
+                rootPath + relativePath;
+    }
+
+    // Method to check whether a path is in one of the given sub trees.
+    private boolean isInSubTrees(String path, Set<String> subTreePaths) {
+        String ancestorPath = path;
+        while (ancestorPath != null) {
+            if (subTreePaths.contains(ancestorPath)) {
+                return true;
+            }
+            ancestorPath = ancestorPath.equals(RepositoryConstants.ROOT_PATH) ? null :
+                    RepositoryUtils.getParentPath(ancestorPath);
+        }
+        return false;
+    }
+
+    /**
+     * Method to write a resource, without its children, to a binary archive.
+     *
+     * @param path         the path of the resource.
+     * @param relativePath the path of the resource relative to the root of the archive.
+     * @param writer       the archive writer.
+     *
+     * @return the paths of the children of the resource, or null if the resource does not exist.
+     * @throws RepositoryException if the operation failed.
+     */
+    public String[] dumpResource(String path, String relativePath, ArchiveWriter writer)
+            throws RepositoryException {
+        ResourceImpl resource = resourceDAO.getResourceMetaData(path);
+        if (resource == null) {
+            return null;
+        }
+
+        resourceDAO.fillResourceProperties(resource);
+
+        if (resource instanceof CollectionImpl) {
+            writer.writeResource(relativePath, resource, null);
+            CollectionImpl collection = (CollectionImpl) resource;
+            resourceDAO.fillChildren(collection, 0, -1);
+            return collection.getChildPaths();
+        }
+
+        InputStream contentStream = null;
+        if (resource.getDbBasedContentID() > 0) {
+            contentStream = resourceDAO.getContentStream(resource.getDbBasedContentID());
+        }
+        writer.writeResource(relativePath, resource, contentStream);
+        return new String[0];
+    }
+
+    /**
+     * Method to write a sub tree to a binary archive, parents before their children.
+     *
+     * @param path         the path of the root of the sub tree.
+     * @param relativePath the path of the root of the sub tree relative to the root of the archive.
+     * @param writer       the archive writer.
+     *
+     * @throws RepositoryException if the operation failed.
+     */
+    public void dumpSubTree(String path, String relativePath, ArchiveWriter writer)
+            throws RepositoryException {
+        String[] childPaths = dumpResource(path, relativePath, writer);
+        if (childPaths == null) {
+            return;
+        }
+        for (String childPath : childPaths) {
+            dumpSubTree(childPath, relativePath + RepositoryConstants.PATH_SEPARATOR +
+                    RepositoryUtils.getResourceName(childPath), writer);
+        }
+    }
+
+    /**
+     * Method to restore a resource read from a binary archive, replacing any resource that exists
+     * at the given path. The children of the resource are restored separately.
+     *
+     * @param path  the path to restore the resource at.
+     * @param entry the archived resource.
+     *
+     * @throws RepositoryException if the operation failed.
+     */
+    public void restoreResource(String path, ArchiveReader.Entry entry) throws RepositoryException {
+        restoreResource(path, entry, true);
+    }
+
+    /**
+     * Method to restore a resource read from a binary archive.
+     *
+     * @param path           the path to restore the resource at.
+     * @param entry          the archived resource.
+     * @param replaceSubTree whether to replace the sub tree at the given path, or only the resource,
+     *                       keeping its children.
+     *
+     * @throws RepositoryException if the operation failed.
+     */
+    public void restoreResource(String path, ArchiveReader.Entry entry, boolean replaceSubTree)
+            throws RepositoryException {
+        ResourceImpl resourceImpl = entry.getResource();
+        boolean isCollection = resourceImpl instanceof CollectionImpl;
+
+        if (path.equals(RepositoryConstants.ROOT_PATH) && !isCollection) {
+            String msg = "Illegal to restore a non-collection in place of root collection.";
+            log.error(msg);
+            throw new RepositoryException(msg);
+        }
+
+        // completing the empty fields
+        if (resourceImpl.getAuthorUserName() == null) {
+            resourceImpl.setAuthorUserName(CurrentContext.getUser());
+        }
+        if (resourceImpl.getCreatedTime() == null) {
+            resourceImpl.setCreatedTime(new Date(System.currentTimeMillis()));
+        }
+        if (resourceImpl.getLastUpdaterUserName() == null) {
+            resourceImpl.setLastUpdaterUserName(CurrentContext.getUser());
+        }
+        if (resourceImpl.getLastModified() == null) {
+            resourceImpl.setLastModified(new Date(System.currentTimeMillis()));
+        }
+        if (resourceImpl.getUUID() == null) {
+            setUUIDForResource(resourceImpl);
+        }
+
+        restoreLinks(path, resourceImpl);
+
+        ResourceIDImpl resourceID = null;
+        if (resourceDAO.resourceExists(path)) {
+            ResourceDO resourceDO = null;
+            if (!replaceSubTree) {
+                resourceID = resourceDAO.getResourceID(path, isCollection);
+                if (resourceID != null) {
+                    resourceDO = resourceDAO.getResourceDO(resourceID);
+                }
+            }
+            if (resourceDO != null) {
+                deleteNode(resourceID, resourceDO, true);
+            } else {
+                // the sub tree is replaced, as is a resource replaced by one of another kind.
+                resourceID = null;
+                removeSubTree(path);
+            }
+        }
+
+        if (resourceID == null) {
+            String parentPath = RepositoryUtils.getParentPath(path);
+            ResourceIDImpl parentResourceID = null;
+            if (parentPath != null) {
+                parentResourceID = resourceDAO.getResourceID(parentPath, true);
+                if (parentResourceID == null || !resourceDAO.resourceExists(parentResourceID)) {
+                    addEmptyCollection(parentPath);
+                    if (parentResourceID == null) {
+                        parentResourceID = resourceDAO.getResourceID(parentPath, true);
+                    }
+                }
+            }
+            resourceDAO.createAndApplyResourceID(path, parentResourceID, resourceImpl);
+        } else {
+            resourceImpl.setPathID(resourceID.getPathID());
+            resourceImpl.setName(resourceID.getName());
+            resourceImpl.setPath(path);
+        }
+
+        // adding resource followed by content (for nonCollection)
+        if (!isCollection) {
+            int contentId = 0;
+            InputStream contentStream = entry.getContentStream();
+            if (contentStream != null) {
+                contentId = resourceDAO.addContentBytes(contentStream, resourceImpl.getMediaType());
+            }
+            resourceImpl.setDbBasedContentID(contentId);
+        }
+
+        ResourceDO resourceDO = resourceImpl.getResourceDO();
+        resourceDAO.addResourceDO(resourceDO);
+        resourceImpl.setVersionNumber(resourceDO.getVersion());
+
+        // adding the properties.
+        resourceDAO.addProperties(resourceImpl);
+    }
+
+    // Method to register the handlers of the links restored with a resource.
+    private void restoreLinks(String path, ResourceImpl resourceImpl) throws RepositoryException {
+        String linkRestoration = resourceImpl.getPropertyValue(InternalConstants.REGISTRY_LINK_RESTORATION);
+        if (linkRestoration != null) {
+            String[] parts = linkRestoration.split(RepositoryConstants.URL_SEPARATOR);
+
+            if (parts.length == 4) {
+                if (parts[2] != null && parts[2].length() == 0) {
+                    parts[2] = null;
+                }
+                if (parts[0] != null && parts[1] != null && parts[3] != null) {
+                	InternalUtils.registerHandlerForRemoteLinks(RepositoryContext.getBaseInstance(), parts[0], parts[1], parts[2], parts[3]);
+                }
+            } else if (parts.length == 3) {
+                // here parts[0] the current path, path[1] is the target path.
+                if (parts[0] != null && parts[1] != null) {
+                    // first we are calculating the relative path of path[1] to path[0]
+                    String relativeTargetPath = RepositoryUtils.getRelativeAssociationPath(parts[1], parts[0]);
+                    // then we derive the absolute path with reference to the current path.
+                    String absoluteTargetPath = RepositoryUtils.getAbsoluteAssociationPath(relativeTargetPath, path);
+                    InternalUtils.registerHandlerForSymbolicLinks(RepositoryContext.getBaseInstance(), path, absoluteTargetPath, parts[2]);
+                }
+            }
+        }
+    }
+
     // Method to do a recursive restore.
     private void restoreRecursively(String path, XMLStreamReader xmlReader, DumpReader dumpReader,
                                     long currentVersion, boolean resourceExists) throws RepositoryException, XMLStreamException {
@@ -1381,28 +1973,7 @@ public class ResourceStorer {
         }
 
         // create sym links
-        String linkRestoration = resourceImpl.getPropertyValue(InternalConstants.REGISTRY_LINK_RESTORATION);
-        if (linkRestoration != null) {
-            String[] parts = linkRestoration.split(RepositoryConstants.URL_SEPARATOR);
-            
-            if (parts.length == 4) {
-                if (parts[2] != null && parts[2].length() == 0) {
-                    parts[2] = null;
-                }
-                if (parts[0] != null && parts[1] != null && parts[3] != null) {
-                	InternalUtils.registerHandlerForRemoteLinks(RepositoryContext.getBaseInstance(), parts[0], parts[1], parts[2], parts[3]);
-                }
-            } else if (parts.length == 3) {
-                // here parts[0] the current path, path[1] is the target path.
-                if (parts[0] != null && parts[1] != null) {
-                    // first we are calculating the relative path of path[1] to path[0]
-                    String relativeTargetPath = RepositoryUtils.getRelativeAssociationPath(parts[1], parts[0]);
-                    // then we derive the absolute path with reference to the current path.
-                    String absoluteTargetPath = RepositoryUtils.getAbsoluteAssociationPath(relativeTargetPath, path);
-                    InternalUtils.registerHandlerForSymbolicLinks(RepositoryContext.getBaseInstance(), path, absoluteTargetPath, parts[2]);
-                }
-            }
-        }
+        restoreLinks(path, resourceImpl);
 
         synchronized (this){
             ResourceIDImpl resourceID = null;
@@ -1430,7 +2001,7 @@ public class ResourceStorer {
             if(DumpConstants.RESOURCE_UPDATED.equals(status) || DumpConstants.RESOURCE_ADDED.equals(status) || DumpConstants.RESOURCE_DUMP.equals(status)) {
                 if(resourceDAO.resourceExists(path)){
                     if (DumpConstants.RESOURCE_DUMP.equals(status)) {
-                        delete(path);
+                        removeSubTree(path);
                     } else {
                         deleteNode(resourceID, resourceDO, true);
                     }
@@ -1459,7 +2030,8 @@ public class ResourceStorer {
                     int contentId = 0;
                     
                     if (contentBytes.length > 0) {
-                        contentId = resourceDAO.addContentBytes(new ByteArrayInputStream(contentBytes));
+                        contentId = resourceDAO.addContentBytes(new ByteArrayInputStream(contentBytes),
+                                resourceImpl.getMediaType());
                     }
                     
                     resourceImpl.setDbBasedContentID(contentId);
@@ -1499,7 +2071,7 @@ public class ResourceStorer {
                 if (resource instanceof Collection) {
                     String[] existingChildren =  ((Collection)resource).getChildPaths();
                     for (String existingChild : existingChildren) {
-                        delete(existingChild);
+                        removeSubTree(existingChild);
                     }
                 }
                 
@@ -1602,7 +2174,7 @@ public class ResourceStorer {
             
             for (String existingChild : existingChildren) {
                 if (!childPathSet.contains(existingChild)) {
-                    delete(existingChild);
+                    removeSubTree(existingChild);
                 }
             }
         }
@@ -1711,12 +2283,20 @@ public class ResourceStorer {
         if (!(resource instanceof CollectionImpl)) {
             resourceDAO.fillResourceContent(resource);
 
-            byte[] content = (byte[]) resource.getContent();
-            if (content != null) {
+            Object content = resource.getContent();
+            if (content instanceof InputStream) {
+                // content spooled to a temporary file is encoded in chunks, without reading it
+                // into memory.
+                xmlWriter.writeStartElement(DumpConstants.CONTENT);
+                writeBase64Content(xmlWriter, (InputStream) content, path);
+                xmlWriter.writeEndElement();
+            } else if (content != null) {
+            	byte[] contentBytes = (byte[]) content;
             	xmlWriter.writeStartElement(DumpConstants.CONTENT);
-            	xmlWriter.writeCharacters(DatatypeConverter.printBase64Binary(content) != null ? DatatypeConverter.printBase64Binary(content) : "");
+            	xmlWriter.writeCharacters(DatatypeConverter.printBase64Binary(contentBytes) != null ? DatatypeConverter.printBase64Binary(contentBytes) : "");
             	xmlWriter.writeEndElement();
             }
+            resource.close();
         }
 
         // getting children and applying dump recursively
@@ -1750,4 +2330,37 @@ public class ResourceStorer {
         xmlWriter.writeEndElement();
         xmlWriter.flush();
     }
+
+    // Writes the given content stream as base64 characters, encoding a chunk at a time. The chunks
+    // are a multiple of three bytes, so that their encodings can be joined. The stream is closed
+    // after completing this method.
+    private void writeBase64Content(XMLStreamWriter xmlWriter, InputStream contentStream, String path)
+            throws RepositoryException, XMLStreamException {
+        try {
+            byte[] chunk = new byte[3 * RepositoryConstants.DEFAULT_BUFFER_SIZE];
+            int length;
+            do {
+                length = 0;
+                int byteCount;
+                while (length < chunk.length &&
+                        (byteCount = contentStream.read(chunk, length, chunk.length - length)) != -1) {
+                    length += byteCount;
+                }
+                if (length > 0) {
+                    xmlWriter.writeCharacters(DatatypeConverter.printBase64Binary(
+                            length == chunk.length ? chunk : Arrays.copyOf(chunk, length)));
+                }
+            } while (length == chunk.length);
+        } catch (IOException e) {
+            String msg = "Failed to read the content of the resource " + path + ".";
+            log.error(msg, e);
+            throw new RepositoryException(msg, e);
+        } finally {
+            try {
+                contentStream.close();
+            } catch (IOException e) {
+                log.error("Failed to close the content stream of the resource " + path + ".", e);
+            }
+        }
+    }
 }
@@ -18,7 +18,9 @@ package org.wso2.carbon.repository.core;
 
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -30,9 +32,11 @@ import org.wso2.carbon.repository.api.exceptions.RepositoryErrorCodes;
 import org.wso2.carbon.repository.api.exceptions.RepositoryException;
 import org.wso2.carbon.repository.api.exceptions.RepositoryResourceNotFoundException;
 import org.wso2.carbon.repository.api.exceptions.RepositoryUserContentException;
+import org.wso2.carbon.repository.api.utils.RepositoryUtils;
 import org.wso2.carbon.repository.core.config.StaticConfiguration;
 import org.wso2.carbon.repository.core.dataobjects.ResourceDO;
 import org.wso2.carbon.repository.core.exceptions.RepositoryServerContentException;
+import org.wso2.carbon.repository.core.utils.InternalConstants;
 import org.wso2.carbon.repository.core.utils.InternalUtils;
 import org.wso2.carbon.repository.core.utils.VersionInputStream;
 import org.wso2.carbon.repository.core.utils.VersionRetriever;
@@ -84,7 +88,11 @@ public class VersionResourceStorer {
         versionList.add(version);
         
         if (isCollection) {
-            addDescendants(rootResourceID, versionList, isRenewing, keepProperties);
+            if (isRenewing && keepProperties && !StaticConfiguration.isVersioningProperties()) {
+                addDescendantsInBulk(rootResourceID, versionList);
+            } else {
+                addDescendants(rootResourceID, versionList, isRenewing, keepProperties);
+            }
         }
         
         InputStream versionsInputStream = new VersionInputStream(versionList);
@@ -163,6 +171,112 @@ public class VersionResourceStorer {
         }
     }
 
+    // Method to archive the descendants of a collection using bulk statements. The resources of the
+    // sub tree are read in a single pass and their versions are added to the version list in the
+    // same order as addDescendants adds them. The current versions that are not archived yet are
+    // then copied to the history tables with a few statements for each chunk of collections.
+    // As in addDescendants, the archived descendants are then given new versions, as some
+    // operations, such as moves, change the current version of a resource in place. The renewed
+    // descendants keep their content and properties, so this is only done when properties are not
+    // versioned.
+    private void addDescendantsInBulk(ResourceIDImpl resourceID, List<Long> versionList)
+            throws RepositoryException {
+        Map<Integer, String> subTreePaths = resourceDAO.getSubTreePaths(resourceID);
+        List<Integer> pathIds = new ArrayList<Integer>(subTreePaths.keySet());
+
+        Map<String, Integer> pathIdsByPath = new HashMap<String, Integer>();
+        for (Map.Entry<Integer, String> entry : subTreePaths.entrySet()) {
+            pathIdsByPath.put(entry.getValue(), entry.getKey());
+        }
+        Map<Integer, List<Integer>> childCollections = new HashMap<Integer, List<Integer>>();
+        for (Map.Entry<Integer, String> entry : subTreePaths.entrySet()) {
+            if (entry.getKey() == resourceID.getPathID()) {
+                continue;
+            }
+            Integer parentPathId = pathIdsByPath.get(RepositoryUtils.getParentPath(entry.getValue()));
+            if (parentPathId != null) {
+                getList(childCollections, parentPathId).add(entry.getKey());
+            }
+        }
+
+        Map<Integer, ResourceDO> collections = new HashMap<Integer, ResourceDO>();
+        Map<Integer, List<ResourceDO>> childResources = new HashMap<Integer, List<ResourceDO>>();
+        for (ResourceDO resourceDO : resourceDAO.getResourceDOs(pathIds)) {
+            if (resourceDO.getName() == null) {
+                collections.put(resourceDO.getPathID(), resourceDO);
+            } else {
+                getList(childResources, resourceDO.getPathID()).add(resourceDO);
+            }
+        }
+
+        List<Integer> archivedPathIds = new ArrayList<Integer>();
+        addDescendantVersions(resourceID.getPathID(), versionList, archivedPathIds, collections,
+                childCollections, childResources);
+
+        int resourceCount = versionList.size();
+        int archivedCount = 0;
+        for (int i = 0; i < archivedPathIds.size(); i += InternalConstants.MAX_PATH_IDS_PER_QUERY) {
+            List<Integer> chunk = archivedPathIds.subList(i,
+                    Math.min(i + InternalConstants.MAX_PATH_IDS_PER_QUERY, archivedPathIds.size()));
+            resourceVersionDAO.putResourcesToHistory(chunk);
+            resourceVersionDAO.renewResources(chunk);
+
+            int previousCount = archivedCount;
+            for (int pathId : chunk) {
+                List<ResourceDO> resources = childResources.get(pathId);
+                archivedCount += (resources == null) ? 1 : resources.size() + 1;
+            }
+            if (archivedCount / InternalConstants.SNAPSHOT_PROGRESS_INTERVAL >
+                    previousCount / InternalConstants.SNAPSHOT_PROGRESS_INTERVAL) {
+                log.info("Archived " + Math.min(archivedCount, resourceCount) + " of " +
+                        resourceCount + " resources of the collection " + resourceID.getPath() + ".");
+            }
+        }
+    }
+
+    // Method to add the versions of the descendants of a collection to the version list, with the
+    // immediate children before the others.
+    private void addDescendantVersions(int pathId, List<Long> versionList, List<Integer> archivedPathIds,
+                                       Map<Integer, ResourceDO> collections,
+                                       Map<Integer, List<Integer>> childCollections,
+                                       Map<Integer, List<ResourceDO>> childResources) {
+        archivedPathIds.add(pathId);
+
+        List<ResourceDO> resources = childResources.get(pathId);
+        if (resources != null) {
+            for (ResourceDO resourceDO : resources) {
+                versionList.add(resourceDO.getVersion());
+            }
+        }
+
+        List<Integer> existingChildCollections = new ArrayList<Integer>();
+        List<Integer> childPathIds = childCollections.get(pathId);
+        if (childPathIds != null) {
+            for (int childPathId : childPathIds) {
+                ResourceDO collectionDO = collections.get(childPathId);
+                // path entries at which no collection exists are skipped with their sub trees.
+                if (collectionDO != null) {
+                    versionList.add(collectionDO.getVersion());
+                    existingChildCollections.add(childPathId);
+                }
+            }
+        }
+
+        for (int childPathId : existingChildCollections) {
+            addDescendantVersions(childPathId, versionList, archivedPathIds, collections,
+                    childCollections, childResources);
+        }
+    }
+
+    private static <T> List<T> getList(Map<Integer, List<T>> lists, int key) {
+        List<T> list = lists.get(key);
+        if (list == null) {
+            list = new ArrayList<T>();
+            lists.put(key, list);
+        }
+        return list;
+    }
+
     // Method to create version for a resource.
     private void createVersionForResource(ResourceImpl resourceImpl, boolean isRenewing, boolean keepProperties) throws RepositoryException {
         ResourceDO resourceDO = resourceImpl.getResourceDO();
@@ -365,6 +479,8 @@ public class VersionResourceStorer {
         ResourceIDImpl resourceID = resourceDAO.getResourceID(versionedResourcePath);
 
         restoreSnapshotNetwork(resourceID, snapshotID);
+        // restored resources keep their versioned times.
+        resourceDAO.addTombstone(versionedResourcePath);
     }
 
     // Utility method to restore version-by-version using a version retriever.
@@ -17,11 +17,14 @@
 */
 package org.wso2.carbon.repository.core.caching;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 import javax.cache.Cache;
 
@@ -50,6 +53,9 @@ import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
  */
 public class CachingHandler extends Handler {
 
+    // The suffix appended to a collection path to cache a page of its children.
+    private static final String PAGED_PATH_SUFFIX = ";start=";
+
     private Map<String, DataBaseConfiguration> dbConfigs =
             new HashMap<String, DataBaseConfiguration>();
     private Map<String, DataBaseConfiguration> dbConfigsWithMounts =
@@ -57,6 +63,16 @@ public class CachingHandler extends Handler {
     private Map<String, String> pathMap =
             new HashMap<String, String>();
 
+    // The paths cleared during the current transaction. A path may be found missing, and be
+    // remembered as such, before the transaction adding it is committed, so these paths are
+    // cleared from the negative lookup caches again once the transaction ends.
+    private static ThreadLocal<List<ClearedPath>> tClearedPaths =
+            new ThreadLocal<List<ClearedPath>>() {
+                protected List<ClearedPath> initialValue() {
+                    return new ArrayList<ClearedPath>();
+                }
+            };
+
     /**
      * Default Constructor
      */
@@ -182,35 +198,48 @@ public class CachingHandler extends Handler {
         }
 
         removeFromCache(connectionId, tenantId, cleanupPath);
+        NegativeLookupCache.getResourceCache().invalidate(tenantId, cleanupPath, recursive);
+        NegativeLookupCache.getPathCache().invalidate(tenantId, cleanupPath, recursive);
+        tClearedPaths.get().add(new ClearedPath(tenantId, cleanupPath, recursive));
         String parentPath = RepositoryUtils.getParentPath(cleanupPath);
-        Cache<RepositoryCacheKey, CacheResource> cache = getCache();
-        Iterator<RepositoryCacheKey> keys = cache.keys();
-        
-        while (keys.hasNext()) {
-            RepositoryCacheKey key = keys.next();
-            String path = key.getPath();
-            if (recursive) {
-                if (path.startsWith(cleanupPath)) {
-                    removeFromCache(connectionId, tenantId, path);
-                }
+
+        if (recursive) {
+            for (String path : getCachedPathsWithPrefix(tenantId, cleanupPath)) {
+                removeFromCache(connectionId, tenantId, path);
             }
         }
         
         clearAncestry(connectionId, tenantId, parentPath);
     }
 
+    /**
+     * Clears the paths cleared during the current transaction from the negative lookup caches
+     * again. This is called once the outermost transaction is committed or rolled back.
+     */
+    public static void clearNegativeLookupsOfTransaction() {
+        List<ClearedPath> clearedPaths = tClearedPaths.get();
+        if (clearedPaths.isEmpty()) {
+            return;
+        }
+        tClearedPaths.remove();
+        for (ClearedPath clearedPath : clearedPaths) {
+            NegativeLookupCache.getResourceCache().invalidate(clearedPath.tenantId,
+                    clearedPath.path, clearedPath.recursive);
+            NegativeLookupCache.getPathCache().invalidate(clearedPath.tenantId,
+                    clearedPath.path, clearedPath.recursive);
+        }
+    }
+
     private void clearAncestry(String connectionId, int tenantId, String parentPath) {
         boolean cleared = removeFromCache(connectionId, tenantId, parentPath);
-        String pagedParentPathPrefix = "^" + Pattern.quote((parentPath == null) ? "" : parentPath)
-                + "(" + RepositoryConstants.PATH_SEPARATOR + ")?(;start=.*)?$";
-        Pattern pattern = Pattern.compile(pagedParentPathPrefix);
-        Cache<RepositoryCacheKey, CacheResource> cache = getCache();
-        Iterator<RepositoryCacheKey> keys = cache.keys();
-        while (keys.hasNext()) {
-            RepositoryCacheKey key = keys.next();
-            String path = key.getPath();
-            if (pattern.matcher(path).matches()) {
-                cleared = cleared || removeFromCache(connectionId, tenantId, path);
+        String parent = (parentPath == null) ? "" : parentPath;
+        // Only the parent itself and its paged views need to be cleared, which are the paths
+        // matching ^parent(/)?(;start=.*)?$
+        cleared = removeFromCache(connectionId, tenantId, parent + RepositoryConstants.PATH_SEPARATOR) || cleared;
+        for (String pagedParentPathPrefix : new String[] {parent + PAGED_PATH_SUFFIX,
+                parent + RepositoryConstants.PATH_SEPARATOR + PAGED_PATH_SUFFIX}) {
+            for (String path : getCachedPathsWithPrefix(tenantId, pagedParentPathPrefix)) {
+                cleared = removeFromCache(connectionId, tenantId, path) || cleared;
             }
         }
         if (!cleared && parentPath != null && !parentPath.equals(RepositoryConstants.ROOT_PATH)) {
@@ -218,9 +247,27 @@ public class CachingHandler extends Handler {
         }
     }
 
+    // Method to obtain the cached paths starting with the given prefix. The keys of the cache are
+    // walked when the index is disabled, as the cache is shared with other nodes.
+    private SortedSet<String> getCachedPathsWithPrefix(int tenantId, String prefix) {
+        if (ResourceCacheIndex.isEnabled()) {
+            return ResourceCacheIndex.getPathsWithPrefix(tenantId, prefix);
+        }
+        SortedSet<String> paths = new TreeSet<String>();
+        Iterator<RepositoryCacheKey> keys = getCache().keys();
+        while (keys.hasNext()) {
+            String path = keys.next().getPath();
+            if (path != null && path.startsWith(prefix)) {
+                paths.add(path);
+            }
+        }
+        return paths;
+    }
+
     private boolean removeFromCache(String connectionId, int tenantId, String path) {
         RepositoryCacheKey cacheKey = InternalUtils.buildRegistryCacheKey(connectionId, tenantId, path);
         Cache<RepositoryCacheKey, CacheResource> cache = getCache();
+        ResourceCacheIndex.keyRemoved(cacheKey);
         if (cache.containsKey(cacheKey)) {
             cache.remove(cacheKey);
             return true;
@@ -268,7 +315,18 @@ public class CachingHandler extends Handler {
     }
 
     public String rename(HandlerContext requestContext) throws RepositoryException {
-        clearCache(requestContext, requestContext.getSourcePath(), true);
+        String sourcePath = requestContext.getSourcePath();
+        clearCache(requestContext, sourcePath, true);
+
+        // the target may have been cached as missing, as with a move.
+        String targetPath = requestContext.getInstanceId();
+        if (sourcePath != null && targetPath != null) {
+            if (!targetPath.startsWith(RepositoryConstants.PATH_SEPARATOR)) {
+                targetPath = sourcePath.substring(0,
+                        sourcePath.lastIndexOf(RepositoryConstants.PATH_SEPARATOR) + 1) + targetPath;
+            }
+            clearCache(requestContext, targetPath, true);
+        }
         return super.rename(requestContext);
     }
 
@@ -297,4 +355,18 @@ public class CachingHandler extends Handler {
                 true);
         super.restoreVersion(requestContext);
     }
-}
\ No newline at end of file
+
+    // A path cleared from the caches by a write operation.
+    private static class ClearedPath {
+
+        private int tenantId;
+        private String path;
+        private boolean recursive;
+
+        private ClearedPath(int tenantId, String path, boolean recursive) {
+            this.tenantId = tenantId;
+            this.path = path;
+            this.recursive = recursive;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.repository.core.caching;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.wso2.carbon.repository.api.RepositoryConstants;
+import org.wso2.carbon.repository.api.utils.RepositoryUtils;
+import org.wso2.carbon.repository.core.utils.InternalConstants;
+
+/**
+ * Cache of paths that were found not to exist, so that repeated lookups of missing paths do not
+ * reach the database. Entries expire after a time to live, and the number of entries is bounded;
+ * when the cache is full, new entries are not added until expired ones are purged.
+ * <p/>
+ * Paths are kept in a sorted map for each tenant and connection, so that the entries of a path,
+ * its ancestors and its sub tree can be invalidated when resources are added there. An entry is
+ * only added if no invalidation happened since the lookup that found the path missing started.
+ * <p/>
+ * Missing resources and missing path entries are kept in separate caches, as a resource that is
+ * not a collection has no path entry of its own.
+ * <p/>
+ * The caches are disabled until they are configured, as they only see the resources added through
+ * this node.
+ */
+public final class NegativeLookupCache {
+
+    // The largest character, used to build the upper bound of a prefix range.
+    private static final char PREFIX_RANGE_END = Character.MAX_VALUE;
+
+    private static final NegativeLookupCache resourceCache = new NegativeLookupCache();
+
+    private static final NegativeLookupCache pathCache = new NegativeLookupCache();
+
+    private static volatile int maxEntries = 0;
+
+    private static volatile long timeToLive = InternalConstants.DEFAULT_NEGATIVE_LOOKUP_CACHE_TTL;
+
+    private final ConcurrentMap<Integer, ConcurrentMap<String, ConcurrentNavigableMap<String, Long>>>
+            entries = new ConcurrentHashMap<Integer, ConcurrentMap<String, ConcurrentNavigableMap<String, Long>>>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private NegativeLookupCache() {
+    }
+
+    /**
+     * Method to obtain the cache of paths at which no resource exists.
+     *
+     * @return the cache of missing resources.
+     */
+    public static NegativeLookupCache getResourceCache() {
+        return resourceCache;
+    }
+
+    /**
+     * Method to obtain the cache of paths that have no path entry in the database.
+     *
+     * @return the cache of missing path entries.
+     */
+    public static NegativeLookupCache getPathCache() {
+        return pathCache;
+    }
+
+    /**
+     * Method to configure the caches, removing all of their entries.
+     *
+     * @param maxEntries the maximum number of entries of each cache, where 0 disables the caches.
+     * @param timeToLive the time in milliseconds after which an entry expires.
+     */
+    public static void configure(int maxEntries, long timeToLive) {
+        NegativeLookupCache.maxEntries = maxEntries;
+        NegativeLookupCache.timeToLive = timeToLive;
+        resourceCache.clear();
+        pathCache.clear();
+    }
+
+    /**
+     * Method to obtain the current generation of the cache, which is read before looking up a
+     * path, and passed to {@link #addMissing(RepositoryCacheKey, long)} if the path is missing.
+     *
+     * @return the generation, which changes on every invalidation.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Method to check whether the path of the given key is known not to exist.
+     *
+     * @param key the cache key.
+     *
+     * @return true if the path is missing and the entry has not expired.
+     */
+    public boolean isMissing(RepositoryCacheKey key) {
+        ConcurrentNavigableMap<String, Long> paths = getPaths(key, false);
+        if (paths == null || key.getPath() == null) {
+            return false;
+        }
+        Long expiryTime = paths.get(key.getPath());
+        if (expiryTime == null) {
+            return false;
+        }
+        if (expiryTime < System.currentTimeMillis()) {
+            remove(paths, key.getPath());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Records that the path of the given key does not exist.
+     *
+     * @param key              the cache key.
+     * @param lookupGeneration the generation of the cache when the lookup started.
+     */
+    public void addMissing(RepositoryCacheKey key, long lookupGeneration) {
+        if (maxEntries <= 0 || key.getPath() == null) {
+            return;
+        }
+        if (size.get() >= maxEntries) {
+            purgeExpired();
+            if (size.get() >= maxEntries) {
+                return;
+            }
+        }
+
+        ConcurrentNavigableMap<String, Long> paths = getPaths(key, true);
+        if (paths.put(key.getPath(), System.currentTimeMillis() + timeToLive) == null) {
+            size.incrementAndGet();
+        }
+        // the path may have been added after the lookup, and the invalidation may have run before
+        // the entry was added.
+        if (generation.get() != lookupGeneration) {
+            remove(paths, key.getPath());
+        }
+    }
+
+    /**
+     * Removes the entries of a path and of its ancestors, for all the connections of the tenant,
+     * as adding a resource may add its ancestors too.
+     *
+     * @param tenantId  the tenant identifier.
+     * @param path      the path.
+     * @param recursive whether to remove the entries of the sub tree of the path as well.
+     */
+    public void invalidate(int tenantId, String path, boolean recursive) {
+        generation.incrementAndGet();
+        ConcurrentMap<String, ConcurrentNavigableMap<String, Long>> connections = entries.get(tenantId);
+        if (connections == null || path == null) {
+            return;
+        }
+
+        for (ConcurrentNavigableMap<String, Long> paths : connections.values()) {
+            if (paths.isEmpty()) {
+                continue;
+            }
+            String ancestorPath = path;
+            while (ancestorPath != null) {
+                remove(paths, ancestorPath);
+                ancestorPath = ancestorPath.equals(RepositoryConstants.ROOT_PATH) ? null :
+                        RepositoryUtils.getParentPath(ancestorPath);
+            }
+            if (recursive) {
+                String prefix = path.endsWith(RepositoryConstants.PATH_SEPARATOR) ? path :
+                        path + RepositoryConstants.PATH_SEPARATOR;
+                for (String subTreePath : paths.subMap(prefix, true, prefix + PREFIX_RANGE_END,
+                        false).keySet()) {
+                    remove(paths, subTreePath);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all the entries of the cache.
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+        size.set(0);
+    }
+
+    /**
+     * Method to obtain the number of entries of the cache.
+     *
+     * @return the number of entries, including expired entries that have not been purged.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    private void purgeExpired() {
+        long now = System.currentTimeMillis();
+        for (ConcurrentMap<String, ConcurrentNavigableMap<String, Long>> connections : entries.values()) {
+            for (ConcurrentNavigableMap<String, Long> paths : connections.values()) {
+                for (Map.Entry<String, Long> entry : paths.entrySet()) {
+                    if (entry.getValue() < now && paths.remove(entry.getKey(), entry.getValue())) {
+                        size.decrementAndGet();
+                    }
+                }
+            }
+        }
+    }
+
+    private void remove(ConcurrentNavigableMap<String, Long> paths, String path) {
+        if (paths.remove(path) != null) {
+            size.decrementAndGet();
+        }
+    }
+
+    private ConcurrentNavigableMap<String, Long> getPaths(RepositoryCacheKey key, boolean create) {
+        ConcurrentMap<String, ConcurrentNavigableMap<String, Long>> connections = entries.get(key.getTenantId());
+        if (connections == null) {
+            if (!create) {
+                return null;
+            }
+            ConcurrentMap<String, ConcurrentNavigableMap<String, Long>> newConnections =
+                    new ConcurrentHashMap<String, ConcurrentNavigableMap<String, Long>>();
+            connections = entries.putIfAbsent(key.getTenantId(), newConnections);
+            if (connections == null) {
+                connections = newConnections;
+            }
+        }
+        String connection = (key.getConnectionURL() == null) ? "" : key.getConnectionURL();
+        ConcurrentNavigableMap<String, Long> paths = connections.get(connection);
+        if (paths == null && create) {
+            ConcurrentNavigableMap<String, Long> newPaths = new ConcurrentSkipListMap<String, Long>();
+            paths = connections.putIfAbsent(connection, newPaths);
+            if (paths == null) {
+                paths = newPaths;
+            }
+        }
+        return paths;
+    }
+}
@@ -16,6 +16,9 @@
 
 package org.wso2.carbon.repository.core.caching;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.cache.Cache;
 import javax.cache.CacheStatistics;
 
@@ -29,6 +32,15 @@ import org.wso2.carbon.repository.core.utils.InternalUtils;
  */
 public class PathCache {
 
+    // The keys removed during the current transaction. The old values of the keys may be read and
+    // cached again before the transaction is committed, so they are removed again once it ends.
+    private static ThreadLocal<List<RepositoryCacheKey>> tRemovedKeys =
+            new ThreadLocal<List<RepositoryCacheKey>>() {
+                protected List<RepositoryCacheKey> initialValue() {
+                    return new ArrayList<RepositoryCacheKey>();
+                }
+            };
+
     /**
      * The path cache.
      */
@@ -46,6 +58,33 @@ public class PathCache {
         return new PathCache();
     }
 
+    /**
+     * Method to remove a key from the cache, which is removed again once the current transaction
+     * ends.
+     *
+     * @param key the key to remove.
+     */
+    protected static void removeUntilTransactionEnds(RepositoryCacheKey key) {
+        getCache().remove(key);
+        tRemovedKeys.get().add(key);
+    }
+
+    /**
+     * Method to remove the keys removed during the current transaction from the cache again. This
+     * is called once the outermost transaction is committed or rolled back.
+     */
+    public static void removeEntriesOfTransaction() {
+        List<RepositoryCacheKey> removedKeys = tRemovedKeys.get();
+        if (removedKeys.isEmpty()) {
+            return;
+        }
+        tRemovedKeys.remove();
+        Cache<RepositoryCacheKey, RepositoryCacheEntry> cache = getCache();
+        for (RepositoryCacheKey key : removedKeys) {
+            cache.remove(key);
+        }
+    }
+
     /**
      * Method to get the cache hit rate.
      *
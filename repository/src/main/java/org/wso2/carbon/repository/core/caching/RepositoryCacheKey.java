@@ -26,11 +26,14 @@ import java.io.Serializable;
  */
 public class RepositoryCacheKey implements Serializable {
 	
-    private static final long serialVersionUID = -5590538019841708811L;
+    private static final long serialVersionUID = 2853614377165327592L;
 
-    private int tenantId;
-    private String path;
-    private String connectionURL;
+    private final int tenantId;
+    private final String path;
+    private final String connectionURL;
+
+    // keys are looked up several times for each operation, so the hash code is computed once.
+    private final int hashCode;
 
     /**
      * Creates a new key for an entry to be cached.
@@ -42,6 +45,15 @@ public class RepositoryCacheKey implements Serializable {
         this.tenantId = tenantId;
         this.path = path;
         this.connectionURL = connectionURL;
+
+        int output = tenantId;
+        if (path != null) {
+            output += path.hashCode();
+        }
+        if (connectionURL != null) {
+            output += connectionURL.hashCode();
+        }
+        this.hashCode = output;
     }
 
     /**
@@ -53,19 +65,42 @@ public class RepositoryCacheKey implements Serializable {
         return path;
     }
 
+    /**
+     * Method to obtain the tenant identifier on cache key.
+     *
+     * @return the tenant identifier on cache key.
+     */
+    public int getTenantId() {
+        return tenantId;
+    }
+
+    /**
+     * Method to obtain the connection URL on cache key.
+     *
+     * @return the connection URL on cache key.
+     */
+    public String getConnectionURL() {
+        return connectionURL;
+    }
+
     /**
      * {@inheritDoc}
      */
     public boolean equals(Object key) {
+        if (key == this) {
+            return true;
+        }
         if (!(key instanceof RepositoryCacheKey)) {
             return false;
         }
         RepositoryCacheKey cacheKey = (RepositoryCacheKey) key;
 
-        return cacheKey.tenantId == tenantId &&
+        // keys built by the same factory share the connection URL, which is compared by reference
+        // before comparing the strings.
+        return cacheKey.hashCode == hashCode && cacheKey.tenantId == tenantId &&
                 (cacheKey.path == null && path == null ||
                         cacheKey.path != null && cacheKey.path.equals(path)) &&
-                (cacheKey.connectionURL == null && connectionURL == null ||
+                (cacheKey.connectionURL == connectionURL ||
                         cacheKey.connectionURL != null &&
                                 cacheKey.connectionURL.equals(connectionURL));
     }
@@ -74,14 +109,7 @@ public class RepositoryCacheKey implements Serializable {
      * {@inheritDoc}
      */
     public int hashCode() {
-        int output = Integer.valueOf(tenantId).hashCode();
-        if (path != null) {
-            output += path.hashCode();
-        }
-        if (connectionURL != null) {
-            output += connectionURL.hashCode();
-        }
-        return output;
+        return hashCode;
     }
 }
 
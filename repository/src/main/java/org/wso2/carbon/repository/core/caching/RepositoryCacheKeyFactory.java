@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.repository.core.caching;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.wso2.carbon.repository.api.RepositoryConstants;
+import org.wso2.carbon.repository.api.utils.RepositoryUtils;
+import org.wso2.carbon.repository.core.config.RepositoryContext;
+
+/**
+ * Builds the cache keys of a database connection. The connection URLs of the keys and the path of
+ * the local repository are computed once per connection, instead of for every key, and are shared
+ * by all the keys of the connection.
+ */
+public final class RepositoryCacheKeyFactory {
+
+    private static final Map<String, RepositoryCacheKeyFactory> factories =
+            new ConcurrentHashMap<String, RepositoryCacheKeyFactory>();
+
+    private final RepositoryContext registryContext;
+    private final String repositoryRoot;
+    private final String absoluteLocalRepositoryPath;
+    private final String connectionURL;
+    private final String localConnectionURL;
+
+    private RepositoryCacheKeyFactory(RepositoryContext registryContext, String connectionId) {
+        this.registryContext = registryContext;
+        this.repositoryRoot = registryContext.getRepositoryRoot();
+        this.absoluteLocalRepositoryPath = RepositoryUtils.getAbsolutePathToOriginal(
+                RepositoryConstants.LOCAL_REPOSITORY_BASE_PATH, repositoryRoot);
+        this.connectionURL = connectionId.toLowerCase();
+        this.localConnectionURL = registryContext.getNodeIdentifier() + ":" + connectionURL;
+    }
+
+    /**
+     * Method to obtain the key factory of a database connection, which is created once for the
+     * connection and again when the repository root changes.
+     *
+     * @param connectionId the database connection identifier.
+     *
+     * @return the key factory.
+     */
+    public static RepositoryCacheKeyFactory getInstance(String connectionId) {
+        RepositoryContext registryContext = RepositoryContext.getBaseInstance();
+        RepositoryCacheKeyFactory factory = factories.get(connectionId);
+
+        if (factory == null || factory.registryContext != registryContext ||
+                factory.repositoryRoot != registryContext.getRepositoryRoot()) {
+            factory = new RepositoryCacheKeyFactory(registryContext, connectionId);
+            factories.put(connectionId, factory);
+        }
+        return factory;
+    }
+
+    /**
+     * Builds the cache key for a resource path. Resources of the local repository are cached per
+     * node.
+     *
+     * @param tenantId     the tenant identifier.
+     * @param resourcePath the resource path.
+     *
+     * @return the cache key.
+     */
+    public RepositoryCacheKey buildKey(int tenantId, String resourcePath) {
+        if (resourcePath != null && resourcePath.startsWith(absoluteLocalRepositoryPath)) {
+            return new RepositoryCacheKey(resourcePath, tenantId, localConnectionURL);
+        }
+        return new RepositoryCacheKey(resourcePath, tenantId, connectionURL);
+    }
+}
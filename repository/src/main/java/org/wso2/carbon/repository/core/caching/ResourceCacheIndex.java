@@ -0,0 +1,226 @@
+/*
+ *  Copyright (c) 2005-2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.carbon.repository.core.caching;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import javax.cache.Cache;
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.CacheEntryExpiredListener;
+import javax.cache.event.CacheEntryListenerException;
+import javax.cache.event.CacheEntryRemovedListener;
+
+/**
+ * Secondary index over the keys of the resource cache. The paths cached for each tenant and
+ * connection are kept in a sorted set, so that all the cached paths starting with a given prefix
+ * can be found in time proportional to the number of matches, instead of walking every key of the
+ * cache. Paths are dropped from the index when their cache entries are removed or expire.
+ * <p/>
+ * The index only tracks entries that were populated through this node. When the resource cache is
+ * distributed across a cluster, the index must be disabled, so that invalidations walk the keys of
+ * the cache and find the entries populated by the other nodes as well.
+ */
+public final class ResourceCacheIndex {
+
+    // The largest character, used to build the upper bound of a prefix range.
+    private static final char PREFIX_RANGE_END = Character.MAX_VALUE;
+
+    private static final ConcurrentMap<Integer, ConcurrentMap<String, NavigableSet<String>>> index =
+            new ConcurrentHashMap<Integer, ConcurrentMap<String, NavigableSet<String>>>();
+
+    // The caches the index listens to, for entries removed from or expired in them.
+    private static final Map<Cache<?, ?>, Boolean> listenedCaches =
+            Collections.synchronizedMap(new WeakHashMap<Cache<?, ?>, Boolean>());
+
+    private static final IndexPruningListener listener = new IndexPruningListener();
+
+    private static volatile boolean enabled = true;
+
+    private ResourceCacheIndex() {
+    }
+
+    /**
+     * Method to find whether the index is used to find cached paths.
+     *
+     * @return true if the index is enabled, false otherwise.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables the index. The index should be disabled when the resource cache is
+     * shared by the nodes of a cluster.
+     *
+     * @param enabled whether the index is enabled.
+     */
+    public static void setEnabled(boolean enabled) {
+        ResourceCacheIndex.enabled = enabled;
+        if (!enabled) {
+            index.clear();
+        }
+    }
+
+    /**
+     * Records that the given key has been added to the given resource cache. Entries of the cache
+     * that are later removed or expire are dropped from the index.
+     *
+     * @param cache the resource cache.
+     * @param key   the cache key.
+     */
+    public static void keyAdded(Cache<RepositoryCacheKey, ?> cache, RepositoryCacheKey key) {
+        if (!enabled) {
+            return;
+        }
+        if (cache != null && !listenedCaches.containsKey(cache)) {
+            synchronized (listenedCaches) {
+                if (!listenedCaches.containsKey(cache)) {
+                    cache.registerCacheEntryListener(listener);
+                    listenedCaches.put(cache, Boolean.TRUE);
+                }
+            }
+        }
+        keyAdded(key);
+    }
+
+    /**
+     * Records that the given key has been added to the resource cache.
+     *
+     * @param key the cache key.
+     */
+    public static void keyAdded(RepositoryCacheKey key) {
+        if (!enabled || key == null || key.getPath() == null) {
+            return;
+        }
+        getPaths(key.getTenantId(), key.getConnectionURL(), true).add(key.getPath());
+    }
+
+    /**
+     * Records that the given key has been removed from the resource cache.
+     *
+     * @param key the cache key.
+     */
+    public static void keyRemoved(RepositoryCacheKey key) {
+        if (key == null || key.getPath() == null) {
+            return;
+        }
+        NavigableSet<String> paths = getPaths(key.getTenantId(), key.getConnectionURL(), false);
+        if (paths != null) {
+            paths.remove(key.getPath());
+        }
+    }
+
+    /**
+     * Method to obtain the cached paths of a tenant that start with the given prefix, across all
+     * the connections the tenant has cached entries for.
+     *
+     * @param tenantId the tenant identifier.
+     * @param prefix   the path prefix.
+     *
+     * @return the sorted set of matching paths.
+     */
+    public static SortedSet<String> getPathsWithPrefix(int tenantId, String prefix) {
+        SortedSet<String> result = new TreeSet<String>();
+        ConcurrentMap<String, NavigableSet<String>> connections = index.get(tenantId);
+        if (connections == null) {
+            return result;
+        }
+        String from = (prefix == null) ? "" : prefix;
+        String to = from + PREFIX_RANGE_END;
+        for (NavigableSet<String> paths : connections.values()) {
+            result.addAll(paths.subSet(from, true, to, false));
+        }
+        return result;
+    }
+
+    /**
+     * Removes all the entries of the index.
+     */
+    public static void clear() {
+        index.clear();
+    }
+
+    /**
+     * Method to obtain the number of paths tracked for a tenant.
+     *
+     * @param tenantId the tenant identifier.
+     *
+     * @return the number of paths tracked for the tenant.
+     */
+    public static int size(int tenantId) {
+        ConcurrentMap<String, NavigableSet<String>> connections = index.get(tenantId);
+        int size = 0;
+        if (connections != null) {
+            for (NavigableSet<String> paths : connections.values()) {
+                size += paths.size();
+            }
+        }
+        return size;
+    }
+
+    private static NavigableSet<String> getPaths(int tenantId, String connectionURL, boolean create) {
+        ConcurrentMap<String, NavigableSet<String>> connections = index.get(tenantId);
+        if (connections == null) {
+            if (!create) {
+                return null;
+            }
+            ConcurrentMap<String, NavigableSet<String>> newConnections =
+                    new ConcurrentHashMap<String, NavigableSet<String>>();
+            connections = index.putIfAbsent(tenantId, newConnections);
+            if (connections == null) {
+                connections = newConnections;
+            }
+        }
+        String connection = (connectionURL == null) ? "" : connectionURL;
+        NavigableSet<String> paths = connections.get(connection);
+        if (paths == null && create) {
+            NavigableSet<String> newPaths = new ConcurrentSkipListSet<String>();
+            paths = connections.putIfAbsent(connection, newPaths);
+            if (paths == null) {
+                paths = newPaths;
+            }
+        }
+        return paths;
+    }
+
+    // Drops the paths of the cache entries that were removed or expired.
+    private static final class IndexPruningListener
+            implements CacheEntryRemovedListener<RepositoryCacheKey, Object>,
+            CacheEntryExpiredListener<RepositoryCacheKey, Object> {
+
+        public void entryRemoved(CacheEntryEvent<? extends RepositoryCacheKey, ? extends Object> event)
+                throws CacheEntryListenerException {
+            keyRemoved(event.getKey());
+        }
+
+        public void entryExpired(CacheEntryEvent<? extends RepositoryCacheKey, ? extends Object> event)
+                throws CacheEntryListenerException {
+            keyRemoved(event.getKey());
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+*  Copyright (c) 2005-2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+*
+*  WSO2 Inc. licenses this file to you under the Apache License,
+*  Version 2.0 (the "License"); you may not use this file except
+*  in compliance with the License.
+*  You may obtain a copy of the License at
+*
+*    http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing,
+* software distributed under the License is distributed on an
+* "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+* KIND, either express or implied.  See the License for the
+* specific language governing permissions and limitations
+* under the License.
+*/
+
+package org.wso2.carbon.repository.core.config;
+
+import org.wso2.carbon.repository.core.utils.InternalConstants;
+
+/**
+ * This class is to hold the configuration of the writer of audit log records, such as the
+ * capacity of the queue, the size of a batch and the policy applied when the queue is full.
+ * Users can define them in registry.xml under the logWriter element.
+ */
+public class LogWriterConfiguration {
+
+    /**
+     * The action taken when a log record is added while the queue is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Wait until there is space in the queue.
+         */
+        BLOCK,
+        /**
+         * Discard the log record.
+         */
+        DROP,
+        /**
+         * Write the log record to a temporary file, from which it is written to the database once
+         * the queue has been drained.
+         */
+        SPILL
+    }
+
+    private int queueCapacity = InternalConstants.DEFAULT_LOG_QUEUE_CAPACITY;
+    private int batchSize = InternalConstants.DEFAULT_LOG_BATCH_SIZE;
+    private long flushInterval = InternalConstants.DEFAULT_LOG_FLUSH_INTERVAL;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+    /**
+     * Method to obtain the maximum number of log records waiting to be written.
+     *
+     * @return the capacity of the queue.
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Method to set the maximum number of log records waiting to be written.
+     *
+     * @param queueCapacity the capacity of the queue.
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Method to obtain the maximum number of log records written at once.
+     *
+     * @return the batch size.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Method to set the maximum number of log records written at once.
+     *
+     * @param batchSize the batch size.
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Method to obtain the maximum time a log record waits before a batch is written.
+     *
+     * @return the flush interval in milliseconds.
+     */
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    /**
+     * Method to set the maximum time a log record waits before a batch is written.
+     *
+     * @param flushInterval the flush interval in milliseconds.
+     */
+    public void setFlushInterval(long flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * Method to obtain the action taken when the queue is full.
+     *
+     * @return the overflow policy.
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Method to set the action taken when the queue is full.
+     *
+     * @param overflowPolicy the overflow policy.
+     */
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+}
@@ -50,12 +50,17 @@ import org.wso2.carbon.repository.api.handlers.Filter;
 import org.wso2.carbon.repository.api.handlers.Handler;
 import org.wso2.carbon.repository.api.utils.Method;
 import org.wso2.carbon.repository.core.CurrentContext;
+import org.wso2.carbon.repository.core.caching.NegativeLookupCache;
+import org.wso2.carbon.repository.core.caching.ResourceCacheIndex;
 import org.wso2.carbon.repository.core.exceptions.RepositoryConfigurationException;
 import org.wso2.carbon.repository.core.exceptions.RepositoryDBException;
 import org.wso2.carbon.repository.core.exceptions.RepositoryInitException;
 import org.wso2.carbon.repository.core.handlers.CustomEditManager;
 import org.wso2.carbon.repository.core.handlers.EditProcessor;
 import org.wso2.carbon.repository.core.handlers.HandlerLifecycleManager;
+import org.wso2.carbon.repository.core.utils.ContentCodec;
+import org.wso2.carbon.repository.core.utils.ContentCodecs;
+import org.wso2.carbon.repository.core.utils.InternalConstants;
 import org.wso2.carbon.utils.CarbonUtils;
 import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 import org.wso2.securevault.SecretResolver;
@@ -134,6 +139,183 @@ public class RepositoryConfigurationProcessor {
         		}
         	}
         	
+        	NodeList contentBufferThresholdElements = documentElement.getElementsByTagName("contentBufferThreshold");
+        	
+        	if(contentBufferThresholdElements != null && contentBufferThresholdElements.getLength() > 0) {
+        		Node node = contentBufferThresholdElements.item(0);
+        		
+        		if(node != null && node.getNodeType() == Node.ELEMENT_NODE) {
+        			String contentBufferThreshold = ((Element) node).getTextContent().trim();
+        			
+        			try {
+        				repositoryContext.setContentBufferThreshold(Integer.parseInt(contentBufferThreshold));
+        			} catch (NumberFormatException e) {
+        				throw new RepositoryConfigurationException("Invalid content buffer threshold: " + contentBufferThreshold, e);
+        			}
+        		}
+        	}
+        	
+        	NodeList contentDeduplicationElements = documentElement.getElementsByTagName("contentDeduplication");
+        	
+        	if(contentDeduplicationElements != null && contentDeduplicationElements.getLength() > 0) {
+        		Node node = contentDeduplicationElements.item(0);
+        		
+        		if(node != null && node.getNodeType() == Node.ELEMENT_NODE) {
+        			String contentDeduplication = ((Element) node).getTextContent().trim();
+                    repositoryContext.setContentDeduplication("true".equals(contentDeduplication));
+        		}
+        	}
+        	
+        	NodeList pathTombstonesElements = documentElement.getElementsByTagName("pathTombstones");
+        	
+        	if(pathTombstonesElements != null && pathTombstonesElements.getLength() > 0) {
+        		Node node = pathTombstonesElements.item(0);
+        		
+        		if(node != null && node.getNodeType() == Node.ELEMENT_NODE) {
+        			String pathTombstones = ((Element) node).getTextContent().trim();
+                    repositoryContext.setPathTombstones("true".equals(pathTombstones));
+        		}
+        	}
+        	
+        	NodeList contentCodecsElements = documentElement.getElementsByTagName("contentCodecs");
+        	
+        	if(contentCodecsElements != null && contentCodecsElements.getLength() > 0) {
+        		NodeList contentCodecItems = contentCodecsElements.item(0).getChildNodes();
+        		
+        		for(int index = 0 ; index < contentCodecItems.getLength() ; index++) {
+        			Node contentCodecItem = contentCodecItems.item(index);
+        			
+        			if(contentCodecItem == null || contentCodecItem.getNodeType() != Node.ELEMENT_NODE) {
+        				continue;
+        			}
+        			
+        			Element contentCodecElement = (Element) contentCodecItem;
+        			
+        			if("codec".equals(contentCodecElement.getNodeName())) {
+        				String codecClassName = contentCodecElement.getAttribute("class");
+        				
+        				try {
+        					Class<?> codecClass = Class.forName(codecClassName);
+        					
+        					if (!ContentCodec.class.isAssignableFrom(codecClass)) {
+        						String msg = "Invalid content codec: " + codecClassName + ". The class does not implement " + ContentCodec.class.getName() + ".";
+        						log.error(msg);
+        						throw new RepositoryConfigurationException(msg);
+        					}
+        					
+        					ContentCodecs.registerCodec((ContentCodec) codecClass.getDeclaredConstructor().newInstance());
+        				} catch (ReflectiveOperationException e) {
+        					String msg = "Invalid content codec: " + codecClassName + ". Caused by: " + e.getMessage();
+        					log.error(msg, e);
+        					throw new RepositoryConfigurationException(msg, e);
+        				}
+        			} else if("mediaType".equals(contentCodecElement.getNodeName())) {
+        				String mediaType = contentCodecElement.getAttribute("name");
+        				String codecName = contentCodecElement.getTextContent().trim();
+        				
+        				if(ContentCodecs.getCodec(codecName) == null) {
+        					throw new RepositoryConfigurationException("Unknown content codec " + codecName + " for media type " + mediaType);
+        				}
+        				
+        				repositoryContext.setContentCodec(mediaType, codecName);
+        			}
+        		}
+        	}
+        	
+        	NodeList archiveWorkersElements = documentElement.getElementsByTagName("archiveWorkers");
+        	
+        	if(archiveWorkersElements != null && archiveWorkersElements.getLength() > 0) {
+        		Node node = archiveWorkersElements.item(0);
+        		
+        		if(node != null && node.getNodeType() == Node.ELEMENT_NODE) {
+        			String archiveWorkers = ((Element) node).getTextContent().trim();
+        			
+        			try {
+        				repositoryContext.setArchiveWorkers(Integer.parseInt(archiveWorkers));
+        			} catch (NumberFormatException e) {
+        				throw new RepositoryConfigurationException("Invalid number of archive workers: " + archiveWorkers, e);
+        			}
+        		}
+        	}
+        	
+        	NodeList resourceCacheIndexElements = documentElement.getElementsByTagName("resourceCacheIndex");
+        	
+        	if(resourceCacheIndexElements != null && resourceCacheIndexElements.getLength() > 0) {
+        		Node node = resourceCacheIndexElements.item(0);
+        		
+        		if(node != null && node.getNodeType() == Node.ELEMENT_NODE) {
+        			String resourceCacheIndex = ((Element) node).getTextContent().trim();
+        			ResourceCacheIndex.setEnabled(!"false".equals(resourceCacheIndex));
+        		}
+        	}
+        	
+        	NodeList negativeLookupCacheElements = documentElement.getElementsByTagName("negativeLookupCache");
+        	
+        	if(negativeLookupCacheElements != null && negativeLookupCacheElements.getLength() > 0) {
+        		NodeList negativeLookupCacheItems = negativeLookupCacheElements.item(0).getChildNodes();
+        		int maxEntries = InternalConstants.DEFAULT_NEGATIVE_LOOKUP_CACHE_SIZE;
+        		long timeToLive = InternalConstants.DEFAULT_NEGATIVE_LOOKUP_CACHE_TTL;
+        		
+        		for(int index = 0 ; index < negativeLookupCacheItems.getLength() ; index++) {
+        			Node negativeLookupCacheItem = negativeLookupCacheItems.item(index);
+        			
+        			if(negativeLookupCacheItem == null || negativeLookupCacheItem.getNodeType() != Node.ELEMENT_NODE) {
+        				continue;
+        			}
+        			
+        			String name = negativeLookupCacheItem.getNodeName();
+        			String value = negativeLookupCacheItem.getTextContent().trim();
+        			
+        			try {
+        				if("maxEntries".equals(name)) {
+        					maxEntries = Integer.parseInt(value);
+        				} else if("timeToLive".equals(name)) {
+        					timeToLive = Long.parseLong(value);
+        				}
+        			} catch (NumberFormatException e) {
+        				throw new RepositoryConfigurationException("Invalid negative lookup cache configuration " + name + ": " + value, e);
+        			}
+        		}
+        		
+        		NegativeLookupCache.configure(maxEntries, timeToLive);
+        	}
+        	
+        	NodeList logWriterElements = documentElement.getElementsByTagName("logWriter");
+        	
+        	if(logWriterElements != null && logWriterElements.getLength() > 0) {
+        		Node logWriterNode = logWriterElements.item(0);
+        		LogWriterConfiguration logWriterConfiguration = new LogWriterConfiguration();
+        		NodeList logWriterItems = logWriterNode.getChildNodes();
+        		
+        		for(int index = 0 ; index < logWriterItems.getLength() ; index++) {
+        			Node logWriterItem = logWriterItems.item(index);
+        			
+        			if(logWriterItem == null || logWriterItem.getNodeType() != Node.ELEMENT_NODE) {
+        				continue;
+        			}
+        			
+        			String name = logWriterItem.getNodeName();
+        			String value = logWriterItem.getTextContent().trim();
+        			
+        			try {
+        				if("queueCapacity".equals(name)) {
+        					logWriterConfiguration.setQueueCapacity(Integer.parseInt(value));
+        				} else if("batchSize".equals(name)) {
+        					logWriterConfiguration.setBatchSize(Integer.parseInt(value));
+        				} else if("flushInterval".equals(name)) {
+        					logWriterConfiguration.setFlushInterval(Long.parseLong(value));
+        				} else if("overflowPolicy".equals(name)) {
+        					logWriterConfiguration.setOverflowPolicy(
+        							LogWriterConfiguration.OverflowPolicy.valueOf(value.toUpperCase()));
+        				}
+        			} catch (IllegalArgumentException e) {
+        				throw new RepositoryConfigurationException("Invalid log writer configuration " + name + ": " + value, e);
+        			}
+        		}
+        		
+        		repositoryContext.setLogWriterConfiguration(logWriterConfiguration);
+        	}
+        	
         	SecretResolver secretResolver = SecretResolverFactory.create(documentElement, false);
         	
         	NodeList dbConfigElements = documentElement.getElementsByTagName("dbConfig");
@@ -96,6 +96,12 @@ public class RepositoryContext {
 
     private LogWriter logWriter = null;
     private boolean enableCache = false;
+    private int contentBufferThreshold = InternalConstants.DEFAULT_CONTENT_BUFFER_THRESHOLD;
+    private boolean contentDeduplication = false;
+    private boolean pathTombstones = false;
+    private Map<String, String> contentCodecs = new HashMap<String, String>();
+    private int archiveWorkers = InternalConstants.DEFAULT_ARCHIVE_WORKERS;
+    private LogWriterConfiguration logWriterConfiguration = new LogWriterConfiguration();
 
     private List<String> systemResourcePaths = new ArrayList<String>();
     private List<Pattern> noCachePaths = new ArrayList<Pattern>();
@@ -390,6 +396,127 @@ public class RepositoryContext {
         repositoryService.setCacheEnabled(enableCache);
     }
 
+    /**
+     * Return the number of bytes of resource content that is kept in memory when reading content
+     * from the database. Larger content is spooled to a temporary file.
+     *
+     * @return the content buffer threshold in bytes. A value that is not positive means that
+     *         content is always kept in memory.
+     */
+    public int getContentBufferThreshold() {
+        return contentBufferThreshold;
+    }
+
+    /**
+     * Set the number of bytes of resource content that is kept in memory when reading content from
+     * the database.
+     *
+     * @param contentBufferThreshold the content buffer threshold in bytes.
+     */
+    public void setContentBufferThreshold(int contentBufferThreshold) {
+        this.contentBufferThreshold = contentBufferThreshold;
+    }
+
+    /**
+     * Return whether resource content is stored by its SHA-256 digest, so that identical content
+     * is written to the database only once and shared between resources.
+     *
+     * @return true if content deduplication is enabled.
+     */
+    public boolean isContentDeduplication() {
+        return contentDeduplication;
+    }
+
+    /**
+     * Set whether resource content is stored by its SHA-256 digest. This should be decided before
+     * any content is added to the repository.
+     *
+     * @param contentDeduplication the content deduplication flag.
+     */
+    public void setContentDeduplication(boolean contentDeduplication) {
+        this.contentDeduplication = contentDeduplication;
+    }
+
+    /**
+     * Return whether the paths at which resources are removed or replaced are recorded in the
+     * REG_PATH_TOMBSTONE table, which incremental dumps require.
+     *
+     * @return true if path tombstones are enabled.
+     */
+    public boolean isPathTombstones() {
+        return pathTombstones;
+    }
+
+    /**
+     * Set whether the paths at which resources are removed or replaced are recorded. An
+     * incremental dump only includes the removals recorded after this was enabled.
+     *
+     * @param pathTombstones the path tombstones flag.
+     */
+    public void setPathTombstones(boolean pathTombstones) {
+        this.pathTombstones = pathTombstones;
+    }
+
+    /**
+     * Return the names of the codecs that are applied to resource content when it is written to
+     * the database, keyed by media type.
+     *
+     * @return the map of media types to codec names.
+     * @see org.wso2.carbon.repository.core.utils.MediaTypesUtils#getContentCodec(String)
+     */
+    public Map<String, String> getContentCodecs() {
+        return contentCodecs;
+    }
+
+    /**
+     * Set the codec that is applied to the content of resources of the given media type.
+     *
+     * @param mediaType the media type, such as <code>application/xml</code> or
+     *                  <code>text/*</code>.
+     * @param codecName the name of the codec.
+     */
+    public void setContentCodec(String mediaType, String codecName) {
+        contentCodecs.put(mediaType.trim().toLowerCase(), codecName);
+    }
+
+    /**
+     * Return the number of threads that dump and restore the sub trees of a binary archive, each
+     * in its own transaction.
+     *
+     * @return the number of archive workers.
+     */
+    public int getArchiveWorkers() {
+        return archiveWorkers;
+    }
+
+    /**
+     * Set the number of threads that dump and restore the sub trees of a binary archive.
+     *
+     * @param archiveWorkers the number of archive workers.
+     */
+    public void setArchiveWorkers(int archiveWorkers) {
+        this.archiveWorkers = archiveWorkers;
+    }
+
+    /**
+     * Return the configuration of the writer of audit log records.
+     *
+     * @return the log writer configuration.
+     */
+    public LogWriterConfiguration getLogWriterConfiguration() {
+        return logWriterConfiguration;
+    }
+
+    /**
+     * Set the configuration of the writer of audit log records. The configuration is applied when
+     * the log writer is created.
+     *
+     * @param logWriterConfiguration the log writer configuration.
+     */
+    public void setLogWriterConfiguration(LogWriterConfiguration logWriterConfiguration) {
+        this.logWriterConfiguration = logWriterConfiguration;
+    }
+
     /**
      * Create a new registry context object with a custom realm service
      *
@@ -842,7 +969,8 @@ public class RepositoryContext {
      */
     public LogWriter getLogWriter() {
         if (logWriter == null) {
-            logWriter = new LogWriter(new LogQueue(), dataAccessManager);
+            logWriter = new LogWriter(new LogQueue(logWriterConfiguration.getQueueCapacity()),
+                    dataAccessManager, logWriterConfiguration);
             logWriter.start();
         }
         
@@ -0,0 +1,414 @@
+/*
+ * Copyright (c) 2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.repository.core.handlers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.wso2.carbon.repository.api.ResourcePath;
+import org.wso2.carbon.repository.api.exceptions.RepositoryException;
+import org.wso2.carbon.repository.api.handlers.Filter;
+import org.wso2.carbon.repository.api.handlers.Handler;
+import org.wso2.carbon.repository.api.handlers.HandlerContext;
+import org.wso2.carbon.repository.api.utils.Method;
+import org.wso2.carbon.repository.core.handlers.builtin.MediaTypeMatcher;
+import org.wso2.carbon.repository.core.handlers.builtin.URLMatcher;
+
+/**
+ * An index of the handlers of a handler manager, which finds the handlers to engage for an
+ * operation without evaluating the filters of every handler. The index is built when handlers are
+ * added or removed, from the filters the handlers have at that time, and is never changed after
+ * it is built, so that it can be read without locking.
+ * <p/>
+ * For each operation, the patterns of the {@link URLMatcher} filters are grouped, so that each
+ * distinct pattern is matched once for a path. Patterns that are literal paths, or literal
+ * prefixes followed by ".*", are kept in a trie and matched without regular expressions. The
+ * outcome of the patterns is cached for each path. Handlers with a URL matcher that has no pattern
+ * for the operation are left out of the index of the operation, as they never engage.
+ * <p/>
+ * Equal {@link MediaTypeMatcher} filters are evaluated once, and the patterns are looked up once
+ * for the paths of a request, until a handler is invoked, as a handler may change the resource or
+ * the paths of the request. All other filters are evaluated for each
+ * handler, in the order of the filters of the handler.
+ */
+final class HandlerDispatchIndex {
+
+    // The number of paths for which the outcome of the patterns of an operation is cached. The
+    // cache is cleared when it is full.
+    private static final int MAX_CACHED_PATHS = 10000;
+
+    private static final int URL_FILTER = 0;
+    private static final int MEDIA_TYPE_FILTER = 1;
+    private static final int OTHER_FILTER = 2;
+
+    private static final OperationIndex EMPTY_INDEX =
+            new OperationIndex(null, Collections.<Handler>emptySet());
+
+    private final Map<Method, OperationIndex> operationIndexes =
+            new EnumMap<Method, OperationIndex>(Method.class);
+
+    /**
+     * Builds the index of the given handlers.
+     *
+     * @param handlerMap the handlers of each operation, in the order in which they are invoked.
+     */
+    HandlerDispatchIndex(Map<Method, Set<Handler>> handlerMap) {
+        for (Map.Entry<Method, Set<Handler>> entry : handlerMap.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                operationIndexes.put(entry.getKey(), new OperationIndex(entry.getKey(), entry.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Starts the dispatch of a request to the handlers of an operation.
+     *
+     * @param method         the operation.
+     * @param requestContext details of the request.
+     *
+     * @return the dispatch, which returns the handlers to engage in order.
+     */
+    Dispatch getDispatch(Method method, HandlerContext requestContext) {
+        OperationIndex index = operationIndexes.get(method);
+        return new Dispatch(index == null ? EMPTY_INDEX : index, method, requestContext);
+    }
+
+    // Method to check whether a pattern is a literal path, or a literal prefix followed by ".*".
+    private static boolean isLiteral(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if ("\\^$.|?*+()[]{}".indexOf(pattern.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Method to check whether a character is matched by "." without the DOTALL flag.
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    // A node of the trie of literal patterns.
+    private static final class TrieNode {
+
+        private final Map<Character, TrieNode> children = new HashMap<Character, TrieNode>();
+        private final List<Integer> exactPatterns = new ArrayList<Integer>();
+        private final List<Integer> prefixPatterns = new ArrayList<Integer>();
+
+        private TrieNode getChild(char c, boolean create) {
+            TrieNode child = children.get(c);
+            if (child == null && create) {
+                child = new TrieNode();
+                children.put(c, child);
+            }
+            return child;
+        }
+    }
+
+    // The handlers of an operation, with the filters of each handler.
+    private static final class OperationIndex {
+
+        private final Handler[] handlers;
+        private final Set<?>[] filterSets;
+        private final Filter[][] filters;
+        private final int[][] filterTypes;
+        // the index of the pattern of a URL filter, or of the group of equal media type filters.
+        private final int[][] filterKeys;
+        private final int mediaTypeGroupCount;
+
+        private final String[] patternStrings;
+        private final Pattern[] patterns;
+        private final boolean[] literalPatterns;
+        private final TrieNode trie = new TrieNode();
+        private final Map<String, boolean[]> cachedMatches = new ConcurrentHashMap<String, boolean[]>();
+
+        private OperationIndex(Method method, Set<Handler> handlerSet) {
+            List<Handler> handlerList = new ArrayList<Handler>();
+            List<Filter[]> filterList = new ArrayList<Filter[]>();
+            List<int[]> typeList = new ArrayList<int[]>();
+            List<int[]> keyList = new ArrayList<int[]>();
+            Map<String, Integer> patternIds = new LinkedHashMap<String, Integer>();
+            Map<Filter, Integer> mediaTypeGroups = new HashMap<Filter, Integer>();
+
+            for (Handler handler : handlerSet) {
+                Set<Filter> handlerFilters = handler.getFilters();
+                Filter[] filterArray = (handlerFilters == null) ? null :
+                        handlerFilters.toArray(new Filter[handlerFilters.size()]);
+                int[] types = null;
+                int[] keys = null;
+                boolean neverEngaged = false;
+
+                if (filterArray != null) {
+                    types = new int[filterArray.length];
+                    keys = new int[filterArray.length];
+                    for (int i = 0; i < filterArray.length; i++) {
+                        Filter filter = filterArray[i];
+                        if (filter != null && filter.getClass() == URLMatcher.class) {
+                            String pattern = ((URLMatcher) filter).getPattern(method);
+                            if (pattern == null) {
+                                neverEngaged = true;
+                                break;
+                            }
+                            Integer patternId = patternIds.get(pattern);
+                            if (patternId == null) {
+                                patternId = patternIds.size();
+                                patternIds.put(pattern, patternId);
+                            }
+                            types[i] = URL_FILTER;
+                            keys[i] = patternId;
+                        } else if (filter != null && filter.getClass() == MediaTypeMatcher.class) {
+                            Integer group = mediaTypeGroups.get(filter);
+                            if (group == null) {
+                                group = mediaTypeGroups.size();
+                                mediaTypeGroups.put(filter, group);
+                            }
+                            types[i] = MEDIA_TYPE_FILTER;
+                            keys[i] = group;
+                        } else {
+                            types[i] = OTHER_FILTER;
+                        }
+                    }
+                }
+                if (neverEngaged) {
+                    continue;
+                }
+                handlerList.add(handler);
+                filterList.add(filterArray);
+                typeList.add(types);
+                keyList.add(keys);
+            }
+
+            handlers = handlerList.toArray(new Handler[handlerList.size()]);
+            filterSets = new Set<?>[handlers.length];
+            for (int i = 0; i < handlers.length; i++) {
+                filterSets[i] = handlers[i].getFilters();
+            }
+            filters = filterList.toArray(new Filter[handlers.length][]);
+            filterTypes = typeList.toArray(new int[handlers.length][]);
+            filterKeys = keyList.toArray(new int[handlers.length][]);
+            mediaTypeGroupCount = mediaTypeGroups.size();
+
+            patternStrings = patternIds.keySet().toArray(new String[patternIds.size()]);
+            patterns = new Pattern[patternIds.size()];
+            literalPatterns = new boolean[patternIds.size()];
+            for (Map.Entry<String, Integer> entry : patternIds.entrySet()) {
+                String pattern = entry.getKey();
+                int patternId = entry.getValue();
+                if (pattern.endsWith(".*") && isLiteral(pattern.substring(0, pattern.length() - 2))) {
+                    addToTrie(pattern.substring(0, pattern.length() - 2)).prefixPatterns.add(patternId);
+                    literalPatterns[patternId] = true;
+                } else if (isLiteral(pattern)) {
+                    addToTrie(pattern).exactPatterns.add(patternId);
+                    literalPatterns[patternId] = true;
+                } else {
+                    patterns[patternId] = Pattern.compile(pattern);
+                }
+            }
+        }
+
+        private TrieNode addToTrie(String literal) {
+            TrieNode node = trie;
+            for (int i = 0; i < literal.length(); i++) {
+                node = node.getChild(literal.charAt(i), true);
+            }
+            return node;
+        }
+
+        // Method to obtain which of the patterns of the operation match the given path.
+        private boolean[] getMatches(String path) {
+            boolean[] matches = cachedMatches.get(path);
+            if (matches != null) {
+                return matches;
+            }
+
+            matches = new boolean[patterns.length];
+            int lastLineTerminator = -1;
+            for (int i = path.length() - 1; i >= 0; i--) {
+                if (isLineTerminator(path.charAt(i))) {
+                    lastLineTerminator = i;
+                    break;
+                }
+            }
+
+            TrieNode node = trie;
+            for (int i = 0; node != null; i++) {
+                // a literal prefix followed by ".*" matches if the rest of the path has no line
+                // terminators.
+                if (lastLineTerminator < i) {
+                    for (int patternId : node.prefixPatterns) {
+                        matches[patternId] = true;
+                    }
+                }
+                if (i == path.length()) {
+                    for (int patternId : node.exactPatterns) {
+                        matches[patternId] = true;
+                    }
+                    break;
+                }
+                node = node.getChild(path.charAt(i), false);
+            }
+
+            for (int patternId = 0; patternId < patterns.length; patternId++) {
+                if (!literalPatterns[patternId]) {
+                    matches[patternId] = patterns[patternId].matcher(path).matches();
+                }
+            }
+
+            if (cachedMatches.size() >= MAX_CACHED_PATHS) {
+                cachedMatches.clear();
+            }
+            cachedMatches.put(path, matches);
+            return matches;
+        }
+    }
+
+    /**
+     * The dispatch of a request to the handlers of an operation. A dispatch is used by a single
+     * thread, for a single request.
+     */
+    static final class Dispatch {
+
+        private final OperationIndex index;
+        private final Method method;
+        private final HandlerContext requestContext;
+
+        private int next = 0;
+        private boolean handlerReturned = false;
+        private Boolean[] mediaTypeResults;
+
+        private boolean[] pathMatches;
+        private boolean[] targetMatches;
+
+        private Dispatch(OperationIndex index, Method method, HandlerContext requestContext) {
+            this.index = index;
+            this.method = method;
+            this.requestContext = requestContext;
+        }
+
+        /**
+         * Method to obtain the next handler to engage for the request.
+         *
+         * @return the handler, or null if there are no more handlers to engage.
+         * @throws RepositoryException if a filter failed.
+         */
+        Handler nextHandler() throws RepositoryException {
+            if (handlerReturned) {
+                // the handler returned earlier may have changed the resource or the paths of the
+                // request.
+                mediaTypeResults = null;
+                pathMatches = null;
+                targetMatches = null;
+                handlerReturned = false;
+            }
+            while (next < index.handlers.length) {
+                int handlerIndex = next++;
+                if (engage(handlerIndex)) {
+                    handlerReturned = true;
+                    return index.handlers[handlerIndex];
+                }
+            }
+            return null;
+        }
+
+        private boolean engage(int handlerIndex) throws RepositoryException {
+            Handler handler = index.handlers[handlerIndex];
+            Filter[] filters = index.filters[handlerIndex];
+            if (filters == null || handler.getFilters() != index.filterSets[handlerIndex]) {
+                // the filters of the handler were replaced after it was registered.
+                return handler.engageHandler(requestContext, method);
+            }
+
+            int[] types = index.filterTypes[handlerIndex];
+            int[] keys = index.filterKeys[handlerIndex];
+            for (int i = 0; i < filters.length; i++) {
+                boolean result;
+                if (types[i] == URL_FILTER) {
+                    result = matchURL((URLMatcher) filters[i], keys[i]);
+                } else if (types[i] == MEDIA_TYPE_FILTER) {
+                    if (mediaTypeResults == null) {
+                        mediaTypeResults = new Boolean[index.mediaTypeGroupCount];
+                    }
+                    Boolean mediaTypeResult = mediaTypeResults[keys[i]];
+                    if (mediaTypeResult == null) {
+                        mediaTypeResult = filters[i].filter(requestContext, method);
+                        mediaTypeResults[keys[i]] = mediaTypeResult;
+                    }
+                    result = mediaTypeResult;
+                } else {
+                    result = filters[i].filter(requestContext, method);
+                }
+                if (!result) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Method to evaluate a URL matcher the same way as URLMatcher#filter, using the cached
+        // outcome of its pattern.
+        private boolean matchURL(URLMatcher filter, int patternId) throws RepositoryException {
+            if (filter.getPattern(method) != index.patternStrings[patternId]) {
+                // the pattern was changed after the handler was registered.
+                return filter.filter(requestContext, method);
+            }
+            boolean invert = filter.isInvert();
+            switch (method) {
+                case COPY:
+                case MOVE:
+                    if (pathMatches == null) {
+                        pathMatches = index.getMatches(requestContext.getSourcePath());
+                    }
+                    if (invert != pathMatches[patternId]) {
+                        return true;
+                    }
+                    if (targetMatches == null) {
+                        targetMatches = index.getMatches(requestContext.getInstanceId());
+                    }
+                    return invert != targetMatches[patternId];
+                case RENAME:
+                case ADD_ASSOCIATION:
+                case REMOVE_ASSOCIATION:
+                    if (pathMatches == null) {
+                        pathMatches = index.getMatches(requestContext.getSourcePath());
+                    }
+                    break;
+                case RESTORE_VERSION:
+                    if (pathMatches == null) {
+                        pathMatches = index.getMatches(requestContext.getVersionPath());
+                    }
+                    break;
+                default:
+                    if (pathMatches == null) {
+                        ResourcePath resourcePath = requestContext.getResourcePath();
+                        if (resourcePath == null && method == Method.EXECUTE_QUERY) {
+                            return false;
+                        }
+                        pathMatches = index.getMatches(resourcePath.getCompletePath());
+                    }
+            }
+            return invert != pathMatches[patternId];
+        }
+    }
+}
@@ -54,6 +54,11 @@ import org.wso2.carbon.repository.core.handlers.builtin.SimulationFilter;
  * continues either till there is no more handlers or till the processingComplete parameter of the
  * RequestContext is set to true.
  * <p/>
+ * The filters of the registered handlers are indexed when handlers are added or removed, so that
+ * the handlers to engage for a request are found without evaluating every filter (see
+ * {@link HandlerDispatchIndex}). Filters of a handler must therefore be set before the handler is
+ * registered; handlers whose filters are replaced later are evaluated without the index.
+ * <p/>
  * There is only one instance of this class exists per registry instance.
  */
 public class HandlerManager {
@@ -64,6 +69,9 @@ public class HandlerManager {
     private static final String UNABLE_TO_PROCEED_WITH_SIMULATION = "Unable to proceed with simulation";
     private Map<Method, Set<Handler>> handlerMap = new LinkedHashMap<Method, Set<Handler>>();
 
+    // The index used to dispatch requests, which is rebuilt whenever handlers are added or removed.
+    private volatile HandlerDispatchIndex dispatchIndex = new HandlerDispatchIndex(handlerMap);
+
     private boolean evaluateAllHandlers = false;
 
     /**
@@ -110,6 +118,7 @@ public class HandlerManager {
                 sb.append(" all");
             }
         }
+        dispatchIndex = new HandlerDispatchIndex(handlerMap);
         
         if (log.isDebugEnabled()) {
             log.debug("Registered the handler " + handler.getClass().getName() + " for" + sb.toString() + " methods.");
@@ -154,6 +163,7 @@ public class HandlerManager {
                 handlerMap.put(method, handlers);
             }
         }
+        dispatchIndex = new HandlerDispatchIndex(handlerMap);
 
         if (log.isDebugEnabled()) {
             log.debug("Removed the handler " + handler.getClass().getName() + " for all methods.");
@@ -194,43 +204,40 @@ public class HandlerManager {
      *                           handlers or filters.
      */
     public void createVersion(HandlerContext requestContext) throws RepositoryException {
-        Set<Handler> handlers =  handlerMap.get(Method.CREATE_VERSION);
-        if (handlers != null) {
-            for (Handler handler : handlers) {
-                if (handler.engageHandler(requestContext, Method.CREATE_VERSION)) {
-                    try {
-                        handler.createVersion(requestContext);
-
-                        if (!requestContext.isExecutionStatusSet(handler)) {
-                            requestContext.setExecutionStatus(handler, true);
-                        }
-                    } catch (RepositoryException e) {
-                        requestContext.setExecutionStatus(handler, e);
-
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return;
-                        }
-                        throw e;
-                    } catch (VirtualMachineError e) {
-                        log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
-                        throw e;
-                    } catch (Throwable e) {
-                        requestContext.setExecutionStatus(handler, e);
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-
-                        if (SimulationFilter.isSimulation()) {
-                            return;
-                        }
+        HandlerDispatchIndex.Dispatch dispatch = dispatchIndex.getDispatch(Method.CREATE_VERSION, requestContext);
+        Handler handler;
+        while ((handler = dispatch.nextHandler()) != null) {
+            try {
+                handler.createVersion(requestContext);
+
+                if (!requestContext.isExecutionStatusSet(handler)) {
+                    requestContext.setExecutionStatus(handler, true);
+                }
+            } catch (RepositoryException e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // We will be concatenating the incoming exception's message so that it will
-                        // be carried forward, and displayed at the client-side.
-                        throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
-                    }
-                    if (isProcessingComplete(requestContext)) {
-                        break;
-                    }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return;
+                }
+                throw e;
+            } catch (VirtualMachineError e) {
+                log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
+                throw e;
+            } catch (Throwable e) {
+                requestContext.setExecutionStatus(handler, e);
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+
+                if (SimulationFilter.isSimulation()) {
+                    return;
                 }
+
+                // We will be concatenating the incoming exception's message so that it will
+                // be carried forward, and displayed at the client-side.
+                throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
+            }
+            if (isProcessingComplete(requestContext)) {
+                break;
             }
         }
     }
@@ -244,44 +251,41 @@ public class HandlerManager {
      *                           handlers or filters.
      */
     public void restoreVersion(HandlerContext requestContext) throws RepositoryException {
-        Set<Handler> handlers =  handlerMap.get(Method.RESTORE_VERSION);
-        if (handlers != null) {
-            for (Handler handler : handlers) {
-                if (handler.engageHandler(requestContext, Method.RESTORE_VERSION)) {
-                    try {
-                        handler.restoreVersion(requestContext);
-
-                        if (!requestContext.isExecutionStatusSet(handler)) {
-                            requestContext.setExecutionStatus(handler, true);
-                        }
-                    } catch (RepositoryException e) {
-                        requestContext.setExecutionStatus(handler, e);
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-
-                        if (SimulationFilter.isSimulation()) {
-                            return;
-                        }
+        HandlerDispatchIndex.Dispatch dispatch = dispatchIndex.getDispatch(Method.RESTORE_VERSION, requestContext);
+        Handler handler;
+        while ((handler = dispatch.nextHandler()) != null) {
+            try {
+                handler.restoreVersion(requestContext);
+
+                if (!requestContext.isExecutionStatusSet(handler)) {
+                    requestContext.setExecutionStatus(handler, true);
+                }
+            } catch (RepositoryException e) {
+                requestContext.setExecutionStatus(handler, e);
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
 
-                        throw e;
-                    } catch (VirtualMachineError e) {
-                        log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
-                        throw e;
-                    } catch (Throwable e) {
-                        requestContext.setExecutionStatus(handler, e);
+                if (SimulationFilter.isSimulation()) {
+                    return;
+                }
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return;
-                        }
+                throw e;
+            } catch (VirtualMachineError e) {
+                log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
+                throw e;
+            } catch (Throwable e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // We will be concatenating the incoming exception's message so that it will
-                        // be carried forward, and displayed at the client-side.
-                        throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
-                    }
-                    if (isProcessingComplete(requestContext)) {
-                        break;
-                    }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return;
                 }
+
+                // We will be concatenating the incoming exception's message so that it will
+                // be carried forward, and displayed at the client-side.
+                throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
+            }
+            if (isProcessingComplete(requestContext)) {
+                break;
             }
         }
     }
@@ -297,44 +301,41 @@ public class HandlerManager {
      */
     public String[] getVersions(HandlerContext requestContext) throws RepositoryException {
         String[] versions = null;
-        Set<Handler> handlers =  handlerMap.get(Method.GET_VERSIONS);
-        if (handlers != null) {
-            for (Handler handler : handlers) {
-                if (handler.engageHandler(requestContext, Method.GET_VERSIONS)) {
-                    try {
-                        versions = handler.getVersions(requestContext);
-
-                        if (!requestContext.isExecutionStatusSet(handler)) {
-                            requestContext.setExecutionStatus(handler, true);
-                        }
-                    } catch (RepositoryException e) {
-                        requestContext.setExecutionStatus(handler, e);
-
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return null;
-                        }
+        HandlerDispatchIndex.Dispatch dispatch = dispatchIndex.getDispatch(Method.GET_VERSIONS, requestContext);
+        Handler handler;
+        while ((handler = dispatch.nextHandler()) != null) {
+            try {
+                versions = handler.getVersions(requestContext);
+
+                if (!requestContext.isExecutionStatusSet(handler)) {
+                    requestContext.setExecutionStatus(handler, true);
+                }
+            } catch (RepositoryException e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        throw e;
-                    } catch (VirtualMachineError e) {
-                        log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
-                        throw e;
-                    } catch (Throwable e) {
-                        requestContext.setExecutionStatus(handler, e);
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return null;
+                }
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return null;
-                        }
+                throw e;
+            } catch (VirtualMachineError e) {
+                log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
+                throw e;
+            } catch (Throwable e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // We will be concatenating the incoming exception's message so that it will
-                        // be carried forward, and displayed at the client-side.
-                        throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
-                    }
-                    if (isProcessingComplete(requestContext)) {
-                        break;
-                    }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return null;
                 }
+
+                // We will be concatenating the incoming exception's message so that it will
+                // be carried forward, and displayed at the client-side.
+                throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
+            }
+            if (isProcessingComplete(requestContext)) {
+                break;
             }
         }
 
@@ -353,54 +354,51 @@ public class HandlerManager {
     public Collection executeQuery(HandlerContext requestContext) throws RepositoryException {
         Collection collection = null;
         List<String> results = new LinkedList<String>();
-        Set<Handler> handlers =  handlerMap.get(Method.EXECUTE_QUERY);
-        if (handlers != null) {
-            for (Handler handler : handlers) {
-                if (handler.engageHandler(requestContext, Method.EXECUTE_QUERY)) {
-                    try {
-                        collection = handler.executeQuery(requestContext);
-                        if (collection != null) {
-                            String[] children = collection.getChildPaths();
-                            if (children != null) {
-                                for (String child : children) {
-                                    if (child != null) {
-                                        results.add(child);
-                                    }
-                                }
+        HandlerDispatchIndex.Dispatch dispatch = dispatchIndex.getDispatch(Method.EXECUTE_QUERY, requestContext);
+        Handler handler;
+        while ((handler = dispatch.nextHandler()) != null) {
+            try {
+                collection = handler.executeQuery(requestContext);
+                if (collection != null) {
+                    String[] children = collection.getChildPaths();
+                    if (children != null) {
+                        for (String child : children) {
+                            if (child != null) {
+                                results.add(child);
                             }
                         }
+                    }
+                }
 
-                        if (!requestContext.isExecutionStatusSet(handler)) {
-                            requestContext.setExecutionStatus(handler, true);
-                        }
-                    } catch (RepositoryException e) {
-                        requestContext.setExecutionStatus(handler, e);
-
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return null;
-                        }
+                if (!requestContext.isExecutionStatusSet(handler)) {
+                    requestContext.setExecutionStatus(handler, true);
+                }
+            } catch (RepositoryException e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        throw e;
-                    } catch (VirtualMachineError e) {
-                        log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
-                        throw e;
-                    } catch (Throwable e) {
-                        requestContext.setExecutionStatus(handler, e);
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return null;
+                }
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return null;
-                        }
+                throw e;
+            } catch (VirtualMachineError e) {
+                log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
+                throw e;
+            } catch (Throwable e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // We will be concatenating the incoming exception's message so that it will
-                        // be carried forward, and displayed at the client-side.
-                        throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
-                    }
-                    if (isProcessingComplete(requestContext)) {
-                        break;
-                    }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return null;
                 }
+
+                // We will be concatenating the incoming exception's message so that it will
+                // be carried forward, and displayed at the client-side.
+                throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
+            }
+            if (isProcessingComplete(requestContext)) {
+                break;
             }
         }
 
@@ -424,45 +422,42 @@ public class HandlerManager {
      */
     public Collection searchContent(HandlerContext requestContext) throws RepositoryException {
         Collection collection = null;
-        Set<Handler> handlers =  handlerMap.get(Method.SEARCH_CONTENT);
-        if (handlers != null) {
-            for (Handler handler : handlers) {
-                if (handler.engageHandler(requestContext, Method.SEARCH_CONTENT)) {
-                    try {
-                        collection = handler.searchContent(requestContext);
-
-                        if (!requestContext.isExecutionStatusSet(handler)) {
-                            requestContext.setExecutionStatus(handler, true);
-                        }
-                    } catch (RepositoryException e) {
-                        requestContext.setExecutionStatus(handler, e);
+        HandlerDispatchIndex.Dispatch dispatch = dispatchIndex.getDispatch(Method.SEARCH_CONTENT, requestContext);
+        Handler handler;
+        while ((handler = dispatch.nextHandler()) != null) {
+            try {
+                collection = handler.searchContent(requestContext);
+
+                if (!requestContext.isExecutionStatusSet(handler)) {
+                    requestContext.setExecutionStatus(handler, true);
+                }
+            } catch (RepositoryException e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return null;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return null;
+                }
 
-                        throw e;
-                    } catch (VirtualMachineError e) {
-                        log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
-                        throw e;
-                    } catch (Throwable e) {
-                        requestContext.setExecutionStatus(handler, e);
+                throw e;
+            } catch (VirtualMachineError e) {
+                log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
+                throw e;
+            } catch (Throwable e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return null;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return null;
+                }
 
-                        // We will be concatenating the incoming exception's message so that it will
-                        // be carried forward, and displayed at the client-side.
-                        throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
-                    }
+                // We will be concatenating the incoming exception's message so that it will
+                // be carried forward, and displayed at the client-side.
+                throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
+            }
 
-                    if (isProcessingComplete(requestContext)) {
-                        break;
-                    }
-                }
+            if (isProcessingComplete(requestContext)) {
+                break;
             }
         }
 
@@ -480,45 +475,42 @@ public class HandlerManager {
      */
     public Resource get(HandlerContext requestContext) throws RepositoryException {
         Resource resource = null;
-        Set<Handler> handlers =  handlerMap.get(Method.GET);
-        if (handlers != null) {
-            for (Handler handler : handlers) {
-                if (handler.engageHandler(requestContext, Method.GET)) {
-                    try {
-                        resource = handler.get(requestContext);
-
-                        if (!requestContext.isExecutionStatusSet(handler)) {
-                            requestContext.setExecutionStatus(handler, true);
-                        }
-                    } catch (RepositoryException e) {
-                        requestContext.setExecutionStatus(handler, e);
+        HandlerDispatchIndex.Dispatch dispatch = dispatchIndex.getDispatch(Method.GET, requestContext);
+        Handler handler;
+        while ((handler = dispatch.nextHandler()) != null) {
+            try {
+                resource = handler.get(requestContext);
+
+                if (!requestContext.isExecutionStatusSet(handler)) {
+                    requestContext.setExecutionStatus(handler, true);
+                }
+            } catch (RepositoryException e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return null;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return null;
+                }
 
-                        throw e;
-                    } catch (VirtualMachineError e) {
-                        log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
-                        throw e;
-                    } catch (Throwable e) {
-                        requestContext.setExecutionStatus(handler, e);
+                throw e;
+            } catch (VirtualMachineError e) {
+                log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
+                throw e;
+            } catch (Throwable e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return null;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return null;
+                }
 
-                        // We will be concatenating the incoming exception's message so that it will
-                        // be carried forward, and displayed at the client-side.
-                        throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
-                    }
+                // We will be concatenating the incoming exception's message so that it will
+                // be carried forward, and displayed at the client-side.
+                throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
+            }
 
-                    if (isProcessingComplete(requestContext)) {
-                        break;
-                    }
-                }
+            if (isProcessingComplete(requestContext)) {
+                break;
             }
         }
 
@@ -536,45 +528,42 @@ public class HandlerManager {
      *                           handlers or filters.
      */
     public String put(HandlerContext requestContext) throws RepositoryException {
-        Set<Handler> handlers =  handlerMap.get(Method.PUT);
-        if (handlers != null) {
-            for (Handler handler : handlers) {
-                if (handler.engageHandler(requestContext, Method.PUT)) {
-                    try {
-                        handler.put(requestContext);
-
-                        if (!requestContext.isExecutionStatusSet(handler)) {
-                            requestContext.setExecutionStatus(handler, true);
-                        }
-                    } catch (RepositoryException e) {
-                        requestContext.setExecutionStatus(handler, e);
+        HandlerDispatchIndex.Dispatch dispatch = dispatchIndex.getDispatch(Method.PUT, requestContext);
+        Handler handler;
+        while ((handler = dispatch.nextHandler()) != null) {
+            try {
+                handler.put(requestContext);
+
+                if (!requestContext.isExecutionStatusSet(handler)) {
+                    requestContext.setExecutionStatus(handler, true);
+                }
+            } catch (RepositoryException e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return null;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return null;
+                }
 
-                        throw e;
-                    } catch (VirtualMachineError e) {
-                        log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
-                        throw e;
-                    } catch (Throwable e) {
-                        requestContext.setExecutionStatus(handler, e);
+                throw e;
+            } catch (VirtualMachineError e) {
+                log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
+                throw e;
+            } catch (Throwable e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return null;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return null;
+                }
 
-                        // We will be concatenating the incoming exception's message so that it will
-                        // be carried forward, and displayed at the client-side.
-                        throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
-                    }
+                // We will be concatenating the incoming exception's message so that it will
+                // be carried forward, and displayed at the client-side.
+                throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
+            }
 
-                    if (isProcessingComplete(requestContext)) {
-                        break;
-                    }
-                }
+            if (isProcessingComplete(requestContext)) {
+                break;
             }
         }
 
@@ -596,45 +585,42 @@ public class HandlerManager {
      *                           handlers or filters.
      */
     public String importResource(HandlerContext requestContext) throws RepositoryException {
-        Set<Handler> handlers =  handlerMap.get(Method.IMPORT);
-        if (handlers != null) {
-            for (Handler handler : handlers) {
-                if (handler.engageHandler(requestContext, Method.IMPORT)) {
-                    try {
-                        handler.importResource(requestContext);
-
-                        if (!requestContext.isExecutionStatusSet(handler)) {
-                            requestContext.setExecutionStatus(handler, true);
-                        }
-                    } catch (RepositoryException e) {
-                        requestContext.setExecutionStatus(handler, e);
+        HandlerDispatchIndex.Dispatch dispatch = dispatchIndex.getDispatch(Method.IMPORT, requestContext);
+        Handler handler;
+        while ((handler = dispatch.nextHandler()) != null) {
+            try {
+                handler.importResource(requestContext);
+
+                if (!requestContext.isExecutionStatusSet(handler)) {
+                    requestContext.setExecutionStatus(handler, true);
+                }
+            } catch (RepositoryException e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return null;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return null;
+                }
 
-                        throw e;
-                    } catch (VirtualMachineError e) {
-                        log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
-                        throw e;
-                    } catch (Throwable e) {
-                        requestContext.setExecutionStatus(handler, e);
+                throw e;
+            } catch (VirtualMachineError e) {
+                log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
+                throw e;
+            } catch (Throwable e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return null;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return null;
+                }
 
-                        // We will be concatenating the incoming exception's message so that it will
-                        // be carried forward, and displayed at the client-side.
-                        throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
-                    }
+                // We will be concatenating the incoming exception's message so that it will
+                // be carried forward, and displayed at the client-side.
+                throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
+            }
 
-                    if (isProcessingComplete(requestContext)) {
-                        break;
-                    }
-                }
+            if (isProcessingComplete(requestContext)) {
+                break;
             }
         }
 
@@ -654,46 +640,42 @@ public class HandlerManager {
      *                           handlers or filters.
      */
     public void delete(HandlerContext requestContext) throws RepositoryException {
-        Set<Handler> handlers =  handlerMap.get(Method.DELETE);
-
-        if (handlers != null) {
-            for (Handler handler : handlers) {
-                if (handler.engageHandler(requestContext, Method.DELETE)) {
-                    try {
-                        handler.delete(requestContext);
-
-                        if (!requestContext.isExecutionStatusSet(handler)) {
-                            requestContext.setExecutionStatus(handler, true);
-                        }
-                    } catch (RepositoryException e) {
-                        requestContext.setExecutionStatus(handler, e);
+        HandlerDispatchIndex.Dispatch dispatch = dispatchIndex.getDispatch(Method.DELETE, requestContext);
+        Handler handler;
+        while ((handler = dispatch.nextHandler()) != null) {
+            try {
+                handler.delete(requestContext);
+
+                if (!requestContext.isExecutionStatusSet(handler)) {
+                    requestContext.setExecutionStatus(handler, true);
+                }
+            } catch (RepositoryException e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return;
+                }
 
-                        throw e;
-                    } catch (VirtualMachineError e) {
-                        log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
-                        throw e;
-                    } catch (Throwable e) {
-                        requestContext.setExecutionStatus(handler, e);
+                throw e;
+            } catch (VirtualMachineError e) {
+                log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
+                throw e;
+            } catch (Throwable e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return;
+                }
 
-                        // We will be concatenating the incoming exception's message so that it will
-                        // be carried forward, and displayed at the client-side.
-                        throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
-                    }
+                // We will be concatenating the incoming exception's message so that it will
+                // be carried forward, and displayed at the client-side.
+                throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
+            }
 
-                    if (isProcessingComplete(requestContext)) {
-                        break;
-                    }
-                }
+            if (isProcessingComplete(requestContext)) {
+                break;
             }
         }
     }
@@ -707,45 +689,42 @@ public class HandlerManager {
      *                           handlers or filters.
      */
     public void putChild(HandlerContext requestContext) throws RepositoryException {
-        Set<Handler> handlers =  handlerMap.get(Method.PUT_CHILD);
-        if (handlers != null) {
-            for (Handler handler : handlers) {
-                if (handler.engageHandler(requestContext, Method.PUT_CHILD)) {
-                    try {
-                        handler.putChild(requestContext);
-
-                        if (!requestContext.isExecutionStatusSet(handler)) {
-                            requestContext.setExecutionStatus(handler, true);
-                        }
-                    } catch (RepositoryException e) {
-                        requestContext.setExecutionStatus(handler, e);
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
+        HandlerDispatchIndex.Dispatch dispatch = dispatchIndex.getDispatch(Method.PUT_CHILD, requestContext);
+        Handler handler;
+        while ((handler = dispatch.nextHandler()) != null) {
+            try {
+                handler.putChild(requestContext);
+
+                if (!requestContext.isExecutionStatusSet(handler)) {
+                    requestContext.setExecutionStatus(handler, true);
+                }
+            } catch (RepositoryException e) {
+                requestContext.setExecutionStatus(handler, e);
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
 
-                        if (SimulationFilter.isSimulation()) {
-                            return;
-                        }
+                if (SimulationFilter.isSimulation()) {
+                    return;
+                }
 
-                        throw e;
-                    } catch (VirtualMachineError e) {
-                        log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
-                        throw e;
-                    } catch (Throwable e) {
-                        requestContext.setExecutionStatus(handler, e);
+                throw e;
+            } catch (VirtualMachineError e) {
+                log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
+                throw e;
+            } catch (Throwable e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return;
+                }
 
-                        // We will be concatenating the incoming exception's message so that it will
-                        // be carried forward, and displayed at the client-side.
-                        throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
-                    }
+                // We will be concatenating the incoming exception's message so that it will
+                // be carried forward, and displayed at the client-side.
+                throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
+            }
 
-                    if (isProcessingComplete(requestContext)) {
-                        break;
-                    }
-                }
+            if (isProcessingComplete(requestContext)) {
+                break;
             }
         }
     }
@@ -759,45 +738,42 @@ public class HandlerManager {
      *                           handlers or filters.
      */
     public void importChild(HandlerContext requestContext) throws RepositoryException {
-        Set<Handler> handlers =  handlerMap.get(Method.IMPORT_CHILD);
-        if (handlers != null) {
-            for (Handler handler : handlers) {
-                if (handler.engageHandler(requestContext, Method.IMPORT_CHILD)) {
-                    try {
-                        handler.importChild(requestContext);
-
-                        if (!requestContext.isExecutionStatusSet(handler)) {
-                            requestContext.setExecutionStatus(handler, true);
-                        }
-                    } catch (RepositoryException e) {
-                        requestContext.setExecutionStatus(handler, e);
+        HandlerDispatchIndex.Dispatch dispatch = dispatchIndex.getDispatch(Method.IMPORT_CHILD, requestContext);
+        Handler handler;
+        while ((handler = dispatch.nextHandler()) != null) {
+            try {
+                handler.importChild(requestContext);
+
+                if (!requestContext.isExecutionStatusSet(handler)) {
+                    requestContext.setExecutionStatus(handler, true);
+                }
+            } catch (RepositoryException e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return;
+                }
 
-                        throw e;
-                    } catch (VirtualMachineError e) {
-                        log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
-                        throw e;
-                    } catch (Throwable e) {
-                        requestContext.setExecutionStatus(handler, e);
+                throw e;
+            } catch (VirtualMachineError e) {
+                log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
+                throw e;
+            } catch (Throwable e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return;
+                }
 
-                        // We will be concatenating the incoming exception's message so that it will
-                        // be carried forward, and displayed at the client-side.
-                        throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
-                    }
+                // We will be concatenating the incoming exception's message so that it will
+                // be carried forward, and displayed at the client-side.
+                throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
+            }
 
-                    if (isProcessingComplete(requestContext)) {
-                        break;
-                    }
-                }
+            if (isProcessingComplete(requestContext)) {
+                break;
             }
         }
     }
@@ -813,44 +789,41 @@ public class HandlerManager {
      */
     public String copy(HandlerContext requestContext) throws RepositoryException {
         String copiedPath = null;
-        Set<Handler> handlers =  handlerMap.get(Method.COPY);
-        if (handlers != null) {
-            for (Handler handler : handlers) {
-                if (handler.engageHandler(requestContext, Method.COPY)) {
-                    try {
-                        copiedPath = handler.copy(requestContext);
-                        if (!requestContext.isExecutionStatusSet(handler)) {
-                            requestContext.setExecutionStatus(handler, true);
-                        }
-                    } catch (RepositoryException e) {
-                        requestContext.setExecutionStatus(handler, e);
+        HandlerDispatchIndex.Dispatch dispatch = dispatchIndex.getDispatch(Method.COPY, requestContext);
+        Handler handler;
+        while ((handler = dispatch.nextHandler()) != null) {
+            try {
+                copiedPath = handler.copy(requestContext);
+                if (!requestContext.isExecutionStatusSet(handler)) {
+                    requestContext.setExecutionStatus(handler, true);
+                }
+            } catch (RepositoryException e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return null;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return null;
+                }
 
-                        throw e;
-                    } catch (VirtualMachineError e) {
-                        log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
-                        throw e;
-                    } catch (Throwable e) {
-                        requestContext.setExecutionStatus(handler, e);
+                throw e;
+            } catch (VirtualMachineError e) {
+                log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
+                throw e;
+            } catch (Throwable e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return null;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return null;
+                }
 
-                        // We will be concatenating the incoming exception's message so that it will
-                        // be carried forward, and displayed at the client-side.
-                        throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
-                    }
+                // We will be concatenating the incoming exception's message so that it will
+                // be carried forward, and displayed at the client-side.
+                throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
+            }
 
-                    if (isProcessingComplete(requestContext)) {
-                        break;
-                    }
-                }
+            if (isProcessingComplete(requestContext)) {
+                break;
             }
         }
 
@@ -868,45 +841,42 @@ public class HandlerManager {
      */
     public String move(HandlerContext requestContext) throws RepositoryException {
         String movedPath = null;
-        Set<Handler> handlers =  handlerMap.get(Method.MOVE);
-        if (handlers != null) {
-            for (Handler handler : handlers) {
-                if (handler.engageHandler(requestContext, Method.MOVE)) {
-                    try {
-                        movedPath = handler.move(requestContext);
-
-                        if (!requestContext.isExecutionStatusSet(handler)) {
-                            requestContext.setExecutionStatus(handler, true);
-                        }
-                    } catch (RepositoryException e) {
-                        requestContext.setExecutionStatus(handler, e);
+        HandlerDispatchIndex.Dispatch dispatch = dispatchIndex.getDispatch(Method.MOVE, requestContext);
+        Handler handler;
+        while ((handler = dispatch.nextHandler()) != null) {
+            try {
+                movedPath = handler.move(requestContext);
+
+                if (!requestContext.isExecutionStatusSet(handler)) {
+                    requestContext.setExecutionStatus(handler, true);
+                }
+            } catch (RepositoryException e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return null;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return null;
+                }
 
-                        throw e;
-                    } catch (VirtualMachineError e) {
-                        log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
-                        throw e;
-                    } catch (Throwable e) {
-                        requestContext.setExecutionStatus(handler, e);
+                throw e;
+            } catch (VirtualMachineError e) {
+                log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
+                throw e;
+            } catch (Throwable e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return null;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return null;
+                }
 
-                        // We will be concatenating the incoming exception's message so that it will
-                        // be carried forward, and displayed at the client-side.
-                        throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
-                    }
+                // We will be concatenating the incoming exception's message so that it will
+                // be carried forward, and displayed at the client-side.
+                throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
+            }
 
-                    if (isProcessingComplete(requestContext)) {
-                        break;
-                    }
-                }
+            if (isProcessingComplete(requestContext)) {
+                break;
             }
         }
 
@@ -924,45 +894,42 @@ public class HandlerManager {
      */
     public String rename(HandlerContext requestContext) throws RepositoryException {
         String renamedPath = null;
-        Set<Handler> handlers =  handlerMap.get(Method.RENAME);
-        if (handlers != null) {
-            for (Handler handler : handlers) {
-                if (handler.engageHandler(requestContext, Method.RENAME)) {
-                    try {
-                        renamedPath = handler.rename(requestContext);
-
-                        if (!requestContext.isExecutionStatusSet(handler)) {
-                            requestContext.setExecutionStatus(handler, true);
-                        }
-                    } catch (RepositoryException e) {
-                        requestContext.setExecutionStatus(handler, e);
+        HandlerDispatchIndex.Dispatch dispatch = dispatchIndex.getDispatch(Method.RENAME, requestContext);
+        Handler handler;
+        while ((handler = dispatch.nextHandler()) != null) {
+            try {
+                renamedPath = handler.rename(requestContext);
+
+                if (!requestContext.isExecutionStatusSet(handler)) {
+                    requestContext.setExecutionStatus(handler, true);
+                }
+            } catch (RepositoryException e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return null;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return null;
+                }
 
-                        throw e;
-                    } catch (VirtualMachineError e) {
-                        log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
-                        throw e;
-                    } catch (Throwable e) {
-                        requestContext.setExecutionStatus(handler, e);
+                throw e;
+            } catch (VirtualMachineError e) {
+                log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
+                throw e;
+            } catch (Throwable e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return null;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return null;
+                }
 
-                        // We will be concatenating the incoming exception's message so that it will
-                        // be carried forward, and displayed at the client-side.
-                        throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
-                    }
+                // We will be concatenating the incoming exception's message so that it will
+                // be carried forward, and displayed at the client-side.
+                throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
+            }
 
-                    if (isProcessingComplete(requestContext)) {
-                        break;
-                    }
-                }
+            if (isProcessingComplete(requestContext)) {
+                break;
             }
         }
         
@@ -978,43 +945,40 @@ public class HandlerManager {
      *                           handlers or filters.
      */
     public void createLink(HandlerContext requestContext) throws RepositoryException {
-        Set<Handler> handlers =  handlerMap.get(Method.CREATE_LINK);
-        if (handlers != null) {
-            for (Handler handler : handlers) {
-                if (handler.engageHandler(requestContext, Method.CREATE_LINK)) {
-                    try {
-                        handler.createLink(requestContext);
-
-                        if (!requestContext.isExecutionStatusSet(handler)) {
-                            requestContext.setExecutionStatus(handler, true);
-                        }
-                    } catch (RepositoryException e) {
-                        requestContext.setExecutionStatus(handler, e);
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return;
-                        }
-                        throw e;
-                    } catch (VirtualMachineError e) {
-                        log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
-                        throw e;
-                    } catch (Throwable e) {
-                        requestContext.setExecutionStatus(handler, e);
-
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return;
-                        }
+        HandlerDispatchIndex.Dispatch dispatch = dispatchIndex.getDispatch(Method.CREATE_LINK, requestContext);
+        Handler handler;
+        while ((handler = dispatch.nextHandler()) != null) {
+            try {
+                handler.createLink(requestContext);
+
+                if (!requestContext.isExecutionStatusSet(handler)) {
+                    requestContext.setExecutionStatus(handler, true);
+                }
+            } catch (RepositoryException e) {
+                requestContext.setExecutionStatus(handler, e);
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return;
+                }
+                throw e;
+            } catch (VirtualMachineError e) {
+                log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
+                throw e;
+            } catch (Throwable e) {
+                requestContext.setExecutionStatus(handler, e);
+
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return;
+                }
 
-                        // We will be concatenating the incoming exception's message so that it will
-                        // be carried forward, and displayed at the client-side.
-                        throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
-                    }
+                // We will be concatenating the incoming exception's message so that it will
+                // be carried forward, and displayed at the client-side.
+                throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
+            }
 
-                    if (isProcessingComplete(requestContext)) {
-                        break;
-                    }
-                }
+            if (isProcessingComplete(requestContext)) {
+                break;
             }
         }
     }
@@ -1028,45 +992,42 @@ public class HandlerManager {
      *                           handlers or filters.
      */
     public void removeLink(HandlerContext requestContext) throws RepositoryException {
-        Set<Handler> handlers =  handlerMap.get(Method.REMOVE_LINK);
-        if (handlers != null) {
-            for (Handler handler : handlers) {
-                if (handler.engageHandler(requestContext, Method.REMOVE_LINK)) {
-                    try {
-                        handler.removeLink(requestContext);
-
-                        if (!requestContext.isExecutionStatusSet(handler)) {
-                            requestContext.setExecutionStatus(handler, true);
-                        }
-                    } catch (RepositoryException e) {
-                        requestContext.setExecutionStatus(handler, e);
+        HandlerDispatchIndex.Dispatch dispatch = dispatchIndex.getDispatch(Method.REMOVE_LINK, requestContext);
+        Handler handler;
+        while ((handler = dispatch.nextHandler()) != null) {
+            try {
+                handler.removeLink(requestContext);
+
+                if (!requestContext.isExecutionStatusSet(handler)) {
+                    requestContext.setExecutionStatus(handler, true);
+                }
+            } catch (RepositoryException e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return;
+                }
 
-                        throw e;
-                    } catch (VirtualMachineError e) {
-                        log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
-                        throw e;
-                    } catch (Throwable e) {
-                        requestContext.setExecutionStatus(handler, e);
+                throw e;
+            } catch (VirtualMachineError e) {
+                log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
+                throw e;
+            } catch (Throwable e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return;
+                }
 
-                        // We will be concatenating the incoming exception's message so that it will
-                        // be carried forward, and displayed at the client-side.
-                        throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
-                    }
+                // We will be concatenating the incoming exception's message so that it will
+                // be carried forward, and displayed at the client-side.
+                throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
+            }
 
-                    if (isProcessingComplete(requestContext)) {
-                        break;
-                    }
-                }
+            if (isProcessingComplete(requestContext)) {
+                break;
             }
         }
     }
@@ -1082,45 +1043,42 @@ public class HandlerManager {
      */
     public boolean resourceExists(HandlerContext requestContext) throws RepositoryException {
         boolean resourceExist = false;
-        Set<Handler> handlers =  handlerMap.get(Method.RESOURCE_EXISTS);
-        if (handlers != null) {
-            for (Handler handler : handlers) {
-                if (handler.engageHandler(requestContext, Method.RESOURCE_EXISTS)) {
-                    try {
-                        resourceExist = handler.resourceExists(requestContext);
-
-                        if (!requestContext.isExecutionStatusSet(handler)) {
-                            requestContext.setExecutionStatus(handler, true);
-                        }
-                    } catch (RepositoryException e) {
-                        requestContext.setExecutionStatus(handler, e);
+        HandlerDispatchIndex.Dispatch dispatch = dispatchIndex.getDispatch(Method.RESOURCE_EXISTS, requestContext);
+        Handler handler;
+        while ((handler = dispatch.nextHandler()) != null) {
+            try {
+                resourceExist = handler.resourceExists(requestContext);
+
+                if (!requestContext.isExecutionStatusSet(handler)) {
+                    requestContext.setExecutionStatus(handler, true);
+                }
+            } catch (RepositoryException e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return false;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return false;
+                }
 
-                        throw e;
-                    } catch (VirtualMachineError e) {
-                        log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
-                        throw e;
-                    } catch (Throwable e) {
-                        requestContext.setExecutionStatus(handler, e);
+                throw e;
+            } catch (VirtualMachineError e) {
+                log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
+                throw e;
+            } catch (Throwable e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return false;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return false;
+                }
 
-                        // We will be concatenating the incoming exception's message so that it will
-                        // be carried forward, and displayed at the client-side.
-                        throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
-                    }
+                // We will be concatenating the incoming exception's message so that it will
+                // be carried forward, and displayed at the client-side.
+                throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
+            }
 
-                    if (isProcessingComplete(requestContext)) {
-                        break;
-                    }
-                }
+            if (isProcessingComplete(requestContext)) {
+                break;
             }
         }
 
@@ -1138,45 +1096,42 @@ public class HandlerManager {
      */
     public Element dump(HandlerContext requestContext) throws RepositoryException {
         Element dumpedElement = null;
-        Set<Handler> handlers =  handlerMap.get(Method.DUMP);
-        if (handlers != null) {
-            for (Handler handler : handlers) {
-                if (handler.engageHandler(requestContext, Method.DUMP)) {
-                    try {
-                        handler.dump(requestContext);
-
-                        if (!requestContext.isExecutionStatusSet(handler)) {
-                            requestContext.setExecutionStatus(handler, true);
-                        }
-                    } catch (RepositoryException e) {
-                        requestContext.setExecutionStatus(handler, e);
+        HandlerDispatchIndex.Dispatch dispatch = dispatchIndex.getDispatch(Method.DUMP, requestContext);
+        Handler handler;
+        while ((handler = dispatch.nextHandler()) != null) {
+            try {
+                handler.dump(requestContext);
+
+                if (!requestContext.isExecutionStatusSet(handler)) {
+                    requestContext.setExecutionStatus(handler, true);
+                }
+            } catch (RepositoryException e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return null;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return null;
+                }
 
-                        throw e;
-                    } catch (VirtualMachineError e) {
-                        log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
-                        throw e;
-                    } catch (Throwable e) {
-                        requestContext.setExecutionStatus(handler, e);
+                throw e;
+            } catch (VirtualMachineError e) {
+                log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
+                throw e;
+            } catch (Throwable e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return null;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return null;
+                }
 
-                        // We will be concatenating the incoming exception's message so that it will
-                        // be carried forward, and displayed at the client-side.
-                        throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
-                    }
+                // We will be concatenating the incoming exception's message so that it will
+                // be carried forward, and displayed at the client-side.
+                throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
+            }
 
-                    if (isProcessingComplete(requestContext)) {
-                        break;
-                    }
-                }
+            if (isProcessingComplete(requestContext)) {
+                break;
             }
         }
 
@@ -1192,45 +1147,42 @@ public class HandlerManager {
      *                           handlers or filters.
      */
     public void restore(HandlerContext requestContext) throws RepositoryException {
-        Set<Handler> handlers =  handlerMap.get(Method.RESTORE);
-        if (handlers != null) {
-            for (Handler handler : handlers) {
-                if (handler.engageHandler(requestContext, Method.RESTORE)) {
-                    try {
-                        handler.restore(requestContext);
-
-                        if (!requestContext.isExecutionStatusSet(handler)) {
-                            requestContext.setExecutionStatus(handler, true);
-                        }
-                    } catch (RepositoryException e) {
-                        requestContext.setExecutionStatus(handler, e);
+        HandlerDispatchIndex.Dispatch dispatch = dispatchIndex.getDispatch(Method.RESTORE, requestContext);
+        Handler handler;
+        while ((handler = dispatch.nextHandler()) != null) {
+            try {
+                handler.restore(requestContext);
+
+                if (!requestContext.isExecutionStatusSet(handler)) {
+                    requestContext.setExecutionStatus(handler, true);
+                }
+            } catch (RepositoryException e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return;
+                }
 
-                        throw e;
-                    } catch (VirtualMachineError e) {
-                        log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
-                        throw e;
-                    } catch (Throwable e) {
-                        requestContext.setExecutionStatus(handler, e);
+                throw e;
+            } catch (VirtualMachineError e) {
+                log.fatal(UNABLE_TO_PROCEED_WITH_SIMULATION, e);
+                throw e;
+            } catch (Throwable e) {
+                requestContext.setExecutionStatus(handler, e);
 
-                        // Don't throw exceptions in simulation mode, but exit lifecycle phase
-                        if (SimulationFilter.isSimulation()) {
-                            return;
-                        }
+                // Don't throw exceptions in simulation mode, but exit lifecycle phase
+                if (SimulationFilter.isSimulation()) {
+                    return;
+                }
 
-                        // We will be concatenating the incoming exception's message so that it will
-                        // be carried forward, and displayed at the client-side.
-                        throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
-                    }
+                // We will be concatenating the incoming exception's message so that it will
+                // be carried forward, and displayed at the client-side.
+                throw new RepositoryException(AN_EXCEPTION_OCCURRED_WHILE_EXECUTING_HANDLER_CHAIN + e.getMessage(), e);
+            }
 
-                    if (isProcessingComplete(requestContext)) {
-                        break;
-                    }
-                }
+            if (isProcessingComplete(requestContext)) {
+                break;
             }
         }
     }
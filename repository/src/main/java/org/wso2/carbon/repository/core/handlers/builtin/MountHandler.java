@@ -34,6 +34,8 @@ import org.wso2.carbon.repository.core.handlers.HandlerLifecycleManager;
 import org.wso2.carbon.repository.core.utils.InternalConstants;
 import org.wso2.carbon.repository.core.utils.InternalUtils;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
@@ -369,7 +371,15 @@ public class MountHandler extends Handler {
                         // We need to get content here, so that the content is fetched using the
                         // nested transaction. If not, it will be fetched using the base transaction
                         // which will cause problems, in the mounted scenario.
-                        tempResource.getContent();
+                        Object content = tempResource.getContent();
+                        if (content instanceof InputStream) {
+                            // spooled content has been fetched, and the stream over it is not used.
+                            try {
+                                ((InputStream) content).close();
+                            } catch (IOException e) {
+                                log.error("Failed to close the content stream of " + actualPath + ".", e);
+                            }
+                        }
                     }
                 } finally {
                     endNestedOperation();
@@ -1024,7 +1034,15 @@ public class MountHandler extends Handler {
             beginNestedOperation(actualPath, fullPath);
             
             try {
-                remoteRegistry.dump(actualPath, requestContext.getDumpingWriter());
+                if (requestContext.getDumpingOutputStream() != null &&
+                        requestContext.getDumpingSince() != null) {
+                    remoteRegistry.dump(actualPath, requestContext.getDumpingSince(),
+                            requestContext.getDumpingOutputStream());
+                } else if (requestContext.getDumpingOutputStream() != null) {
+                    remoteRegistry.dump(actualPath, requestContext.getDumpingOutputStream());
+                } else {
+                    remoteRegistry.dump(actualPath, requestContext.getDumpingWriter());
+                }
             } finally {
                 endNestedOperation();
             }
@@ -1061,7 +1079,11 @@ public class MountHandler extends Handler {
             Repository remoteRegistry = getRepository(requestContext);
             beginNestedOperation(actualPath, fullPath);
             try {
-                remoteRegistry.restore(actualPath, requestContext.getDumpingReader());
+                if (requestContext.getDumpingInputStream() != null) {
+                    remoteRegistry.restore(actualPath, requestContext.getDumpingInputStream());
+                } else {
+                    remoteRegistry.restore(actualPath, requestContext.getDumpingReader());
+                }
             } finally {
                 endNestedOperation();
             }
@@ -781,6 +781,96 @@ public class URLMatcher extends Filter {
         setPutChildPattern(pattern);
     }
 
+    /**
+     * Method to obtain the pattern that is matched for the given handler operation.
+     *
+     * @param method the handler operation.
+     *
+     * @return the pattern, or null if this filter never matches the operation.
+     */
+    public String getPattern(Method method) {
+        switch (method) {
+            case GET:
+                return getPatternStr;
+            case EXECUTE_QUERY:
+                return executeQueryPatternStr;
+            case PUT:
+                return putPatternStr;
+            case IMPORT:
+                return importPatternStr;
+            case DELETE:
+                return deletePatternStr;
+            case PUT_CHILD:
+                return putChildPatternStr;
+            case IMPORT_CHILD:
+                return importChildPatternStr;
+            case INVOKE_ASPECT:
+                return invokeAspectPatternStr;
+            case COPY:
+                return copyPatternStr;
+            case MOVE:
+                return movePatternStr;
+            case RENAME:
+                return renamePatternStr;
+            case CREATE_LINK:
+                return createLinkPatternStr;
+            case REMOVE_LINK:
+                return removeLinkPatternStr;
+            case RESOURCE_EXISTS:
+                return resourceExistsPatternStr;
+            case GET_REGISTRY_CONTEXT:
+                return getRegistryContextPatternStr;
+            case ADD_ASSOCIATION:
+                return addAssociationPatternStr;
+            case REMOVE_ASSOCIATION:
+                return removeAssociationPatternStr;
+            case GET_ALL_ASSOCIATIONS:
+                return getAllAssociationsPatternStr;
+            case GET_ASSOCIATIONS:
+                return getAssociationsPatternStr;
+            case APPLY_TAG:
+                return applyTagPatternStr;
+            case GET_TAGS:
+                return getTagsPatternStr;
+            case REMOVE_TAG:
+                return removeTagPatternStr;
+            case ADD_COMMENT:
+                return addCommentPatternStr;
+            case EDIT_COMMENT:
+                return editCommentPatternStr;
+            case REMOVE_COMMENT:
+                return removeCommentPatternStr;
+            case GET_COMMENT:
+                return getCommentsPatternStr;
+            case RATE_RESOURCE:
+                return rateResourcePatternStr;
+            case GET_AVERAGE_RATING:
+                return getAverageRatingPatternStr;
+            case GET_RATING:
+                return getRatingPatternStr;
+            case CREATE_VERSION:
+                return createVersionPatternStr;
+            case GET_VERSIONS:
+                return getVersionsPatternStr;
+            case RESTORE_VERSION:
+                return restoreVersionPatternStr;
+            case DUMP:
+                return dumpPatternStr;
+            case RESTORE:
+                return restorePatternStr;
+        }
+        return null;
+    }
+
+    /**
+     * Method to check whether the result of matching the patterns is inverted.
+     *
+     * @return true if the result is inverted.
+     */
+    public boolean isInvert() {
+        return invert;
+    }
+
     @Override
     public boolean filter(HandlerContext handlerContext, Method method) throws RepositoryException {
         switch (method) {
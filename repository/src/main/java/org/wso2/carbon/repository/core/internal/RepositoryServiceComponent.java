@@ -56,19 +56,17 @@ import org.wso2.carbon.repository.core.exceptions.RepositoryInitException;
 import org.wso2.carbon.repository.core.handlers.HandlerLifecycleManager;
 import org.wso2.carbon.repository.core.handlers.HandlerManager;
 import org.wso2.carbon.repository.core.handlers.builtin.MediaTypeMatcher;
-import org.wso2.carbon.repository.core.handlers.builtin.OperationStatisticsHandler;
 import org.wso2.carbon.repository.core.handlers.builtin.RegexBaseRestrictionHandler;
 import org.wso2.carbon.repository.core.handlers.builtin.SQLQueryHandler;
 import org.wso2.carbon.repository.core.handlers.builtin.SimulationFilter;
 import org.wso2.carbon.repository.core.handlers.builtin.SimulationHandler;
 import org.wso2.carbon.repository.core.handlers.builtin.URLMatcher;
+import org.wso2.carbon.repository.core.statistics.OperationStatistics;
 import org.wso2.carbon.repository.core.utils.InternalConstants;
 import org.wso2.carbon.repository.core.utils.InternalUtils;
 import org.wso2.carbon.repository.core.utils.LogQueue;
-import org.wso2.carbon.repository.core.utils.LogRecord;
 import org.wso2.carbon.repository.core.utils.LogWriter;
 import org.wso2.carbon.repository.core.utils.MediaTypesUtils;
-import org.wso2.carbon.repository.spi.dao.LogsDAO;
 import org.wso2.carbon.utils.CarbonUtils;
 import org.wso2.carbon.utils.WaitBeforeShutdownObserver;
 import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
@@ -124,6 +122,8 @@ public class RepositoryServiceComponent {
             registrations.push(bundleContext.registerService(new String[]{RepositoryService.class.getName()}, repositoryService, null));
             registrations.push(bundleContext.registerService(SimulationService.class.getName(), new DefaultSimulationService(), null));
             
+            OperationStatistics.getInstance().registerMBean();
+            
             log.debug("Registry Core bundle is activated ");
         } catch (Throwable e) {
             log.error("Failed to activate Registry Core bundle ", e);
@@ -143,39 +143,16 @@ public class RepositoryServiceComponent {
                     new WaitBeforeShutdownObserver() {
                         public void startingShutdown() {
                             LogWriter logWriter = registryContext.getLogWriter();
-                            LogQueue logQueue = logWriter.getLogQueue();
-                            logWriter.setCanWriteLogs(false);
                             
-                            if (logQueue.size() > 0) {
+                            if (logWriter.getQueueDepth() > 0) {
                                 log.info("Writing logs ");
-                                int queueLength = logQueue.size();
-                                LogRecord[] logRecords = new LogRecord[queueLength];
-                                
-                                for (int a = 0; a < queueLength; a++) {
-                                    LogRecord logRecord = (LogRecord) logQueue.poll();
-                                    logRecords[a] = logRecord;
-                                }
-                                
-                                LogsDAO logsDAO = registryContext.getDataAccessManager().getDAOManager().getLogsDAO();
-                                
-                                try {
-                                    logsDAO.saveLogBatch(logRecords);
-                                } catch (RepositoryException e) {
-                                    log.error("Unable to save log records", e);
-                                }
                             }
+                            
+                            logWriter.shutdown();
                         }
 
                         public boolean isTaskComplete() {
-                            LogWriter logWriter = registryContext.getLogWriter();
-                            LogQueue logQueue = logWriter.getLogQueue();
-
-                            if (logQueue.size() > 0) {
-                                logWriter.interrupt();
-                                return false;
-                            }
-                            
-                            return true;
+                            return registryContext.getLogWriter().isShutdownComplete();
                         }
                     }, null);
         }
@@ -191,6 +168,8 @@ public class RepositoryServiceComponent {
             registrations.pop().unregister();
         }
         
+        OperationStatistics.getInstance().unregisterMBean();
+        
         repositoryService = null;
         bundleContext = null;
         log.debug("Registry Core bundle is deactivated ");
@@ -422,17 +401,12 @@ public class RepositoryServiceComponent {
         HandlerManager handlerManager = registryContext.getHandlerManager();
         
         if (log.isTraceEnabled()) {
-            log.trace("Engaging the Operation Statistics Handler.");
+            log.trace("Enabling the operation statistics.");
         }
         
-        // handler to record system statistics
-        OperationStatisticsHandler systemStatisticsHandler = new OperationStatisticsHandler();
-        URLMatcher systemStatisticsURLMatcher = new URLMatcher();
-        systemStatisticsURLMatcher.setPattern(".*");
-        Set<Filter> systemStatisticsFilterSet = new LinkedHashSet<Filter>();
-        systemStatisticsFilterSet.add(systemStatisticsURLMatcher);
-        systemStatisticsHandler.setFilters(systemStatisticsFilterSet);
-        handlerManager.addHandler(null, systemStatisticsHandler);
+        // record system statistics. The repository records every operation itself, so no
+        // handler needs to be engaged for this.
+        OperationStatistics.getInstance().setEnabled(true);
 
         if (log.isTraceEnabled()) {
             log.trace("Engaging the SQL Query Handler.");
@@ -22,6 +22,7 @@ package org.wso2.carbon.repository.core.jdbc.dao;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.repository.api.Activity;
+import org.wso2.carbon.repository.api.ActivityPage;
 import org.wso2.carbon.repository.api.exceptions.RepositoryException;
 import org.wso2.carbon.repository.api.utils.Actions;
 import org.wso2.carbon.repository.core.CurrentContext;
@@ -52,6 +53,9 @@ import java.util.Date;
 public class JDBCLogsDAO implements LogsDAO {
 
     private static final Log log = LogFactory.getLog(JDBCLogsDAO.class);
+
+    // The number of log entries up to which a page of log entries counts the matching entries.
+    private static final int MAX_COUNTED_LOGS = 10000;
     private String enableApiPagination = System.getProperty("enable.registry.api.paginating");
     private Map<String, DataBaseConfiguration> dbConfigs = new HashMap<String, DataBaseConfiguration>();
     private Map<String, String> pathMap = new HashMap<String, String>();
@@ -864,6 +868,244 @@ public class JDBCLogsDAO implements LogsDAO {
         return count;
     }
 	
+    public ActivityPage getLogs(String resourcePath, int action, String userName, Date from,
+                                Date to, boolean descending, String pageToken, int pageLen,
+                                boolean countActivities) throws RepositoryException {
+        if (pageLen <= 0) {
+            String msg = "Failed to get logs. Invalid page length: " + pageLen + ".";
+            log.error(msg);
+            throw new RepositoryException(msg);
+        }
+
+        if (resourcePath != null && dbConfigs.size() > 0) {
+            // if the path is inside a mount, the logs are read from the mounted database.
+            JDBCDataAccessManager jdbcDataAccessManager = null;
+            for (String sourcePath : dbConfigs.keySet()) {
+                if (resourcePath.startsWith(sourcePath)) {
+                    resourcePath = pathMap.get(sourcePath) + resourcePath.substring(sourcePath.length());
+                    jdbcDataAccessManager = new JDBCDataAccessManager(dbConfigs.get(sourcePath));
+                }
+            }
+            if (jdbcDataAccessManager != null) {
+                boolean transactionSucceeded = false;
+                try {
+                    beginTransaction(jdbcDataAccessManager);
+                    ActivityPage page = internalGetLogPage(resourcePath, action, userName, from, to,
+                            descending, pageToken, pageLen, countActivities,
+                            JDBCDatabaseTransaction.getConnection());
+                    transactionSucceeded = true;
+                    return page;
+                } finally {
+                    if (transactionSucceeded) {
+                        commitTransaction(jdbcDataAccessManager);
+                    } else {
+                        rollbackTransaction(jdbcDataAccessManager);
+                    }
+                }
+            }
+        }
+
+        return internalGetLogPage(resourcePath, action, userName, from, to, descending, pageToken,
+                pageLen, countActivities, JDBCDatabaseTransaction.getConnection());
+    }
+
+    private ActivityPage internalGetLogPage(String resourcePath, int action, String userName,
+                                            Date from, Date to, boolean descending,
+                                            String pageToken, int pageLen,
+                                            boolean countActivities, Connection conn)
+            throws RepositoryException {
+        if(conn == null) {
+            log.fatal("Failed to get Logs. Communications link failure. The connection to the database could not be acquired.");
+            throw new RepositoryDBException("Failed to get Logs. Communications link failure. The connection to the database could not be acquired.");
+        }
+
+        LogPosition position = (pageToken == null) ? null : LogPosition.parse(pageToken);
+
+        String sql = "SELECT REG_LOG_ID, REG_PATH, REG_USER_ID, REG_LOGGED_TIME, REG_ACTION, " +
+                "REG_ACTION_DATA FROM REG_LOG";
+        sql = addWherePart(resourcePath, false, sql, userName, from, to, action);
+
+        // continue after the last entry of the previous page. The log id breaks ties between
+        // entries logged at the same time.
+        String order = descending ? " DESC" : " ASC";
+        if (position != null) {
+            String comparison = descending ? "<" : ">";
+            sql = sql + " AND (REG_LOGGED_TIME" + comparison + "? OR (REG_LOGGED_TIME=? AND " +
+                    "REG_LOG_ID" + comparison + "?))";
+        }
+        sql = sql + " ORDER BY REG_LOGGED_TIME" + order + ", REG_LOG_ID" + order;
+
+        PreparedStatement s = null;
+        ResultSet results = null;
+        try {
+            String dbName = conn.getMetaData().getDatabaseProductName();
+
+            // one entry more than the page is read, to find out whether there is a next page.
+            s = conn.prepareStatement(addRowLimit(sql, dbName, pageLen + 1));
+            s.setMaxRows(pageLen + 1);
+            int paramNumber = setWhereParameters(s, resourcePath, userName, from, to, action);
+            if (position != null) {
+                s.setTimestamp(paramNumber++, position.loggedTime);
+                s.setTimestamp(paramNumber++, position.loggedTime);
+                s.setInt(paramNumber, position.logId);
+            }
+
+            results = s.executeQuery();
+
+            List<ResourceActivity> resultList = new ArrayList<ResourceActivity>();
+            String nextPageToken = null;
+            LogPosition last = null;
+            while (results.next()) {
+                if (resultList.size() == pageLen) {
+                    nextPageToken = last.toString();
+                    break;
+                }
+                resultList.add(getActivity(results));
+                last = new LogPosition(results.getTimestamp(DatabaseConstants.LOGGED_TIME_FIELD),
+                        results.getInt(DatabaseConstants.LOG_ID_FIELD));
+            }
+
+            int count = -1;
+            boolean countExact = false;
+            if (countActivities) {
+                count = getLimitedLogsCount(resourcePath, action, userName, from, to, dbName, conn);
+                countExact = count <= MAX_COUNTED_LOGS;
+                count = Math.min(count, MAX_COUNTED_LOGS);
+            }
+
+            return new ActivityPage(resultList.toArray(new ResourceActivity[resultList.size()]),
+                    nextPageToken, count, countExact);
+        } catch (SQLException e) {
+            String msg = "Failed to get logs. " + e.getMessage();
+            log.error(msg, e);
+            throw new RepositoryDBException(msg, e);
+        } finally {
+            try {
+                try {
+                    if (results != null) {
+                        results.close();
+                    }
+                } finally {
+                    if (s != null) {
+                        s.close();
+                    }
+                }
+            } catch (SQLException ex) {
+                String msg = InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR;
+                log.error(msg, ex);
+            }
+        }
+    }
+
+    // Counts the matching log entries, but stops counting one entry after the limit.
+    private int getLimitedLogsCount(String resourcePath, int action, String userName, Date from,
+                                    Date to, String dbName, Connection conn) throws SQLException {
+        String sql = addWherePart(resourcePath, false, "SELECT REG_LOG_ID FROM REG_LOG", userName,
+                from, to, action);
+        sql = "SELECT COUNT(*) AS REG_LOG_COUNT FROM (" +
+                addRowLimit(sql, dbName, MAX_COUNTED_LOGS + 1) + ") REG_LOG_IDS";
+
+        PreparedStatement s = conn.prepareStatement(sql);
+        try {
+            setWhereParameters(s, resourcePath, userName, from, to, action);
+            ResultSet results = s.executeQuery();
+            try {
+                return results.next() ? results.getInt(DatabaseConstants.LOG_COUNT_FIELD) : 0;
+            } finally {
+                results.close();
+            }
+        } finally {
+            s.close();
+        }
+    }
+
+    // Utility method to set the parameters of the 'WHERE' part added by addWherePart. Returns the
+    // index of the next parameter.
+    private int setWhereParameters(PreparedStatement s, String resourcePath, String userName,
+                                   Date from, Date to, int action) throws SQLException {
+        int paramNumber = 1;
+
+        if (resourcePath != null) {
+            s.setString(paramNumber, resourcePath);
+            paramNumber++;
+        }
+
+        if (userName != null) {
+            s.setString(paramNumber, userName);
+            paramNumber++;
+        }
+
+        if (from != null) {
+            s.setTimestamp(paramNumber, new Timestamp(from.getTime()));
+            paramNumber++;
+        }
+
+        if (to != null) {
+            s.setTimestamp(paramNumber, new Timestamp(to.getTime()));
+            paramNumber++;
+        }
+
+        if (action != -1) {
+            s.setInt(paramNumber, action);
+            paramNumber++;
+        }
+
+        s.setInt(paramNumber, CurrentContext.getTenantId());
+        return paramNumber + 1;
+    }
+
+    // Utility method to limit the number of rows returned by an SQL query, in the dialect of the
+    // given database.
+    private static String addRowLimit(String sql, String dbName, int limit) {
+        if (dbName.contains("Microsoft") || dbName.equals("OpenEdge RDBMS")) {
+            return "SELECT TOP " + limit + sql.substring("SELECT".length());
+        } else if (dbName.contains("Informix")) {
+            return "SELECT FIRST " + limit + sql.substring("SELECT".length());
+        } else if (dbName.equals("Oracle")) {
+            return "SELECT * FROM (" + sql + ") WHERE ROWNUM <= " + limit;
+        } else if (dbName.startsWith("DB2") || dbName.equals("Apache Derby")) {
+            return sql + " FETCH FIRST " + limit + " ROWS ONLY";
+        }
+        return sql + " LIMIT " + limit;
+    }
+
+    /**
+     * The position of a log entry in the order of logged time, used as the token of a page of log
+     * entries.
+     */
+    private static class LogPosition {
+
+        private static final String SEPARATOR = ":";
+
+        private Timestamp loggedTime;
+        private int logId;
+
+        private LogPosition(Timestamp loggedTime, int logId) {
+            this.loggedTime = loggedTime;
+            this.logId = logId;
+        }
+
+        private static LogPosition parse(String pageToken) throws RepositoryException {
+            String[] parts = pageToken.split(SEPARATOR);
+            try {
+                if (parts.length == 3) {
+                    Timestamp loggedTime = new Timestamp(Long.parseLong(parts[0]));
+                    loggedTime.setNanos(Integer.parseInt(parts[1]));
+                    return new LogPosition(loggedTime, Integer.parseInt(parts[2]));
+                }
+            } catch (IllegalArgumentException ignore) {
+                // reported below.
+            }
+            String msg = "Failed to get logs. Invalid page token: " + pageToken + ".";
+            log.error(msg);
+            throw new RepositoryException(msg);
+        }
+
+        public String toString() {
+            return loggedTime.getTime() + SEPARATOR + loggedTime.getNanos() + SEPARATOR + logId;
+        }
+    }
+
     public List<Activity> getLogs(String resourcePath, int action, String userName, Date from, Date to, boolean descending) throws RepositoryException {
         JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
         
@@ -23,6 +23,13 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 
 import javax.cache.Cache;
 import javax.sql.DataSource;
@@ -32,6 +39,7 @@ import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.repository.api.exceptions.RepositoryException;
 import org.wso2.carbon.repository.core.CurrentContext;
 import org.wso2.carbon.repository.core.DatabaseConstants;
+import org.wso2.carbon.repository.core.caching.NegativeLookupCache;
 import org.wso2.carbon.repository.core.caching.PathCache;
 import org.wso2.carbon.repository.core.caching.RepositoryCacheEntry;
 import org.wso2.carbon.repository.core.caching.RepositoryCacheKey;
@@ -50,7 +58,6 @@ import org.wso2.carbon.utils.DBUtils;
 public class JDBCPathCache extends PathCache {
 
     private static final Log log = LogFactory.getLog(JDBCPathCache.class);
-    private static final Object ADD_ENTRY_LOCK = new Object();
 
     public static JDBCPathCache getPathCache() {
         return new JDBCPathCache();
@@ -69,7 +76,6 @@ public class JDBCPathCache extends PathCache {
     public int addEntry(String path, int parentPathId) throws SQLException, RepositoryException {
         ResultSet results = null;
         PreparedStatement ps = null;
-        PreparedStatement ps1 = null;
         DataAccessManager dataAccessManager;
         
         if (CurrentContext.getRespository() != null && InternalUtils.getRepositoryContext(CurrentContext.getRespository())  != null) {
@@ -101,39 +107,39 @@ public class JDBCPathCache extends PathCache {
         int pathId = 0;
 
         try {
-            String sql = "INSERT INTO REG_PATH(REG_PATH_VALUE, REG_PATH_PARENT_ID, REG_TENANT_ID) VALUES (?, ?, ?)";
-            String sql1 = "SELECT MAX(REG_PATH_ID) FROM REG_PATH";
-            
             String dbProductName = conn.getMetaData().getDatabaseProductName();
             boolean returnsGeneratedKeys = DBUtils.canReturnGeneratedKeys(dbProductName);
-            
+            int tenantId = CurrentContext.getTenantId();
+
             if (returnsGeneratedKeys) {
+                String sql = "INSERT INTO REG_PATH(REG_PATH_VALUE, REG_PATH_PARENT_ID, REG_TENANT_ID) VALUES (?, ?, ?)";
                 ps = conn.prepareStatement(sql, new String[]{DBUtils.getConvertedAutoGeneratedColumnName(dbProductName, "REG_PATH_ID")});
-            } else {
-                ps = conn.prepareStatement(sql);
-            }
-            
-            ps.setString(1, path);
-            ps.setInt(2, parentPathId);
-            ps.setInt(3, CurrentContext.getTenantId());
-            
-            if (returnsGeneratedKeys) {
+                ps.setString(1, path);
+                ps.setInt(2, parentPathId);
+                ps.setInt(3, tenantId);
                 ps.executeUpdate();
                 results = ps.getGeneratedKeys();
-            } else {
-                synchronized (ADD_ENTRY_LOCK) {
-                    ps.executeUpdate();
-                    ps1 = conn.prepareStatement(sql1);
-                    results = ps1.executeQuery();
+                if (results.next()) {
+                    pathId = results.getInt(1);
                 }
+            } else {
+                // the id is allocated before inserting the row, instead of reading the largest id
+                // of the table after the insert.
+                String sql = "INSERT INTO REG_PATH(REG_PATH_ID, REG_PATH_VALUE, REG_PATH_PARENT_ID, REG_TENANT_ID) VALUES (?, ?, ?, ?)";
+                int allocatedId = ((JDBCDataAccessManager) dataAccessManager).getIdAllocator()
+                        .nextId("REG_PATH", "REG_PATH_ID", tenantId);
+                ps = conn.prepareStatement(sql);
+                ps.setInt(1, allocatedId);
+                ps.setString(2, path);
+                ps.setInt(3, parentPathId);
+                ps.setInt(4, tenantId);
+                ps.executeUpdate();
+                pathId = allocatedId;
             }
             
-            if (results.next()) {
-                pathId = results.getInt(1);
-                if (pathId > 0) {
-                    success = true;
-                    return pathId;
-                }
+            if (pathId > 0) {
+                success = true;
+                return pathId;
             }
         } catch (SQLException e) {
             // we have to be expecting an exception with the duplicate value for the path value
@@ -152,6 +158,7 @@ public class JDBCPathCache extends PathCache {
                         connectionId = InternalUtils.getConnectionId(conn);
                     }
                     
+                    NegativeLookupCache.getPathCache().invalidate(CurrentContext.getTenantId(), path, false);
                     RepositoryCacheKey key = InternalUtils.buildRegistryCacheKey(connectionId, CurrentContext.getTenantId(), path);
                     getCache().put(key, e);
                 } catch (SQLException e) {
@@ -165,17 +172,11 @@ public class JDBCPathCache extends PathCache {
                             }
                         } finally {
                             try {
-                                if (ps1 != null) {
-                                    ps1.close();
+                                if (ps != null) {
+                                    ps.close();
                                 }
                             } finally {
-                                try {
-                                    if (ps != null) {
-                                        ps.close();
-                                    }
-                                } finally {
-                                    conn.close();
-                                }
+                                conn.close();
                             }
                         }
                     } catch (SQLException e) {
@@ -281,6 +282,224 @@ public class JDBCPathCache extends PathCache {
         }
     }
 
+    /**
+     * Method to get the paths of a set of path ids. Path ids that are not found in the cache are
+     * read from the database using as few queries as possible, and the cache is populated with
+     * the results.
+     *
+     * @param conn the database connection to use.
+     * @param ids  the path ids.
+     *
+     * @return a map of path ids to paths. Path ids that do not exist are not included.
+     * @throws SQLException if an error occurs while obtaining the paths.
+     */
+    public Map<Integer, String> getPaths(Connection conn, Collection<Integer> ids)
+            throws SQLException {
+        String connectionId;
+
+        if (conn != null && conn.getMetaData() != null) {
+            connectionId = InternalUtils.getConnectionId(conn);
+        } else {
+            throw new SQLException("Connection is null");
+        }
+
+        int tenantId = CurrentContext.getTenantId();
+        Cache<RepositoryCacheKey, RepositoryCacheEntry> cache = getCache();
+        Map<Integer, String> paths = new HashMap<Integer, String>();
+        List<Integer> missingIds = new ArrayList<Integer>();
+
+        for (Integer id : new LinkedHashSet<Integer>(ids)) {
+            RepositoryCacheKey key = InternalUtils.buildRegistryCacheKey(connectionId, tenantId,
+                    Integer.toString(id));
+            RepositoryCacheEntry result = cache.get(key);
+            if (result != null) {
+                paths.put(id, result.getPath());
+            } else {
+                missingIds.add(id);
+            }
+        }
+
+        for (int i = 0; i < missingIds.size(); i += InternalConstants.MAX_PATH_IDS_PER_QUERY) {
+            List<Integer> chunk = missingIds.subList(i,
+                    Math.min(i + InternalConstants.MAX_PATH_IDS_PER_QUERY, missingIds.size()));
+
+            StringBuilder sql = new StringBuilder("SELECT REG_PATH_ID, REG_PATH_VALUE FROM " +
+                    "REG_PATH WHERE REG_TENANT_ID=? AND REG_PATH_ID IN (");
+            for (int j = 0; j < chunk.size(); j++) {
+                sql.append(j == 0 ? "?" : ", ?");
+            }
+            sql.append(")");
+
+            PreparedStatement ps = null;
+            ResultSet results = null;
+            try {
+                ps = conn.prepareStatement(sql.toString());
+                ps.setInt(1, tenantId);
+                for (int j = 0; j < chunk.size(); j++) {
+                    ps.setInt(j + 2, chunk.get(j));
+                }
+
+                results = ps.executeQuery();
+
+                while (results.next()) {
+                    int id = results.getInt(DatabaseConstants.PATH_ID_FIELD);
+                    String path = results.getString(DatabaseConstants.PATH_VALUE_FIELD);
+                    RepositoryCacheKey key = InternalUtils.buildRegistryCacheKey(connectionId,
+                            tenantId, Integer.toString(id));
+                    cache.put(key, new RepositoryCacheEntry(path));
+                    paths.put(id, path);
+                }
+            } finally {
+                try {
+                    try {
+                        if (results != null) {
+                            results.close();
+                        }
+                    } finally {
+                        if (ps != null) {
+                            ps.close();
+                        }
+                    }
+                } catch (SQLException ex) {
+                    String msg = InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR;
+                    log.error(msg, ex);
+                }
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Method to get the path ids of a set of paths. Paths that are not found in the cache are read
+     * from the database using as few queries as possible, and the cache is populated with the
+     * results, including the paths that were found missing.
+     *
+     * @param conn  the database connection to use.
+     * @param paths the paths.
+     *
+     * @return a map of paths to path ids. Paths that do not exist are not included.
+     * @throws SQLException if an error occurs while obtaining the path ids.
+     */
+    public Map<String, Integer> getPathIDs(Connection conn, Collection<String> paths)
+            throws SQLException {
+        String connectionId;
+
+        if (conn != null && conn.getMetaData() != null) {
+            connectionId = InternalUtils.getConnectionId(conn);
+        } else {
+            throw new SQLException("Connection is null");
+        }
+
+        int tenantId = CurrentContext.getTenantId();
+        Cache<RepositoryCacheKey, RepositoryCacheEntry> cache = getCache();
+        NegativeLookupCache negativeLookupCache = NegativeLookupCache.getPathCache();
+        long lookupGeneration = negativeLookupCache.getGeneration();
+        Map<String, Integer> pathIds = new HashMap<String, Integer>();
+        Map<String, RepositoryCacheKey> missingPaths = new LinkedHashMap<String, RepositoryCacheKey>();
+
+        for (String path : paths) {
+            if (path == null || pathIds.containsKey(path) || missingPaths.containsKey(path)) {
+                continue;
+            }
+            RepositoryCacheKey key = InternalUtils.buildRegistryCacheKey(connectionId, tenantId, path);
+            RepositoryCacheEntry result = cache.get(key);
+            if (result != null) {
+                pathIds.put(path, result.getPathId());
+            } else if (!negativeLookupCache.isMissing(key)) {
+                missingPaths.put(path, key);
+            }
+        }
+
+        List<String> pathsToRead = new ArrayList<String>(missingPaths.keySet());
+        for (int i = 0; i < pathsToRead.size(); i += InternalConstants.MAX_PATH_IDS_PER_QUERY) {
+            List<String> chunk = pathsToRead.subList(i,
+                    Math.min(i + InternalConstants.MAX_PATH_IDS_PER_QUERY, pathsToRead.size()));
+
+            StringBuilder sql = new StringBuilder("SELECT REG_PATH_ID, REG_PATH_VALUE FROM " +
+                    "REG_PATH WHERE REG_TENANT_ID=? AND REG_PATH_VALUE IN (");
+            for (int j = 0; j < chunk.size(); j++) {
+                sql.append(j == 0 ? "?" : ", ?");
+            }
+            sql.append(")");
+
+            PreparedStatement ps = null;
+            ResultSet results = null;
+            try {
+                ps = conn.prepareStatement(sql.toString());
+                ps.setInt(1, tenantId);
+                for (int j = 0; j < chunk.size(); j++) {
+                    ps.setString(j + 2, chunk.get(j));
+                }
+
+                results = ps.executeQuery();
+
+                while (results.next()) {
+                    int pathId = results.getInt(DatabaseConstants.PATH_ID_FIELD);
+                    String path = results.getString(DatabaseConstants.PATH_VALUE_FIELD);
+                    RepositoryCacheKey key = missingPaths.get(path);
+                    if (pathId > 0 && key != null) {
+                        cache.put(key, new RepositoryCacheEntry(pathId));
+                        pathIds.put(path, pathId);
+                    }
+                }
+            } catch (SQLException e) {
+                String msg = "Failed to retrieve the path ids of " + chunk.size() + " paths. " +
+                        e.getMessage();
+                log.error(msg, e);
+                throw e;
+            } finally {
+                try {
+                    try {
+                        if (results != null) {
+                            results.close();
+                        }
+                    } finally {
+                        if (ps != null) {
+                            ps.close();
+                        }
+                    }
+                } catch (SQLException ex) {
+                    String msg = InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR;
+                    log.error(msg, ex);
+                }
+            }
+        }
+
+        for (Map.Entry<String, RepositoryCacheKey> entry : missingPaths.entrySet()) {
+            if (!pathIds.containsKey(entry.getKey())) {
+                negativeLookupCache.addMissing(entry.getValue(), lookupGeneration);
+            }
+        }
+        return pathIds;
+    }
+
+    /**
+     * Method to remove the entries of a set of paths from the cache, which is done when the values
+     * of the paths are changed. The entries are removed again once the current transaction ends.
+     *
+     * @param conn  the database connection to use.
+     * @param paths a map of path ids to the paths to remove.
+     *
+     * @throws SQLException if an error occurs while obtaining the connection id.
+     */
+    public void removeEntries(Connection conn, Map<Integer, String> paths) throws SQLException {
+        String connectionId;
+
+        if (conn != null && conn.getMetaData() != null) {
+            connectionId = InternalUtils.getConnectionId(conn);
+        } else {
+            throw new SQLException("Connection is null");
+        }
+
+        int tenantId = CurrentContext.getTenantId();
+        for (Map.Entry<Integer, String> entry : paths.entrySet()) {
+            removeUntilTransactionEnds(
+                    InternalUtils.buildRegistryCacheKey(connectionId, tenantId, entry.getValue()));
+            removeUntilTransactionEnds(InternalUtils.buildRegistryCacheKey(connectionId, tenantId,
+                    Integer.toString(entry.getKey())));
+        }
+    }
+
     /**
      * Method to get the path id of a given path.
      *
@@ -319,7 +538,10 @@ public class JDBCPathCache extends PathCache {
 
         if (result != null) {
             return result.getPathId();
+        } else if (NegativeLookupCache.getPathCache().isMissing(key)) {
+            return -1;
         } else {
+            long lookupGeneration = NegativeLookupCache.getPathCache().getGeneration();
             ResultSet results = null;
             PreparedStatement ps = null;
             try {
@@ -339,6 +561,7 @@ public class JDBCPathCache extends PathCache {
                         return pathId;
                     }
                 }
+                NegativeLookupCache.getPathCache().addMissing(key, lookupGeneration);
             } catch (SQLException e) {
                 String msg = "Failed to retrieving resource from " + path + ". " + e.getMessage();
                 log.error(msg, e);
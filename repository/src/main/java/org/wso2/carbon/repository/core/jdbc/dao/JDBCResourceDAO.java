@@ -29,14 +29,20 @@ import org.wso2.carbon.repository.api.exceptions.RepositoryException;
 import org.wso2.carbon.repository.api.exceptions.RepositoryResourceNotFoundException;
 import org.wso2.carbon.repository.api.utils.RepositoryUtils;
 import org.wso2.carbon.repository.core.*;
+import org.wso2.carbon.repository.core.caching.NegativeLookupCache;
+import org.wso2.carbon.repository.core.config.RepositoryContext;
 import org.wso2.carbon.repository.core.config.StaticConfiguration;
 import org.wso2.carbon.repository.core.dataobjects.ResourceDO;
 import org.wso2.carbon.repository.core.exceptions.RepositoryConcurrentModificationException;
 import org.wso2.carbon.repository.core.exceptions.RepositoryDBException;
 import org.wso2.carbon.repository.core.exceptions.RepositoryServerContentException;
+import org.wso2.carbon.repository.core.jdbc.dataaccess.IdAllocator;
 import org.wso2.carbon.repository.core.jdbc.dataaccess.JDBCDataAccessManager;
 import org.wso2.carbon.repository.core.jdbc.dataaccess.JDBCDatabaseTransaction;
+import org.wso2.carbon.repository.core.utils.ContentCodecs;
 import org.wso2.carbon.repository.core.utils.InternalConstants;
+import org.wso2.carbon.repository.core.utils.MediaTypesUtils;
+import org.wso2.carbon.repository.core.utils.SpooledContent;
 import org.wso2.carbon.repository.spi.dao.ResourceDAO;
 import org.wso2.carbon.repository.spi.dataaccess.DataAccessManager;
 import org.wso2.carbon.utils.DBUtils;
@@ -44,11 +50,20 @@ import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * An implementation of the {@link ResourceDAO} to store resources on a JDBC-based database.
@@ -58,11 +73,16 @@ public class JDBCResourceDAO implements ResourceDAO {
     private static final Log log = LogFactory.getLog(JDBCResourceDAO.class);
 
     private static final Object ADD_RESOURCE_LOCK = new Object();
-    private static final Object ADD_CONTENT_LOCK = new Object();
-    private static final Object ADD_PROPERTY_LOCK = new Object();
 
     private static final String SELECT_NAME_VALUE_PROP_P = "SELECT REG_NAME, REG_VALUE FROM REG_PROPERTY P, ";
 
+    private static final String CONTENT_DIGEST_ALGORITHM = "SHA-256";
+
+    private static final String CONTENT_DIGEST_TABLE = "REG_CONTENT_DIGEST";
+
+    // Whether the database has the content digest table, read on first use.
+    private volatile Boolean contentDigestTableExists;
+
     public ResourceIDImpl getResourceID(String path) throws RepositoryException {
         JDBCDatabaseTransaction.ManagedRegistryConnection conn =
                 JDBCDatabaseTransaction.getConnection();
@@ -510,6 +530,9 @@ public class JDBCResourceDAO implements ResourceDAO {
     }
 
     public void deleteContentStream(int contentID) throws RepositoryException {
+        if (hasContentDigests() && releaseContentReference(contentID)) {
+            return;
+        }
         JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
         PreparedStatement ps = null;
         
@@ -552,7 +575,7 @@ public class JDBCResourceDAO implements ResourceDAO {
                 InputStream rawInputStream =
                         result.getBinaryStream(DatabaseConstants.CONTENT_DATA_FIELD);
                 if (rawInputStream != null) {
-                    return RepositoryUtils.getMemoryStream(rawInputStream);
+                    return SpooledContent.getContentStream(ContentCodecs.decode(rawInputStream));
                 }
             }
         } catch (SQLException ex) {
@@ -1118,26 +1141,8 @@ public class JDBCResourceDAO implements ResourceDAO {
             result = ps.executeQuery();
 
             if (result.next()) {
-
-                if (isCollection) {
-                    resourceImpl = new CollectionImpl();
-                } else {
-                    resourceImpl = new ResourceImpl();
-                }
-
-                // this is always the current version of the resource
-                resourceImpl.setPathID(resourceID.getPathID());
-                resourceImpl.setPath(resourceID.getPath());
-                resourceImpl.setName(resourceID.getName());
-                resourceImpl.setMediaType(result.getString(DatabaseConstants.MEDIA_TYPE_FIELD));
-                resourceImpl.setAuthorUserName(result.getString(DatabaseConstants.CREATOR_FIELD));
-                resourceImpl.setCreatedTime(result.getTimestamp(DatabaseConstants.CREATED_TIME_FIELD));
-                resourceImpl.setLastUpdaterUserName(result.getString(DatabaseConstants.LAST_UPDATER_FIELD));
-                resourceImpl.setLastModified(result.getTimestamp(DatabaseConstants.LAST_UPDATED_TIME_FIELD));
-                resourceImpl.setVersionNumber(result.getInt(DatabaseConstants.VERSION_FIELD));
-                resourceImpl.setDescription(result.getString(DatabaseConstants.DESCRIPTION_FIELD));
-                resourceImpl.setDbBasedContentID(result.getInt(DatabaseConstants.CONTENT_ID_FIELD));
-                resourceImpl.setUUID(result.getString(DatabaseConstants.UUID_FIELD));
+                resourceImpl = readResourceMetaData(result, isCollection, resourceID.getPathID(),
+                        resourceID.getPath(), resourceID.getName());
             }
         } catch (SQLException e) {
             String msg = "Failed to get the resource at path " + resourceID.getPath() + ". " +
@@ -1164,6 +1169,401 @@ public class JDBCResourceDAO implements ResourceDAO {
         return resourceImpl;
     }
 
+    public Map<String, ResourceImpl> getResourcesMetaData(List<String> paths) throws RepositoryException {
+        JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
+
+        // a path is looked up both as a collection and as a non-collection, and the collection is
+        // preferred, as done when reading the meta data of a single resource.
+        Set<String> pathsToResolve = new LinkedHashSet<String>();
+        for (String path : paths) {
+            pathsToResolve.add(path);
+            if (!path.equals(RepositoryConstants.ROOT_PATH)) {
+                pathsToResolve.add(RepositoryUtils.getParentPath(path));
+            }
+        }
+
+        Map<String, Integer> pathIds;
+        try {
+            pathIds = JDBCPathCache.getPathCache().getPathIDs(conn, pathsToResolve);
+        } catch (SQLException e) {
+            String msg = "Failed to get the path ids of " + paths.size() + " resources. " + e.getMessage();
+            log.error(msg, e);
+            throw new RepositoryDBException(msg, e);
+        }
+
+        List<ResourceIDImpl> collectionIDs = new ArrayList<ResourceIDImpl>();
+        List<ResourceIDImpl> resourceIDs = new ArrayList<ResourceIDImpl>();
+        for (String path : new LinkedHashSet<String>(paths)) {
+            Integer pathId = pathIds.get(path);
+            if (pathId != null) {
+                collectionIDs.add(createResourceID(path, pathId, null));
+            }
+            if (!path.equals(RepositoryConstants.ROOT_PATH)) {
+                Integer parentPathId = pathIds.get(RepositoryUtils.getParentPath(path));
+                if (parentPathId != null) {
+                    resourceIDs.add(createResourceID(path, parentPathId,
+                            RepositoryUtils.getResourceName(path)));
+                }
+            }
+        }
+
+        Map<String, ResourceImpl> resources = new HashMap<String, ResourceImpl>();
+        readResourcesMetaData(resourceIDs, resources);
+        readResourcesMetaData(collectionIDs, resources);
+        return resources;
+    }
+
+    // Method to read the meta data of the resources of the given ids into the given map, using a
+    // query for each chunk of ids.
+    private void readResourcesMetaData(List<ResourceIDImpl> resourceIDs, Map<String, ResourceImpl> resources)
+            throws RepositoryException {
+        JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
+
+        for (int i = 0; i < resourceIDs.size(); i += InternalConstants.MAX_PATH_IDS_PER_QUERY) {
+            List<ResourceIDImpl> chunk = resourceIDs.subList(i,
+                    Math.min(i + InternalConstants.MAX_PATH_IDS_PER_QUERY, resourceIDs.size()));
+
+            // the resources are matched by path id and name, as the query may return other
+            // resources of the same collections.
+            Map<String, ResourceIDImpl> idsByKey = new HashMap<String, ResourceIDImpl>();
+            Set<Integer> pathIds = new LinkedHashSet<Integer>();
+            Set<String> names = new LinkedHashSet<String>();
+            for (ResourceIDImpl resourceID : chunk) {
+                idsByKey.put(getResourceKey(resourceID.getPathID(), resourceID.getName()), resourceID);
+                pathIds.add(resourceID.getPathID());
+                if (resourceID.getName() != null) {
+                    names.add(resourceID.getName());
+                }
+            }
+
+            String sql = "SELECT REG_PATH_ID, REG_NAME, REG_MEDIA_TYPE, REG_CREATOR, " +
+                    "REG_CREATED_TIME, REG_LAST_UPDATOR, REG_LAST_UPDATED_TIME, REG_VERSION, " +
+                    "REG_DESCRIPTION, REG_CONTENT_ID, REG_UUID FROM REG_RESOURCE WHERE " +
+                    "REG_TENANT_ID=? AND REG_PATH_ID IN (" + getParameters(pathIds.size()) + ") AND " +
+                    (names.isEmpty() ? "REG_NAME IS NULL" :
+                            "REG_NAME IN (" + getParameters(names.size()) + ")");
+
+            PreparedStatement ps = null;
+            ResultSet result = null;
+            try {
+                ps = conn.prepareStatement(sql);
+                int index = 1;
+                ps.setInt(index++, CurrentContext.getTenantId());
+                for (int pathId : pathIds) {
+                    ps.setInt(index++, pathId);
+                }
+                for (String name : names) {
+                    ps.setString(index++, name);
+                }
+                result = ps.executeQuery();
+
+                while (result.next()) {
+                    ResourceIDImpl resourceID = idsByKey.get(getResourceKey(
+                            result.getInt(DatabaseConstants.PATH_ID_FIELD),
+                            result.getString(DatabaseConstants.NAME_FIELD)));
+                    if (resourceID != null) {
+                        resources.put(resourceID.getPath(), readResourceMetaData(result,
+                                resourceID.isCollection(), resourceID.getPathID(),
+                                resourceID.getPath(), resourceID.getName()));
+                    }
+                }
+            } catch (SQLException e) {
+                String msg = "Failed to get the meta data of " + chunk.size() + " resources. " +
+                        e.getMessage();
+                log.error(msg, e);
+                throw new RepositoryDBException(msg, e);
+            } finally {
+                if (result != null) {
+                    try {
+                        result.close();
+                    } catch (SQLException e) {
+                        log.error(InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR, e);
+                    }
+                }
+                if (ps != null) {
+                    try {
+                        ps.close();
+                    } catch (SQLException e) {
+                        log.error(InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR, e);
+                    }
+                }
+            }
+        }
+    }
+
+    // Method to read the meta data of the current version of a resource from a result set.
+    private ResourceImpl readResourceMetaData(ResultSet result, boolean isCollection, int pathID,
+                                              String path, String name) throws SQLException {
+        ResourceImpl resourceImpl;
+        if (isCollection) {
+            resourceImpl = new CollectionImpl();
+        } else {
+            resourceImpl = new ResourceImpl();
+        }
+
+        // this is always the current version of the resource
+        resourceImpl.setPathID(pathID);
+        resourceImpl.setPath(path);
+        resourceImpl.setName(name);
+        resourceImpl.setMediaType(result.getString(DatabaseConstants.MEDIA_TYPE_FIELD));
+        resourceImpl.setAuthorUserName(result.getString(DatabaseConstants.CREATOR_FIELD));
+        resourceImpl.setCreatedTime(result.getTimestamp(DatabaseConstants.CREATED_TIME_FIELD));
+        resourceImpl.setLastUpdaterUserName(result.getString(DatabaseConstants.LAST_UPDATER_FIELD));
+        resourceImpl.setLastModified(result.getTimestamp(DatabaseConstants.LAST_UPDATED_TIME_FIELD));
+        resourceImpl.setVersionNumber(result.getInt(DatabaseConstants.VERSION_FIELD));
+        resourceImpl.setDescription(result.getString(DatabaseConstants.DESCRIPTION_FIELD));
+        resourceImpl.setDbBasedContentID(result.getInt(DatabaseConstants.CONTENT_ID_FIELD));
+        resourceImpl.setUUID(result.getString(DatabaseConstants.UUID_FIELD));
+        return resourceImpl;
+    }
+
+    private static ResourceIDImpl createResourceID(String path, int pathID, String name) {
+        ResourceIDImpl resourceID = new ResourceIDImpl();
+        resourceID.setCollection(name == null);
+        resourceID.setName(name);
+        resourceID.setPathID(pathID);
+        resourceID.setPath(path);
+        return resourceID;
+    }
+
+    // Method to build the key identifying a resource by its path id and name, where the name of a
+    // collection is null.
+    private static String getResourceKey(int pathID, String name) {
+        return (name == null) ? Integer.toString(pathID) : pathID + RepositoryConstants.PATH_SEPARATOR + name;
+    }
+
+    public void fillResources(List<ResourceImpl> resources) throws RepositoryException {
+        List<ResourceImpl> resourcesWithContent = new ArrayList<ResourceImpl>();
+        int tenantId = CurrentContext.getTenantId();
+
+        for (ResourceImpl resourceImpl : resources) {
+            if (!(resourceImpl instanceof CollectionImpl) && resourceImpl.getDbBasedContentID() > 0) {
+                resourcesWithContent.add(resourceImpl);
+            } else if (resourceImpl instanceof CollectionImpl &&
+                    tenantId != MultitenantConstants.INVALID_TENANT_ID &&
+                    tenantId != MultitenantConstants.SUPER_TENANT_ID) {
+                fillChildren((CollectionImpl) resourceImpl, 0, -1, JDBCDatabaseTransaction.getConnection());
+            }
+        }
+
+        fillResourcesContentWithNoUpdate(resourcesWithContent);
+        fillResourcesPropertiesWithNoUpdate(resources);
+    }
+
+    // Method to fill the content of the given resources, using a query for each chunk of content
+    // ids.
+    private void fillResourcesContentWithNoUpdate(List<ResourceImpl> resources) throws RepositoryException {
+        JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
+
+        for (int i = 0; i < resources.size(); i += InternalConstants.MAX_PATH_IDS_PER_QUERY) {
+            List<ResourceImpl> chunk = resources.subList(i,
+                    Math.min(i + InternalConstants.MAX_PATH_IDS_PER_QUERY, resources.size()));
+
+            // content may be shared by resources when it is deduplicated.
+            Map<Integer, List<ResourceImpl>> resourcesByContentId = new LinkedHashMap<Integer, List<ResourceImpl>>();
+            for (ResourceImpl resourceImpl : chunk) {
+                List<ResourceImpl> contentResources = resourcesByContentId.get(resourceImpl.getDbBasedContentID());
+                if (contentResources == null) {
+                    contentResources = new ArrayList<ResourceImpl>();
+                    resourcesByContentId.put(resourceImpl.getDbBasedContentID(), contentResources);
+                }
+                contentResources.add(resourceImpl);
+            }
+
+            String sql = "SELECT REG_CONTENT_ID, REG_CONTENT_DATA FROM REG_CONTENT WHERE " +
+                    "REG_TENANT_ID=? AND REG_CONTENT_ID IN (" + getParameters(resourcesByContentId.size()) + ")";
+            Set<Integer> filledContentIds = new HashSet<Integer>();
+
+            PreparedStatement ps = null;
+            ResultSet result = null;
+            try {
+                ps = conn.prepareStatement(sql);
+                int index = 1;
+                ps.setInt(index++, CurrentContext.getTenantId());
+                for (int contentId : resourcesByContentId.keySet()) {
+                    ps.setInt(index++, contentId);
+                }
+                result = ps.executeQuery();
+
+                while (result.next()) {
+                    int contentId = result.getInt(DatabaseConstants.CONTENT_ID_FIELD);
+                    List<ResourceImpl> contentResources = resourcesByContentId.get(contentId);
+                    if (contentResources == null || !filledContentIds.add(contentId)) {
+                        continue;
+                    }
+                    InputStream rawInputStream = result.getBinaryStream(DatabaseConstants.CONTENT_DATA_FIELD);
+                    InputStream contentStream = (rawInputStream == null) ? null :
+                            SpooledContent.getContentStream(ContentCodecs.decode(rawInputStream));
+                    for (int j = 0; j < contentResources.size(); j++) {
+                        ResourceImpl resourceImpl = contentResources.get(j);
+                        if (contentStream == null) {
+                            resourceImpl.setContentWithNoUpdate(null);
+                        } else if (j == 0) {
+                            resourceImpl.setContentStreamWithNoUpdate(contentStream);
+                        } else {
+                            // each resource needs a stream of its own.
+                            fillResourceContentWithNoUpdate(resourceImpl);
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                String msg = "Failed to get the content of " + chunk.size() + " resources. " +
+                        e.getMessage();
+                log.error(msg, e);
+                throw new RepositoryDBException(msg, e);
+            } finally {
+                if (result != null) {
+                    try {
+                        result.close();
+                    } catch (SQLException e) {
+                        log.error(InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR, e);
+                    }
+                }
+                if (ps != null) {
+                    try {
+                        ps.close();
+                    } catch (SQLException e) {
+                        log.error(InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR, e);
+                    }
+                }
+            }
+
+            for (Map.Entry<Integer, List<ResourceImpl>> entry : resourcesByContentId.entrySet()) {
+                if (!filledContentIds.contains(entry.getKey())) {
+                    for (ResourceImpl resourceImpl : entry.getValue()) {
+                        resourceImpl.setContentWithNoUpdate(null);
+                    }
+                }
+            }
+        }
+    }
+
+    // Method to fill the properties of the given resources without marking them as modified,
+    // using a query for each chunk of resources.
+    private void fillResourcesPropertiesWithNoUpdate(List<ResourceImpl> resources) throws RepositoryException {
+        JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
+        boolean isVersioningProperties = StaticConfiguration.isVersioningProperties();
+
+        for (int i = 0; i < resources.size(); i += InternalConstants.MAX_PATH_IDS_PER_QUERY) {
+            List<ResourceImpl> chunk = resources.subList(i,
+                    Math.min(i + InternalConstants.MAX_PATH_IDS_PER_QUERY, resources.size()));
+
+            Map<String, List<ResourceImpl>> resourcesByKey = new HashMap<String, List<ResourceImpl>>();
+            Set<Long> versions = new LinkedHashSet<Long>();
+            Set<Integer> pathIds = new LinkedHashSet<Integer>();
+            Set<String> names = new LinkedHashSet<String>();
+            boolean hasCollections = false;
+            for (ResourceImpl resourceImpl : chunk) {
+                String key;
+                if (isVersioningProperties) {
+                    key = Long.toString(resourceImpl.getVersionNumber());
+                    versions.add(resourceImpl.getVersionNumber());
+                } else {
+                    ResourceIDImpl resourceID = resourceImpl.getResourceIDImpl();
+                    String name = (resourceImpl instanceof CollectionImpl) ? null : resourceID.getName();
+                    key = getResourceKey(resourceID.getPathID(), name);
+                    pathIds.add(resourceID.getPathID());
+                    if (name == null) {
+                        hasCollections = true;
+                    } else {
+                        names.add(name);
+                    }
+                }
+                List<ResourceImpl> keyResources = resourcesByKey.get(key);
+                if (keyResources == null) {
+                    keyResources = new ArrayList<ResourceImpl>();
+                    resourcesByKey.put(key, keyResources);
+                }
+                keyResources.add(resourceImpl);
+            }
+
+            String sql;
+            if (isVersioningProperties) {
+                sql = "SELECT RP.REG_VERSION, P.REG_NAME, P.REG_VALUE FROM REG_PROPERTY P, " +
+                        "REG_RESOURCE_PROPERTY RP WHERE P.REG_ID=RP.REG_PROPERTY_ID AND " +
+                        "P.REG_TENANT_ID=? AND RP.REG_TENANT_ID=? AND RP.REG_VERSION IN (" +
+                        getParameters(versions.size()) + ")";
+            } else {
+                String nameCondition;
+                if (names.isEmpty()) {
+                    nameCondition = "RP.REG_RESOURCE_NAME IS NULL";
+                } else if (hasCollections) {
+                    nameCondition = "(RP.REG_RESOURCE_NAME IS NULL OR RP.REG_RESOURCE_NAME IN (" +
+                            getParameters(names.size()) + "))";
+                } else {
+                    nameCondition = "RP.REG_RESOURCE_NAME IN (" + getParameters(names.size()) + ")";
+                }
+                sql = "SELECT RP.REG_PATH_ID, RP.REG_RESOURCE_NAME, P.REG_NAME, P.REG_VALUE FROM " +
+                        "REG_PROPERTY P, REG_RESOURCE_PROPERTY RP WHERE P.REG_ID=RP.REG_PROPERTY_ID " +
+                        "AND P.REG_TENANT_ID=? AND RP.REG_TENANT_ID=? AND RP.REG_PATH_ID IN (" +
+                        getParameters(pathIds.size()) + ") AND " + nameCondition;
+            }
+
+            PreparedStatement ps = null;
+            ResultSet results = null;
+            try {
+                ps = conn.prepareStatement(sql);
+                int index = 1;
+                ps.setInt(index++, CurrentContext.getTenantId());
+                ps.setInt(index++, CurrentContext.getTenantId());
+                if (isVersioningProperties) {
+                    for (long version : versions) {
+                        ps.setLong(index++, version);
+                    }
+                } else {
+                    for (int pathId : pathIds) {
+                        ps.setInt(index++, pathId);
+                    }
+                    for (String name : names) {
+                        ps.setString(index++, name);
+                    }
+                }
+                results = ps.executeQuery();
+
+                while (results.next()) {
+                    String key;
+                    String name;
+                    String value;
+                    if (isVersioningProperties) {
+                        key = Long.toString(results.getLong(1));
+                        name = results.getString(2);
+                        value = results.getString(3);
+                    } else {
+                        key = getResourceKey(results.getInt(1), results.getString(2));
+                        name = results.getString(3);
+                        value = results.getString(4);
+                    }
+                    List<ResourceImpl> keyResources = resourcesByKey.get(key);
+                    if (keyResources != null) {
+                        for (ResourceImpl resourceImpl : keyResources) {
+                            resourceImpl.addPropertyWithNoUpdate(name, value);
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                String msg = "Failed to add properties to " + chunk.size() + " resources. " +
+                        e.getMessage();
+                log.error(msg, e);
+                throw new RepositoryDBException(msg, e);
+            } finally {
+                if (results != null) {
+                    try {
+                        results.close();
+                    } catch (SQLException e) {
+                        log.error(InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR, e);
+                    }
+                }
+                if (ps != null) {
+                    try {
+                        ps.close();
+                    } catch (SQLException e) {
+                        log.error(InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR, e);
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Method to return a resource when the resourceID is provided.
      *
@@ -1217,7 +1617,7 @@ public class JDBCResourceDAO implements ResourceDAO {
         PreparedStatement ps = null;
         
         try {
-            String dbProductName = conn.getMetaData().getDatabaseProductName();
+            String dbProductName = conn.getDatabaseProductName();
             String sql;
             // If SQL Server or SQL Server Express.
             if (dbProductName.contains("Microsoft")) {
@@ -1308,7 +1708,7 @@ public class JDBCResourceDAO implements ResourceDAO {
 
             long now = System.currentTimeMillis();
 
-            String dbProductName = conn.getMetaData().getDatabaseProductName();
+            String dbProductName = conn.getDatabaseProductName();
             boolean returnsGeneratedKeys = DBUtils.canReturnGeneratedKeys(dbProductName);
             
             if (returnsGeneratedKeys) {
@@ -1429,7 +1829,7 @@ public class JDBCResourceDAO implements ResourceDAO {
                             "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
             String sql1 = "SELECT MAX(REG_VERSION) FROM REG_RESOURCE";
 
-            String dbProductName = conn.getMetaData().getDatabaseProductName();
+            String dbProductName = conn.getDatabaseProductName();
             boolean returnsGeneratedKeys = DBUtils.canReturnGeneratedKeys(dbProductName);
             
             if (returnsGeneratedKeys) {
@@ -1548,7 +1948,7 @@ public class JDBCResourceDAO implements ResourceDAO {
         boolean isVersioningProperties = StaticConfiguration.isVersioningProperties();
 
         sql1 = "INSERT INTO REG_PROPERTY (REG_NAME, REG_VALUE, REG_TENANT_ID) VALUES (?, ?, ?)";
-        sql2 = "SELECT MAX(REG_ID) FROM REG_PROPERTY";
+        sql2 = "INSERT INTO REG_PROPERTY (REG_ID, REG_NAME, REG_VALUE, REG_TENANT_ID) VALUES (?, ?, ?, ?)";
 
         if (isVersioningProperties) {
             sql3 = "INSERT INTO REG_RESOURCE_PROPERTY (REG_PROPERTY_ID, REG_VERSION, REG_TENANT_ID) VALUES (?, ?, ?)";
@@ -1556,102 +1956,185 @@ public class JDBCResourceDAO implements ResourceDAO {
             sql3 = "INSERT INTO REG_RESOURCE_PROPERTY (REG_PROPERTY_ID, REG_PATH_ID, REG_RESOURCE_NAME, REG_TENANT_ID) VALUES (?, ?, ?, ?)";
         }
 
-        ResourceIDImpl resourceID = resource.getResourceIDImpl();
-
+        List<String[]> properties = new ArrayList<String[]>();
         for (Object nameObj : resource.getPropertyKeys()) {
             String name = (String) nameObj;
             List propValues = (List) resource.getPropertyValues(name);
             if (propValues != null) {
                 for (Object valueObj : propValues) {
-                    PreparedStatement ps1 = null;
-                    PreparedStatement ps2 = null;
-                    PreparedStatement ps3 = null;
-                    ResultSet resultSet1 = null;
-                    try {
-                        String value = (String) valueObj;
-                        String dbProductName = conn.getMetaData().getDatabaseProductName();
-                        boolean returnsGeneratedKeys =
-                                DBUtils.canReturnGeneratedKeys(dbProductName);
-                        if (returnsGeneratedKeys) {
-                            ps1 = conn.prepareStatement(sql1, new String[]{
-                                    DBUtils.getConvertedAutoGeneratedColumnName(dbProductName,
-                                            DatabaseConstants.ID_FIELD)});
-                        } else {
-                            ps1 = conn.prepareStatement(sql1);
-                        }
-                        ps3 = conn.prepareStatement(sql3);
-
-                        // prepare to execute query1 for the property
-                        ps1.setString(1, name);
-                        ps1.setString(2, value);
-                        ps1.setInt(3, CurrentContext.getTenantId());
-                        if (returnsGeneratedKeys) {
-                            ps1.executeUpdate();
-                            resultSet1 = ps1.getGeneratedKeys();
-                        } else {
-                            synchronized (ADD_PROPERTY_LOCK) {
-                                ps1.executeUpdate();
-                                ps2 = conn.prepareStatement(sql2);
-                                resultSet1 = ps2.executeQuery();
-                            }
-                        }
-                        if (resultSet1.next()) {
-                            // setting the property id
-                            int propertyId = resultSet1.getInt(1);
-                            ps3.setInt(1, propertyId);
-                            if (isVersioningProperties) {
-                                ps3.setLong(2, resource.getVersionNumber());
-                                ps3.setInt(3, CurrentContext.getTenantId());
-                            } else {
-                                ps3.setLong(2, resourceID.getPathID());
-                                if (resourceID.getName() == null) {
-                                    ps3.setNull(3, Types.VARCHAR);
-                                } else {
-                                    ps3.setString(3, resourceID.getName());
-                                }
-                                ps3.setInt(4, CurrentContext.getTenantId());
-                            }
-                            ps3.executeUpdate();
-                        }
-                    } catch (SQLException e) {
+                    properties.add(new String[]{name, (String) valueObj});
+                }
+            }
+        }
+        if (properties.isEmpty()) {
+            return;
+        }
 
-                        String msg = "Failed to add properties to the resource " +
-                                resource.getPath() + ". " + e.getMessage();
-                        log.error(msg, e);
-                        throw new RepositoryDBException(msg, e);
-                    } finally {
-                        // closing prepared statements before moving on to next iteration
-                        try {
-                            try {
-                                try {
-                                    if (resultSet1 != null) {
-                                        resultSet1.close();
-                                    }
-                                } finally {
-                                    if (ps1 != null) {
-                                        ps1.close();
-                                    }
-                                }
-                            } finally {
-                                try {
-                                    if (ps2 != null) {
-                                        ps2.close();
-                                    }
-                                } finally {
-                                    if (ps3 != null) {
-                                        ps3.close();
-                                    }
-                                }
-                            }
-                        } catch (SQLException ex) {
-                            String msg =
-                                    InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR;
-                            log.error(msg, ex);
-                        }
+        ResourceIDImpl resourceID = resource.getResourceIDImpl();
+        int tenantId = CurrentContext.getTenantId();
+
+        PreparedStatement ps1 = null;
+        PreparedStatement ps3 = null;
+        try {
+            String dbProductName = conn.getDatabaseProductName();
+            boolean returnsGeneratedKeys = DBUtils.canReturnGeneratedKeys(dbProductName);
+
+            // where the database returns generated keys, the property rows are sent as one batch
+            // and the generated ids are read after it, if the driver returns the keys of a batch.
+            // Otherwise the rows are inserted one by one. Where the database does not return
+            // generated keys, the ids are allocated up front and the rows are sent as one batch.
+            int[] propertyIds;
+            if (returnsGeneratedKeys) {
+                ps1 = conn.prepareStatement(sql1, new String[]{
+                        DBUtils.getConvertedAutoGeneratedColumnName(dbProductName,
+                                DatabaseConstants.ID_FIELD)});
+                propertyIds = insertProperties(ps1, null, properties, tenantId,
+                        canReturnGeneratedKeysOfBatch(dbProductName));
+            } else {
+                ps1 = conn.prepareStatement(sql2);
+                propertyIds = insertProperties(ps1, JDBCDataAccessManager.getCurrentIdAllocator(),
+                        properties, tenantId, true);
+            }
+
+            // the resource property rows do not depend on each other, and are sent as one batch.
+            ps3 = conn.prepareStatement(sql3);
+            for (int propertyId : propertyIds) {
+                if (propertyId <= 0) {
+                    continue;
+                }
+                ps3.setInt(1, propertyId);
+                if (isVersioningProperties) {
+                    ps3.setLong(2, resource.getVersionNumber());
+                    ps3.setInt(3, tenantId);
+                } else {
+                    ps3.setLong(2, resourceID.getPathID());
+                    if (resourceID.getName() == null) {
+                        ps3.setNull(3, Types.VARCHAR);
+                    } else {
+                        ps3.setString(3, resourceID.getName());
+                    }
+                    ps3.setInt(4, tenantId);
+                }
+                ps3.addBatch();
+            }
+            ps3.executeBatch();
+        } catch (SQLException e) {
+
+            String msg = "Failed to add properties to the resource " +
+                    resource.getPath() + ". " + e.getMessage();
+            log.error(msg, e);
+            throw new RepositoryDBException(msg, e);
+        } finally {
+            try {
+                try {
+                    if (ps1 != null) {
+                        ps1.close();
                     }
+                } finally {
+                    if (ps3 != null) {
+                        ps3.close();
+                    }
+                }
+            } catch (SQLException ex) {
+                String msg =
+                        InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR;
+                log.error(msg, ex);
+            }
+        }
+    }
+
+    /**
+     * Inserts the given properties to the REG_PROPERTY table, reusing the given statement.
+     *
+     * @param insertStatement the statement inserting a property row.
+     * @param idAllocator     the allocator of the property ids, or null if the insert statement
+     *                        returns generated keys.
+     * @param properties      the list of name, value pairs.
+     * @param tenantId        the tenant identifier.
+     * @param batch           whether the rows are sent as one batch. The rows with allocated ids
+     *                        are always batched; with generated keys, this requires a driver
+     *                        that returns the keys of all the rows of a batch.
+     *
+     * @return the ids of the inserted rows, in the order of the given properties. An id is 0 if it
+     *         could not be read.
+     * @throws SQLException if the operation failed.
+     */
+    private int[] insertProperties(PreparedStatement insertStatement, IdAllocator idAllocator,
+                                   List<String[]> properties, int tenantId, boolean batch)
+            throws SQLException {
+        int[] propertyIds = new int[properties.size()];
+        if (idAllocator != null) {
+            for (int i = 0; i < propertyIds.length; i++) {
+                String[] property = properties.get(i);
+                propertyIds[i] = idAllocator.nextId("REG_PROPERTY", DatabaseConstants.ID_FIELD,
+                        tenantId);
+                insertStatement.setInt(1, propertyIds[i]);
+                insertStatement.setString(2, property[0]);
+                insertStatement.setString(3, property[1]);
+                insertStatement.setInt(4, tenantId);
+                insertStatement.addBatch();
+            }
+            insertStatement.executeBatch();
+            return propertyIds;
+        }
+
+        if (batch) {
+            for (String[] property : properties) {
+                insertStatement.setString(1, property[0]);
+                insertStatement.setString(2, property[1]);
+                insertStatement.setInt(3, tenantId);
+                insertStatement.addBatch();
+            }
+            insertStatement.executeBatch();
+
+            // the keys are returned in the order of the rows of the batch.
+            int count = 0;
+            ResultSet resultSet = insertStatement.getGeneratedKeys();
+            try {
+                while (count < propertyIds.length && resultSet.next()) {
+                    propertyIds[count++] = resultSet.getInt(1);
+                }
+            } finally {
+                resultSet.close();
+            }
+            if (count != propertyIds.length) {
+                throw new SQLException("The database returned " + count +
+                        " generated keys for a batch of " + propertyIds.length + " properties.");
+            }
+            return propertyIds;
+        }
+
+        for (int i = 0; i < propertyIds.length; i++) {
+            String[] property = properties.get(i);
+            insertStatement.setString(1, property[0]);
+            insertStatement.setString(2, property[1]);
+            insertStatement.setInt(3, tenantId);
+            insertStatement.executeUpdate();
+
+            ResultSet resultSet = insertStatement.getGeneratedKeys();
+            try {
+                if (resultSet.next()) {
+                    propertyIds[i] = resultSet.getInt(1);
                 }
+            } finally {
+                resultSet.close();
             }
         }
+        return propertyIds;
+    }
+
+    /**
+     * Whether the JDBC driver of the given database returns the generated keys of all the rows
+     * of a batch, in the order of the rows. Other drivers return no keys, or only the key of the
+     * last row, after a batch.
+     *
+     * @param dbProductName the database product name.
+     *
+     * @return true if the generated keys of a batch are returned.
+     */
+    private static boolean canReturnGeneratedKeysOfBatch(String dbProductName) {
+        return dbProductName.equals("MySQL") || dbProductName.equals("MariaDB") ||
+                dbProductName.equals("H2") || dbProductName.equals("PostgreSQL");
     }
 
     /**
@@ -1789,7 +2272,9 @@ public class JDBCResourceDAO implements ResourceDAO {
     }
 
     public void addContent(ResourceImpl resourceImpl) throws RepositoryException {
-        if (!(resourceImpl.getContent() instanceof byte[])) {
+        // content spooled to a temporary file is returned as a stream.
+        Object content = resourceImpl.getContent();
+        if (!(content instanceof byte[]) && !(content instanceof InputStream)) {
             if (log.isDebugEnabled()) {
                 String msg = "Content of the resource " + resourceImpl.getPath() + " is null or " +
                         "not a byte array. Content will not be persisted to the database.";
@@ -1799,87 +2284,377 @@ public class JDBCResourceDAO implements ResourceDAO {
             return;
         }
 
-        InputStream contentStream = resourceImpl.getContentStream();
-        int contentID = addContentBytes(contentStream);
+        InputStream contentStream = (content instanceof InputStream) ? (InputStream) content :
+                resourceImpl.getContentStream();
+        int contentID = addContentBytes(contentStream, resourceImpl.getMediaType());
         resourceImpl.setDbBasedContentID(contentID);
     }
 
     public int addContentBytes(InputStream contentStream) throws RepositoryException {
-        JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
-        int contentID = -1;
+        return addContentBytes(contentStream, null);
+    }
+
+    public int addContentBytes(InputStream contentStream, String mediaType)
+            throws RepositoryException {
+        if (!isContentDeduplication()) {
+            return insertContentBytes(contentStream, mediaType);
+        }
 
+        // the content is read once to compute its digest, and is only written if no content with
+        // the same digest has been stored yet.
+        MessageDigest messageDigest;
         try {
-            String sql = "INSERT INTO REG_CONTENT (REG_CONTENT_DATA, REG_TENANT_ID) VALUES (?, ?)";
-            String sql1 = "SELECT MAX(REG_CONTENT_ID) FROM REG_CONTENT";
+            messageDigest = MessageDigest.getInstance(CONTENT_DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            String msg = "Failed to compute the digest of the content.";
+            log.error(msg, e);
+            throw new RepositoryServerContentException(msg, e);
+        }
+        InputStream spooledStream = SpooledContent.getContentStream(
+                new DigestInputStream(contentStream, messageDigest));
+        String digest = getHexString(messageDigest.digest());
 
-            int size = contentStream.available();
-            PreparedStatement ps, ps1 = null;
-            String dbProductName = conn.getMetaData().getDatabaseProductName();
-            boolean returnsGeneratedKeys = DBUtils.canReturnGeneratedKeys(dbProductName);
-            
-            if (returnsGeneratedKeys) {
-                ps = conn.prepareStatement(sql, new String[]{DBUtils.getConvertedAutoGeneratedColumnName(dbProductName, "REG_CONTENT_ID")});
-            } else {
-                ps = conn.prepareStatement(sql);
+        int contentID = getContentIdByDigest(digest);
+        if (contentID > 0 && updateContentReferenceCount(contentID, 1)) {
+            try {
+                spooledStream.close();
+            } catch (IOException e) {
+                log.error("Failed to close the content stream.", e);
             }
-            
+            return contentID;
+        }
+
+        contentID = insertContentBytes(spooledStream, mediaType);
+        addContentDigest(digest, contentID);
+        return contentID;
+    }
+
+    // Method to write the given content to the content table, encoded with the codec of the
+    // given media type.
+    private int insertContentBytes(InputStream contentStream, String mediaType)
+            throws RepositoryException {
+        JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
+        int contentID = -1;
+
+        contentStream = ContentCodecs.encode(contentStream, MediaTypesUtils.getContentCodec(mediaType));
+        try {
+            int size = contentStream.available();
+            int tenantId = CurrentContext.getTenantId();
+            String dbProductName = conn.getDatabaseProductName();
+            boolean returnsGeneratedKeys = DBUtils.canReturnGeneratedKeys(dbProductName);
+            PreparedStatement ps = null;
+
             try {
-                ps.setBinaryStream(1, contentStream, size);
-                ps.setInt(2, CurrentContext.getTenantId());
-                ResultSet result;
                 if (returnsGeneratedKeys) {
+                    String sql = "INSERT INTO REG_CONTENT (REG_CONTENT_DATA, REG_TENANT_ID) VALUES (?, ?)";
+                    ps = conn.prepareStatement(sql, new String[]{DBUtils.getConvertedAutoGeneratedColumnName(dbProductName, "REG_CONTENT_ID")});
+                    ps.setBinaryStream(1, contentStream, size);
+                    ps.setInt(2, tenantId);
                     ps.executeUpdate();
-                    result = ps.getGeneratedKeys();
-                } else {
-                    synchronized (ADD_CONTENT_LOCK) {
-                        ps.executeUpdate();
-                        if (dbProductName.equals("OpenEdge RDBMS")) {
-                            String sql2 = "UPDATE REG_CONTENT SET REG_CONTENT_ID = " +
-                                    "PUB.REG_CONTENT_SEQUENCE.NEXTVAL WHERE REG_CONTENT_ID = 0";
-                            PreparedStatement ps2 = null;
-                            try {
-                                ps2 = conn.prepareStatement(sql2);
-                                ps2.executeUpdate();
-                            } finally {
-                                if (ps2 != null) {
-                                    ps2.close();
-                                }
-                            }
+                    ResultSet result = ps.getGeneratedKeys();
+                    try {
+                        if (result.next()) {
+                            contentID = result.getInt(1);
                         }
-                        ps1 = conn.prepareStatement(sql1);
-                        result = ps1.executeQuery();
+                    } finally {
+                        result.close();
                     }
+                } else {
+                    // the id is allocated before inserting the row, instead of reading the largest
+                    // id of the table after the insert.
+                    String sql = "INSERT INTO REG_CONTENT (REG_CONTENT_ID, REG_CONTENT_DATA, REG_TENANT_ID) VALUES (?, ?, ?)";
+                    int allocatedId = JDBCDataAccessManager.getCurrentIdAllocator().nextId(
+                            "REG_CONTENT", "REG_CONTENT_ID", tenantId);
+                    ps = conn.prepareStatement(sql);
+                    ps.setInt(1, allocatedId);
+                    ps.setBinaryStream(2, contentStream, size);
+                    ps.setInt(3, tenantId);
+                    ps.executeUpdate();
+                    contentID = allocatedId;
                 }
-                try {
-                    if (result.next()) {
-                        contentID = result.getInt(1);
-                    }
-                } finally {
-                    if (result != null) {
+            } finally {
+                if (ps != null) {
+                    ps.close();
+                }
+            }
+        } catch (IOException e) {
+            String msg = "An error occurred while processing content stream.";
+            log.error(msg, e);
+            throw new RepositoryServerContentException(msg, e);
+        } catch (SQLException e) {
+            String msg = "Failed to write resource content to the database.";
+            log.error(msg, e);
+            throw new RepositoryDBException(msg, e);
+        }
+        return contentID;
+    }
+
+    public int copyContent(int contentID) throws RepositoryException {
+        if (isContentDeduplication() && updateContentReferenceCount(contentID, 1)) {
+            return contentID;
+        }
+        JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
+        int copyID = -1;
+
+        try {
+            int tenantId = CurrentContext.getTenantId();
+            String dbProductName = conn.getDatabaseProductName();
+            boolean returnsGeneratedKeys = DBUtils.canReturnGeneratedKeys(dbProductName);
+            PreparedStatement ps = null;
+
+            try {
+                if (returnsGeneratedKeys) {
+                    String sql = "INSERT INTO REG_CONTENT (REG_CONTENT_DATA, REG_TENANT_ID) " +
+                            "SELECT REG_CONTENT_DATA, REG_TENANT_ID FROM REG_CONTENT " +
+                            "WHERE REG_CONTENT_ID=? AND REG_TENANT_ID=?";
+                    ps = conn.prepareStatement(sql, new String[]{DBUtils.getConvertedAutoGeneratedColumnName(dbProductName, "REG_CONTENT_ID")});
+                    ps.setInt(1, contentID);
+                    ps.setInt(2, tenantId);
+                    ps.executeUpdate();
+                    ResultSet result = ps.getGeneratedKeys();
+                    try {
+                        if (result.next()) {
+                            copyID = result.getInt(1);
+                        }
+                    } finally {
                         result.close();
                     }
+                } else {
+                    String sql = "INSERT INTO REG_CONTENT (REG_CONTENT_ID, REG_CONTENT_DATA, REG_TENANT_ID) " +
+                            "SELECT ?, REG_CONTENT_DATA, REG_TENANT_ID FROM REG_CONTENT " +
+                            "WHERE REG_CONTENT_ID=? AND REG_TENANT_ID=?";
+                    int allocatedId = JDBCDataAccessManager.getCurrentIdAllocator().nextId(
+                            "REG_CONTENT", "REG_CONTENT_ID", tenantId);
+                    ps = conn.prepareStatement(sql);
+                    ps.setInt(1, allocatedId);
+                    ps.setInt(2, contentID);
+                    ps.setInt(3, tenantId);
+                    if (ps.executeUpdate() > 0) {
+                        copyID = allocatedId;
+                    }
+                }
+            } finally {
+                if (ps != null) {
+                    ps.close();
                 }
+            }
+        } catch (SQLException e) {
+            String msg = "Failed to copy the resource content " + contentID + ". " + e.getMessage();
+            log.error(msg, e);
+            throw new RepositoryDBException(msg, e);
+        }
+        return copyID;
+    }
+
+    // Method to check whether removed and replaced paths are recorded for incremental dumps.
+    private static boolean isPathTombstones() {
+        RepositoryContext repositoryContext = RepositoryContext.getBaseInstance();
+        return repositoryContext != null && repositoryContext.isPathTombstones();
+    }
+
+    // Method to check whether content is stored by its digest.
+    private static boolean isContentDeduplication() {
+        RepositoryContext repositoryContext = RepositoryContext.getBaseInstance();
+        return repositoryContext != null && repositoryContext.isContentDeduplication();
+    }
+
+    // Method to check whether content may be stored by its digest. Content stored while
+    // deduplication was enabled keeps its reference count after the option is turned off, so the
+    // digests are consulted whenever their table exists.
+    private boolean hasContentDigests() throws RepositoryException {
+        if (isContentDeduplication()) {
+            return true;
+        }
+        Boolean exists = contentDigestTableExists;
+        if (exists == null) {
+            JDBCDatabaseTransaction.ManagedRegistryConnection conn =
+                    JDBCDatabaseTransaction.getConnection();
+            ResultSet result = null;
+            try {
+                DatabaseMetaData metaData = conn.getMetaData();
+                String tableName = metaData.storesLowerCaseIdentifiers() ?
+                        CONTENT_DIGEST_TABLE.toLowerCase() : CONTENT_DIGEST_TABLE;
+                result = metaData.getTables(null, null, tableName, null);
+                exists = result.next();
+            } catch (SQLException e) {
+                String msg = "Failed to check whether the content digest table exists. " +
+                        e.getMessage();
+                log.error(msg, e);
+                throw new RepositoryDBException(msg, e);
             } finally {
+                if (result != null) {
+                    try {
+                        result.close();
+                    } catch (SQLException e) {
+                        log.error(InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR, e);
+                    }
+                }
+            }
+            contentDigestTableExists = exists;
+        }
+        return exists;
+    }
+
+    // Method to obtain the id of the content having the given digest. Returns -1 if there is none.
+    private int getContentIdByDigest(String digest) throws RepositoryException {
+        JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
+        PreparedStatement ps = null;
+        ResultSet result = null;
+        try {
+            String sql = "SELECT REG_CONTENT_ID FROM REG_CONTENT_DIGEST WHERE REG_DIGEST=? AND " +
+                    "REG_TENANT_ID=?";
+            ps = conn.prepareStatement(sql);
+            ps.setString(1, digest);
+            ps.setInt(2, CurrentContext.getTenantId());
+            result = ps.executeQuery();
+            if (result.next()) {
+                return result.getInt(DatabaseConstants.CONTENT_ID_FIELD);
+            }
+        } catch (SQLException e) {
+            String msg = "Failed to read the content having the digest " + digest + ". " +
+                    e.getMessage();
+            log.error(msg, e);
+            throw new RepositoryDBException(msg, e);
+        } finally {
+            try {
                 try {
-                    if (ps1 != null) {
-                        ps1.close();
+                    if (result != null) {
+                        result.close();
                     }
                 } finally {
                     if (ps != null) {
                         ps.close();
                     }
                 }
+            } catch (SQLException ex) {
+                String msg = InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR;
+                log.error(msg, ex);
             }
-        } catch (IOException e) {
-            String msg = "An error occurred while processing content stream.";
+        }
+        return -1;
+    }
+
+    // Method to record the digest of newly added content, which is referenced once.
+    private void addContentDigest(String digest, int contentID) throws RepositoryException {
+        JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
+        PreparedStatement ps = null;
+        try {
+            String sql = "INSERT INTO REG_CONTENT_DIGEST (REG_DIGEST, REG_CONTENT_ID, " +
+                    "REG_REF_COUNT, REG_TENANT_ID) VALUES (?, ?, ?, ?)";
+            ps = conn.prepareStatement(sql);
+            ps.setString(1, digest);
+            ps.setInt(2, contentID);
+            ps.setInt(3, 1);
+            ps.setInt(4, CurrentContext.getTenantId());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            String msg = "Failed to add the digest of the content " + contentID + ". " +
+                    e.getMessage();
             log.error(msg, e);
-            throw new RepositoryServerContentException(msg, e);
+            throw new RepositoryDBException(msg, e);
+        } finally {
+            try {
+                if (ps != null) {
+                    ps.close();
+                }
+            } catch (SQLException ex) {
+                String msg = InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR;
+                log.error(msg, ex);
+            }
+        }
+    }
+
+    // Method to change the number of references to the given content. Returns false if the
+    // content was not stored by its digest.
+    private boolean updateContentReferenceCount(int contentID, int change)
+            throws RepositoryException {
+        JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
+        PreparedStatement ps = null;
+        try {
+            String sql = "UPDATE REG_CONTENT_DIGEST SET REG_REF_COUNT=REG_REF_COUNT+? WHERE " +
+                    "REG_CONTENT_ID=? AND REG_TENANT_ID=?";
+            ps = conn.prepareStatement(sql);
+            ps.setInt(1, change);
+            ps.setInt(2, contentID);
+            ps.setInt(3, CurrentContext.getTenantId());
+            return ps.executeUpdate() > 0;
         } catch (SQLException e) {
-            String msg = "Failed to write resource content to the database.";
+            String msg = "Failed to update the references to the content " + contentID + ". " +
+                    e.getMessage();
             log.error(msg, e);
             throw new RepositoryDBException(msg, e);
+        } finally {
+            try {
+                if (ps != null) {
+                    ps.close();
+                }
+            } catch (SQLException ex) {
+                String msg = InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR;
+                log.error(msg, ex);
+            }
         }
-        return contentID;
+    }
+
+    // Method to remove a reference to the given content. Returns true if the content is still
+    // referenced and must be kept. Otherwise, the digest of the content is removed, and the
+    // caller is expected to delete the content.
+    private boolean releaseContentReference(int contentID) throws RepositoryException {
+        // the count is decremented first, so that the row stays locked until the transaction
+        // completes and concurrent operations see the count that is read below.
+        if (!updateContentReferenceCount(contentID, -1)) {
+            return false;
+        }
+        JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
+        PreparedStatement ps = null;
+        ResultSet result = null;
+        try {
+            String sql = "SELECT REG_REF_COUNT FROM REG_CONTENT_DIGEST WHERE REG_CONTENT_ID=? AND " +
+                    "REG_TENANT_ID=?";
+            ps = conn.prepareStatement(sql);
+            ps.setInt(1, contentID);
+            ps.setInt(2, CurrentContext.getTenantId());
+            result = ps.executeQuery();
+            if (result.next() && result.getInt(1) > 0) {
+                return true;
+            }
+        } catch (SQLException e) {
+            String msg = "Failed to read the references to the content " + contentID + ". " +
+                    e.getMessage();
+            log.error(msg, e);
+            throw new RepositoryDBException(msg, e);
+        } finally {
+            try {
+                try {
+                    if (result != null) {
+                        result.close();
+                    }
+                } finally {
+                    if (ps != null) {
+                        ps.close();
+                    }
+                }
+            } catch (SQLException ex) {
+                String msg = InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR;
+                log.error(msg, ex);
+            }
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("The content " + contentID + " is no longer referenced and will be deleted.");
+        }
+        deleteByIds("DELETE FROM REG_CONTENT_DIGEST WHERE REG_TENANT_ID=? AND REG_CONTENT_ID IN ",
+                Collections.singletonList(contentID));
+        return false;
+    }
+
+    // Method to convert a digest into a string of hexadecimal digits.
+    private static String getHexString(byte[] digest) {
+        StringBuilder sb = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
     }
 
     public ResourceDO getResourceDO(long version) throws RepositoryException {
@@ -2093,11 +2868,620 @@ public class JDBCResourceDAO implements ResourceDAO {
         return childPathList;
     }
 
-    public String getPathFromId(int pathId) throws RepositoryException {
+    public Map<Integer, String> getSubTreePaths(ResourceIDImpl resourceID) throws RepositoryException {
+        JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
+        Map<Integer, String> subTreePaths = new LinkedHashMap<Integer, String>();
+        subTreePaths.put(resourceID.getPathID(), resourceID.getPath());
+
+        String parentPath = resourceID.getPath();
+        String prefix = parentPath.equals(RepositoryConstants.ROOT_PATH) ? parentPath :
+                parentPath + RepositoryConstants.PATH_SEPARATOR;
+
+        PreparedStatement ps = null;
+        ResultSet results = null;
         try {
-            return JDBCPathCache.getPathCache().getPath(JDBCDatabaseTransaction.getConnection(), pathId);
+            String sql = "SELECT P.REG_PATH_ID, P.REG_PATH_VALUE FROM REG_PATH P, REG_RESOURCE R " +
+                    "WHERE P.REG_PATH_VALUE LIKE ? AND P.REG_TENANT_ID=? AND " +
+                    "R.REG_PATH_ID=P.REG_PATH_ID AND R.REG_NAME IS NULL AND R.REG_TENANT_ID=?";
+
+            ps = conn.prepareStatement(sql);
+            ps.setString(1, prefix + "%");
+            ps.setInt(2, CurrentContext.getTenantId());
+            ps.setInt(3, CurrentContext.getTenantId());
+            results = ps.executeQuery();
+
+            while (results.next()) {
+                String path = results.getString(DatabaseConstants.PATH_VALUE_FIELD);
+                // '_' and '%' are matched as wildcards by LIKE, so the prefix is checked again.
+                if (path.startsWith(prefix) && path.length() > prefix.length()) {
+                    subTreePaths.put(results.getInt(DatabaseConstants.PATH_ID_FIELD), path);
+                }
+            }
         } catch (SQLException e) {
-            String msg = "Failed to get the path for the path id " + pathId + ". " + e.getMessage();
+            String msg = "Failed to get the paths of the sub tree of " + resourceID.getPath() +
+                    ". " + e.getMessage();
+            log.error(msg, e);
+            throw new RepositoryDBException(msg, e);
+        } finally {
+            if (results != null) {
+                try {
+                    results.close();
+                } catch (SQLException e) {
+                    log.error(InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR, e);
+                }
+            }
+            if (ps != null) {
+                try {
+                    ps.close();
+                } catch (SQLException e) {
+                    log.error(InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR, e);
+                }
+            }
+        }
+        return subTreePaths;
+    }
+
+    public Map<Integer, String> getPathEntries(String path) throws RepositoryException {
+        JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
+        Map<Integer, String> paths = new LinkedHashMap<Integer, String>();
+
+        String prefix = path.equals(RepositoryConstants.ROOT_PATH) ? path :
+                path + RepositoryConstants.PATH_SEPARATOR;
+
+        PreparedStatement ps = null;
+        ResultSet results = null;
+        try {
+            String sql = "SELECT REG_PATH_ID, REG_PATH_VALUE FROM REG_PATH WHERE " +
+                    "(REG_PATH_VALUE=? OR REG_PATH_VALUE LIKE ?) AND REG_TENANT_ID=?";
+
+            ps = conn.prepareStatement(sql);
+            ps.setString(1, path);
+            ps.setString(2, prefix + "%");
+            ps.setInt(3, CurrentContext.getTenantId());
+            results = ps.executeQuery();
+
+            while (results.next()) {
+                String pathValue = results.getString(DatabaseConstants.PATH_VALUE_FIELD);
+                // '_' and '%' are matched as wildcards by LIKE, so the prefix is checked again.
+                if (pathValue.equals(path) || pathValue.startsWith(prefix)) {
+                    paths.put(results.getInt(DatabaseConstants.PATH_ID_FIELD), pathValue);
+                }
+            }
+        } catch (SQLException e) {
+            String msg = "Failed to get the path entries of the sub tree of " + path + ". " +
+                    e.getMessage();
+            log.error(msg, e);
+            throw new RepositoryDBException(msg, e);
+        } finally {
+            if (results != null) {
+                try {
+                    results.close();
+                } catch (SQLException e) {
+                    log.error(InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR, e);
+                }
+            }
+            if (ps != null) {
+                try {
+                    ps.close();
+                } catch (SQLException e) {
+                    log.error(InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR, e);
+                }
+            }
+        }
+        return paths;
+    }
+
+    public void movePathEntries(Map<Integer, String> paths, String sourcePath, String targetPath,
+                                ResourceIDImpl targetParentID) throws RepositoryException {
+        JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
+        int tenantId = CurrentContext.getTenantId();
+
+        PreparedStatement ps1 = null, ps2 = null;
+        try {
+            String sql = "UPDATE REG_PATH SET REG_PATH_VALUE=? WHERE REG_PATH_ID=? AND REG_TENANT_ID=?";
+            ps1 = conn.prepareStatement(sql);
+
+            sql = "UPDATE REG_PATH SET REG_PATH_PARENT_ID=? WHERE REG_PATH_ID=? AND REG_TENANT_ID=?";
+            ps2 = conn.prepareStatement(sql);
+
+            // the new values are computed here, as the functions to replace a prefix of a column
+            // are not the same in all the supported databases.
+            int batchSize = 0;
+            for (Map.Entry<Integer, String> entry : paths.entrySet()) {
+                String path = entry.getValue();
+                ps1.setString(1, targetPath + path.substring(sourcePath.length()));
+                ps1.setInt(2, entry.getKey());
+                ps1.setInt(3, tenantId);
+                ps1.addBatch();
+                if (path.equals(sourcePath)) {
+                    ps2.setInt(1, targetParentID.getPathID());
+                    ps2.setInt(2, entry.getKey());
+                    ps2.setInt(3, tenantId);
+                    ps2.executeUpdate();
+                }
+                if (++batchSize == InternalConstants.MAX_PATH_IDS_PER_QUERY) {
+                    ps1.executeBatch();
+                    batchSize = 0;
+                }
+            }
+            if (batchSize > 0) {
+                ps1.executeBatch();
+            }
+
+            JDBCPathCache.getPathCache().removeEntries(conn, paths);
+        } catch (SQLException e) {
+            String msg = "Failed to move the path entries of " + sourcePath + " to " + targetPath +
+                    ". " + e.getMessage();
+            log.error(msg, e);
+            throw new RepositoryDBException(msg, e);
+        } finally {
+            try {
+                try {
+                    if (ps1 != null) {
+                        ps1.close();
+                    }
+                } finally {
+                    if (ps2 != null) {
+                        ps2.close();
+                    }
+                }
+            } catch (SQLException ex) {
+                String msg = InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR;
+                log.error(msg, ex);
+            }
+        }
+        // the target paths may have been cached as missing.
+        NegativeLookupCache.getPathCache().invalidate(tenantId, targetPath, true);
+    }
+
+    public List<String> getChangedResourcePaths(String path, Date since) throws RepositoryException {
+        JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
+        List<String> changedPaths = new ArrayList<String>();
+
+        boolean isRoot = path.equals(RepositoryConstants.ROOT_PATH);
+        String prefix = isRoot ? path : path + RepositoryConstants.PATH_SEPARATOR;
+
+        PreparedStatement ps = null;
+        ResultSet results = null;
+        try {
+            String sql = "SELECT P.REG_PATH_VALUE, R.REG_NAME FROM REG_PATH P, REG_RESOURCE R " +
+                    "WHERE R.REG_LAST_UPDATED_TIME > ? AND R.REG_TENANT_ID=? AND " +
+                    "P.REG_PATH_ID=R.REG_PATH_ID AND P.REG_TENANT_ID=?";
+            if (!isRoot) {
+                sql += " AND (P.REG_PATH_VALUE=? OR P.REG_PATH_VALUE=? OR P.REG_PATH_VALUE LIKE ?)";
+            }
+
+            ps = conn.prepareStatement(sql);
+            ps.setTimestamp(1, new Timestamp(since.getTime()));
+            ps.setInt(2, CurrentContext.getTenantId());
+            ps.setInt(3, CurrentContext.getTenantId());
+            if (!isRoot) {
+                // the parent collection is read for a resource at the root of the sub tree.
+                ps.setString(4, path);
+                ps.setString(5, RepositoryUtils.getParentPath(path));
+                ps.setString(6, prefix + "%");
+            }
+            results = ps.executeQuery();
+
+            while (results.next()) {
+                String pathValue = results.getString(DatabaseConstants.PATH_VALUE_FIELD);
+                String name = results.getString(DatabaseConstants.NAME_FIELD);
+                String changedPath;
+                if (name == null) {
+                    changedPath = pathValue;
+                } else if (pathValue.equals(RepositoryConstants.ROOT_PATH)) {
+                    changedPath = pathValue + name;
+                } else {
+                    changedPath = pathValue + RepositoryConstants.PATH_SEPARATOR + name;
+                }
+                // '_' and '%' are matched as wildcards by LIKE, so the prefix is checked again.
+                if (isRoot || changedPath.equals(path) || changedPath.startsWith(prefix)) {
+                    changedPaths.add(changedPath);
+                }
+            }
+        } catch (SQLException e) {
+            String msg = "Failed to get the changed resources of the sub tree of " + path + ". " +
+                    e.getMessage();
+            log.error(msg, e);
+            throw new RepositoryDBException(msg, e);
+        } finally {
+            if (results != null) {
+                try {
+                    results.close();
+                } catch (SQLException e) {
+                    log.error(InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR, e);
+                }
+            }
+            if (ps != null) {
+                try {
+                    ps.close();
+                } catch (SQLException e) {
+                    log.error(InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR, e);
+                }
+            }
+        }
+        return changedPaths;
+    }
+
+    public void addTombstone(String path) throws RepositoryException {
+        if (!isPathTombstones()) {
+            return;
+        }
+        JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
+        PreparedStatement ps = null;
+        try {
+            String sql = "INSERT INTO REG_PATH_TOMBSTONE (REG_PATH_VALUE, REG_DELETED_TIME, " +
+                    "REG_TENANT_ID) VALUES (?, ?, ?)";
+
+            ps = conn.prepareStatement(sql);
+            ps.setString(1, path);
+            ps.setTimestamp(2, new Timestamp(System.currentTimeMillis()));
+            ps.setInt(3, CurrentContext.getTenantId());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            String msg = "Failed to add the tombstone of " + path + ". " + e.getMessage();
+            log.error(msg, e);
+            throw new RepositoryDBException(msg, e);
+        } finally {
+            if (ps != null) {
+                try {
+                    ps.close();
+                } catch (SQLException e) {
+                    log.error(InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR, e);
+                }
+            }
+        }
+    }
+
+    public List<String> getTombstones(String path, Date since) throws RepositoryException {
+        if (!isPathTombstones()) {
+            String msg = "Failed to get the tombstones of the sub tree of " + path + ". Path " +
+                    "tombstones are not enabled in the repository configuration.";
+            log.error(msg);
+            throw new RepositoryException(msg);
+        }
+        JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
+        List<String> tombstones = new ArrayList<String>();
+
+        boolean isRoot = path.equals(RepositoryConstants.ROOT_PATH);
+        String prefix = isRoot ? path : path + RepositoryConstants.PATH_SEPARATOR;
+
+        PreparedStatement ps = null;
+        ResultSet results = null;
+        try {
+            String sql = "SELECT REG_PATH_VALUE FROM REG_PATH_TOMBSTONE WHERE " +
+                    "REG_DELETED_TIME > ? AND REG_TENANT_ID=?";
+
+            ps = conn.prepareStatement(sql);
+            ps.setTimestamp(1, new Timestamp(since.getTime()));
+            ps.setInt(2, CurrentContext.getTenantId());
+            results = ps.executeQuery();
+
+            while (results.next()) {
+                String tombstone = results.getString(DatabaseConstants.PATH_VALUE_FIELD);
+                if (isRoot || tombstone.equals(path) || tombstone.startsWith(prefix)) {
+                    tombstones.add(tombstone);
+                } else if (path.startsWith(tombstone.equals(RepositoryConstants.ROOT_PATH) ?
+                        tombstone : tombstone + RepositoryConstants.PATH_SEPARATOR)) {
+                    // an ancestor was replaced, and so was the whole sub tree.
+                    tombstones.add(path);
+                }
+            }
+        } catch (SQLException e) {
+            String msg = "Failed to get the tombstones of the sub tree of " + path + ". " +
+                    e.getMessage();
+            log.error(msg, e);
+            throw new RepositoryDBException(msg, e);
+        } finally {
+            if (results != null) {
+                try {
+                    results.close();
+                } catch (SQLException e) {
+                    log.error(InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR, e);
+                }
+            }
+            if (ps != null) {
+                try {
+                    ps.close();
+                } catch (SQLException e) {
+                    log.error(InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR, e);
+                }
+            }
+        }
+        return tombstones;
+    }
+
+    public boolean isNonRecursiveResourceExist(ResourceIDImpl resourceID, List<Integer> pathIds)
+            throws RepositoryException {
+        JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
+        boolean isVersioningProperties = StaticConfiguration.isVersioningProperties();
+
+        for (List<Integer> chunk : getChunks(pathIds)) {
+            String sql;
+            if (isVersioningProperties) {
+                sql = "SELECT R.REG_PATH_ID, R.REG_NAME FROM REG_RESOURCE R, " +
+                        "REG_RESOURCE_PROPERTY RP, REG_PROPERTY P WHERE P.REG_NAME=? AND " +
+                        "P.REG_TENANT_ID=? AND RP.REG_PROPERTY_ID=P.REG_ID AND " +
+                        "RP.REG_TENANT_ID=? AND RP.REG_VERSION=R.REG_VERSION AND " +
+                        "R.REG_TENANT_ID=? AND R.REG_PATH_ID IN (" + getParameters(chunk.size()) + ")";
+            } else {
+                sql = "SELECT RP.REG_PATH_ID, RP.REG_RESOURCE_NAME FROM " +
+                        "REG_RESOURCE_PROPERTY RP, REG_PROPERTY P WHERE P.REG_NAME=? AND " +
+                        "P.REG_TENANT_ID=? AND RP.REG_PROPERTY_ID=P.REG_ID AND " +
+                        "RP.REG_TENANT_ID=? AND RP.REG_PATH_ID IN (" + getParameters(chunk.size()) + ")";
+            }
+
+            PreparedStatement ps = null;
+            ResultSet results = null;
+            try {
+                ps = conn.prepareStatement(sql);
+                int index = 1;
+                ps.setString(index++, RepositoryConstants.REGISTRY_NON_RECURSIVE);
+                ps.setInt(index++, CurrentContext.getTenantId());
+                ps.setInt(index++, CurrentContext.getTenantId());
+                if (isVersioningProperties) {
+                    ps.setInt(index++, CurrentContext.getTenantId());
+                }
+                for (Integer pathId : chunk) {
+                    ps.setInt(index++, pathId);
+                }
+                results = ps.executeQuery();
+
+                while (results.next()) {
+                    // the collection at the root of the sub tree is not part of the check.
+                    if (results.getInt(1) != resourceID.getPathID() || results.getString(2) != null) {
+                        return true;
+                    }
+                }
+            } catch (SQLException e) {
+                String msg = "Failed to check for non recursive resources in the sub tree of " +
+                        resourceID.getPath() + ". " + e.getMessage();
+                log.error(msg, e);
+                throw new RepositoryDBException(msg, e);
+            } finally {
+                if (results != null) {
+                    try {
+                        results.close();
+                    } catch (SQLException e) {
+                        log.error(InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR, e);
+                    }
+                }
+                if (ps != null) {
+                    try {
+                        ps.close();
+                    } catch (SQLException e) {
+                        log.error(InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR, e);
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    public List<ResourceDO> getResourceDOs(List<Integer> pathIds) throws RepositoryException {
+        JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
+        List<ResourceDO> resourceDOs = new ArrayList<ResourceDO>();
+
+        for (List<Integer> chunk : getChunks(pathIds)) {
+            PreparedStatement ps = null;
+            ResultSet result = null;
+            try {
+                String sql = "SELECT  R.REG_PATH_ID, R.REG_NAME, R.REG_VERSION, R.REG_MEDIA_TYPE, " +
+                        "R.REG_CREATOR, R.REG_CREATED_TIME, R.REG_LAST_UPDATOR, " +
+                        "R.REG_LAST_UPDATED_TIME, R.REG_DESCRIPTION, R.REG_CONTENT_ID, R.REG_UUID " +
+                        "FROM REG_RESOURCE R WHERE R.REG_TENANT_ID=? AND R.REG_PATH_ID IN (" +
+                        getParameters(chunk.size()) + ")";
+                ps = conn.prepareStatement(sql);
+                ps.setInt(1, CurrentContext.getTenantId());
+                for (int i = 0; i < chunk.size(); i++) {
+                    ps.setInt(i + 2, chunk.get(i));
+                }
+
+                result = ps.executeQuery();
+                while (result.next()) {
+                    ResourceDO resourceDO = new ResourceDO();
+                    resourceDO.setPathID(result.getInt(DatabaseConstants.PATH_ID_FIELD));
+                    resourceDO.setName(result.getString(DatabaseConstants.NAME_FIELD));
+                    resourceDO.setVersion(result.getInt(DatabaseConstants.VERSION_FIELD));
+                    resourceDO.setMediaType(result.getString(DatabaseConstants.MEDIA_TYPE_FIELD));
+                    resourceDO.setAuthor(result.getString(DatabaseConstants.CREATOR_FIELD));
+                    resourceDO.setCreatedOn(result.getTimestamp(DatabaseConstants.CREATED_TIME_FIELD).getTime());
+                    resourceDO.setLastUpdater(result.getString(DatabaseConstants.LAST_UPDATER_FIELD));
+                    resourceDO.setLastUpdatedOn(result.getTimestamp(DatabaseConstants.LAST_UPDATED_TIME_FIELD).getTime());
+                    resourceDO.setDescription(result.getString(DatabaseConstants.DESCRIPTION_FIELD));
+                    resourceDO.setContentID(result.getInt(DatabaseConstants.CONTENT_ID_FIELD));
+                    resourceDO.setUUID(result.getString(DatabaseConstants.UUID_FIELD));
+                    resourceDOs.add(resourceDO);
+                }
+            } catch (SQLException e) {
+                String msg = "Failed to read resource data for " + chunk.size() + " paths. " + e.getMessage();
+                log.error(msg, e);
+                throw new RepositoryDBException(msg, e);
+            } finally {
+                if (result != null) {
+                    try {
+                        result.close();
+                    } catch (SQLException e) {
+                        log.error(InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR, e);
+                    }
+                }
+                if (ps != null) {
+                    try {
+                        ps.close();
+                    } catch (SQLException e) {
+                        log.error(InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR, e);
+                    }
+                }
+            }
+        }
+        return resourceDOs;
+    }
+
+    public void deleteResources(List<Integer> pathIds) throws RepositoryException {
+        boolean isVersioningProperties = StaticConfiguration.isVersioningProperties();
+        int processed = 0;
+
+        for (List<Integer> chunk : getChunks(pathIds)) {
+            String parameters = getParameters(chunk.size());
+
+            // properties are kept for resources that have a history, as done in removeResource of
+            // the ResourceStorer. They are read before the resources are deleted.
+            List<Integer> propertyIds = new ArrayList<Integer>();
+            if (!isVersioningProperties) {
+                String sql = "SELECT RP.REG_PROPERTY_ID FROM REG_RESOURCE_PROPERTY RP, REG_RESOURCE R " +
+                        "WHERE R.REG_TENANT_ID=? AND R.REG_PATH_ID IN (" + parameters + ") AND " +
+                        "RP.REG_TENANT_ID=R.REG_TENANT_ID AND RP.REG_PATH_ID=R.REG_PATH_ID AND " +
+                        "(RP.REG_RESOURCE_NAME=R.REG_NAME OR " +
+                        "(RP.REG_RESOURCE_NAME IS NULL AND R.REG_NAME IS NULL)) AND NOT EXISTS " +
+                        "(SELECT H.REG_PATH_ID FROM REG_RESOURCE_HISTORY H WHERE " +
+                        "H.REG_TENANT_ID=R.REG_TENANT_ID AND H.REG_PATH_ID=R.REG_PATH_ID AND " +
+                        "(H.REG_NAME=R.REG_NAME OR (H.REG_NAME IS NULL AND R.REG_NAME IS NULL)))";
+                propertyIds = getIds(sql, chunk, DatabaseConstants.PROPERTY_ID_FIELD);
+            }
+
+            String sql = "SELECT R.REG_CONTENT_ID FROM REG_RESOURCE R WHERE R.REG_TENANT_ID=? AND " +
+                    "R.REG_PATH_ID IN (" + parameters + ") AND R.REG_NAME IS NOT NULL";
+            List<Integer> contentIds = getIds(sql, chunk, DatabaseConstants.CONTENT_ID_FIELD);
+
+            int deleted = deleteByIds("DELETE FROM REG_RESOURCE WHERE REG_TENANT_ID=? AND REG_PATH_ID IN ", chunk);
+            for (List<Integer> contentChunk : getChunks(contentIds)) {
+                List<Integer> unsharedIds = contentChunk;
+                if (hasContentDigests()) {
+                    // content stored by its digest is only deleted once its last reference is
+                    // removed.
+                    List<Integer> digestIds = getIds("SELECT REG_CONTENT_ID FROM REG_CONTENT_DIGEST " +
+                            "WHERE REG_TENANT_ID=? AND REG_CONTENT_ID IN (" +
+                            getParameters(contentChunk.size()) + ")", contentChunk,
+                            DatabaseConstants.CONTENT_ID_FIELD);
+                    for (int contentId : digestIds) {
+                        deleteContentStream(contentId);
+                    }
+                    unsharedIds = new ArrayList<Integer>(contentChunk);
+                    unsharedIds.removeAll(digestIds);
+                }
+                if (!unsharedIds.isEmpty()) {
+                    deleteByIds("DELETE FROM REG_CONTENT WHERE REG_TENANT_ID=? AND " +
+                            "REG_CONTENT_ID IN ", unsharedIds);
+                }
+            }
+            for (List<Integer> propertyChunk : getChunks(propertyIds)) {
+                deleteByIds("DELETE FROM REG_RESOURCE_PROPERTY WHERE REG_TENANT_ID=? AND " +
+                        "REG_PROPERTY_ID IN ", propertyChunk);
+                deleteByIds("DELETE FROM REG_PROPERTY WHERE REG_TENANT_ID=? AND REG_ID IN ",
+                        propertyChunk);
+            }
+
+            processed += chunk.size();
+            if (log.isDebugEnabled()) {
+                log.debug("Deleted " + deleted + " resources, " + contentIds.size() +
+                        " contents and " + propertyIds.size() + " properties. Processed " +
+                        processed + " of " + pathIds.size() + " collections.");
+            }
+        }
+    }
+
+    // Method to read the ids returned by a query, which takes the tenant id and the given ids.
+    private List<Integer> getIds(String sql, List<Integer> ids, String idField)
+            throws RepositoryException {
+        JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
+        List<Integer> resultIds = new ArrayList<Integer>();
+        PreparedStatement ps = null;
+        ResultSet results = null;
+        try {
+            ps = conn.prepareStatement(sql);
+            ps.setInt(1, CurrentContext.getTenantId());
+            for (int i = 0; i < ids.size(); i++) {
+                ps.setInt(i + 2, ids.get(i));
+            }
+            results = ps.executeQuery();
+            while (results.next()) {
+                int id = results.getInt(idField);
+                if (id > 0) {
+                    resultIds.add(id);
+                }
+            }
+        } catch (SQLException e) {
+            String msg = "Failed to read " + idField + " of " + ids.size() + " entries. " + e.getMessage();
+            log.error(msg, e);
+            throw new RepositoryDBException(msg, e);
+        } finally {
+            if (results != null) {
+                try {
+                    results.close();
+                } catch (SQLException e) {
+                    log.error(InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR, e);
+                }
+            }
+            if (ps != null) {
+                try {
+                    ps.close();
+                } catch (SQLException e) {
+                    log.error(InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR, e);
+                }
+            }
+        }
+        return resultIds;
+    }
+
+    // Method to run a delete statement, which takes the tenant id followed by the given ids.
+    private int deleteByIds(String sql, List<Integer> ids) throws RepositoryException {
+        JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
+        PreparedStatement ps = null;
+        try {
+            ps = conn.prepareStatement(sql + "(" + getParameters(ids.size()) + ")");
+            ps.setInt(1, CurrentContext.getTenantId());
+            for (int i = 0; i < ids.size(); i++) {
+                ps.setInt(i + 2, ids.get(i));
+            }
+            return ps.executeUpdate();
+        } catch (SQLException e) {
+            String msg = "Failed to delete " + ids.size() + " entries. " + e.getMessage();
+            log.error(msg, e);
+            throw new RepositoryDBException(msg, e);
+        } finally {
+            if (ps != null) {
+                try {
+                    ps.close();
+                } catch (SQLException e) {
+                    log.error(InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR, e);
+                }
+            }
+        }
+    }
+
+    // Method to split a list of ids into chunks that fit in an IN clause.
+    private static List<List<Integer>> getChunks(List<Integer> ids) {
+        List<List<Integer>> chunks = new ArrayList<List<Integer>>();
+        for (int i = 0; i < ids.size(); i += InternalConstants.MAX_PATH_IDS_PER_QUERY) {
+            chunks.add(ids.subList(i, Math.min(i + InternalConstants.MAX_PATH_IDS_PER_QUERY, ids.size())));
+        }
+        return chunks;
+    }
+
+    // Method to build the parameter list of an IN clause.
+    private static String getParameters(int count) {
+        StringBuilder parameters = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            parameters.append(i == 0 ? "?" : ", ?");
+        }
+        return parameters.toString();
+    }
+
+    public String getPathFromId(int pathId) throws RepositoryException {
+        try {
+            return JDBCPathCache.getPathCache().getPath(JDBCDatabaseTransaction.getConnection(), pathId);
+        } catch (SQLException e) {
+            String msg = "Failed to get the path for the path id " + pathId + ". " + e.getMessage();
+            log.error(msg, e);
+            throw new RepositoryDBException(msg, e);
+        }
+    }
+
+    public Map<Integer, String> getPathsFromIds(Set<Integer> pathIds) throws RepositoryException {
+        try {
+            return JDBCPathCache.getPathCache().getPaths(JDBCDatabaseTransaction.getConnection(), pathIds);
+        } catch (SQLException e) {
+            String msg = "Failed to get the paths for " + pathIds.size() + " path ids. " + e.getMessage();
             log.error(msg, e);
             throw new RepositoryDBException(msg, e);
         }
@@ -51,8 +51,10 @@ import org.wso2.carbon.repository.core.exceptions.RepositoryDBException;
 import org.wso2.carbon.repository.core.exceptions.RepositoryServerContentException;
 import org.wso2.carbon.repository.core.jdbc.dataaccess.JDBCDataAccessManager;
 import org.wso2.carbon.repository.core.jdbc.dataaccess.JDBCDatabaseTransaction;
+import org.wso2.carbon.repository.core.utils.ContentCodecs;
 import org.wso2.carbon.repository.core.utils.InternalConstants;
 import org.wso2.carbon.repository.core.utils.InternalUtils;
+import org.wso2.carbon.repository.core.utils.SpooledContent;
 import org.wso2.carbon.repository.core.utils.VersionRetriever;
 import org.wso2.carbon.repository.core.utils.VersionedPath;
 import org.wso2.carbon.repository.spi.dao.ResourceDAO;
@@ -154,8 +156,8 @@ public class JDBCResourceVersionDAO implements ResourceVersionDAO {
             result1 = ps1.executeQuery();
             if (result1.next()) {
                 resourceImpl.setContentStreamWithNoUpdate(
-                        RepositoryUtils.getMemoryStream(
-                                result1.getBinaryStream(DatabaseConstants.CONTENT_DATA_FIELD)));
+                        SpooledContent.getContentStream(ContentCodecs.decode(
+                                result1.getBinaryStream(DatabaseConstants.CONTENT_DATA_FIELD))));
             }
         }
         catch (SQLException ex) {
@@ -295,9 +297,8 @@ public class JDBCResourceVersionDAO implements ResourceVersionDAO {
             result = ps.executeQuery();
 
             if (result.next()) {
-                InputStream resourceVIDStream = RepositoryUtils.getMemoryStream(
-                        result.getBinaryStream(DatabaseConstants.RESOURCE_VIDS_FIELD));
-                versionRetriever = new VersionRetriever(resourceVIDStream);
+                versionRetriever = new VersionRetriever(RepositoryUtils.getByteArray(
+                        result.getBinaryStream(DatabaseConstants.RESOURCE_VIDS_FIELD)));
             }
         } catch (Exception e) {
             String msg = "Failed to get version of resource " + resourceID.getPath() +
@@ -339,9 +340,8 @@ public class JDBCResourceVersionDAO implements ResourceVersionDAO {
             result = ps.executeQuery();
 
             if (result.next()) {
-                InputStream resourceVIDStream = RepositoryUtils.getMemoryStream(
-                        result.getBinaryStream(DatabaseConstants.RESOURCE_VIDS_FIELD));
-                versionRetriever = new VersionRetriever(resourceVIDStream);
+                versionRetriever = new VersionRetriever(RepositoryUtils.getByteArray(
+                        result.getBinaryStream(DatabaseConstants.RESOURCE_VIDS_FIELD)));
             }
         } catch (Exception e) {
             String msg =
@@ -881,6 +881,61 @@ public class JDBCResourceVersionDAO implements ResourceVersionDAO {
         return false;
     }
 
+    public boolean isHistoryExist(List<Integer> pathIds) throws RepositoryException {
+        JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
+
+        for (int i = 0; i < pathIds.size(); i += InternalConstants.MAX_PATH_IDS_PER_QUERY) {
+            List<Integer> chunk = pathIds.subList(i,
+                    Math.min(i + InternalConstants.MAX_PATH_IDS_PER_QUERY, pathIds.size()));
+
+            StringBuilder parameters = new StringBuilder();
+            for (int j = 0; j < chunk.size(); j++) {
+                parameters.append(j == 0 ? "?" : ", ?");
+            }
+
+            for (String table : new String[]{"REG_RESOURCE_HISTORY", "REG_SNAPSHOT"}) {
+                String sql = "SELECT REG_PATH_ID FROM " + table + " WHERE REG_TENANT_ID=? AND " +
+                        "REG_PATH_ID IN (" + parameters + ")";
+
+                ResultSet result = null;
+                PreparedStatement ps = null;
+                try {
+                    ps = conn.prepareStatement(sql);
+                    ps.setInt(1, CurrentContext.getTenantId());
+                    for (int j = 0; j < chunk.size(); j++) {
+                        ps.setInt(j + 2, chunk.get(j));
+                    }
+                    result = ps.executeQuery();
+
+                    if (result.next()) {
+                        return true;
+                    }
+                } catch (SQLException e) {
+                    String msg = "Failed reading the history of " + chunk.size() + " paths. " +
+                            e.getMessage();
+                    log.error(msg, e);
+                    throw new RepositoryDBException(msg, e);
+                } finally {
+                    try {
+                        try {
+                            if (result != null) {
+                                result.close();
+                            }
+                        } finally {
+                            if (ps != null) {
+                                ps.close();
+                            }
+                        }
+                    } catch (SQLException ex) {
+                        String msg = InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR;
+                        log.error(msg, ex);
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
     public boolean isContentHistoryExist(int contentId) throws RepositoryException {
         JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
         ResultSet result = null;
@@ -937,7 +992,8 @@ public class JDBCResourceVersionDAO implements ResourceVersionDAO {
             // get the archived content
             InputStream contentData = getContentArchived(oldContentID);
             if (contentData != null) {
-                resourceDO.setContentID(resourceDAO.addContentBytes(contentData));
+                resourceDO.setContentID(resourceDAO.addContentBytes(contentData,
+                        resourceDO.getMediaType()));
             }
         }
         
@@ -1056,7 +1112,7 @@ public class JDBCResourceVersionDAO implements ResourceVersionDAO {
                 InputStream rawStream =
                         result.getBinaryStream(DatabaseConstants.CONTENT_DATA_FIELD);
                 if (rawStream != null) {
-                    return RepositoryUtils.getMemoryStream(rawStream);
+                    return SpooledContent.getContentStream(ContentCodecs.decode(rawStream));
                 }
             }
         } catch (SQLException e) {
@@ -1166,29 +1222,227 @@ public class JDBCResourceVersionDAO implements ResourceVersionDAO {
         }
     }
 
+    public void putResourcesToHistory(List<Integer> pathIds) throws RepositoryException {
+        JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
+
+        for (int i = 0; i < pathIds.size(); i += InternalConstants.MAX_PATH_IDS_PER_QUERY) {
+            List<Integer> chunk = pathIds.subList(i,
+                    Math.min(i + InternalConstants.MAX_PATH_IDS_PER_QUERY, pathIds.size()));
+
+            StringBuilder parameters = new StringBuilder();
+            for (int j = 0; j < chunk.size(); j++) {
+                parameters.append(j == 0 ? "?" : ", ?");
+            }
+
+            // the content is copied first, as the archived resources refer to it. The content is
+            // copied as it is stored, without reading it out of the database.
+            String contentSQL = "INSERT INTO REG_CONTENT_HISTORY (REG_CONTENT_ID, REG_CONTENT_DATA, " +
+                    "REG_TENANT_ID) SELECT C.REG_CONTENT_ID, C.REG_CONTENT_DATA, C.REG_TENANT_ID " +
+                    "FROM REG_CONTENT C WHERE C.REG_TENANT_ID=? AND C.REG_CONTENT_ID IN " +
+                    "(SELECT R.REG_CONTENT_ID FROM REG_RESOURCE R WHERE R.REG_TENANT_ID=? AND " +
+                    "R.REG_PATH_ID IN (" + parameters + ")) AND NOT EXISTS (SELECT " +
+                    "H.REG_CONTENT_ID FROM REG_CONTENT_HISTORY H WHERE " +
+                    "H.REG_CONTENT_ID=C.REG_CONTENT_ID AND H.REG_TENANT_ID=C.REG_TENANT_ID)";
+            String missingContentSQL = "SELECT DISTINCT R.REG_CONTENT_ID FROM REG_RESOURCE R " +
+                    "WHERE R.REG_TENANT_ID=? AND R.REG_PATH_ID IN (" + parameters + ") AND " +
+                    "R.REG_CONTENT_ID IS NOT NULL AND NOT EXISTS (SELECT H.REG_CONTENT_ID FROM " +
+                    "REG_CONTENT_HISTORY H WHERE H.REG_CONTENT_ID=R.REG_CONTENT_ID AND " +
+                    "H.REG_TENANT_ID=R.REG_TENANT_ID)";
+            String resourceSQL = "INSERT INTO REG_RESOURCE_HISTORY (REG_PATH_ID, REG_NAME, " +
+                    "REG_VERSION, REG_MEDIA_TYPE, REG_CREATOR, REG_CREATED_TIME, REG_LAST_UPDATOR, " +
+                    "REG_LAST_UPDATED_TIME, REG_DESCRIPTION, REG_CONTENT_ID, REG_TENANT_ID, " +
+                    "REG_UUID) SELECT R.REG_PATH_ID, R.REG_NAME, R.REG_VERSION, R.REG_MEDIA_TYPE, " +
+                    "R.REG_CREATOR, R.REG_CREATED_TIME, R.REG_LAST_UPDATOR, " +
+                    "R.REG_LAST_UPDATED_TIME, R.REG_DESCRIPTION, R.REG_CONTENT_ID, " +
+                    "R.REG_TENANT_ID, R.REG_UUID FROM REG_RESOURCE R WHERE R.REG_TENANT_ID=? AND " +
+                    "R.REG_PATH_ID IN (" + parameters + ") AND NOT EXISTS (SELECT " +
+                    "H.REG_VERSION FROM REG_RESOURCE_HISTORY H WHERE " +
+                    "H.REG_VERSION=R.REG_VERSION AND H.REG_TENANT_ID=R.REG_TENANT_ID)";
+
+            PreparedStatement ps = null;
+            ResultSet result = null;
+            try {
+                ps = prepareStatementForPathIds(conn, contentSQL, 2, chunk);
+                ps.executeUpdate();
+                ps.close();
+
+                // content that does not exist is versioned as empty content.
+                List<Integer> missingContentIds = new ArrayList<Integer>();
+                ps = prepareStatementForPathIds(conn, missingContentSQL, 1, chunk);
+                result = ps.executeQuery();
+                while (result.next()) {
+                    missingContentIds.add(result.getInt(DatabaseConstants.CONTENT_ID_FIELD));
+                }
+                result.close();
+                result = null;
+                ps.close();
+                for (int contentID : missingContentIds) {
+                    versionContent(contentID);
+                }
+
+                ps = prepareStatementForPathIds(conn, resourceSQL, 1, chunk);
+                ps.executeUpdate();
+            } catch (SQLException e) {
+                String msg = "Failed to copy the resources of " + chunk.size() + " collections " +
+                        "to the history table. " + e.getMessage();
+                log.error(msg, e);
+                throw new RepositoryDBException(msg, e);
+            } finally {
+                try {
+                    try {
+                        if (result != null) {
+                            result.close();
+                        }
+                    } finally {
+                        if (ps != null) {
+                            ps.close();
+                        }
+                    }
+                } catch (SQLException ex) {
+                    String msg = InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR;
+                    log.error(msg, ex);
+                }
+            }
+        }
+    }
+
+    public void renewResources(List<Integer> pathIds) throws RepositoryException {
+        JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
+
+        for (int i = 0; i < pathIds.size(); i += InternalConstants.MAX_PATH_IDS_PER_QUERY) {
+            List<Integer> chunk = pathIds.subList(i,
+                    Math.min(i + InternalConstants.MAX_PATH_IDS_PER_QUERY, pathIds.size()));
+
+            StringBuilder parameters = new StringBuilder();
+            for (int j = 0; j < chunk.size(); j++) {
+                parameters.append(j == 0 ? "?" : ", ?");
+            }
+
+            String archivedCondition = "R.REG_TENANT_ID=? AND R.REG_PATH_ID IN (" + parameters +
+                    ") AND EXISTS (SELECT H.REG_VERSION FROM REG_RESOURCE_HISTORY H WHERE " +
+                    "H.REG_VERSION=R.REG_VERSION AND H.REG_TENANT_ID=R.REG_TENANT_ID)";
+            String versionsSQL = "SELECT R.REG_VERSION FROM REG_RESOURCE R WHERE " +
+                    archivedCondition;
+            // the copies are given new versions by the database, and keep the content of the
+            // archived versions, as archived content is kept in the content history table.
+            String renewSQL = "INSERT INTO REG_RESOURCE (REG_PATH_ID, REG_NAME, REG_MEDIA_TYPE, " +
+                    "REG_CREATOR, REG_CREATED_TIME, REG_LAST_UPDATOR, REG_LAST_UPDATED_TIME, " +
+                    "REG_DESCRIPTION, REG_CONTENT_ID, REG_TENANT_ID, REG_UUID) SELECT " +
+                    "R.REG_PATH_ID, R.REG_NAME, R.REG_MEDIA_TYPE, R.REG_CREATOR, " +
+                    "R.REG_CREATED_TIME, R.REG_LAST_UPDATOR, R.REG_LAST_UPDATED_TIME, " +
+                    "R.REG_DESCRIPTION, R.REG_CONTENT_ID, R.REG_TENANT_ID, R.REG_UUID FROM " +
+                    "REG_RESOURCE R WHERE " + archivedCondition;
+
+            PreparedStatement ps = null;
+            ResultSet result = null;
+            try {
+                List<Long> archivedVersions = new ArrayList<Long>();
+                ps = prepareStatementForPathIds(conn, versionsSQL, 1, chunk);
+                result = ps.executeQuery();
+                while (result.next()) {
+                    archivedVersions.add(result.getLong(DatabaseConstants.VERSION_FIELD));
+                }
+                result.close();
+                result = null;
+                ps.close();
+                ps = null;
+                if (archivedVersions.isEmpty()) {
+                    continue;
+                }
+
+                ps = prepareStatementForPathIds(conn, renewSQL, 1, chunk);
+                ps.executeUpdate();
+                ps.close();
+                ps = null;
+
+                for (int j = 0; j < archivedVersions.size(); j += InternalConstants.MAX_PATH_IDS_PER_QUERY) {
+                    List<Long> versions = archivedVersions.subList(j,
+                            Math.min(j + InternalConstants.MAX_PATH_IDS_PER_QUERY, archivedVersions.size()));
+                    StringBuilder versionParameters = new StringBuilder();
+                    for (int k = 0; k < versions.size(); k++) {
+                        versionParameters.append(k == 0 ? "?" : ", ?");
+                    }
+                    ps = conn.prepareStatement("DELETE FROM REG_RESOURCE WHERE REG_TENANT_ID=? AND " +
+                            "REG_VERSION IN (" + versionParameters + ")");
+                    ps.setInt(1, CurrentContext.getTenantId());
+                    for (int k = 0; k < versions.size(); k++) {
+                        ps.setLong(k + 2, versions.get(k));
+                    }
+                    ps.executeUpdate();
+                    ps.close();
+                    ps = null;
+                }
+            } catch (SQLException e) {
+                String msg = "Failed to renew the resources of " + chunk.size() + " collections. " +
+                        e.getMessage();
+                log.error(msg, e);
+                throw new RepositoryDBException(msg, e);
+            } finally {
+                try {
+                    try {
+                        if (result != null) {
+                            result.close();
+                        }
+                    } finally {
+                        if (ps != null) {
+                            ps.close();
+                        }
+                    }
+                } catch (SQLException ex) {
+                    String msg = InternalConstants.RESULT_SET_PREPARED_STATEMENT_CLOSE_ERROR;
+                    log.error(msg, ex);
+                }
+            }
+        }
+    }
+
+    // Prepares a statement whose parameters are the tenant id, repeated the given number of times,
+    // followed by the given path ids.
+    private PreparedStatement prepareStatementForPathIds(Connection conn, String sql,
+                                                         int tenantIdCount, List<Integer> pathIds)
+            throws SQLException {
+        PreparedStatement ps = conn.prepareStatement(sql);
+        for (int i = 0; i < tenantIdCount; i++) {
+            ps.setInt(i + 1, CurrentContext.getTenantId());
+        }
+        for (int i = 0; i < pathIds.size(); i++) {
+            ps.setInt(tenantIdCount + i + 1, pathIds.get(i));
+        }
+        return ps;
+    }
+
     // Create a version of the resource content.
     private void versionContent(int contentID) throws RepositoryException {
         if (!isContentHistoryExist(contentID)) {
-            InputStream contentStream = resourceDAO.getContentStream(contentID);
-            
-            if (contentStream == null) {
-                // create an empty input stream
-                contentStream = new ByteArrayInputStream(RepositoryUtils.encodeString(""));
-            }
-            
-            // copy the content to the content_history table
+            // copy the content to the content_history table. The content is copied as it is
+            // stored, without reading it out of the database, so that encoded content stays
+            // encoded in the history.
             JDBCDatabaseTransaction.ManagedRegistryConnection conn = JDBCDatabaseTransaction.getConnection();
             PreparedStatement ps = null;
             
             try {
-                String sql = "INSERT INTO REG_CONTENT_HISTORY (REG_CONTENT_ID, REG_CONTENT_DATA, REG_TENANT_ID) VALUES (?, ?, ?)";
+                String sql = "INSERT INTO REG_CONTENT_HISTORY (REG_CONTENT_ID, REG_CONTENT_DATA, REG_TENANT_ID) " +
+                        "SELECT REG_CONTENT_ID, REG_CONTENT_DATA, REG_TENANT_ID FROM REG_CONTENT " +
+                        "WHERE REG_CONTENT_ID=? AND REG_TENANT_ID=?";
 
-                int size = contentStream.available();
                 ps = conn.prepareStatement(sql);
                 ps.setInt(1, contentID);
-                ps.setBinaryStream(2, contentStream, size);
-                ps.setInt(3, CurrentContext.getTenantId());
-                ps.executeUpdate();
+                ps.setInt(2, CurrentContext.getTenantId());
+                
+                if (ps.executeUpdate() == 0) {
+                    ps.close();
+                    
+                    // the content does not exist, and is versioned as empty content.
+                    InputStream contentStream = new ByteArrayInputStream(RepositoryUtils.encodeString(""));
+                    sql = "INSERT INTO REG_CONTENT_HISTORY (REG_CONTENT_ID, REG_CONTENT_DATA, REG_TENANT_ID) VALUES (?, ?, ?)";
+                    
+                    int size = contentStream.available();
+                    ps = conn.prepareStatement(sql);
+                    ps.setInt(1, contentID);
+                    ps.setBinaryStream(2, contentStream, size);
+                    ps.setInt(3, CurrentContext.getTenantId());
+                    ps.executeUpdate();
+                }
 
             } catch (Exception ex) {
                 String msg = "Failed to put the content into history with the content id " + contentID + ". " + ex.getMessage();
@@ -0,0 +1,231 @@
+/*
+ *  Copyright (c) 2005-2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.carbon.repository.core.jdbc.dataaccess;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * An {@link IdAllocator} that reserves blocks of ids in the REG_ID_BLOCK table (hi/lo), and hands
+ * out the ids of a reserved block from memory. A block is reserved for each table and tenant by
+ * advancing the next free id of the table with a compare-and-set update, on a connection of its
+ * own, so that reservations are visible to all the nodes sharing the database and are not held
+ * back by the transaction that needs the id.
+ * <p/>
+ * Ids are handed out without locking. When a block runs out, the threads that find it exhausted
+ * reserve new blocks, and the ids of the blocks that are not installed are skipped.
+ */
+public class BlockIdAllocator implements IdAllocator {
+
+    private static final Log log = LogFactory.getLog(BlockIdAllocator.class);
+
+    private static final int MAX_RESERVE_ATTEMPTS = 10;
+
+    private static final String SELECT_NEXT_ID_SQL = "SELECT REG_NEXT_ID FROM REG_ID_BLOCK " +
+            "WHERE REG_TABLE_NAME = ? AND REG_TENANT_ID = ?";
+    private static final String INSERT_NEXT_ID_SQL = "INSERT INTO REG_ID_BLOCK " +
+            "(REG_TABLE_NAME, REG_TENANT_ID, REG_NEXT_ID) VALUES (?, ?, ?)";
+    private static final String UPDATE_NEXT_ID_SQL = "UPDATE REG_ID_BLOCK SET REG_NEXT_ID = ? " +
+            "WHERE REG_TABLE_NAME = ? AND REG_TENANT_ID = ? AND REG_NEXT_ID = ?";
+
+    private DataSource dataSource;
+    private int blockSize;
+    private final ConcurrentMap<String, AtomicReference<IdBlock>> blocks =
+            new ConcurrentHashMap<String, AtomicReference<IdBlock>>();
+
+    /**
+     * Creates an allocator reserving blocks through the given data source.
+     *
+     * @param dataSource the data source of the repository database.
+     * @param blockSize  the number of ids to reserve at once.
+     */
+    public BlockIdAllocator(DataSource dataSource, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("The block size must be a positive number.");
+        }
+        this.dataSource = dataSource;
+        this.blockSize = blockSize;
+    }
+
+    public int nextId(String tableName, String idColumn, int tenantId) throws SQLException {
+        AtomicReference<IdBlock> current = getCurrentBlock(tableName, tenantId);
+        while (true) {
+            IdBlock block = current.get();
+            int id = block.nextId();
+            if (id > 0) {
+                return id;
+            }
+            IdBlock reserved = reserveBlock(tableName, idColumn, tenantId);
+            if (!current.compareAndSet(block, reserved)) {
+                // another thread has installed a block in the meantime, this one is only used for
+                // the current id.
+                return reserved.nextId();
+            }
+        }
+    }
+
+    private AtomicReference<IdBlock> getCurrentBlock(String tableName, int tenantId) {
+        String key = tableName + ":" + tenantId;
+        AtomicReference<IdBlock> current = blocks.get(key);
+        if (current == null) {
+            AtomicReference<IdBlock> newBlock = new AtomicReference<IdBlock>(IdBlock.EMPTY);
+            current = blocks.putIfAbsent(key, newBlock);
+            if (current == null) {
+                current = newBlock;
+            }
+        }
+        return current;
+    }
+
+    private IdBlock reserveBlock(String tableName, String idColumn, int tenantId)
+            throws SQLException {
+        Connection conn = dataSource.getConnection();
+        try {
+            conn.setAutoCommit(true);
+            for (int i = 0; i < MAX_RESERVE_ATTEMPTS; i++) {
+                int first = readNextId(conn, tableName, tenantId);
+                boolean reserved;
+                if (first <= 0) {
+                    // the table has no reservations yet, the ids continue after the existing rows.
+                    first = readMaxId(conn, tableName, idColumn) + 1;
+                    reserved = insertNextId(conn, tableName, tenantId, first + blockSize);
+                } else {
+                    reserved = updateNextId(conn, tableName, tenantId, first, first + blockSize);
+                }
+                if (reserved) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Reserved ids " + first + " to " + (first + blockSize - 1) +
+                                " of " + tableName + " for tenant " + tenantId + ".");
+                    }
+                    return new IdBlock(first, first + blockSize - 1);
+                }
+            }
+        } finally {
+            conn.close();
+        }
+        throw new SQLException("Failed to reserve a block of ids of " + tableName +
+                " for tenant " + tenantId + " after " + MAX_RESERVE_ATTEMPTS + " attempts.");
+    }
+
+    private int readNextId(Connection conn, String tableName, int tenantId) throws SQLException {
+        PreparedStatement ps = conn.prepareStatement(SELECT_NEXT_ID_SQL);
+        try {
+            ps.setString(1, tableName);
+            ps.setInt(2, tenantId);
+            ResultSet result = ps.executeQuery();
+            try {
+                return result.next() ? result.getInt(1) : 0;
+            } finally {
+                result.close();
+            }
+        } finally {
+            ps.close();
+        }
+    }
+
+    private int readMaxId(Connection conn, String tableName, String idColumn) throws SQLException {
+        PreparedStatement ps = conn.prepareStatement("SELECT MAX(" + idColumn + ") FROM " +
+                tableName);
+        try {
+            ResultSet result = ps.executeQuery();
+            try {
+                return result.next() ? result.getInt(1) : 0;
+            } finally {
+                result.close();
+            }
+        } finally {
+            ps.close();
+        }
+    }
+
+    private boolean insertNextId(Connection conn, String tableName, int tenantId, int nextId)
+            throws SQLException {
+        PreparedStatement ps = conn.prepareStatement(INSERT_NEXT_ID_SQL);
+        try {
+            ps.setString(1, tableName);
+            ps.setInt(2, tenantId);
+            ps.setInt(3, nextId);
+            return ps.executeUpdate() == 1;
+        } catch (SQLException e) {
+            // the row has been inserted by another node or thread in the meantime.
+            if (log.isDebugEnabled()) {
+                log.debug("Failed to insert the id block of " + tableName + " for tenant " +
+                        tenantId + ". " + e.getMessage());
+            }
+            return false;
+        } finally {
+            ps.close();
+        }
+    }
+
+    private boolean updateNextId(Connection conn, String tableName, int tenantId, int expected,
+                                 int nextId) throws SQLException {
+        PreparedStatement ps = conn.prepareStatement(UPDATE_NEXT_ID_SQL);
+        try {
+            ps.setInt(1, nextId);
+            ps.setString(2, tableName);
+            ps.setInt(3, tenantId);
+            ps.setInt(4, expected);
+            return ps.executeUpdate() == 1;
+        } finally {
+            ps.close();
+        }
+    }
+
+    /**
+     * A range of reserved ids.
+     */
+    private static class IdBlock {
+
+        private static final IdBlock EMPTY = new IdBlock(1, 0);
+
+        private final AtomicInteger next;
+        private final int last;
+
+        private IdBlock(int first, int last) {
+            this.next = new AtomicInteger(first);
+            this.last = last;
+        }
+
+        private int nextId() {
+            // the counter is only advanced while the block has ids left, so it never overflows.
+            while (true) {
+                int id = next.get();
+                if (id > last) {
+                    return -1;
+                }
+                if (next.compareAndSet(id, id + 1)) {
+                    return id;
+                }
+            }
+        }
+    }
+}
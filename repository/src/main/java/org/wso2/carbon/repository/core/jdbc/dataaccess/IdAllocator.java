@@ -0,0 +1,46 @@
+/*
+ *  Copyright (c) 2005-2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+
+package org.wso2.carbon.repository.core.jdbc.dataaccess;
+
+import java.sql.SQLException;
+
+/**
+ * Allocates ids for rows inserted into tables whose ids cannot be obtained as generated keys from
+ * the database. An allocator is used instead of reading the largest id of the table after the
+ * insert, which requires all the inserts into the table to be serialized.
+ * <p/>
+ * A different implementation can be plugged in for a data source through
+ * {@link JDBCDataAccessManager#setIdAllocator(IdAllocator)}.
+ */
+public interface IdAllocator {
+
+    /**
+     * Method to obtain the next id for a row of the given table. The ids returned for a table and
+     * tenant are unique, but they are not required to be contiguous.
+     *
+     * @param tableName the name of the table.
+     * @param idColumn  the name of the id column of the table.
+     * @param tenantId  the tenant identifier.
+     *
+     * @return the id to insert the row with.
+     * @throws SQLException if an id could not be allocated.
+     */
+    int nextId(String tableName, String idColumn, int tenantId) throws SQLException;
+}
@@ -25,6 +25,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.naming.Context;
 import javax.naming.InitialContext;
@@ -38,9 +39,14 @@ import org.wso2.carbon.ndatasource.rdbms.RDBMSDataSource;
 import org.wso2.carbon.repository.api.TransactionManager;
 import org.wso2.carbon.repository.api.dataaccess.QueryProcessor;
 import org.wso2.carbon.repository.api.exceptions.RepositoryException;
+import org.wso2.carbon.repository.core.CurrentContext;
 import org.wso2.carbon.repository.core.DatabaseConstants;
 import org.wso2.carbon.repository.core.config.DataBaseConfiguration;
+import org.wso2.carbon.repository.core.config.RepositoryContext;
 import org.wso2.carbon.repository.core.exceptions.RepositoryDBException;
+import org.wso2.carbon.repository.core.exceptions.RepositoryServerException;
+import org.wso2.carbon.repository.core.utils.InternalConstants;
+import org.wso2.carbon.repository.core.utils.InternalUtils;
 import org.wso2.carbon.repository.spi.dataaccess.DAOManager;
 import org.wso2.carbon.repository.spi.dataaccess.DataAccessManager;
 import org.wso2.carbon.repository.spi.dataaccess.DatabaseTransaction;
@@ -58,6 +64,8 @@ public class JDBCDataAccessManager implements DataAccessManager {
 	private static DatabaseTransaction databaseTransaction = new JDBCDatabaseTransaction();
 	private static DAOManager daoManager = new JDBCDAOManager();
 	private static Map<String, DataSource> dataSources = new HashMap<String, DataSource>();
+	private static Map<DataSource, IdAllocator> idAllocators =
+			new ConcurrentHashMap<DataSource, IdAllocator>();
 
 	/**
 	 * Constructor accepting a JDBC data source.
@@ -170,6 +178,63 @@ public class JDBCDataAccessManager implements DataAccessManager {
 		return dataSource;
 	}
 
+	/**
+	 * Method to obtain the allocator of ids for rows inserted through the JDBC data source. A
+	 * {@link BlockIdAllocator} is used unless a different allocator has been set.
+	 * 
+	 * @return the id allocator.
+	 */
+	public IdAllocator getIdAllocator() {
+		IdAllocator idAllocator = idAllocators.get(dataSource);
+		if (idAllocator == null) {
+			synchronized (idAllocators) {
+				idAllocator = idAllocators.get(dataSource);
+				if (idAllocator == null) {
+					idAllocator = new BlockIdAllocator(dataSource,
+							InternalConstants.DEFAULT_ID_BLOCK_SIZE);
+					idAllocators.put(dataSource, idAllocator);
+				}
+			}
+		}
+		return idAllocator;
+	}
+
+	/**
+	 * Method to set the allocator of ids for rows inserted through the JDBC data source.
+	 * 
+	 * @param idAllocator
+	 *            the id allocator.
+	 */
+	public void setIdAllocator(IdAllocator idAllocator) {
+		idAllocators.put(dataSource, idAllocator);
+	}
+
+	/**
+	 * Method to obtain the id allocator of the data access manager used by the current
+	 * repository.
+	 * 
+	 * @return the id allocator.
+	 * @throws RepositoryException
+	 *             if the data access manager is not a JDBC data access manager.
+	 */
+	public static IdAllocator getCurrentIdAllocator() throws RepositoryException {
+		DataAccessManager dataAccessManager;
+		if (CurrentContext.getRespository() != null
+				&& InternalUtils.getRepositoryContext(CurrentContext.getRespository()) != null) {
+			dataAccessManager = InternalUtils.getRepositoryContext(
+					CurrentContext.getRespository()).getDataAccessManager();
+		} else {
+			dataAccessManager = RepositoryContext.getBaseInstance().getDataAccessManager();
+		}
+
+		if (!(dataAccessManager instanceof JDBCDataAccessManager)) {
+			String msg = "Failed to allocate an id. Invalid data access manager.";
+			log.error(msg);
+			throw new RepositoryServerException(msg);
+		}
+		return ((JDBCDataAccessManager) dataAccessManager).getIdAllocator();
+	}
+
 	/**
 	 * Method to build a data source from a given database configuration.
 	 * 
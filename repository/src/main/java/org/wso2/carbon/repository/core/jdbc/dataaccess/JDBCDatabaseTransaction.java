@@ -50,6 +50,7 @@ import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -69,6 +70,7 @@ import org.wso2.carbon.repository.core.Transaction;
 import org.wso2.carbon.repository.core.statistics.DBQueryStatisticsLog;
 import org.wso2.carbon.repository.core.statistics.StatisticsLog;
 import org.wso2.carbon.repository.core.statistics.StatisticsRecord;
+import org.wso2.carbon.repository.core.utils.InternalConstants;
 import org.wso2.carbon.repository.core.utils.InternalUtils;
 import org.wso2.carbon.repository.spi.dataaccess.DatabaseTransaction;
 
@@ -525,7 +527,8 @@ public class JDBCDatabaseTransaction implements DatabaseTransaction {
                     "REG_CONTENT", "REG_CONTENT_HISTORY", "REG_RESOURCE", "REG_RESOURCE_HISTORY",
                     "REG_COMMENT", "REG_RESOURCE_COMMENT", "REG_RATING", "REG_RESOURCE_RATING",
                     "REG_TAG", "REG_RESOURCE_TAG", "REG_PROPERTY", "REG_RESOURCE_PROPERTY",
-                    "REG_ASSOCIATION", "REG_SNAPSHOT");
+                    "REG_ASSOCIATION", "REG_SNAPSHOT", "REG_ID_BLOCK", "REG_CONTENT_DIGEST",
+                    "REG_PATH_TOMBSTONE");
             
             List<String> namesOnStatement = new LinkedList<String>();
             
@@ -995,6 +998,8 @@ public class JDBCDatabaseTransaction implements DatabaseTransaction {
 
         private String uuid = UUID.randomUUID().toString();
 
+        private String databaseProductName = null;
+
         static {
             if (statsLog.isDebugEnabled()) {
                 initializeStatisticsLogging();
@@ -1100,6 +1105,15 @@ public class JDBCDatabaseTransaction implements DatabaseTransaction {
                     }
                 };
 
+        // This contains the statements kept open for reuse, per connection.
+        private static ThreadLocal<Map<String, Map<String, PreparedStatement>>>
+                tCachedStatementMap =
+                new ThreadLocal<Map<String, Map<String, PreparedStatement>>>() {
+                    protected Map<String, Map<String, PreparedStatement>> initialValue() {
+                        return new HashMap<String, Map<String, PreparedStatement>>();
+                    }
+                };
+
         // This identifies whether at least one nested transactional connection was rollbacked.
         private static ThreadLocal<Boolean> tRollbackedConnection =
                 new ThreadLocal<Boolean>() {
@@ -1346,6 +1360,7 @@ public class JDBCDatabaseTransaction implements DatabaseTransaction {
             
             if (tManagedConnectionMap.get().size() == 1) {
                 // If there is only one connection, simply close that.
+                closeCachedStatements(connection);
                 connection.close();
                 // Clean up list of managed connections, since we have closed the outer connection.
                 tManagedConnectionMap.set(new LinkedHashMap<String, ManagedRegistryConnection>());
@@ -1358,12 +1373,14 @@ public class JDBCDatabaseTransaction implements DatabaseTransaction {
                 
                 for (Map.Entry<String, ManagedRegistryConnection> e : connections.entrySet()) {
                     if (e.getValue() != null) {
+                        closeCachedStatements(e.getValue().getConnection());
                         e.getValue().getConnection().close();
                     }
                 }
                 
                 // Clean up list of closed connections.
                 tClosedConnectionMap.set(new LinkedHashMap<String, ManagedRegistryConnection>());
+                closeCachedStatements(connection);
                 connection.close();
                 
                 // Clean up list of managed connections. Closing a connection and all the nested
@@ -1507,6 +1524,88 @@ public class JDBCDatabaseTransaction implements DatabaseTransaction {
             return connection.getMetaData();
         }
 
+        /**
+         * Method to obtain the product name of the underlying database. The name is read from the
+         * database metadata once and cached for the lifetime of this connection.
+         *
+         * @return the database product name.
+         * @throws SQLException if the operation failed.
+         */
+        public String getDatabaseProductName() throws SQLException {
+            if (databaseProductName == null) {
+                databaseProductName = connection.getMetaData().getDatabaseProductName();
+            }
+            return databaseProductName;
+        }
+
+        /**
+         * Method to obtain a prepared statement for a query that is executed repeatedly. The
+         * statement is reused until the underlying connection is closed, and must be handed back
+         * through {@link #releaseStatement(String, PreparedStatement)} instead of being closed.
+         *
+         * @param sql the query.
+         *
+         * @return the prepared statement.
+         * @throws SQLException if the operation failed.
+         */
+        public PreparedStatement acquireStatement(String sql) throws SQLException {
+            Map<String, PreparedStatement> statements = tCachedStatementMap.get().get(getConnectionId());
+            
+            if (statements != null) {
+                PreparedStatement ps = statements.remove(sql);
+                
+                if (ps != null) {
+                    return ps;
+                }
+            }
+            
+            return prepareStatement(sql);
+        }
+
+        /**
+         * Method to hand back a statement obtained through {@link #acquireStatement(String)}, so
+         * that it can be reused by later executions of the same query on this connection.
+         *
+         * @param sql the query.
+         * @param ps  the prepared statement.
+         *
+         * @throws SQLException if the operation failed.
+         */
+        public void releaseStatement(String sql, PreparedStatement ps) throws SQLException {
+            Map<String, PreparedStatement> statements = tCachedStatementMap.get().get(getConnectionId());
+            
+            if (statements == null) {
+                statements = new HashMap<String, PreparedStatement>();
+                tCachedStatementMap.get().put(getConnectionId(), statements);
+            }
+            
+            if (statements.size() >= InternalConstants.MAX_CACHED_STATEMENTS || statements.containsKey(sql)) {
+                ps.close();
+                return;
+            }
+            
+            ps.clearParameters();
+            statements.put(sql, ps);
+        }
+
+        // Closes the statements kept for reuse on the given connection, before it is closed.
+        private static void closeCachedStatements(Connection connection) {
+            Map<String, PreparedStatement> statements =
+                    tCachedStatementMap.get().remove(InternalUtils.getConnectionId(connection));
+            
+            if (statements == null) {
+                return;
+            }
+            
+            for (PreparedStatement ps : statements.values()) {
+                try {
+                    ps.close();
+                } catch (SQLException e) {
+                    log.error("Failed to close the statement. " + e.getMessage(), e);
+                }
+            }
+        }
+
         public void setReadOnly(boolean b) throws SQLException {
             connection.setReadOnly(b);
         }
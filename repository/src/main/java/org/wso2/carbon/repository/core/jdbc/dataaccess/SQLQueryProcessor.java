@@ -22,6 +22,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -52,6 +53,11 @@ import org.wso2.carbon.repository.spi.dataaccess.DataAccessManager;
 public class SQLQueryProcessor implements QueryProcessor {
 
     private static final Log log = LogFactory.getLog(SQLQueryProcessor.class);
+
+    // Parameters which are not bound to the query.
+    private static final List<String> exclusions = Arrays.asList("content", "query", "mediaType",
+            RepositoryConstants.RESULT_TYPE_PROPERTY_NAME);
+
     private ResourceDAO resourceDAO;
 
     /**
@@ -78,10 +84,12 @@ public class SQLQueryProcessor implements QueryProcessor {
     public Collection executeQuery(Repository registry, Resource query, Map<?, ?> parameters) throws RepositoryException {
         Collection resultCollection = null;
 
-        Connection conn;
+        JDBCDatabaseTransaction.ManagedRegistryConnection conn = null;
         String sqlString;
+        String transformedQuery = null;
         ResultSet results = null;
         PreparedStatement s = null;
+        boolean reusable = false;
 
         try {
 
@@ -117,12 +125,13 @@ public class SQLQueryProcessor implements QueryProcessor {
             conn = JDBCDatabaseTransaction.getConnection();
 
             // adding the tenant ids for the query
-            TenantAwareSQLTransformer transformer = new TenantAwareSQLTransformer(sqlString);
-            String transformedQuery = transformer.getTransformedQuery();
+            TenantAwareSQLTransformer transformer = TenantAwareSQLTransformer.getTransformer(sqlString,
+                    conn.getDatabaseProductName());
+            transformedQuery = transformer.getTransformedQuery();
             int transformedParameterCount = transformer.getAdditionalParameterCount();
 //            int trailingParameterCount = transformer.getTrailingParameterCount();
 
-            s = conn.prepareStatement(transformedQuery);
+            s = conn.acquireStatement(transformedQuery);
             /*s = conn.prepareStatement(transformedQuery, ResultSet.TYPE_FORWARD_ONLY,
                     ResultSet.CONCUR_READ_ONLY);*/
 
@@ -135,8 +144,6 @@ public class SQLQueryProcessor implements QueryProcessor {
             }
 
             if (parameters != null) {
-                List<String> exclusions = Arrays.asList("content", "query", "mediaType", RepositoryConstants.RESULT_TYPE_PROPERTY_NAME);
-                
                 for (Object parameterNumberObject : parameters.keySet()) {
                     String parameterNumber = (String) parameterNumberObject;
                     
@@ -182,6 +189,8 @@ public class SQLQueryProcessor implements QueryProcessor {
                 log.error(msg);
                 throw new RepositoryDBException(msg);
             }
+            
+            reusable = true;
         } catch (SQLException e) {
             throw new RepositoryDBException(e.getMessage());
         } finally {
@@ -196,7 +205,11 @@ public class SQLQueryProcessor implements QueryProcessor {
 
             if (s != null) {
                 try {
-                    s.close();
+                    if (reusable) {
+                        conn.releaseStatement(transformedQuery, s);
+                    } else {
+                        s.close();
+                    }
                 } catch (SQLException e) {
                     log.error("Failed to close the statement. " + e.getMessage());
                 }
@@ -232,13 +245,29 @@ public class SQLQueryProcessor implements QueryProcessor {
     // Result is a normal resource, which is stored in the Resources table or a collection
     // of normal resources.
 	//We can't use a HashSet here, because it doesn't keep the order that may lead to failures of queries having ORDER BY
-        Set<String>  pathSet = new LinkedHashSet<String>();        
+        Set<String>  pathSet = new LinkedHashSet<String>();
+        List<Integer> pathIds = new ArrayList<Integer>();
+        List<String> resourceNames = new ArrayList<String>();
         while (results.next()) {
-            int pathId = results.getInt(DatabaseConstants.PATH_ID_FIELD);
-            String resourceName = results.getString(DatabaseConstants.NAME_FIELD);
-            String path = resourceDAO.getPath(pathId, resourceName, false);
-            if(path!=null){
-                pathSet.add(path);
+            pathIds.add(results.getInt(DatabaseConstants.PATH_ID_FIELD));
+            resourceNames.add(results.getString(DatabaseConstants.NAME_FIELD));
+        }
+
+        // resolve all the path ids at once, instead of reading REG_PATH once per row.
+        Map<Integer, String> collectionPaths =
+                resourceDAO.getPathsFromIds(new HashSet<Integer>(pathIds));
+        for (int i = 0; i < pathIds.size(); i++) {
+            String collectionPath = collectionPaths.get(pathIds.get(i));
+            if (collectionPath == null) {
+                continue;
+            }
+            String resourceName = resourceNames.get(i);
+            if (resourceName == null) {
+                pathSet.add(collectionPath);
+            } else if (collectionPath.equals(RepositoryConstants.ROOT_PATH)) {
+                pathSet.add(collectionPath + resourceName);
+            } else {
+                pathSet.add(collectionPath + RepositoryConstants.PATH_SEPARATOR + resourceName);
             }
         }
         String[] paths = pathSet.toArray(new String[pathSet.size()]);
@@ -16,6 +16,9 @@
 
 package org.wso2.carbon.repository.core.jdbc.dataaccess;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.StringTokenizer;
 
 import org.apache.commons.logging.Log;
@@ -25,15 +28,59 @@ import org.wso2.carbon.repository.core.exceptions.RepositoryDBException;
 
 /**
  * class to transform the sql to be tenant-aware. Once the query is passed to the constructor this
- * will be keeping the transformed query.
+ * will be keeping the transformed query. Transformations of frequently executed queries can be
+ * reused through {@link #getTransformer(String, String)}.
  */
 public class TenantAwareSQLTransformer {
 
     private static final Log log = LogFactory.getLog(TenantAwareSQLTransformer.class);
+
+    // Maximum number of transformed queries kept for reuse.
+    private static final int MAX_CACHED_TRANSFORMERS = 500;
+
+    // Transformed queries, keyed by database product name and query, in least recently used order.
+    private static final Map<String, TenantAwareSQLTransformer> transformerCache =
+            Collections.synchronizedMap(new LinkedHashMap<String, TenantAwareSQLTransformer>(16, 0.75f, true) {
+                protected boolean removeEldestEntry(Map.Entry<String, TenantAwareSQLTransformer> eldest) {
+                    return size() > MAX_CACHED_TRANSFORMERS;
+                }
+            });
+
     private String transformedQuery = null;
     private int parameterCount = 0;
     private int trailingParameterCount = 0;
 
+    /**
+     * Method to obtain the transformer of a given query. Transformers are immutable, so the one
+     * created for the first execution of a query is returned for later executions on the same
+     * database.
+     *
+     * @param sqlQuery the query to transform to tenant aware sql
+     * @param dialect  the product name of the database on which the query will be executed.
+     *
+     * @return the transformer of the query.
+     * @throws RepositoryException throws if the transformation failed.
+     */
+    public static TenantAwareSQLTransformer getTransformer(String sqlQuery, String dialect)
+            throws RepositoryException {
+        String key = dialect + ":" + sqlQuery;
+        TenantAwareSQLTransformer transformer = transformerCache.get(key);
+        
+        if (transformer == null) {
+            transformer = new TenantAwareSQLTransformer(sqlQuery);
+            transformerCache.put(key, transformer);
+        }
+        
+        return transformer;
+    }
+
+    /**
+     * Method to discard all cached transformers.
+     */
+    public static void clearCache() {
+        transformerCache.clear();
+    }
+
     /**
      * Construct the TenantAwareSQLTransformer for a given query
      *
@@ -0,0 +1,221 @@
+/*
+ *  Copyright (c) 2005-2009, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.wso2.carbon.repository.core.statistics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A fixed-size latency histogram with logarithmic buckets. Every power of two is split into
+ * {@link #SUB_BUCKETS} linear sub-buckets, so a recorded value is reported within 12.5% of its
+ * actual value regardless of its magnitude. Recording is lock-free, and like
+ * {@link StripedCounter} the bucket counts and the maximum are kept per stripe, so threads
+ * recording at the same time rarely contend. Recording does not allocate once the buckets of the
+ * stripe of a thread have been created.
+ */
+public class LatencyHistogram {
+
+    // Number of linear sub-buckets within each power of two.
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // Values of 2^MAX_EXPONENT nanoseconds (around 18 minutes) and above share the last bucket.
+    private static final int MAX_EXPONENT = 40;
+
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    // The bucket counts of each stripe, created when a thread first records into the stripe.
+    private final AtomicReferenceArray<AtomicLongArray> counts =
+            new AtomicReferenceArray<AtomicLongArray>(StripedCounter.STRIPES);
+    private final StripedCounter count = new StripedCounter();
+    private final StripedCounter total = new StripedCounter();
+    // The largest value recorded in each stripe, a cache line apart.
+    private final AtomicLongArray max =
+            new AtomicLongArray(StripedCounter.STRIPES * StripedCounter.PADDING);
+
+    /**
+     * Method to record a single latency value.
+     *
+     * @param nanos the latency in nanoseconds. Negative values are recorded as zero.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        int stripe = StripedCounter.stripe();
+        getStripeCounts(stripe).incrementAndGet(bucketIndex(value));
+        count.increment();
+        total.add(value);
+
+        int maxIndex = stripe * StripedCounter.PADDING;
+        long current = max.get(maxIndex);
+        while (value > current && !max.compareAndSet(maxIndex, current, value)) {
+            current = max.get(maxIndex);
+        }
+    }
+
+    /**
+     * Method to obtain a point-in-time copy of this histogram.
+     *
+     * @return the snapshot.
+     */
+    public Snapshot getSnapshot() {
+        long[] bucketCounts = new long[BUCKETS];
+        long recorded = 0;
+        long largest = 0;
+        for (int stripe = 0; stripe < StripedCounter.STRIPES; stripe++) {
+            AtomicLongArray stripeCounts = counts.get(stripe);
+            if (stripeCounts != null) {
+                for (int i = 0; i < BUCKETS; i++) {
+                    long bucketCount = stripeCounts.get(i);
+                    bucketCounts[i] += bucketCount;
+                    recorded += bucketCount;
+                }
+            }
+            largest = Math.max(largest, max.get(stripe * StripedCounter.PADDING));
+        }
+        return new Snapshot(bucketCounts, recorded, total.sum(), largest);
+    }
+
+    /**
+     * Method to obtain the number of recorded values.
+     *
+     * @return the number of recorded values.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Method to clear all recorded values.
+     */
+    public void reset() {
+        for (int stripe = 0; stripe < StripedCounter.STRIPES; stripe++) {
+            AtomicLongArray stripeCounts = counts.get(stripe);
+            if (stripeCounts != null) {
+                for (int i = 0; i < BUCKETS; i++) {
+                    stripeCounts.set(i, 0);
+                }
+            }
+            max.set(stripe * StripedCounter.PADDING, 0);
+        }
+        count.reset();
+        total.reset();
+    }
+
+    private AtomicLongArray getStripeCounts(int stripe) {
+        AtomicLongArray stripeCounts = counts.get(stripe);
+        if (stripeCounts == null) {
+            counts.compareAndSet(stripe, null, new AtomicLongArray(BUCKETS));
+            stripeCounts = counts.get(stripe);
+        }
+        return stripeCounts;
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        if (index >= BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long lowerBound = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+        return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * An immutable copy of the state of a histogram at a given point in time.
+     */
+    public static class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long total;
+        private final long max;
+
+        private Snapshot(long[] counts, long count, long total, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.total = total;
+            this.max = max;
+        }
+
+        /**
+         * Method to obtain the number of values in this snapshot.
+         *
+         * @return the number of values.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Method to obtain the mean latency.
+         *
+         * @return the mean latency in nanoseconds, or 0 if nothing was recorded.
+         */
+        public double getMean() {
+            return count == 0 ? 0 : (double) total / count;
+        }
+
+        /**
+         * Method to obtain the largest recorded latency.
+         *
+         * @return the largest latency in nanoseconds.
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Method to obtain the latency below which the given percentage of values fall. The
+         * value returned is the upper bound of the bucket holding that percentile.
+         *
+         * @param percentile the percentile, between 0 and 100.
+         *
+         * @return the latency in nanoseconds, or 0 if nothing was recorded.
+         */
+        public long getPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            double bounded = Math.min(100, Math.max(0, percentile));
+            long rank = Math.max(1, (long) Math.ceil(bounded / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
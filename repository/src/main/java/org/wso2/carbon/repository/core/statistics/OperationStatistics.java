@@ -0,0 +1,329 @@
+/*
+ *  Copyright (c) 2005-2009, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.wso2.carbon.repository.core.statistics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.repository.api.utils.Method;
+
+/**
+ * Holds invocation counts and latency histograms of repository operations, per operation and per
+ * tenant. Recording does not lock or allocate once the counters of an operation have been created,
+ * so it can be done on every call. Operations are recorded only while the statistics are enabled,
+ * which they are once an
+ * {@link org.wso2.carbon.repository.core.handlers.builtin.OperationStatisticsHandler} has been
+ * created. The statistics can be read through the methods of this class or over JMX, under the
+ * name {@link #OBJECT_NAME}.
+ */
+public class OperationStatistics implements OperationStatisticsMBean {
+
+    private static final Log log = LogFactory.getLog(OperationStatistics.class);
+
+    /**
+     * The name under which the statistics are registered on the platform MBean server.
+     */
+    public static final String OBJECT_NAME = "org.wso2.carbon.repository:type=OperationStatistics";
+
+    private static final Method[] METHODS = Method.values();
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final OperationStatistics instance = new OperationStatistics();
+
+    private final Records allTenants = new Records();
+
+    private final ConcurrentMap<Integer, Records> tenants = new ConcurrentHashMap<Integer, Records>();
+
+    private volatile boolean enabled = false;
+
+    /**
+     * Method to obtain the statistics shared by all repository instances of this server.
+     *
+     * @return the operation statistics.
+     */
+    public static OperationStatistics getInstance() {
+        return instance;
+    }
+
+    /**
+     * Method to check whether operations are being recorded.
+     *
+     * @return true if operations are recorded, false otherwise.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Method to start or stop recording operations. Statistics recorded so far are kept.
+     *
+     * @param enabled whether operations should be recorded.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Method to record a completed invocation of an operation together with the time it took, so
+     * that the invocation counts and the latencies cover the same invocations. Callers are
+     * expected to check {@link #isEnabled()} first.
+     *
+     * @param method   the operation.
+     * @param tenantId the tenant on whose behalf the operation was invoked.
+     * @param nanos    the time taken, in nanoseconds.
+     */
+    public void recordOperation(Method method, int tenantId, long nanos) {
+        recordInvocation(method, tenantId);
+        recordLatency(method, tenantId, nanos);
+    }
+
+    /**
+     * Method to record an invocation of an operation.
+     *
+     * @param method   the operation.
+     * @param tenantId the tenant on whose behalf the operation was invoked.
+     */
+    public void recordInvocation(Method method, int tenantId) {
+        allTenants.getInvocations(method).increment();
+        getTenantRecords(tenantId).getInvocations(method).increment();
+    }
+
+    /**
+     * Method to record the time taken to complete an operation.
+     *
+     * @param method   the operation.
+     * @param tenantId the tenant on whose behalf the operation was invoked.
+     * @param nanos    the time taken, in nanoseconds.
+     */
+    public void recordLatency(Method method, int tenantId, long nanos) {
+        allTenants.getLatencies(method).record(nanos);
+        getTenantRecords(tenantId).getLatencies(method).record(nanos);
+    }
+
+    /**
+     * Method to obtain the number of invocations of an operation across all tenants.
+     *
+     * @param method the operation.
+     *
+     * @return the number of invocations.
+     */
+    public long getInvocationCount(Method method) {
+        return allTenants.getInvocationCount(method);
+    }
+
+    /**
+     * Method to obtain the number of invocations of an operation for a tenant.
+     *
+     * @param method   the operation.
+     * @param tenantId the tenant id.
+     *
+     * @return the number of invocations.
+     */
+    public long getInvocationCount(Method method, int tenantId) {
+        Records records = tenants.get(tenantId);
+        return records == null ? 0 : records.getInvocationCount(method);
+    }
+
+    /**
+     * Method to obtain the latencies of an operation across all tenants.
+     *
+     * @param method the operation.
+     *
+     * @return a snapshot of the latency histogram.
+     */
+    public LatencyHistogram.Snapshot getLatencies(Method method) {
+        return allTenants.getLatencySnapshot(method);
+    }
+
+    /**
+     * Method to obtain the latencies of an operation for a tenant.
+     *
+     * @param method   the operation.
+     * @param tenantId the tenant id.
+     *
+     * @return a snapshot of the latency histogram.
+     */
+    public LatencyHistogram.Snapshot getLatencies(Method method, int tenantId) {
+        Records records = tenants.get(tenantId);
+        return records == null ? new LatencyHistogram().getSnapshot() :
+                records.getLatencySnapshot(method);
+    }
+
+    /**
+     * Method to register these statistics on the platform MBean server.
+     */
+    public void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (Exception e) {
+            log.warn("Unable to register the repository operation statistics MBean.", e);
+        }
+    }
+
+    /**
+     * Method to remove these statistics from the platform MBean server.
+     */
+    public void unregisterMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (Exception e) {
+            log.warn("Unable to unregister the repository operation statistics MBean.", e);
+        }
+    }
+
+    public String[] getRecordedMethods() {
+        List<String> methods = new ArrayList<String>();
+        for (Method method : METHODS) {
+            if (allTenants.isRecorded(method)) {
+                methods.add(method.name());
+            }
+        }
+        return methods.toArray(new String[methods.size()]);
+    }
+
+    public int[] getRecordedTenants() {
+        Integer[] tenantIds = tenants.keySet().toArray(new Integer[0]);
+        int[] result = new int[tenantIds.length];
+        for (int i = 0; i < tenantIds.length; i++) {
+            result[i] = tenantIds[i];
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    public long getInvocationCount(String method) {
+        return getInvocationCount(Method.valueOf(method));
+    }
+
+    public long getTenantInvocationCount(String method, int tenantId) {
+        return getInvocationCount(Method.valueOf(method), tenantId);
+    }
+
+    public double getMeanLatency(String method) {
+        return getLatencies(Method.valueOf(method)).getMean() / NANOS_PER_MILLI;
+    }
+
+    public double getMaxLatency(String method) {
+        return getLatencies(Method.valueOf(method)).getMax() / NANOS_PER_MILLI;
+    }
+
+    public double getLatencyPercentile(String method, double percentile) {
+        return getLatencies(Method.valueOf(method)).getPercentile(percentile) / NANOS_PER_MILLI;
+    }
+
+    public double getTenantLatencyPercentile(String method, int tenantId, double percentile) {
+        return getLatencies(Method.valueOf(method), tenantId).getPercentile(percentile) /
+                NANOS_PER_MILLI;
+    }
+
+    public void reset() {
+        tenants.clear();
+        allTenants.reset();
+    }
+
+    private Records getTenantRecords(int tenantId) {
+        Records records = tenants.get(tenantId);
+        if (records == null) {
+            Records newRecords = new Records();
+            records = tenants.putIfAbsent(tenantId, newRecords);
+            if (records == null) {
+                records = newRecords;
+            }
+        }
+        return records;
+    }
+
+    // The counters of a single tenant, or of all tenants, created on the first use of an operation.
+    private static class Records {
+
+        private final AtomicReferenceArray<StripedCounter> invocations =
+                new AtomicReferenceArray<StripedCounter>(METHODS.length);
+
+        private final AtomicReferenceArray<LatencyHistogram> latencies =
+                new AtomicReferenceArray<LatencyHistogram>(METHODS.length);
+
+        StripedCounter getInvocations(Method method) {
+            int index = method.ordinal();
+            StripedCounter counter = invocations.get(index);
+            if (counter == null) {
+                invocations.compareAndSet(index, null, new StripedCounter());
+                counter = invocations.get(index);
+            }
+            return counter;
+        }
+
+        LatencyHistogram getLatencies(Method method) {
+            int index = method.ordinal();
+            LatencyHistogram histogram = latencies.get(index);
+            if (histogram == null) {
+                latencies.compareAndSet(index, null, new LatencyHistogram());
+                histogram = latencies.get(index);
+            }
+            return histogram;
+        }
+
+        long getInvocationCount(Method method) {
+            StripedCounter counter = invocations.get(method.ordinal());
+            return counter == null ? 0 : counter.sum();
+        }
+
+        LatencyHistogram.Snapshot getLatencySnapshot(Method method) {
+            LatencyHistogram histogram = latencies.get(method.ordinal());
+            return histogram == null ? new LatencyHistogram().getSnapshot() : histogram.getSnapshot();
+        }
+
+        boolean isRecorded(Method method) {
+            int index = method.ordinal();
+            return invocations.get(index) != null || latencies.get(index) != null;
+        }
+
+        void reset() {
+            for (int i = 0; i < METHODS.length; i++) {
+                StripedCounter counter = invocations.get(i);
+                if (counter != null) {
+                    counter.reset();
+                }
+                LatencyHistogram histogram = latencies.get(i);
+                if (histogram != null) {
+                    histogram.reset();
+                }
+            }
+        }
+    }
+}
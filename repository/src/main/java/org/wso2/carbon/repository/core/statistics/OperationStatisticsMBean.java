@@ -0,0 +1,104 @@
+/*
+ *  Copyright (c) 2005-2009, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.wso2.carbon.repository.core.statistics;
+
+/**
+ * The management interface through which the repository operation statistics are exposed over
+ * JMX. Methods are identified by the names of {@link org.wso2.carbon.repository.api.utils.Method}
+ * constants, and latencies are reported in milliseconds.
+ */
+public interface OperationStatisticsMBean {
+
+    /**
+     * Method to obtain the names of the operations for which statistics have been recorded.
+     *
+     * @return the operation names.
+     */
+    String[] getRecordedMethods();
+
+    /**
+     * Method to obtain the tenants for which statistics have been recorded.
+     *
+     * @return the tenant ids.
+     */
+    int[] getRecordedTenants();
+
+    /**
+     * Method to obtain the number of invocations of an operation across all tenants.
+     *
+     * @param method the operation name.
+     *
+     * @return the number of invocations.
+     */
+    long getInvocationCount(String method);
+
+    /**
+     * Method to obtain the number of invocations of an operation for a tenant.
+     *
+     * @param method   the operation name.
+     * @param tenantId the tenant id.
+     *
+     * @return the number of invocations.
+     */
+    long getTenantInvocationCount(String method, int tenantId);
+
+    /**
+     * Method to obtain the mean latency of an operation across all tenants.
+     *
+     * @param method the operation name.
+     *
+     * @return the mean latency in milliseconds.
+     */
+    double getMeanLatency(String method);
+
+    /**
+     * Method to obtain the largest latency of an operation across all tenants.
+     *
+     * @param method the operation name.
+     *
+     * @return the largest latency in milliseconds.
+     */
+    double getMaxLatency(String method);
+
+    /**
+     * Method to obtain a latency percentile of an operation across all tenants.
+     *
+     * @param method     the operation name.
+     * @param percentile the percentile, between 0 and 100.
+     *
+     * @return the latency in milliseconds.
+     */
+    double getLatencyPercentile(String method, double percentile);
+
+    /**
+     * Method to obtain a latency percentile of an operation for a tenant.
+     *
+     * @param method     the operation name.
+     * @param tenantId   the tenant id.
+     * @param percentile the percentile, between 0 and 100.
+     *
+     * @return the latency in milliseconds.
+     */
+    double getTenantLatencyPercentile(String method, int tenantId, double percentile);
+
+    /**
+     * Method to clear all recorded statistics.
+     */
+    void reset();
+}
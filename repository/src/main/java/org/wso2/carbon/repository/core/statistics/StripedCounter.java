@@ -0,0 +1,96 @@
+/*
+ *  Copyright (c) 2005-2009, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package org.wso2.carbon.repository.core.statistics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter that spreads concurrent updates over a number of cells so that threads recording
+ * operations at the same time rarely contend on the same memory location. Reading the value sums
+ * all the cells, which makes reads more expensive than updates; this suits statistics which are
+ * updated on every operation but read only when a snapshot is requested.
+ */
+public class StripedCounter {
+
+    // Number of longs between two cells, keeping each cell on its own cache line.
+    static final int PADDING = 8;
+
+    static final int STRIPES;
+
+    static {
+        int stripes = 1;
+        int processors = Runtime.getRuntime().availableProcessors();
+        while (stripes < processors * 2) {
+            stripes <<= 1;
+        }
+        STRIPES = stripes;
+    }
+
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PADDING);
+
+    /**
+     * Method to add a value to the counter.
+     *
+     * @param value the value to add.
+     */
+    public void add(long value) {
+        cells.getAndAdd(cellIndex(), value);
+    }
+
+    /**
+     * Method to add one to the counter.
+     */
+    public void increment() {
+        add(1);
+    }
+
+    /**
+     * Method to obtain the current value of the counter. The value is not an atomic snapshot if
+     * updates happen while the cells are being summed.
+     *
+     * @return the sum of all cells.
+     */
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    /**
+     * Method to reset the counter to zero.
+     */
+    public void reset() {
+        for (int i = 0; i < STRIPES; i++) {
+            cells.set(i * PADDING, 0);
+        }
+    }
+
+    // The stripe, between 0 and STRIPES - 1, which the current thread updates.
+    static int stripe() {
+        long threadId = Thread.currentThread().getId();
+        int hash = (int) (threadId ^ (threadId >>> 32)) * 0x9E3779B9;
+        return (hash >>> 16) & (STRIPES - 1);
+    }
+
+    private static int cellIndex() {
+        return stripe() * PADDING;
+    }
+}
@@ -0,0 +1,340 @@
+/*
+ * Copyright (c) 2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.repository.core.utils;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.repository.api.exceptions.RepositoryException;
+import org.wso2.carbon.repository.core.CollectionImpl;
+import org.wso2.carbon.repository.core.DumpConstants;
+import org.wso2.carbon.repository.core.ResourceImpl;
+import org.wso2.carbon.repository.core.exceptions.RepositoryServerContentException;
+
+/**
+ * Reads a binary archive of resources written by {@link ArchiveWriter}. Records are read one at a
+ * time, and resource content and segments are spooled as they are read, so that an archive of any
+ * size can be restored without keeping it in memory.
+ */
+public class ArchiveReader {
+
+    private static final Log log = LogFactory.getLog(ArchiveReader.class);
+
+    private DataInputStream inputStream;
+    private Date since;
+
+    /**
+     * Creates an archive reader.
+     *
+     * @param inputStream the stream to read the archive from.
+     */
+    public ArchiveReader(InputStream inputStream) {
+        this.inputStream = new DataInputStream(
+                new BufferedInputStream(inputStream, ArchiveWriter.BUFFER_SIZE));
+    }
+
+    /**
+     * Method to check whether the archive holds only the changes made after an earlier archive.
+     * The header must be read before calling this method.
+     *
+     * @return true if the archive is incremental.
+     */
+    public boolean isIncremental() {
+        return since != null;
+    }
+
+    /**
+     * Method to obtain the time after which the resources of an incremental archive were changed.
+     *
+     * @return the time, or null for a full archive.
+     */
+    public Date getSince() {
+        return since;
+    }
+
+    /**
+     * Method to read and validate the header of the archive.
+     *
+     * @throws RepositoryException if the stream is not an archive, or if the operation failed.
+     */
+    public void readHeader() throws RepositoryException {
+        try {
+            if (inputStream.readInt() != DumpConstants.ARCHIVE_MAGIC) {
+                String msg = "The stream to restore is not a repository archive.";
+                log.error(msg);
+                throw new RepositoryServerContentException(msg);
+            }
+            int formatVersion = inputStream.readInt();
+            if (formatVersion > DumpConstants.ARCHIVE_FORMAT_VERSION) {
+                String msg = "Unsupported repository archive format version " + formatVersion + ".";
+                log.error(msg);
+                throw new RepositoryServerContentException(msg);
+            }
+            // archives of the first format version are always full archives.
+            if (formatVersion > 1 && inputStream.readBoolean()) {
+                since = readDate();
+            }
+        } catch (IOException e) {
+            throw handleException(e);
+        }
+    }
+
+    /**
+     * Method to read the type of the next record. The end of the stream is read as an end record.
+     *
+     * @return the type of the record, as defined in {@link DumpConstants}.
+     * @throws RepositoryException if the operation failed.
+     */
+    public byte readRecordType() throws RepositoryException {
+        try {
+            return inputStream.readByte();
+        } catch (EOFException e) {
+            return DumpConstants.ARCHIVE_RECORD_END;
+        } catch (IOException e) {
+            throw handleException(e);
+        }
+    }
+
+    /**
+     * Method to read a resource record, after its type has been read.
+     *
+     * @return the archived resource.
+     * @throws RepositoryException if the operation failed.
+     */
+    public Entry readResource() throws RepositoryException {
+        try {
+            String relativePath = readString();
+            ResourceImpl resource =
+                    inputStream.readBoolean() ? new CollectionImpl() : new ResourceImpl();
+            resource.setMediaType(readString());
+            long version = inputStream.readLong();
+            resource.setAuthorUserName(readString());
+            resource.setCreatedTime(readDate());
+            resource.setLastUpdaterUserName(readString());
+            resource.setLastModified(readDate());
+            resource.setUUID(readString());
+            resource.setDescription(readString());
+
+            int keyCount = inputStream.readInt();
+            for (int i = 0; i < keyCount; i++) {
+                String key = readString();
+                int valueCount = inputStream.readInt();
+                for (int j = 0; j < valueCount; j++) {
+                    String value = readString();
+                    if (value != null) {
+                        resource.addPropertyWithNoUpdate(key, value);
+                    }
+                }
+            }
+
+            InputStream contentStream = null;
+            long contentLength = inputStream.readLong();
+            if (contentLength < -1) {
+                throw invalidLength("content", contentLength);
+            }
+            if (contentLength >= 0) {
+                contentStream = SpooledContent.getContentStream(
+                        new BoundedInputStream(inputStream, contentLength));
+            }
+            return new Entry(relativePath, resource, version, contentStream);
+        } catch (IOException e) {
+            throw handleException(e);
+        }
+    }
+
+    /**
+     * Method to read the relative path of a removed or replaced sub tree, after the type of the
+     * record has been read.
+     *
+     * @return the relative path, which is empty for the root.
+     * @throws RepositoryException if the operation failed.
+     */
+    public String readDeleted() throws RepositoryException {
+        try {
+            return readString();
+        } catch (IOException e) {
+            throw handleException(e);
+        }
+    }
+
+    /**
+     * Method to read a segment record, after its type has been read.
+     *
+     * @return the stream of records of the segment, which can be read by another archive reader.
+     * @throws RepositoryException if the operation failed.
+     */
+    public InputStream readSegment() throws RepositoryException {
+        try {
+            long length = inputStream.readLong();
+            if (length < 0) {
+                throw invalidLength("segment", length);
+            }
+            return SpooledContent.getContentStream(new BoundedInputStream(inputStream, length));
+        } catch (IOException e) {
+            throw handleException(e);
+        }
+    }
+
+    private String readString() throws IOException, RepositoryException {
+        int length = inputStream.readInt();
+        if (length < -1 || length > DumpConstants.ARCHIVE_MAX_STRING_LENGTH) {
+            throw invalidLength("string", length);
+        }
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        inputStream.readFully(bytes);
+        return new String(bytes, ArchiveWriter.ENCODING);
+    }
+
+    private Date readDate() throws IOException {
+        long time = inputStream.readLong();
+        return (time >= 0) ? new Date(time) : null;
+    }
+
+    // A corrupted length is rejected before anything is allocated or spooled for it.
+    private RepositoryException invalidLength(String field, long length) {
+        String msg = "Failed to read the archive. Invalid " + field + " length " + length + ".";
+        log.error(msg);
+        return new RepositoryServerContentException(msg);
+    }
+
+    private RepositoryException handleException(IOException e) {
+        String msg = "Failed to read the archive. " + e.getMessage();
+        log.error(msg, e);
+        return new RepositoryServerContentException(msg, e);
+    }
+
+    /**
+     * A resource read from an archive.
+     */
+    public static class Entry {
+
+        private String relativePath;
+        private ResourceImpl resource;
+        private long version;
+        private InputStream contentStream;
+
+        private Entry(String relativePath, ResourceImpl resource, long version,
+                      InputStream contentStream) {
+            this.relativePath = relativePath;
+            this.resource = resource;
+            this.version = version;
+            this.contentStream = contentStream;
+        }
+
+        /**
+         * Method to obtain the path of the resource relative to the root of the archive.
+         *
+         * @return the relative path, which is empty for the root.
+         */
+        public String getRelativePath() {
+            return relativePath;
+        }
+
+        /**
+         * Method to obtain the resource, with its metadata and properties.
+         *
+         * @return the resource.
+         */
+        public ResourceImpl getResource() {
+            return resource;
+        }
+
+        /**
+         * Method to obtain the version of the resource at the time it was archived.
+         *
+         * @return the version.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Method to obtain the content of the resource.
+         *
+         * @return the stream of content, or null if the resource has no content.
+         */
+        public InputStream getContentStream() {
+            return contentStream;
+        }
+    }
+
+    // A stream over the next bytes of the archive, which leaves the archive open when closed.
+    private static class BoundedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        private BoundedInputStream(InputStream inputStream, long length) {
+            super(inputStream);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b == -1) {
+                throw new EOFException("Unexpected end of the archive.");
+            }
+            remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int byteCount = super.read(b, off, (int) Math.min(len, remaining));
+            if (byteCount == -1) {
+                throw new EOFException("Unexpected end of the archive.");
+            }
+            remaining -= byteCount;
+            return byteCount;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public void close() throws IOException {
+            while (remaining > 0) {
+                long skipped = super.skip(remaining);
+                if (skipped <= 0) {
+                    if (super.read() == -1) {
+                        throw new EOFException("Unexpected end of the archive.");
+                    }
+                    skipped = 1;
+                }
+                remaining -= skipped;
+            }
+        }
+    }
+}
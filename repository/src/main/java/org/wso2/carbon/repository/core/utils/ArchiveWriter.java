@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.repository.core.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.repository.api.exceptions.RepositoryException;
+import org.wso2.carbon.repository.core.CollectionImpl;
+import org.wso2.carbon.repository.core.DumpConstants;
+import org.wso2.carbon.repository.core.ResourceImpl;
+import org.wso2.carbon.repository.core.exceptions.RepositoryServerContentException;
+
+/**
+ * Writes a binary archive of resources, which is read by {@link ArchiveReader}. The archive is a
+ * sequence of length-prefixed records, and resource content is written as raw bytes instead of
+ * being encoded as text.
+ */
+public class ArchiveWriter {
+
+    private static final Log log = LogFactory.getLog(ArchiveWriter.class);
+
+    /**
+     * The encoding of the strings of the archive.
+     */
+    static final String ENCODING = "UTF-8";
+
+    /**
+     * The size of the buffers used to write and read the archive.
+     */
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private DataOutputStream outputStream;
+
+    /**
+     * Creates an archive writer.
+     *
+     * @param outputStream the stream to write the archive to.
+     */
+    public ArchiveWriter(OutputStream outputStream) {
+        this.outputStream = new DataOutputStream(
+                new BufferedOutputStream(outputStream, BUFFER_SIZE));
+    }
+
+    /**
+     * Method to write the header of a full archive.
+     *
+     * @throws RepositoryException if the operation failed.
+     */
+    public void writeHeader() throws RepositoryException {
+        writeHeader(null);
+    }
+
+    /**
+     * Method to write the header of the archive.
+     *
+     * @param since the time after which the archived resources were changed, for an incremental
+     *              archive, or null for a full archive.
+     *
+     * @throws RepositoryException if the operation failed.
+     */
+    public void writeHeader(Date since) throws RepositoryException {
+        try {
+            outputStream.writeInt(DumpConstants.ARCHIVE_MAGIC);
+            outputStream.writeInt(DumpConstants.ARCHIVE_FORMAT_VERSION);
+            outputStream.writeBoolean(since != null);
+            writeDate(since);
+        } catch (IOException e) {
+            throw handleException(e);
+        }
+    }
+
+    /**
+     * Method to write a resource.
+     *
+     * @param relativePath  the path of the resource relative to the root of the archive, which is
+     *                      empty for the root.
+     * @param resource      the resource, with its properties filled.
+     * @param contentStream the stream of content of the resource, or null if it has no content.
+     *                      The stream is closed after completing this method.
+     *
+     * @throws RepositoryException if the operation failed.
+     */
+    public void writeResource(String relativePath, ResourceImpl resource, InputStream contentStream)
+            throws RepositoryException {
+        try {
+            outputStream.writeByte(DumpConstants.ARCHIVE_RECORD_RESOURCE);
+            writeString(relativePath);
+            outputStream.writeBoolean(resource instanceof CollectionImpl);
+            writeString(resource.getMediaType());
+            outputStream.writeLong(resource.getVersionNumber());
+            writeString(resource.getAuthorUserName());
+            writeDate(resource.getCreatedTime());
+            writeString(resource.getLastUpdaterUserName());
+            writeDate(resource.getLastModified());
+            writeString(resource.getUUID());
+            writeString(resource.getDescription());
+
+            List<String> keys = resource.getPropertyKeys();
+            outputStream.writeInt(keys.size());
+            for (String key : keys) {
+                List<String> values = resource.getPropertyValues(key);
+                writeString(key);
+                outputStream.writeInt(values.size());
+                for (String value : values) {
+                    writeString(value);
+                }
+            }
+
+            if (contentStream == null) {
+                outputStream.writeLong(-1);
+            } else {
+                try {
+                    long length = (contentStream instanceof SpooledContent.SpooledInputStream) ?
+                            ((SpooledContent.SpooledInputStream) contentStream).getSpooledContent()
+                                    .getLength() : contentStream.available();
+                    outputStream.writeLong(length);
+                    copy(contentStream, length);
+                } finally {
+                    contentStream.close();
+                }
+            }
+        } catch (IOException e) {
+            throw handleException(e);
+        }
+    }
+
+    /**
+     * Method to write a segment, which holds the records of a sub tree ending with an end record.
+     *
+     * @param segmentStream the stream of records of the segment.
+     * @param length        the length of the segment in bytes.
+     *
+     * @throws RepositoryException if the operation failed.
+     */
+    public void writeSegment(InputStream segmentStream, long length) throws RepositoryException {
+        try {
+            outputStream.writeByte(DumpConstants.ARCHIVE_RECORD_SEGMENT);
+            outputStream.writeLong(length);
+            copy(segmentStream, length);
+        } catch (IOException e) {
+            throw handleException(e);
+        }
+    }
+
+    /**
+     * Method to write that a sub tree was removed or replaced, in an incremental archive.
+     *
+     * @param relativePath the path of the sub tree relative to the root of the archive, which is
+     *                     empty for the root.
+     *
+     * @throws RepositoryException if the operation failed.
+     */
+    public void writeDeleted(String relativePath) throws RepositoryException {
+        try {
+            outputStream.writeByte(DumpConstants.ARCHIVE_RECORD_DELETED);
+            writeString(relativePath);
+        } catch (IOException e) {
+            throw handleException(e);
+        }
+    }
+
+    /**
+     * Method to write the end of the archive, or of a segment, and to flush the written records.
+     *
+     * @throws RepositoryException if the operation failed.
+     */
+    public void writeEnd() throws RepositoryException {
+        try {
+            outputStream.writeByte(DumpConstants.ARCHIVE_RECORD_END);
+            outputStream.flush();
+        } catch (IOException e) {
+            throw handleException(e);
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            outputStream.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(ENCODING);
+        if (bytes.length > DumpConstants.ARCHIVE_MAX_STRING_LENGTH) {
+            throw new IOException("A string of " + bytes.length + " bytes exceeds the maximum " +
+                    "length of an archived string.");
+        }
+        outputStream.writeInt(bytes.length);
+        outputStream.write(bytes);
+    }
+
+    private void writeDate(Date date) throws IOException {
+        outputStream.writeLong(date != null ? date.getTime() : -1);
+    }
+
+    private void copy(InputStream inputStream, long length) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long remaining = length;
+        while (remaining > 0) {
+            int byteCount = inputStream.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (byteCount == -1) {
+                throw new IOException("Unexpected end of content, " + remaining +
+                        " bytes are missing.");
+            }
+            outputStream.write(buffer, 0, byteCount);
+            remaining -= byteCount;
+        }
+    }
+
+    private RepositoryException handleException(IOException e) {
+        String msg = "Failed to write the archive. " + e.getMessage();
+        log.error(msg, e);
+        return new RepositoryServerContentException(msg, e);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.repository.core.utils;
+
+import java.io.InputStream;
+
+/**
+ * A codec that transforms resource content before it is written to the database, such as a
+ * compression algorithm. Content written by a codec is prefixed with a header that identifies the
+ * codec, so that it can be read back regardless of the codec that is currently configured. Codecs
+ * are registered through {@link ContentCodecs#registerCodec(ContentCodec)}.
+ */
+public interface ContentCodec {
+
+    /**
+     * Method to obtain the name of the codec, which is used to select the codec in the repository
+     * configuration.
+     *
+     * @return the name of the codec.
+     */
+    String getName();
+
+    /**
+     * Method to obtain the identifier of the codec, which is written to the header of encoded
+     * content. The identifier must not change once content has been written with the codec.
+     *
+     * @return the identifier of the codec, which is a positive number.
+     */
+    byte getId();
+
+    /**
+     * Method to encode content.
+     *
+     * @param inputStream the stream of content to encode.
+     *
+     * @return the stream of encoded content.
+     */
+    InputStream encode(InputStream inputStream);
+
+    /**
+     * Method to decode content that was encoded by this codec.
+     *
+     * @param inputStream the stream of encoded content, after the header.
+     *
+     * @return the stream of decoded content.
+     */
+    InputStream decode(InputStream inputStream);
+}
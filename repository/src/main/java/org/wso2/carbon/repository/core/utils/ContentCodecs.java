@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.repository.core.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.repository.api.exceptions.RepositoryException;
+import org.wso2.carbon.repository.core.exceptions.RepositoryServerContentException;
+
+/**
+ * Keeps the registered {@link ContentCodec}s, and writes and reads the header of encoded content.
+ * <p/>
+ * Encoded content starts with a marker followed by the identifier of its codec. Content without
+ * the marker, such as content written before a codec was configured, is read as it is. Content
+ * that is not encoded but happens to start with the marker is written with a header that has no
+ * codec, so that it is not mistaken for encoded content.
+ */
+public final class ContentCodecs {
+
+    private static final Log log = LogFactory.getLog(ContentCodecs.class);
+
+    private static final byte[] MARKER = {0, 'R', 'E', 'G', 'C', 'O', 'D', 'E', 'C'};
+
+    private static final int HEADER_LENGTH = MARKER.length + 1;
+
+    private static final byte NO_CODEC = 0;
+
+    private static final Map<String, ContentCodec> codecsByName =
+            new ConcurrentHashMap<String, ContentCodec>();
+    private static final Map<Byte, ContentCodec> codecsById =
+            new ConcurrentHashMap<Byte, ContentCodec>();
+
+    static {
+        registerCodec(new DeflateContentCodec());
+    }
+
+    private ContentCodecs() {
+    }
+
+    /**
+     * Method to register a codec, which replaces any codec registered with the same name or
+     * identifier.
+     *
+     * @param codec the codec to register.
+     */
+    public static void registerCodec(ContentCodec codec) {
+        if (codec.getId() <= NO_CODEC) {
+            throw new IllegalArgumentException("The identifier of the content codec " +
+                    codec.getName() + " must be a positive number.");
+        }
+        codecsByName.put(codec.getName(), codec);
+        codecsById.put(codec.getId(), codec);
+    }
+
+    /**
+     * Method to obtain a registered codec.
+     *
+     * @param name the name of the codec.
+     *
+     * @return the codec, or null if there is no codec registered with the given name.
+     */
+    public static ContentCodec getCodec(String name) {
+        return codecsByName.get(name);
+    }
+
+    /**
+     * Method to encode content with the given codec, prefixing it with the header of the codec.
+     * As with the given stream, the length of the returned stream is reported by its
+     * {@link InputStream#available()} method, so that it can be written to the database.
+     *
+     * @param inputStream the stream of content to encode.
+     * @param codec       the codec to use, or null to write the content as it is.
+     *
+     * @return the stream of encoded content.
+     * @throws RepositoryException if the operation failed.
+     */
+    public static InputStream encode(InputStream inputStream, ContentCodec codec)
+            throws RepositoryException {
+        if (codec != null) {
+            return SpooledContent.getContentStream(new SequenceInputStream(
+                    new ByteArrayInputStream(getHeader(codec.getId())), codec.encode(inputStream)));
+        }
+
+        PushbackInputStream pushbackStream = new PushbackInputStream(inputStream, HEADER_LENGTH);
+        if (!startsWithMarker(pushbackStream)) {
+            return pushbackStream;
+        }
+        return SpooledContent.getContentStream(new SequenceInputStream(
+                new ByteArrayInputStream(getHeader(NO_CODEC)), pushbackStream));
+    }
+
+    /**
+     * Method to decode content read from the database.
+     *
+     * @param inputStream the stream of content, as read from the database.
+     *
+     * @return the stream of decoded content.
+     * @throws RepositoryException if the content was encoded with a codec that is not registered,
+     *                             or if the operation failed.
+     */
+    public static InputStream decode(InputStream inputStream) throws RepositoryException {
+        PushbackInputStream pushbackStream = new PushbackInputStream(inputStream, HEADER_LENGTH);
+        if (!startsWithMarker(pushbackStream)) {
+            return pushbackStream;
+        }
+
+        byte[] header = new byte[HEADER_LENGTH];
+        readFully(pushbackStream, header);
+        byte id = header[MARKER.length];
+        if (id == NO_CODEC) {
+            return pushbackStream;
+        }
+        ContentCodec codec = codecsById.get(id);
+        if (codec == null) {
+            String msg = "The content was written with an unknown content codec " + id + ".";
+            log.error(msg);
+            throw new RepositoryServerContentException(msg);
+        }
+        return codec.decode(pushbackStream);
+    }
+
+    private static byte[] getHeader(byte id) {
+        byte[] header = Arrays.copyOf(MARKER, HEADER_LENGTH);
+        header[MARKER.length] = id;
+        return header;
+    }
+
+    // Method to check whether the stream starts with the marker, leaving the stream unchanged.
+    private static boolean startsWithMarker(PushbackInputStream inputStream)
+            throws RepositoryException {
+        byte[] header = new byte[HEADER_LENGTH];
+        int length = readFully(inputStream, header);
+        try {
+            if (length > 0) {
+                inputStream.unread(header, 0, length);
+            }
+        } catch (IOException e) {
+            String msg = "Failed to read the header of the content. " + e.getMessage();
+            log.error(msg, e);
+            throw new RepositoryServerContentException(msg, e);
+        }
+        if (length < HEADER_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < MARKER.length; i++) {
+            if (header[i] != MARKER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int readFully(InputStream inputStream, byte[] buffer)
+            throws RepositoryException {
+        int length = 0;
+        try {
+            while (length < buffer.length) {
+                int byteCount = inputStream.read(buffer, length, buffer.length - length);
+                if (byteCount == -1) {
+                    break;
+                }
+                length += byteCount;
+            }
+        } catch (IOException e) {
+            String msg = "Failed to read the header of the content. " + e.getMessage();
+            log.error(msg, e);
+            throw new RepositoryServerContentException(msg, e);
+        }
+        return length;
+    }
+}
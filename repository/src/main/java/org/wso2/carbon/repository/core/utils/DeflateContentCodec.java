@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.repository.core.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Content codec that compresses content using the deflate algorithm. The codec is registered by
+ * default under the name "deflate".
+ */
+public class DeflateContentCodec implements ContentCodec {
+
+    public static final String NAME = "deflate";
+
+    private static final byte ID = 1;
+
+    private int level;
+
+    /**
+     * Creates a codec that uses the fastest compression level, as content is compressed on every
+     * write to the database.
+     */
+    public DeflateContentCodec() {
+        this(Deflater.BEST_SPEED);
+    }
+
+    /**
+     * Creates a codec that uses the given compression level.
+     *
+     * @param level the compression level, from 0 to 9.
+     */
+    public DeflateContentCodec(int level) {
+        this.level = level;
+    }
+
+    public String getName() {
+        return NAME;
+    }
+
+    public byte getId() {
+        return ID;
+    }
+
+    public InputStream encode(InputStream inputStream) {
+        final Deflater deflater = new Deflater(level);
+        return new DeflaterInputStream(inputStream, deflater) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    deflater.end();
+                }
+            }
+        };
+    }
+
+    public InputStream decode(InputStream inputStream) {
+        return new InflaterInputStream(inputStream);
+    }
+}
@@ -18,9 +18,7 @@ package org.wso2.carbon.repository.core.utils;
 
 import java.io.IOException;
 import java.io.Reader;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.logging.Log;
@@ -34,30 +32,49 @@ import org.wso2.carbon.repository.api.RepositoryConstants;
  * child resource with normal read functions, if the consumed ones have higher values than actually
  * reading ones, this will buffer the extra bytes and release it after actual reading ones finished
  * using it.
+ * <p/>
+ * Characters are read from the wrapped reader in blocks, and buffered characters are copied in
+ * bulk. The statistics of a restore are shared by the dump reader of the restore and the dump
+ * readers wrapping it, and are not shared with other restores.
  */
 public class DumpReader extends Reader {
 
     private static final Log log = LogFactory.getLog(DumpReader.class);
 
+    // the number of characters read from the wrapped reader at once.
+    private static final int READ_AHEAD_SIZE = 8192;
+
     private Reader reader;
     private int offset = 0;
     private boolean withinChildrenTag = false;
     private int childResourceLevel = 0;
     private boolean withinElementTag;
-    private StringBuffer elementTagStrBuff;
-    private List<Integer> localBuffer = null;
+    private final StringBuilder elementTag = new StringBuilder();
+
+    // characters read from the wrapped reader, which are not consumed yet.
+    private final char[] readAhead = new char[READ_AHEAD_SIZE];
+    private int readAheadPosition = 0;
+    private int readAheadLimit = 0;
+    private boolean endOfStream = false;
+    private final char[] singleChar = new char[1];
+
+    // the local buffer holds the characters from the offset localBufferStartIndex, starting at
+    // localBufferHead of the array.
+    private char[] localBuffer = null;
+    private int localBufferHead = 0;
+    private int localBufferSize = 0;
     private int localBufferStartIndex = -1;
     private int readingChildResourceIndex = -1;
     private int consumedChildResourceIndex = -1;
     private Map<Integer, Integer> resourceStartingBufferIndices;
     private Map<Integer, Integer> resourceEndingBufferIndices;
     private Map<Integer, Integer> resourceEndingOffset = new HashMap<Integer, Integer>();
+    // the ending offset of the reading child resource, or -1 if it is still to be read.
+    private int readingResourceEndingOffset = -1;
 
     // to collect some statistics
-    private static int totalRead = 0;
-    private static int totalBuffered = 0;
-    private static int maximumBuffer = 0;
-    private static int totalBufferedRead = 0;
+    private final Statistics statistics;
+    private final boolean collectingStatistics;
 
     // sometimes parent have to read a bit of child resource, as only child resource have the
     // the name of the resource, but parent need to know the child path to construct the child path,
@@ -71,6 +88,13 @@ public class DumpReader extends Reader {
      */
     public DumpReader(Reader reader) {
         this.reader = reader;
+        if (reader instanceof DumpReader) {
+            statistics = ((DumpReader) reader).statistics;
+            collectingStatistics = false;
+        } else {
+            statistics = new Statistics();
+            collectingStatistics = true;
+        }
     }
 
     /**
@@ -85,205 +109,292 @@ public class DumpReader extends Reader {
      * @throws IOException if an I/O error occurs
      */
     public int read(char cBuf[], int off, int len) throws IOException {
-        int cBufLen = cBuf.length;
-        int minLen = cBufLen < len ? cBufLen : len;
-        int i;
+        if (off < 0 || len < 0 || off + len > cBuf.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        int i = 0;
 
-        for (i = 0; i < minLen; i++) {
-            int r = read();
-            if (r == -1) {
+        while (i < len) {
+            int count = readFromBuffer(cBuf, off + i, len - i);
+            if (count > 0) {
+                i += count;
+                continue;
+            }
+            if (count == -1) {
+                break;
+            }
+            count = readFromStream(cBuf, off + i, len - i);
+            if (count == -1) {
                 break;
             }
-            cBuf[i + off] = (char) r;
+            i += count;
         }
-        return i == 0 ? -1 : i;
+        return (i == 0 && len > 0) ? -1 : i;
     }
 
     /**
      * Read a single character. This method will block until a character is available, an I/O error
      * occurs, or the end of the stream is reached.
-     * <p/>
-     * Subclasses that intend to support efficient single-character input should override this
-     * method.
      *
      * @return the character read, as an integer in the range 0 to 65535 (0x00-0xffff), or -1 if the
      *         end of the stream has been reached
      * @throws IOException if an I/O error occurs
      */
     public int read() throws IOException {
-        if (localBuffer != null && offset < localBufferStartIndex) {
+        int count = readFromBuffer(singleChar, 0, 1);
+        if (count > 0) {
+            return singleChar[0];
+        }
+        if (count == -1) {
+            return -1;
+        }
+        count = readFromStream(singleChar, 0, 1);
+        return (count == -1) ? -1 : singleChar[0];
+    }
+
+    // Method to copy characters from the local buffer, if the offset is within the buffer. Returns
+    // the number of characters copied, 0 if the offset is not within the buffer, or -1 if the
+    // reading child resource ended.
+    private int readFromBuffer(char[] cBuf, int off, int len) throws IOException {
+        if (localBuffer == null) {
+            return 0;
+        }
+        if (offset < localBufferStartIndex) {
             // this is assumed unreachable
             String msg = "Offset to ask should be always greater than the buffer start index.";
             log.error(msg);
             throw new IOException(msg);
         }
-        if (localBuffer != null && offset < localBufferStartIndex + localBuffer.size()) {
-            // so this should be read from the buffer.
-            // and we should check whether the currently consuming resource is ending.
-            if (!checkingChildByParent) {
-                Integer endIndexBufferObj = resourceEndingBufferIndices.get(readingChildResourceIndex);
-                
-                if (endIndexBufferObj != null) {
-                    // it is possible the end index obj is null, as it is still to reach the end of
-                    // the tag.
-                    int endIndex = localBufferStartIndex + endIndexBufferObj;
-                    
-                    if (endIndex < offset) {
-                        // if the offset is going beyond the end index, we will say no
-                        clearBufferUpToNow(endIndex);
-                        return -1;
-                    }
+        int count = localBufferStartIndex + localBufferSize - offset;
+        if (count <= 0) {
+            return 0;
+        }
+        // so this should be read from the buffer.
+        // and we should check whether the currently consuming resource is ending.
+        if (!checkingChildByParent) {
+            Integer endIndexBufferObj = resourceEndingBufferIndices.get(readingChildResourceIndex);
+
+            if (endIndexBufferObj != null) {
+                // it is possible the end index obj is null, as it is still to reach the end of
+                // the tag.
+                int endIndex = localBufferStartIndex + endIndexBufferObj;
+
+                if (endIndex < offset) {
+                    // if the offset is going beyond the end index, we will say no
+                    clearBufferUpToNow(endIndex);
+                    return -1;
                 }
+                count = Math.min(count, endIndex + 1 - offset);
             }
-            
-            int r = localBuffer.get(offset - localBufferStartIndex);
-            
-            if (!checkingChildByParent && (offset - localBufferStartIndex) > RepositoryConstants.DEFAULT_BUFFER_SIZE) {
-                // reset the buffer
-                clearBufferUpToNow(offset);
-            }
+        }
+        count = Math.min(count, len);
 
-            if (!(reader instanceof DumpReader)) {
-                totalBufferedRead++;
-            }
-            
-            offset++;
-            
-            return r;
+        System.arraycopy(localBuffer, localBufferHead + offset - localBufferStartIndex, cBuf, off, count);
+        int lastOffset = offset + count - 1;
+
+        if (!checkingChildByParent && (lastOffset - localBufferStartIndex) > RepositoryConstants.DEFAULT_BUFFER_SIZE) {
+            // reset the buffer
+            clearBufferUpToNow(lastOffset);
+        }
+
+        if (collectingStatistics) {
+            statistics.totalBufferedRead += count;
         }
 
+        offset += count;
+
+        return count;
+    }
+
+    // Method to read characters from the wrapped reader, up to the end of the next element tag.
+    // Returns the number of characters read, or -1 if the stream or the reading child resource
+    // ended.
+    private int readFromStream(char[] cBuf, int off, int len) throws IOException {
         if (!checkingChildByParent && localBuffer != null && readingChildResourceIndex >= consumedChildResourceIndex) {
-            localBuffer = null;
-            localBufferStartIndex = -1;
-            resourceStartingBufferIndices = null;
-            resourceEndingBufferIndices = null;
+            discardBuffer();
         }
 
         if (checkingChildByParent && localBuffer == null) {
             // the parent is reading some characters from the child, so should be checked and cached
-            localBuffer = new ArrayList<Integer>();
-            resourceStartingBufferIndices = new HashMap<Integer, Integer>();
-            resourceEndingBufferIndices = new HashMap<Integer, Integer>();
+            createBuffer();
             localBufferStartIndex = offset;
         }
-        
-        if (!checkingChildByParent && resourceEndingOffset != null) {
-            Integer endIndexObj = resourceEndingOffset.get(readingChildResourceIndex);
-            if (endIndexObj != null) {
-                // it is possible the end index obj is null, as it is still to reach the end of the tag.
-                if (endIndexObj < offset) {
-                    // if the offset is going beyond the end index, we will say no
-                    clearBufferUpToNow(endIndexObj);
-                    return -1;
-                }
+
+        if (!checkingChildByParent && readingResourceEndingOffset != -1) {
+            // it is possible the end index is not known, as it is still to reach the end of the tag.
+            if (readingResourceEndingOffset < offset) {
+                // if the offset is going beyond the end index, we will say no
+                clearBufferUpToNow(readingResourceEndingOffset);
+                return -1;
             }
         }
 
-        int r = reader.read();
-        offset++;
-        char c = (char) r;
+        if (readAheadPosition == readAheadLimit) {
+            if (endOfStream) {
+                return -1;
+            }
+            int count = reader.read(readAhead, 0, READ_AHEAD_SIZE);
+            if (count <= 0) {
+                // a dump reader ends the stream of a child resource for good.
+                endOfStream = true;
+                return -1;
+            }
+            readAheadPosition = 0;
+            readAheadLimit = count;
+        }
 
-        if (!(reader instanceof DumpReader)) {
-            totalRead++;
+        int limit = Math.min(len, readAheadLimit - readAheadPosition);
+        if (!checkingChildByParent && readingResourceEndingOffset != -1) {
+            limit = Math.min(limit, readingResourceEndingOffset + 1 - offset);
         }
+        int count = 0;
 
-        if (withinElementTag) {
-            if (c == '>') {
-                if (elementTagStrBuff == null) {
-                    // there can't be situations having '>' without '<', so throwing an exception
-                    String msg = "'>' found before '<'.";
-                    log.error(msg);
-                    throw new IOException(msg);
+        while (count < limit) {
+            char c = readAhead[readAheadPosition++];
+            cBuf[off + count++] = c;
+            offset++;
+            boolean tagProcessed = false;
+
+            if (withinElementTag) {
+                elementTag.append(c);
+
+                if (c == '>') {
+                    withinElementTag = false;
+                    processElementTag();
+                    tagProcessed = true;
                 }
+            } else if (c == '<') {
+                withinElementTag = true;
+                elementTag.setLength(0);
+                elementTag.append(c);
             }
-            
-            elementTagStrBuff.append(c);
-            
-            if (c == '>') {
-                withinElementTag = false;
-                String elementTagStr = elementTagStrBuff.toString();
-                elementTagStrBuff = null;
-
-                // right now we are doing string comparisons as we are not expecting to
-                // have namespace prefixes
-                if ("<children>".equals(elementTagStr) || "<childs>".equals(elementTagStr)) {
-                    // only the first children element is mattered.
-                    withinChildrenTag = true;
-                } else if (elementTagStr.startsWith("</resource")) {
-                    // so this is the end of a resource.
-                    if (childResourceLevel == 1) {
-                        // we are making a end flag for the consumed childResource
-                        if (localBuffer != null) {
-                            resourceEndingBufferIndices.put(consumedChildResourceIndex,
-                                    localBuffer.size());
-                        }
-                        resourceEndingOffset.put(consumedChildResourceIndex, offset - 1);
+
+            if (localBuffer != null) {
+                appendToBuffer(c);
+            }
+
+            if (tagProcessed) {
+                // the tag may have changed the buffering or the end of the reading child resource.
+                break;
+            }
+        }
+
+        if (collectingStatistics) {
+            statistics.totalRead += count;
+        }
+
+        return count;
+    }
+
+    // Method to track the children of the resource, once an element tag is read.
+    private void processElementTag() {
+        // right now we are doing string comparisons as we are not expecting to
+        // have namespace prefixes
+        if (elementTagEquals("<children>") || elementTagEquals("<childs>")) {
+            // only the first children element is mattered.
+            withinChildrenTag = true;
+        } else if (elementTagStartsWith("</resource")) {
+            // so this is the end of a resource.
+            if (childResourceLevel == 1) {
+                // we are making a end flag for the consumed childResource
+                if (localBuffer != null) {
+                    resourceEndingBufferIndices.put(consumedChildResourceIndex, localBufferSize);
+                }
+                resourceEndingOffset.put(consumedChildResourceIndex, offset - 1);
+                if (consumedChildResourceIndex == readingChildResourceIndex) {
+                    readingResourceEndingOffset = offset - 1;
+                }
+            }
+
+            childResourceLevel--;
+        } else if (withinChildrenTag && elementTagStartsWith("<resource")) {
+            // so this is the start of a resource
+            childResourceLevel++;
+
+            if (childResourceLevel == 1) {
+                consumedChildResourceIndex++;
+
+                // so we have an immediate child resource.
+                if (readingChildResourceIndex < consumedChildResourceIndex) {
+                    // that mean we have not ask to read this element, but the xml stream
+                    // reader is trying to consume more bytes, so we should cache the thing
+                    if (localBuffer == null) {
+                        createBuffer();
                     }
-                    
-                    childResourceLevel--;
-                } else if (withinChildrenTag && elementTagStr.startsWith("<resource")) {
-                    // so this is the start of a resource
-                    childResourceLevel++;
-                    
-                    if (childResourceLevel == 1) {
-                        consumedChildResourceIndex++;
-                        
-                        // so we have an immediate child resource.
-                        if (readingChildResourceIndex < consumedChildResourceIndex) {
-                            // that mean we have not ask to read this element, but the xml stream
-                            // reader is trying to consume more bytes, so we should cache the thing
-                            if (localBuffer == null) {
-                                localBuffer = new ArrayList<Integer>();
-                                resourceStartingBufferIndices = new HashMap<Integer, Integer>();
-                                resourceEndingBufferIndices = new HashMap<Integer, Integer>();
-                            }
-                            
-                            // keep the local buffer's starting index
-                            if (localBufferStartIndex == -1) {
-                                // then add the whole resource xml to the buffer
-                                // skipping last character, as it is added at the end of the method.
-                                byte[] elementTagStrBytes = elementTagStr.getBytes();
-                                
-                                for (int i = 0; i < elementTagStrBytes.length - 1; i++) {
-                                    byte b = elementTagStrBytes[i];
-
-                                    localBuffer.add((int) b);
-                                    if (!(reader instanceof DumpReader)) {
-                                        totalBuffered++;
-                                        maximumBuffer = localBuffer.size() > maximumBuffer ?
-                                                localBuffer.size() :
-                                                maximumBuffer;
-                                    }
-                                }
-                                
-                                localBufferStartIndex = offset - elementTagStr.length();
-                            }
-                            
-                            // the following line count the current character to be added at the end
-                            int currentLocalBufferIndex = localBuffer.size() + 1;
-                            resourceStartingBufferIndices.put(consumedChildResourceIndex, currentLocalBufferIndex - elementTagStr.length());
+
+                    int elementTagLength = elementTag.length();
+
+                    // keep the local buffer's starting index
+                    if (localBufferStartIndex == -1) {
+                        // then add the whole resource xml to the buffer
+                        // skipping last character, as it is added after the tag is processed.
+                        for (int i = 0; i < elementTagLength - 1; i++) {
+                            appendToBuffer(elementTag.charAt(i));
                         }
+
+                        localBufferStartIndex = offset - elementTagLength;
                     }
+
+                    // the following line count the current character to be added at the end
+                    int currentLocalBufferIndex = localBufferSize + 1;
+                    resourceStartingBufferIndices.put(consumedChildResourceIndex, currentLocalBufferIndex - elementTagLength);
                 }
             }
-        } else {
-            if (c == '<') {
-                withinElementTag = true;
-                elementTagStrBuff = new StringBuffer();
-                elementTagStrBuff.append(c);
+        }
+    }
+
+    private boolean elementTagEquals(String tag) {
+        return elementTag.length() == tag.length() && elementTagStartsWith(tag);
+    }
+
+    private boolean elementTagStartsWith(String prefix) {
+        if (elementTag.length() < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (elementTag.charAt(i) != prefix.charAt(i)) {
+                return false;
             }
         }
-        if (localBuffer != null) {
-            localBuffer.add(r);
-            
-            if (!(reader instanceof DumpReader)) {
-                totalBuffered++;
-                maximumBuffer = localBuffer.size() > maximumBuffer ? localBuffer.size() :
-                        maximumBuffer;
+        return true;
+    }
+
+    private void createBuffer() {
+        localBuffer = new char[RepositoryConstants.DEFAULT_BUFFER_SIZE];
+        localBufferHead = 0;
+        localBufferSize = 0;
+        resourceStartingBufferIndices = new HashMap<Integer, Integer>();
+        resourceEndingBufferIndices = new HashMap<Integer, Integer>();
+    }
+
+    private void discardBuffer() {
+        localBuffer = null;
+        localBufferHead = 0;
+        localBufferSize = 0;
+        localBufferStartIndex = -1;
+        resourceStartingBufferIndices = null;
+        resourceEndingBufferIndices = null;
+    }
+
+    private void appendToBuffer(char c) {
+        if (localBufferHead + localBufferSize == localBuffer.length) {
+            char[] newLocalBuffer = localBuffer;
+            if (localBufferSize >= localBuffer.length / 2) {
+                newLocalBuffer = new char[localBuffer.length * 2];
+            }
+            // drop the characters that were cleared from the head of the buffer.
+            System.arraycopy(localBuffer, localBufferHead, newLocalBuffer, 0, localBufferSize);
+            localBuffer = newLocalBuffer;
+            localBufferHead = 0;
+        }
+        localBuffer[localBufferHead + localBufferSize++] = c;
+
+        if (collectingStatistics) {
+            statistics.totalBuffered++;
+            if (localBufferSize > statistics.maximumBuffer) {
+                statistics.maximumBuffer = localBufferSize;
             }
         }
-        
-        return r;
     }
 
     /**
@@ -304,6 +415,8 @@ public class DumpReader extends Reader {
      */
     public void setReadingChildResourceIndex(int readingChildResourceIndex) {
         this.readingChildResourceIndex = readingChildResourceIndex;
+        Integer endingOffset = resourceEndingOffset.get(readingChildResourceIndex);
+        readingResourceEndingOffset = (endingOffset != null) ? endingOffset : -1;
         // so we are just resetting our offset to get it from our buffer instead of the
         if (resourceStartingBufferIndices != null && resourceStartingBufferIndices.get(readingChildResourceIndex) != null) {
             offset = localBufferStartIndex + resourceStartingBufferIndices.get(readingChildResourceIndex);
@@ -338,12 +451,12 @@ public class DumpReader extends Reader {
         if (resourceEndingOffset.get(readingChildResourceIndex) == null) {
             throw new IOException("Error in checking the end of the resource index: " + readingChildResourceIndex + ".");
         }
-        
+
         offset = resourceEndingOffset.get(readingChildResourceIndex) + 1;
         // definitely this is buffered or still not read, so we just continue reading
         clearBufferUpToNow(offset);
         int r;
-        
+
         do {
             r = read();
         } while (r != -1 && r != '<');
@@ -351,10 +464,10 @@ public class DumpReader extends Reader {
         if (r == -1) {
             return true;
         }
-        
-        StringBuffer nextTagBuffer = new StringBuffer();
+
+        StringBuilder nextTagBuffer = new StringBuilder();
         nextTagBuffer.append((char) r);
-        
+
         do {
             r = read();
             nextTagBuffer.append((char) r);
@@ -363,13 +476,13 @@ public class DumpReader extends Reader {
         if (r == -1) {
             return true;
         }
-        
+
         String nextTag = nextTagBuffer.toString();
-        
+
         if (nextTag.startsWith("<resource")) {
             return false;
         }
-        
+
         // if the resource is ending, we are consuming reader until the </resource> is finished
         while (true) {
             do {
@@ -379,10 +492,10 @@ public class DumpReader extends Reader {
             if (r == -1) {
                 return true;
             }
-            
-            nextTagBuffer = new StringBuffer();
+
+            nextTagBuffer = new StringBuilder();
             nextTagBuffer.append((char) r);
-            
+
             do {
                 r = read();
                 nextTagBuffer.append((char) r);
@@ -391,7 +504,7 @@ public class DumpReader extends Reader {
             if (r == -1) {
                 return true;
             }
-            
+
             // not going ahead </resource>
             if (nextTagBuffer.toString().equals("</resource>")) {
                 return true;
@@ -407,93 +520,90 @@ public class DumpReader extends Reader {
      * @throws IOException if an I/O error occurs
      */
     public boolean ready() throws IOException {
-        return (localBuffer != null) || reader.ready();
+        return (localBuffer != null) || readAheadPosition < readAheadLimit || (!endOfStream && reader.ready());
     }
 
     private void clearBufferUpToNow(int offset) {
         if (localBuffer != null) {
-        	
-            if (offset >= localBufferStartIndex + localBuffer.size()) {
-                localBuffer = null;
-                localBufferStartIndex = -1;
-                resourceStartingBufferIndices = null;
-                resourceEndingBufferIndices = null;
-            } else {
-                List<Integer> newLocalBuffer = localBuffer.subList(offset - localBufferStartIndex,
-                        localBuffer.size());
+
+            if (offset >= localBufferStartIndex + localBufferSize) {
+                discardBuffer();
+            } else if (offset > localBufferStartIndex) {
+                int clearedLength = offset - localBufferStartIndex;
+
                 if (resourceStartingBufferIndices != null) {
-                    Map<Integer, Integer> newResourceStartingBufferIndices = new HashMap<Integer, Integer>();
-                    
-                    for (int resourceNo : resourceStartingBufferIndices.keySet()) {
-                        int oldBufferStartIndex = resourceStartingBufferIndices.get(resourceNo);
-                        int startOffset = localBufferStartIndex + oldBufferStartIndex;
-                        int newBuffStartIndex = startOffset - offset;
-                        // we are anyway copying the -value as well
-                        if (newBuffStartIndex >= 0) {
-                            newResourceStartingBufferIndices.put(resourceNo, newBuffStartIndex);
-                        }
-                    }
-                    
-                    resourceStartingBufferIndices = newResourceStartingBufferIndices;
+                    resourceStartingBufferIndices = shiftBufferIndices(resourceStartingBufferIndices, clearedLength);
                 }
-                
+
                 if (resourceEndingBufferIndices != null) {
-                    Map<Integer, Integer> newResourceEndingBufferIndices = new HashMap<Integer, Integer>();
-                    
-                    for (int resourceNo : resourceEndingBufferIndices.keySet()) {
-                        int oldBufferEndIndex = resourceEndingBufferIndices.get(resourceNo);
-                        int startOffset = localBufferStartIndex + oldBufferEndIndex;
-                        int newBuffEndIndex = startOffset - offset;
-                        
-                        // we are anyway copying the -value as well
-                        if (newBuffEndIndex >= 0) {
-                            newResourceEndingBufferIndices.put(resourceNo, newBuffEndIndex);
-                        }
-                    }
-                    
-                    resourceEndingBufferIndices = newResourceEndingBufferIndices;
+                    resourceEndingBufferIndices = shiftBufferIndices(resourceEndingBufferIndices, clearedLength);
                 }
-                
+
                 localBufferStartIndex = offset;
-                localBuffer = newLocalBuffer;
+                localBufferHead += clearedLength;
+                localBufferSize -= clearedLength;
             }
         }
     }
 
+    // Method to shift buffer indices after clearing the head of the buffer, dropping the indices
+    // that were cleared.
+    private static Map<Integer, Integer> shiftBufferIndices(Map<Integer, Integer> bufferIndices, int clearedLength) {
+        Map<Integer, Integer> newBufferIndices = new HashMap<Integer, Integer>();
+
+        for (Map.Entry<Integer, Integer> entry : bufferIndices.entrySet()) {
+            int newBufferIndex = entry.getValue() - clearedLength;
+            // we are anyway copying the -value as well
+            if (newBufferIndex >= 0) {
+                newBufferIndices.put(entry.getKey(), newBufferIndex);
+            }
+        }
+        return newBufferIndices;
+    }
+
     /**
-     * Return the total number of read bytes from the main reader.
+     * Return the total number of characters read from the main reader during this restore.
      *
-     * @return the total number of read bytes.
+     * @return the total number of read characters.
      */
-    public static int getTotalRead() {
-        return totalRead;
+    public long getTotalRead() {
+        return statistics.totalRead;
     }
 
     /**
-     * Return the total number of buffered bytes from the main reader.
+     * Return the total number of characters buffered from the main reader during this restore.
      *
-     * @return the total number of buffed bytes.
+     * @return the total number of buffered characters.
      */
-    public static int getTotalBuffered() {
-        return totalBuffered;
+    public long getTotalBuffered() {
+        return statistics.totalBuffered;
     }
 
     /**
-     * Return the maximum size of the buffer when reading from the main reader.
+     * Return the maximum size of the buffer when reading from the main reader during this restore.
      *
      * @return the maximum size of the buffer.
      */
-    public static int getMaxBufferedSize() {
-        return maximumBuffer;
+    public long getMaxBufferedSize() {
+        return statistics.maximumBuffer;
     }
 
     /**
-     * Return the total number of bytes read from the buffer (buffered when reading from the main
-     * reader)
+     * Return the total number of characters read from the buffer (buffered when reading from the
+     * main reader) during this restore.
      *
-     * @return the total number of bytes read from the buffer.
+     * @return the total number of characters read from the buffer.
      */
-    public static int getTotalBufferedRead() {
-        return totalBufferedRead;
+    public long getTotalBufferedRead() {
+        return statistics.totalBufferedRead;
+    }
+
+    // The statistics of a restore, which are collected by the dump reader of the main reader.
+    private static final class Statistics {
+
+        private long totalRead = 0;
+        private long totalBuffered = 0;
+        private long maximumBuffer = 0;
+        private long totalBufferedRead = 0;
     }
 }
@@ -164,4 +164,63 @@ public class InternalConstants {
 	 * The media type for XSDs
 	 */
 	public static final String XSD_MEDIA_TYPE = "application/x-xsd+xml";
+
+	/**
+	 * The default number of bytes of resource content that is kept in memory when reading content
+	 * from the database. Larger content is spooled to a temporary file.
+	 */
+	public static final int DEFAULT_CONTENT_BUFFER_THRESHOLD = 1024 * 1024;
+
+	/**
+	 * The default number of ids reserved at once by the block based id allocator.
+	 */
+	public static final int DEFAULT_ID_BLOCK_SIZE = 100;
+
+	/**
+	 * The default maximum number of log records waiting to be written to the database.
+	 */
+	public static final int DEFAULT_LOG_QUEUE_CAPACITY = 10000;
+
+	/**
+	 * The default maximum number of log records written to the database at once.
+	 */
+	public static final int DEFAULT_LOG_BATCH_SIZE = 500;
+
+	/**
+	 * The default maximum time in milliseconds a log record waits before being written to the
+	 * database.
+	 */
+	public static final long DEFAULT_LOG_FLUSH_INTERVAL = 10 * 1000;
+
+	/**
+	 * The default number of threads that dump and restore the sub trees of a binary archive.
+	 */
+	public static final int DEFAULT_ARCHIVE_WORKERS = 1;
+
+	/**
+	 * The default maximum number of missing paths kept by the negative lookup cache, once it is
+	 * configured.
+	 */
+	public static final int DEFAULT_NEGATIVE_LOOKUP_CACHE_SIZE = 10000;
+
+	/**
+	 * The default time in milliseconds a missing path is kept by the negative lookup cache.
+	 */
+	public static final long DEFAULT_NEGATIVE_LOOKUP_CACHE_TTL = 30 * 1000;
+
+	/**
+	 * The maximum number of prepared statements of custom queries kept open for reuse on a
+	 * database connection.
+	 */
+	public static final int MAX_CACHED_STATEMENTS = 20;
+
+	/**
+	 * The maximum number of path ids resolved by a single query when reading paths in bulk.
+	 */
+	public static final int MAX_PATH_IDS_PER_QUERY = 500;
+
+	/**
+	 * The number of resources after which the progress of archiving a collection is logged.
+	 */
+	public static final int SNAPSHOT_PROGRESS_INTERVAL = 10000;
 }
@@ -58,6 +58,7 @@ import org.wso2.carbon.repository.core.ResourceImpl;
 import org.wso2.carbon.repository.core.caching.CacheResource;
 import org.wso2.carbon.repository.core.caching.RepositoryCacheEntry;
 import org.wso2.carbon.repository.core.caching.RepositoryCacheKey;
+import org.wso2.carbon.repository.core.caching.RepositoryCacheKeyFactory;
 import org.wso2.carbon.repository.core.config.RemoteConfiguration;
 import org.wso2.carbon.repository.core.config.RepositoryContext;
 import org.wso2.carbon.repository.core.config.StaticConfiguration;
@@ -171,14 +172,7 @@ public class InternalUtils {
      * @return the cache key.
      */
     public static RepositoryCacheKey buildRegistryCacheKey(String connectionId, int tenantId, String resourcePath) {
-        RepositoryContext registryContext = RepositoryContext.getBaseInstance();
-        String absoluteLocalRepositoryPath = getAbsolutePath(registryContext, RepositoryConstants.LOCAL_REPOSITORY_BASE_PATH);
-        
-        if (resourcePath != null && resourcePath.startsWith(absoluteLocalRepositoryPath)) {
-            return new RepositoryCacheKey(resourcePath, tenantId, registryContext.getNodeIdentifier() + ":" + connectionId.toLowerCase());
-        } else {
-            return new RepositoryCacheKey(resourcePath, tenantId, connectionId.toLowerCase());
-        }
+        return RepositoryCacheKeyFactory.getInstance(connectionId).buildKey(tenantId, resourcePath);
     }
     
     /**
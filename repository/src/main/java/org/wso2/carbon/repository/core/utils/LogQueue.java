@@ -21,7 +21,7 @@ package org.wso2.carbon.repository.core.utils;
 import java.util.concurrent.LinkedBlockingQueue;
 
 /**
- * Implementation of a Queue for logs.
+ * Implementation of a bounded Queue for logs.
  */
 public class LogQueue extends LinkedBlockingQueue<Object> {
 
@@ -30,6 +30,22 @@ public class LogQueue extends LinkedBlockingQueue<Object> {
 	 */
 	private static final long serialVersionUID = 1L;
 
+    /**
+     * Creates a queue with the default capacity.
+     */
+    public LogQueue() {
+        this(InternalConstants.DEFAULT_LOG_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Creates a queue with the given capacity.
+     *
+     * @param capacity the maximum number of items in the queue.
+     */
+    public LogQueue(int capacity) {
+        super(capacity);
+    }
+
 	/**
      * Clears to queue.
      */
@@ -18,27 +18,68 @@
 
 package org.wso2.carbon.repository.core.utils;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.repository.api.exceptions.RepositoryException;
 import org.wso2.carbon.repository.api.utils.Actions;
 import org.wso2.carbon.repository.core.CurrentContext;
+import org.wso2.carbon.repository.core.config.LogWriterConfiguration;
 import org.wso2.carbon.repository.spi.dao.LogsDAO;
 import org.wso2.carbon.repository.spi.dataaccess.DataAccessManager;
 
 /**
- * Writes log records to the database on a separate thread
+ * Writes log records to the database on a separate thread. Records are taken from a bounded queue
+ * in batches of at most the configured batch size, and a batch is written once it is full or once
+ * its first record has waited for the configured flush interval. When the queue is full, records
+ * are handled according to the configured {@link LogWriterConfiguration.OverflowPolicy}. On
+ * {@link #shutdown()}, all the queued and spilled records are written before the thread ends, and
+ * records queued by threads that were already adding them when the writer thread ended are
+ * written by those threads.
  */
 public class LogWriter extends Thread {
 
     private static final Log log = LogFactory.getLog(LogWriter.class);
-    private static final int DEFAULT_SLEEP_TIME = 10 * 1000;
+
+    private static final String SPILL_FILE_PREFIX = "repository-logs-";
+    private static final String SPILL_FILE_SUFFIX = ".spill";
 
     private LogQueue logQueue = null;
     private DataAccessManager dataAccessManager = null;
-    private boolean canWriteLogs = true;
+    private volatile boolean canWriteLogs = true;
+    private volatile boolean shuttingDown = false;
+    // set once the writer thread no longer takes records from the queue.
+    private volatile boolean writerDone = false;
+
+    private int batchSize;
+    private long flushInterval;
+    private LogWriterConfiguration.OverflowPolicy overflowPolicy;
+
+    private final Object spillLock = new Object();
+    private File spillFile = null;
+    private DataOutputStream spillOutputStream = null;
+
+    private final AtomicLong droppedRecordCount = new AtomicLong();
+    private final AtomicLong spilledRecordCount = new AtomicLong();
+    private final AtomicLong writtenRecordCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong totalFlushTime = new AtomicLong();
+    private volatile int lastBatchSize = 0;
+    private volatile long lastFlushTime = 0;
 
     public boolean isCanWriteLogs() {
         return canWriteLogs;
@@ -55,8 +96,24 @@ public class LogWriter extends Thread {
      *                          database.
      */
     public LogWriter(LogQueue logQueue, DataAccessManager dataAccessManager) {
+        this(logQueue, dataAccessManager, new LogWriterConfiguration());
+    }
+
+    /**
+     * Constructor accepting a queue of logs and the configuration of the writer.
+     *
+     * @param logQueue          the queue of logs.
+     * @param dataAccessManager the manager class that can be used to obtain access to the back-end
+     *                          database.
+     * @param configuration     the configuration of the writer.
+     */
+    public LogWriter(LogQueue logQueue, DataAccessManager dataAccessManager,
+                     LogWriterConfiguration configuration) {
         this.logQueue = logQueue;
         this.dataAccessManager = dataAccessManager;
+        this.batchSize = Math.max(1, configuration.getBatchSize());
+        this.flushInterval = Math.max(1, configuration.getFlushInterval());
+        this.overflowPolicy = configuration.getOverflowPolicy();
         this.setName("RegistryLogWritter");
     }
 
@@ -85,6 +142,26 @@ public class LogWriter extends Thread {
         super.start();
     }
 
+    /**
+     * Stops accepting log records, and writes the queued and spilled records before the writer
+     * thread ends.
+     */
+    public void shutdown() {
+        canWriteLogs = false;
+        shuttingDown = true;
+        interrupt();
+    }
+
+    /**
+     * Method to determine whether all the log records have been written after a
+     * {@link #shutdown()}.
+     *
+     * @return true if the writer thread has ended.
+     */
+    public boolean isShutdownComplete() {
+        return shuttingDown && !isAlive();
+    }
+
     /**
      * The main business logic.
      */
@@ -93,39 +170,264 @@ public class LogWriter extends Thread {
     }
 
     public void logWrite() {
-        while (true) {
-            if (logQueue != null && !logQueue.isEmpty() && dataAccessManager != null) {
-                int queueLength = logQueue.size();
-                LogRecord[] logRecords = new LogRecord[queueLength];
-                
-                for (int a = 0; a < queueLength; a++) {
-                    LogRecord logRecord = (LogRecord) logQueue.poll();
-                    logRecords[a] = logRecord;
+        List<Object> batch = new ArrayList<Object>(batchSize);
+        try {
+            while (!shuttingDown && !isInterrupted()) {
+                Object logRecord = logQueue.poll(flushInterval, TimeUnit.MILLISECONDS);
+                if (logRecord != null) {
+                    batch.add(logRecord);
+                    fillBatch(batch);
+                    writeBatch(batch);
                 }
-                
-                LogsDAO logsDAO = dataAccessManager.getDAOManager().getLogsDAO();
-                
-                try {
-                    logsDAO.saveLogBatch(logRecords);
-                } catch (RepositoryException e) {
-                    log.error("Unable to save log records", e);
+                if (logQueue.isEmpty()) {
+                    writeSpilledRecords(batch);
                 }
-            } else if (isInterrupted()) {
+            }
+        } catch (InterruptedException ignore) {
+            // the writer has been asked to stop, the remaining records are written below.
+        }
+
+        writeBatch(batch);
+        writeQueuedRecords(batch);
+        // records queued from now on are written by the threads adding them, but records queued
+        // before these threads could see this flag are written here.
+        writerDone = true;
+        writeQueuedRecords(batch);
+    }
+
+    // Writes all the queued and spilled records.
+    private void writeQueuedRecords(List<Object> batch) {
+        while (logQueue.drainTo(batch, batchSize) > 0) {
+            writeBatch(batch);
+        }
+        writeSpilledRecords(batch);
+    }
+
+    // Adds queued records to the batch until it is full, or until the flush interval has passed.
+    private void fillBatch(List<Object> batch) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + flushInterval;
+        while (batch.size() < batchSize) {
+            logQueue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.currentTimeMillis();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                break;
+            }
+            Object logRecord = logQueue.poll(remaining, TimeUnit.MILLISECONDS);
+            if (logRecord == null) {
                 break;
             }
+            batch.add(logRecord);
+        }
+    }
+
+    private void writeBatch(List<Object> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        LogRecord[] logRecords = batch.toArray(new LogRecord[batch.size()]);
+        batch.clear();
+
+        if (dataAccessManager == null) {
+            log.error("Unable to save " + logRecords.length + " log records. " +
+                    "No data access manager is available.");
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        try {
+            LogsDAO logsDAO = dataAccessManager.getDAOManager().getLogsDAO();
+            logsDAO.saveLogBatch(logRecords);
+            writtenRecordCount.addAndGet(logRecords.length);
+        } catch (RepositoryException e) {
+            log.error("Unable to save log records", e);
+        } finally {
+            long flushTime = System.currentTimeMillis() - startTime;
+            lastBatchSize = logRecords.length;
+            lastFlushTime = flushTime;
+            batchCount.incrementAndGet();
+            totalFlushTime.addAndGet(flushTime);
+            if (log.isDebugEnabled()) {
+                log.debug("Wrote a batch of " + logRecords.length + " log records in " +
+                        flushTime + "ms. " + logQueue.size() + " log records are queued.");
+            }
+        }
+    }
+
+    // Writes the records that were spilled to disk while the queue was full.
+    private void writeSpilledRecords(List<Object> batch) {
+        File file;
+        synchronized (spillLock) {
+            if (spillFile == null) {
+                return;
+            }
+            file = spillFile;
+            try {
+                spillOutputStream.close();
+            } catch (IOException e) {
+                log.error("Failed to close the spilled log records at " + file.getPath(), e);
+            }
+            spillFile = null;
+            spillOutputStream = null;
+        }
 
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            while (true) {
+                LogRecord logRecord;
+                try {
+                    logRecord = readLogRecord(in);
+                } catch (EOFException e) {
+                    break;
+                }
+                batch.add(logRecord);
+                if (batch.size() >= batchSize) {
+                    writeBatch(batch);
+                }
+            }
+            writeBatch(batch);
+        } catch (IOException e) {
+            log.error("Failed to read the spilled log records at " + file.getPath(), e);
+            batch.clear();
+        } finally {
             try {
-                if (!isInterrupted()) {
-                    sleep(DEFAULT_SLEEP_TIME);
+                if (in != null) {
+                    in.close();
                 }
-            } catch (InterruptedException e) {
-                if (logQueue == null || logQueue.isEmpty()) {
-                    break;
+            } catch (IOException e) {
+                log.error("Failed to close the spilled log records at " + file.getPath(), e);
+            }
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    private boolean spill(LogRecord logRecord) {
+        synchronized (spillLock) {
+            try {
+                if (spillOutputStream == null) {
+                    spillFile = File.createTempFile(SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX);
+                    spillOutputStream = new DataOutputStream(new BufferedOutputStream(
+                            new FileOutputStream(spillFile)));
                 }
+                writeLogRecord(spillOutputStream, logRecord);
+                spilledRecordCount.incrementAndGet();
+                return true;
+            } catch (IOException e) {
+                log.error("Failed to spill a log record of " + logRecord.getResourcePath() +
+                        " to disk.", e);
             }
         }
+        droppedRecordCount.incrementAndGet();
+        return false;
+    }
+
+    private static void writeLogRecord(DataOutputStream out, LogRecord logRecord)
+            throws IOException {
+        writeString(out, logRecord.getResourcePath());
+        writeString(out, logRecord.getUserName());
+        out.writeLong(logRecord.getTimestamp().getTime());
+        writeString(out, logRecord.getAction() == null ? null : logRecord.getAction().name());
+        writeString(out, logRecord.getActionData());
+        out.writeInt(logRecord.getTenantId());
+    }
+
+    private static LogRecord readLogRecord(DataInputStream in) throws IOException {
+        LogRecord logRecord = new LogRecord();
+        logRecord.setResourcePath(readString(in));
+        logRecord.setUserName(readString(in));
+        logRecord.setTimestamp(new Date(in.readLong()));
+        String action = readString(in);
+        logRecord.setAction(action == null ? null : Actions.valueOf(action));
+        logRecord.setActionData(readString(in));
+        logRecord.setTenantId(in.readInt());
+        return logRecord;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * Method to obtain the number of log records waiting in the queue.
+     *
+     * @return the queue depth.
+     */
+    public int getQueueDepth() {
+        return logQueue == null ? 0 : logQueue.size();
+    }
+
+    /**
+     * Method to obtain the number of log records discarded because the queue was full.
+     *
+     * @return the number of dropped log records.
+     */
+    public long getDroppedRecordCount() {
+        return droppedRecordCount.get();
+    }
+
+    /**
+     * Method to obtain the number of log records spilled to disk because the queue was full.
+     *
+     * @return the number of spilled log records.
+     */
+    public long getSpilledRecordCount() {
+        return spilledRecordCount.get();
+    }
+
+    /**
+     * Method to obtain the number of log records written to the database.
+     *
+     * @return the number of written log records.
+     */
+    public long getWrittenRecordCount() {
+        return writtenRecordCount.get();
+    }
+
+    /**
+     * Method to obtain the number of batches written to the database.
+     *
+     * @return the number of batches.
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * Method to obtain the number of log records in the last batch.
+     *
+     * @return the size of the last batch.
+     */
+    public int getLastBatchSize() {
+        return lastBatchSize;
     }
 
+    /**
+     * Method to obtain the time taken to write the last batch.
+     *
+     * @return the flush time in milliseconds.
+     */
+    public long getLastFlushTime() {
+        return lastFlushTime;
+    }
+
+    /**
+     * Method to obtain the average time taken to write a batch.
+     *
+     * @return the average flush time in milliseconds.
+     */
+    public double getAverageFlushTime() {
+        long batches = batchCount.get();
+        return batches == 0 ? 0 : (double) totalFlushTime.get() / batches;
+    }
 
     /**
      * Adds log record to queue
@@ -155,7 +457,34 @@ public class LogWriter extends Thread {
             logRecord.setActionData(actionData);
             logRecord.setTenantId(CurrentContext.getTenantId());
 
-            logQueue.add(logRecord);
+            boolean queued = logQueue.offer(logRecord);
+
+            if (!queued) {
+                if (overflowPolicy == LogWriterConfiguration.OverflowPolicy.SPILL) {
+                    queued = spill(logRecord);
+                } else if (overflowPolicy == LogWriterConfiguration.OverflowPolicy.DROP) {
+                    droppedRecordCount.incrementAndGet();
+                    if (log.isDebugEnabled()) {
+                        log.debug("The log queue is full. Dropped the log record of " + resourcePath);
+                    }
+                } else {
+                    try {
+                        logQueue.put(logRecord);
+                        queued = true;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        droppedRecordCount.incrementAndGet();
+                        log.warn("Interrupted while waiting for space in the log queue. " +
+                                "Dropped the log record of " + resourcePath);
+                    }
+                }
+            }
+
+            if (queued && writerDone) {
+                // the writer thread ended while this record was being added, so the record is
+                // written by this thread instead.
+                writeQueuedRecords(new ArrayList<Object>(batchSize));
+            }
         }
 	}
 }
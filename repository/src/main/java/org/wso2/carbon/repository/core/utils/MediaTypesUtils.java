@@ -29,6 +29,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -39,10 +40,18 @@ import org.wso2.carbon.repository.api.exceptions.RepositoryErrorCodes;
 import org.wso2.carbon.repository.api.exceptions.RepositoryException;
 import org.wso2.carbon.repository.api.exceptions.RepositoryUserContentException;
 import org.wso2.carbon.repository.api.utils.RepositoryUtils;
+import org.wso2.carbon.repository.core.CurrentContext;
+import org.wso2.carbon.repository.core.config.RepositoryContext;
 import org.wso2.carbon.utils.CarbonUtils;
 
 /**
  * Utility class for managing and fetching media types.
+ * <p/>
+ * The resource media types are kept as immutable maps from extensions to media types, one for each
+ * tenant that set its own media types and a default one, which are replaced as a whole whenever
+ * the media types are set. Extensions that contain dots, such as <code>tar.gz</code>, are kept in a
+ * trie of their reversed characters, so that the longest such extension of a resource name is
+ * found in a single pass.
  */
 @SuppressWarnings("unused")
 public class MediaTypesUtils {
@@ -70,6 +79,14 @@ public class MediaTypesUtils {
     public static String resourceMediaTypeMappings = null ;
     public static String collectionMediaTypeMappings = null;
 
+    // The tenant identifier used when the media types are set outside of a tenant's session.
+    private static final int NO_TENANT_ID = -1;
+
+    private static volatile ResourceMediaTypes defaultResourceMediaTypes = null;
+
+    private static final Map<Integer, ResourceMediaTypes> tenantResourceMediaTypes =
+            new ConcurrentHashMap<Integer, ResourceMediaTypes>();
+
     /**
      * Method to obtain the collection media types.
      *
@@ -83,7 +100,6 @@ public class MediaTypesUtils {
     		return configSystemRegistry.getCollectionMediaTypes();
 
         Resource resource;
-        String mediaTypeString = null;
 
         String resourcePath = MIME_TYPE_COLLECTION + RepositoryConstants.PATH_SEPARATOR + RESOURCE_MIME_TYPE_INDEX;
         
@@ -100,18 +116,7 @@ public class MediaTypesUtils {
             resource = configSystemRegistry.get(resourcePath + RepositoryConstants.PATH_SEPARATOR + COLLECTION_MIME_TYPE_INDEX);
         }
 
-        for (String key : resource.getPropertyKeys()) {
-            if (RepositoryUtils.isHiddenProperty(key)) {
-                continue;
-            }
-            String value = resource.getPropertyValue(key);
-            String mediaTypeMapping = key + ":" + value;
-            if (mediaTypeString == null) {
-                mediaTypeString = mediaTypeMapping;
-            } else {
-                mediaTypeString = mediaTypeString + "," + mediaTypeMapping;
-            }
-        }
+        String mediaTypeString = getMediaTypeMappings(resource);
 
         configSystemRegistry.setCollectionMediaTypes(mediaTypeString);
         MediaTypesUtils.setCollectionMediaTypes(mediaTypeString);
@@ -133,7 +138,6 @@ public class MediaTypesUtils {
     	}
 
         Resource resource;
-        String mediaTypeString = null;
 
         String resourcePath = MIME_TYPE_COLLECTION + RepositoryConstants.PATH_SEPARATOR + RESOURCE_MIME_TYPE_INDEX;
 
@@ -152,18 +156,7 @@ public class MediaTypesUtils {
             resource = configSystemRegistry.get(resourcePath + RepositoryConstants.PATH_SEPARATOR + CUSTOM_UI_MIME_TYPE_INDEX);
         }
 
-        for (String key : resource.getPropertyKeys()) {
-            if (RepositoryUtils.isHiddenProperty(key)) {
-                continue;
-            }
-            String value = resource.getPropertyValue(key);
-            String mediaTypeMapping = key + ":" + value;
-            if (mediaTypeString == null) {
-                mediaTypeString = mediaTypeMapping;
-            } else {
-                mediaTypeString = mediaTypeString + "," + mediaTypeMapping;
-            }
-        }
+        String mediaTypeString = getMediaTypeMappings(resource);
 
         configSystemRegistry.setCustomUIMediaTypes(mediaTypeString);
         
@@ -194,20 +187,7 @@ public class MediaTypesUtils {
             resource = configSystemRegistry.newCollection();
         } else {
             resource = configSystemRegistry.get(resourcePath);
-
-            for (String key : resource.getPropertyKeys()) {
-                if (RepositoryUtils.isHiddenProperty(key)) {
-                    continue;
-                }
-                String value = resource.getPropertyValue(key);
-                String mediaTypeMapping = key + ":" + value;
-
-                if (mediaTypeString == null) {
-                    mediaTypeString = mediaTypeMapping;
-                } else {
-                    mediaTypeString = mediaTypeString + "," + mediaTypeMapping;
-                }
-            }
+            mediaTypeString = getMediaTypeMappings(resource);
 
             configSystemRegistry.setResourceMediaTypes(mediaTypeString);
             MediaTypesUtils.setResourceMediaTypes(mediaTypeString);
@@ -230,6 +210,7 @@ public class MediaTypesUtils {
             return mediaTypeString;
         }
 
+        StringBuilder mediaTypeMappings = new StringBuilder();
         try {
             while (reader.ready()) {
                 String mediaTypeData = reader.readLine().trim();
@@ -256,14 +237,11 @@ public class MediaTypesUtils {
                         
                         for (String extension : extensions) {
                             if (extension.length() > 0) {
-                                String mediaTypeMapping = extension + ":" + parts[0];
-                                resource.setProperty(extension, parts[0]
-                                		);
-                                if (mediaTypeString == null) {
-                                    mediaTypeString = mediaTypeMapping;
-                                } else {
-                                    mediaTypeString = mediaTypeString + "," + mediaTypeMapping;
+                                resource.setProperty(extension, parts[0]);
+                                if (mediaTypeMappings.length() > 0) {
+                                    mediaTypeMappings.append(',');
                                 }
+                                mediaTypeMappings.append(extension).append(':').append(parts[0]);
                             }
                         }
                     }
@@ -281,6 +259,9 @@ public class MediaTypesUtils {
             
             configSystemRegistry.put(MIME_TYPE_COLLECTION, collection);
             configSystemRegistry.put(resourcePath, resource);
+            if (mediaTypeMappings.length() > 0) {
+                mediaTypeString = mediaTypeMappings.toString();
+            }
         } catch (IOException e) {
             String msg = "Could not read the media type mappings file from the location: ";
             throw new RepositoryUserContentException(msg, e, RepositoryErrorCodes.UNAVAILABLE_FILE_REFERRED);
@@ -310,8 +291,7 @@ public class MediaTypesUtils {
             return null;
         }
         
-        String extension = resourceName.substring(resourceName.lastIndexOf('.') + 1).toLowerCase();
-        String mediaTypes = MediaTypesUtils.getResourceMediaTypes();
+        ResourceMediaTypes mediaTypes = getCurrentResourceMediaTypes();
         
         if (mediaTypes == null) {
             // We don't treat this as an error, since some collections and resources would be
@@ -320,19 +300,71 @@ public class MediaTypesUtils {
             return null;
         }
         
-        extension += ":";
-        
-        if (mediaTypes.contains(extension)) {
-            String temp = mediaTypes.substring(mediaTypes.indexOf(extension) + extension.length());
-            
-            if (temp.indexOf(',') == -1) {
-                return temp;
-            } else {
-                return temp.substring(0, temp.indexOf(','));
+        return mediaTypes.getMediaType(resourceName.toLowerCase());
+    }
+
+    // Method to obtain the resource media types of the tenant of the current session, or the
+    // default ones if the tenant has not set its own.
+    private static ResourceMediaTypes getCurrentResourceMediaTypes() {
+        int tenantId = CurrentContext.getTenantId();
+        if (tenantId != NO_TENANT_ID) {
+            ResourceMediaTypes mediaTypes = tenantResourceMediaTypes.get(tenantId);
+            if (mediaTypes != null) {
+                return mediaTypes;
             }
         }
-        
-        return null;
+        return defaultResourceMediaTypes;
+    }
+
+    // Method to build the media type mappings held as the properties of a resource, in the format
+    // name:type,name:type,...
+    private static String getMediaTypeMappings(Resource resource) {
+        StringBuilder mediaTypeMappings = new StringBuilder();
+        for (String key : resource.getPropertyKeys()) {
+            if (RepositoryUtils.isHiddenProperty(key)) {
+                continue;
+            }
+            if (mediaTypeMappings.length() > 0) {
+                mediaTypeMappings.append(',');
+            }
+            mediaTypeMappings.append(key).append(':').append(resource.getPropertyValue(key));
+        }
+        return (mediaTypeMappings.length() > 0) ? mediaTypeMappings.toString() : null;
+    }
+
+    /**
+     * Method to obtain the codec that is applied to the content of resources of a given media type
+     * when it is written to the database. Codecs are configured per media type, or for all media
+     * types of a given top-level type such as <code>text/*</code>, or for any media type using
+     * <code>*&#47;*</code>.
+     *
+     * @param mediaType the media type of the resource.
+     *
+     * @return the codec, or null if the content is written as it is.
+     */
+    public static ContentCodec getContentCodec(String mediaType) {
+        RepositoryContext repositoryContext = RepositoryContext.getBaseInstance();
+        if (repositoryContext == null || repositoryContext.getContentCodecs().isEmpty()) {
+            return null;
+        }
+        Map<String, String> contentCodecs = repositoryContext.getContentCodecs();
+
+        String codecName = null;
+        if (mediaType != null) {
+            String type = mediaType;
+            if (type.indexOf(';') != -1) {
+                type = type.substring(0, type.indexOf(';'));
+            }
+            type = type.trim().toLowerCase();
+            codecName = contentCodecs.get(type);
+            if (codecName == null && type.indexOf('/') > 0) {
+                codecName = contentCodecs.get(type.substring(0, type.indexOf('/')) + "/*");
+            }
+        }
+        if (codecName == null) {
+            codecName = contentCodecs.get("*/*");
+        }
+        return (codecName != null) ? ContentCodecs.getCodec(codecName) : null;
     }
 
     // Method to obtain the media types file.
@@ -521,19 +553,33 @@ public class MediaTypesUtils {
 	/**
 	 * Method to obtain resource media types.
 	 *
-	 * @return the resource media types.
+	 * @return the resource media types of the tenant of the current session.
 	 */
 	public static String getResourceMediaTypes() throws RepositoryException {
-		return resourceMediaTypeMappings;
+		ResourceMediaTypes mediaTypes = getCurrentResourceMediaTypes();
+		return (mediaTypes != null) ? mediaTypes.mappings : null;
 	}
 
 	/**
-	 * Method to set resource media types.
+	 * Method to set resource media types. Media types set in a tenant's session apply to that
+	 * tenant, and media types set outside of a session apply to tenants that have not set their
+	 * own.
 	 *
-	 * @param resourceMediaTypes the resource media types.
+	 * @param resourceMediaTypes the resource media types, in the format extension:type,...
 	 */
 	public static void setResourceMediaTypes(String resourceMediaTypes) throws RepositoryException {
-		resourceMediaTypeMappings = resourceMediaTypes;
+		ResourceMediaTypes mediaTypes = (resourceMediaTypes != null) ?
+				new ResourceMediaTypes(resourceMediaTypes) : null;
+		int tenantId = CurrentContext.getTenantId();
+
+		if (tenantId == NO_TENANT_ID) {
+			defaultResourceMediaTypes = mediaTypes;
+			resourceMediaTypeMappings = resourceMediaTypes;
+		} else if (mediaTypes != null) {
+			tenantResourceMediaTypes.put(tenantId, mediaTypes);
+		} else {
+			tenantResourceMediaTypes.remove(tenantId);
+		}
 	}
 
 	/**
@@ -553,4 +599,84 @@ public class MediaTypesUtils {
 	public static void setCollectionMediaTypes(String collectionMediaTypes) throws RepositoryException {
 		collectionMediaTypeMappings = collectionMediaTypes;
 	}
+
+    /**
+     * An immutable map of extensions to resource media types.
+     */
+    private static final class ResourceMediaTypes {
+
+        private final String mappings;
+
+        private final Map<String, String> extensions = new HashMap<String, String>();
+
+        // the trie of the reversed extensions that contain dots, which is null if there are none.
+        private final SuffixNode suffixes;
+
+        private ResourceMediaTypes(String mappings) {
+            this.mappings = mappings;
+            SuffixNode suffixTrie = null;
+            for (String mapping : mappings.split(",")) {
+                int separator = mapping.indexOf(':');
+                if (separator <= 0 || separator + 1 >= mapping.length()) {
+                    continue;
+                }
+                String extension = mapping.substring(0, separator).toLowerCase();
+                String mediaType = mapping.substring(separator + 1);
+
+                if (extension.indexOf('.') == -1) {
+                    if (!extensions.containsKey(extension)) {
+                        extensions.put(extension, mediaType);
+                    }
+                    continue;
+                }
+                if (suffixTrie == null) {
+                    suffixTrie = new SuffixNode();
+                }
+                SuffixNode node = suffixTrie;
+                for (int i = extension.length() - 1; i >= 0; i--) {
+                    node = node.getChild(extension.charAt(i), true);
+                }
+                if (node.mediaType == null) {
+                    node.mediaType = mediaType;
+                }
+            }
+            suffixes = suffixTrie;
+        }
+
+        // Method to obtain the media type of a resource name, given in lower case, using its
+        // longest extension that has a media type.
+        private String getMediaType(String resourceName) {
+            if (suffixes != null) {
+                String mediaType = null;
+                SuffixNode node = suffixes;
+                for (int i = resourceName.length() - 1; i > 0 && node != null; i--) {
+                    node = node.getChild(resourceName.charAt(i), false);
+                    if (node != null && node.mediaType != null && resourceName.charAt(i - 1) == '.') {
+                        mediaType = node.mediaType;
+                    }
+                }
+                if (mediaType != null) {
+                    return mediaType;
+                }
+            }
+            return extensions.get(resourceName.substring(resourceName.lastIndexOf('.') + 1));
+        }
+    }
+
+    // A node of the trie of reversed extensions.
+    private static final class SuffixNode {
+
+        private final Map<Character, SuffixNode> children = new HashMap<Character, SuffixNode>();
+
+        private String mediaType = null;
+
+        private SuffixNode getChild(char c, boolean create) {
+            SuffixNode child = children.get(c);
+            if (child == null && create) {
+                child = new SuffixNode();
+                children.put(c, child);
+            }
+            return child;
+        }
+    }
 }
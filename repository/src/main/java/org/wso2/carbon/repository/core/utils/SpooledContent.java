@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) 2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.repository.core.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.repository.api.RepositoryConstants;
+import org.wso2.carbon.repository.api.exceptions.RepositoryException;
+import org.wso2.carbon.repository.api.utils.RepositoryUtils;
+import org.wso2.carbon.repository.core.config.RepositoryContext;
+import org.wso2.carbon.repository.core.exceptions.RepositoryServerContentException;
+
+/**
+ * Resource content that has been spooled to a temporary file, because it was larger than the
+ * configured content buffer threshold. The content can be read any number of times through
+ * {@link #getInputStream()}. The temporary file is removed when the last stream over the content
+ * is closed, unless the content has been retained by a resource, in which case it is removed once
+ * every resource retaining it has released it and the last stream is closed. The files of content
+ * that is never released are removed once the content is no longer referenced, or when the server
+ * shuts down.
+ * <p/>
+ * Content read from the database is passed through {@link #getContentStream(InputStream)},
+ * which keeps small content in memory as before and only spools content above the threshold.
+ */
+public class SpooledContent {
+
+    private static final Log log = LogFactory.getLog(SpooledContent.class);
+
+    private static final String TEMP_FILE_PREFIX = "repository-content-";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    // the temporary files of spooled content, which are removed when the content is collected.
+    private static final ReferenceQueue<SpooledContent> collectedContents =
+            new ReferenceQueue<SpooledContent>();
+    private static final Set<SpooledFileReference> spooledFiles =
+            Collections.synchronizedSet(new HashSet<SpooledFileReference>());
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread("SpooledContentCleaner") {
+            public void run() {
+                List<SpooledFileReference> references;
+                synchronized (spooledFiles) {
+                    references = new ArrayList<SpooledFileReference>(spooledFiles);
+                }
+                for (SpooledFileReference reference : references) {
+                    deleteFile(reference.file);
+                }
+            }
+        });
+    }
+
+    private File file;
+    private long length;
+    private SpooledFileReference fileReference;
+    private int openStreams = 0;
+    private int retainCount = 0;
+    private boolean deleted = false;
+
+    private SpooledContent(File file, long length) {
+        this.file = file;
+        this.length = length;
+        fileReference = new SpooledFileReference(this, file);
+        spooledFiles.add(fileReference);
+    }
+
+    /**
+     * Reads the given stream fully and returns a stream over its content, using the content buffer
+     * threshold of the repository context.
+     *
+     * @param inputStream the stream to read.
+     *
+     * @return the stream over the content.
+     * @throws RepositoryException if the operation failed.
+     * @see #getContentStream(InputStream, int)
+     */
+    public static InputStream getContentStream(InputStream inputStream) throws RepositoryException {
+        return getContentStream(inputStream, getContentBufferThreshold());
+    }
+
+    /**
+     * Method to obtain the content buffer threshold of the repository context, which is the number
+     * of bytes of content kept in memory.
+     *
+     * @return the content buffer threshold in bytes.
+     */
+    public static int getContentBufferThreshold() {
+        RepositoryContext registryContext = RepositoryContext.getBaseInstance();
+        return (registryContext != null) ? registryContext.getContentBufferThreshold() :
+                InternalConstants.DEFAULT_CONTENT_BUFFER_THRESHOLD;
+    }
+
+    /**
+     * Reads the given stream fully and returns a stream over its content. Content up to the given
+     * threshold is kept in memory, and larger content is spooled to a temporary file. The given
+     * stream is closed after completing this method.
+     *
+     * @param inputStream the stream to read.
+     * @param threshold   the maximum number of bytes to keep in memory. If this is not a positive
+     *                    number, the content is always kept in memory.
+     *
+     * @return the stream over the content. Spooled content is returned as a
+     *         {@link SpooledInputStream}.
+     * @throws RepositoryException if the operation failed.
+     */
+    public static InputStream getContentStream(InputStream inputStream, int threshold)
+            throws RepositoryException {
+        if (threshold <= 0) {
+            return RepositoryUtils.getMemoryStream(inputStream);
+        }
+
+        deleteCollectedFiles();
+
+        File file = null;
+        OutputStream fileOut = null;
+        try {
+            ByteArrayOutputStream memoryOut = new ByteArrayOutputStream();
+            byte[] contentChunk = new byte[RepositoryConstants.DEFAULT_BUFFER_SIZE];
+            long length = 0;
+            int byteCount;
+
+            while ((byteCount = inputStream.read(contentChunk)) != -1) {
+                length += byteCount;
+                if (fileOut != null) {
+                    fileOut.write(contentChunk, 0, byteCount);
+                } else if (length <= threshold) {
+                    memoryOut.write(contentChunk, 0, byteCount);
+                } else {
+                    file = File.createTempFile(TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX);
+                    fileOut = new FileOutputStream(file);
+                    memoryOut.writeTo(fileOut);
+                    memoryOut = null;
+                    fileOut.write(contentChunk, 0, byteCount);
+                }
+            }
+
+            if (fileOut == null) {
+                return new ByteArrayInputStream(memoryOut.toByteArray());
+            }
+            fileOut.close();
+            fileOut = null;
+
+            if (log.isDebugEnabled()) {
+                log.debug("Spooled " + length + " bytes of content to " + file.getPath() + ".");
+            }
+            SpooledContent spooledContent = new SpooledContent(file, length);
+            file = null;
+            return spooledContent.getInputStream();
+        } catch (IOException e) {
+            String msg = "Failed to spool content stream. " + e.getMessage();
+            log.error(msg, e);
+            throw new RepositoryServerContentException(msg, e);
+        } finally {
+            try {
+                inputStream.close();
+                if (fileOut != null) {
+                    fileOut.close();
+                }
+            } catch (IOException e) {
+                log.error("Failed to close streams used for spooling content.", e);
+            }
+            if (file != null && !file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Method to obtain a new stream over the spooled content.
+     *
+     * @return the stream over the spooled content.
+     * @throws RepositoryException if the spooled content is no longer available.
+     */
+    public synchronized InputStream getInputStream() throws RepositoryException {
+        try {
+            if (deleted) {
+                throw new FileNotFoundException(file.getPath() + " has been deleted.");
+            }
+            InputStream inputStream = new SpooledInputStream(this);
+            openStreams++;
+            return inputStream;
+        } catch (FileNotFoundException e) {
+            String msg = "Spooled content is no longer available at " + file.getPath() + ".";
+            log.error(msg, e);
+            throw new RepositoryServerContentException(msg, e);
+        }
+    }
+
+    /**
+     * Keeps the spooled content after its streams are closed, so that it can be read again. Each
+     * call must be matched by a call to {@link #release()} once the content is no longer needed.
+     */
+    public synchronized void retain() {
+        retainCount++;
+    }
+
+    /**
+     * Releases content kept by {@link #retain()}. The temporary file is removed once the content
+     * has been released as many times as it was retained, and the last stream over it is closed.
+     */
+    public synchronized void release() {
+        if (retainCount > 0) {
+            retainCount--;
+        }
+        deleteIfUnused();
+    }
+
+    /**
+     * Method to read the spooled content into memory.
+     *
+     * @return the content as an array of bytes.
+     * @throws RepositoryException if the operation failed.
+     */
+    public byte[] getBytes() throws RepositoryException {
+        return RepositoryUtils.getByteArray(getInputStream());
+    }
+
+    /**
+     * Method to obtain the length of the spooled content.
+     *
+     * @return the length of the content in bytes.
+     */
+    public long getLength() {
+        return length;
+    }
+
+    // Method called when a stream over the content is closed, which removes the temporary file
+    // once the last stream over content that is not retained is closed.
+    private synchronized void streamClosed() {
+        openStreams--;
+        deleteIfUnused();
+    }
+
+    // Method to remove the temporary file if the content is neither retained nor being read.
+    private void deleteIfUnused() {
+        if (openStreams == 0 && retainCount == 0 && !deleted) {
+            deleted = true;
+            spooledFiles.remove(fileReference);
+            fileReference.clear();
+            deleteFile(file);
+        }
+    }
+
+    // Method to remove the temporary files of spooled content that is no longer referenced. Every
+    // stream returned by getInputStream() holds a reference to its content, so a file is kept for
+    // as long as it is being read.
+    private static void deleteCollectedFiles() {
+        Reference<? extends SpooledContent> reference;
+        while ((reference = collectedContents.poll()) != null) {
+            SpooledFileReference fileReference = (SpooledFileReference) reference;
+            if (spooledFiles.remove(fileReference)) {
+                deleteFile(fileReference.file);
+            }
+        }
+    }
+
+    private static void deleteFile(File file) {
+        if (!file.delete() && file.exists()) {
+            log.warn("Failed to delete spooled content at " + file.getPath() + ".");
+        }
+    }
+
+    // Reference to spooled content, holding the temporary file to remove once the content is
+    // collected.
+    private static final class SpooledFileReference extends PhantomReference<SpooledContent> {
+
+        private final File file;
+
+        private SpooledFileReference(SpooledContent spooledContent, File file) {
+            super(spooledContent, collectedContents);
+            this.file = file;
+        }
+    }
+
+    /**
+     * Stream over content that has been spooled to a temporary file.
+     */
+    public static class SpooledInputStream extends FileInputStream {
+
+        private SpooledContent spooledContent;
+        private boolean closed = false;
+
+        private SpooledInputStream(SpooledContent spooledContent) throws FileNotFoundException {
+            super(spooledContent.file);
+            this.spooledContent = spooledContent;
+        }
+
+        /**
+         * Closes the stream, removing the spooled content if this was the last stream over content
+         * that is not retained.
+         *
+         * @throws IOException if an I/O error occurs.
+         */
+        public void close() throws IOException {
+            boolean wasClosed;
+            synchronized (this) {
+                wasClosed = closed;
+                closed = true;
+            }
+            try {
+                super.close();
+            } finally {
+                if (!wasClosed) {
+                    spooledContent.streamClosed();
+                }
+            }
+        }
+
+        /**
+         * Method to obtain the spooled content read by this stream.
+         *
+         * @return the spooled content.
+         */
+        public SpooledContent getSpooledContent() {
+            return spooledContent;
+        }
+    }
+}
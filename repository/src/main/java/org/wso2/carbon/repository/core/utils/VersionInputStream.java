@@ -16,9 +16,11 @@
 
 package org.wso2.carbon.repository.core.utils;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
+import java.util.zip.Deflater;
 
 /**
  * This is an implementation of an input stream, wrapping the version list content written to the
@@ -26,18 +28,31 @@ import java.util.List;
  * byte stream will then be stored on the database, and will be much more optimal than storing them
  * one by one.
  * <p/>
- * The version retriever can read through such a stream of bytes and obtain the list of versions.
+ * Versions are written in blocks of {@link #BLOCK_SIZE}. The first version of each block is kept
+ * in a block index at the start of the stream and the rest are written as variable-length deltas
+ * from the previous version, so a version at any index can be found without decoding the whole
+ * list. Large lists are also deflated when that makes them smaller. Streams written by earlier
+ * releases held each version as an 8-byte value; the version retriever reads both formats.
  *
  * @see VersionRetriever
  */
 public class VersionInputStream extends InputStream {
 
-    private int available = 0;
+    // Marks a stream in the compact format. Streams of 8-byte versions never begin with this byte,
+    // as versions are positive.
+    static final int FORMAT_MARKER = 0xFF;
+    static final int FORMAT_VERSION = 1;
+    static final int FLAG_DEFLATED = 0x01;
+    static final int HEADER_LENGTH = 3;
+
+    // Number of versions in a block of the block index.
+    static final int BLOCK_SIZE = 128;
+
+    // Lists which encode to fewer bytes than this are not worth deflating.
+    private static final int COMPRESSION_THRESHOLD = 1024;
+
+    private byte[] content;
     private int read = 0;
-    private List<Long> versionList;
-    private static final int SIZE_OF_BYTE = Byte.SIZE;
-    private static final int SIZE_OF_LONG = Long.SIZE;
-    private static final int SIZE_OF_MULTIPLIER = SIZE_OF_LONG / SIZE_OF_BYTE;
 
     /**
      * Creates a version input stream from the given list of versions.
@@ -45,9 +60,17 @@ public class VersionInputStream extends InputStream {
      * @param versionList list of versions.
      */
     public VersionInputStream(List<Long> versionList) {
-        this.versionList = versionList;
-        available = versionList.size() * SIZE_OF_MULTIPLIER;
-        read = 0;
+        this(versionList, true);
+    }
+
+    /**
+     * Creates a version input stream from the given list of versions.
+     *
+     * @param versionList list of versions.
+     * @param compress    whether large lists should be deflated.
+     */
+    public VersionInputStream(List<Long> versionList, boolean compress) {
+        content = encode(versionList, compress);
     }
 
     /**
@@ -57,19 +80,33 @@ public class VersionInputStream extends InputStream {
      * @throws IOException if an error occurs.
      */
     public int read() throws IOException {
-        int nextIndex = read / SIZE_OF_MULTIPLIER;
-        int shiftOffset = SIZE_OF_MULTIPLIER - 1 - read % SIZE_OF_MULTIPLIER;
+        if (read >= content.length) {
+            return -1;
+        }
+        
+        return content[read++] & 0xff;
+    }
 
-        if (nextIndex >= versionList.size()) {
+    /**
+     * Reads a number of bytes from the stream into the given buffer.
+     *
+     * @param buffer the buffer.
+     * @param offset the offset in the buffer at which to start writing.
+     * @param length the maximum number of bytes to read.
+     *
+     * @return the number of bytes read, or -1 if the end of the stream was reached.
+     * @throws IOException if an error occurs.
+     */
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (read >= content.length) {
             return -1;
         }
         
-        long nextVersion = versionList.get(nextIndex);
-        int valueToRead = (int) ((nextVersion >> (shiftOffset * SIZE_OF_BYTE)) & 0xff);
-        read++;
-        available--;
+        int count = Math.min(length, content.length - read);
+        System.arraycopy(content, read, buffer, offset, count);
+        read += count;
         
-        return valueToRead;
+        return count;
     }
 
     /**
@@ -79,6 +116,78 @@ public class VersionInputStream extends InputStream {
      * @throws IOException if an error occurs.
      */
     public int available() throws IOException {
-        return available;
+        return content.length - read;
+    }
+
+    private static byte[] encode(List<Long> versionList, boolean compress) {
+        int count = versionList.size();
+        int blockCount = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        writeVarLong(index, count);
+        writeVarLong(index, BLOCK_SIZE);
+        writeVarLong(index, blockCount);
+        
+        long previous = 0;
+        int blockStart = 0;
+        for (int i = 0; i < count; i++) {
+            long version = versionList.get(i);
+            if (i % BLOCK_SIZE == 0) {
+                writeVarLong(index, version);
+                writeVarLong(index, body.size() - blockStart);
+                blockStart = body.size();
+            } else {
+                long delta = version - previous;
+                writeVarLong(body, (delta << 1) ^ (delta >> 63));
+            }
+            previous = version;
+        }
+
+        byte[] payload = new byte[index.size() + body.size()];
+        System.arraycopy(index.toByteArray(), 0, payload, 0, index.size());
+        System.arraycopy(body.toByteArray(), 0, payload, index.size(), body.size());
+
+        int flags = 0;
+        if (compress && payload.length >= COMPRESSION_THRESHOLD) {
+            byte[] deflated = deflate(payload);
+            if (deflated.length < payload.length) {
+                payload = deflated;
+                flags |= FLAG_DEFLATED;
+            }
+        }
+
+        byte[] encoded = new byte[HEADER_LENGTH + payload.length];
+        encoded[0] = (byte) FORMAT_MARKER;
+        encoded[1] = (byte) FORMAT_VERSION;
+        encoded[2] = (byte) flags;
+        System.arraycopy(payload, 0, encoded, HEADER_LENGTH, payload.length);
+        
+        return encoded;
+    }
+
+    private static byte[] deflate(byte[] payload) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
     }
 }
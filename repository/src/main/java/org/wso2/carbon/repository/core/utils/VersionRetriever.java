@@ -16,14 +16,15 @@
 
 package org.wso2.carbon.repository.core.utils;
 
-import java.io.IOException;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.repository.api.exceptions.RepositoryException;
+import org.wso2.carbon.repository.api.utils.RepositoryUtils;
 import org.wso2.carbon.repository.core.exceptions.RepositoryServerException;
 
 /**
@@ -33,17 +34,31 @@ import org.wso2.carbon.repository.core.exceptions.RepositoryServerException;
  * <p/>
  * This class works hand in hand with the version input stream, where the version input stream
  * persists data to the database, and the version retriever fetches persisted versions from the
- * database.
+ * database. Both the compact format and the earlier format of 8-byte versions can be read.
  *
  * @see VersionInputStream
  */
 public class VersionRetriever {
 
     private InputStream inputStream;
-    private List<Long> versionList;
-    private int maxRetrievedVersion;
+    private byte[] content;
     private static final int SIZE_OF_BYTE = Byte.SIZE;
     private static final int SIZE_OF_LONG = Long.SIZE;
+    private static final int SIZE_OF_MULTIPLIER = SIZE_OF_LONG / SIZE_OF_BYTE;
+
+    // The decoded block index of a stream in the compact format.
+    private boolean decoded;
+    private boolean compact;
+    private int versionCount;
+    private int blockSize;
+    private long[] blockFirstVersions;
+    private int[] blockOffsets;
+
+    // The position reached by the last lookup, so that reading the versions in order does not go
+    // back to the start of the block each time.
+    private int position;
+    private int cursorIndex = -1;
+    private long cursorVersion;
 
     private static Log log = LogFactory.getLog(VersionRetriever.class);
 
@@ -54,8 +69,15 @@ public class VersionRetriever {
      */
     public VersionRetriever(InputStream inputStream) {
         this.inputStream = inputStream;
-        versionList = new ArrayList<Long>();
-        maxRetrievedVersion = -1;
+    }
+
+    /**
+     * Creates a version retriever from the given bytes.
+     *
+     * @param content the versions as bytes.
+     */
+    public VersionRetriever(byte[] content) {
+        this.content = content;
     }
 
     /**
@@ -63,47 +85,159 @@ public class VersionRetriever {
      *
      * @param versionIndex the version index.
      *
-     * @return the version at the given index.
+     * @return the version at the given index, or -1 if there is no such version.
      * @throws RepositoryException if the operation failed.
      */
     public long getVersion(int versionIndex) throws RepositoryException {
-        while (versionIndex > maxRetrievedVersion) {
-            long nextVersion = getNextVersion();
-            
-            if (nextVersion == 0) {
+        decode();
+        
+        if (versionIndex < 0) {
+            return -1;
+        }
+        
+        if (!compact) {
+            if (versionIndex >= versionCount) {
                 return -1;
             }
             
-            versionList.add(nextVersion);
-            maxRetrievedVersion++;
+            int offset = versionIndex * SIZE_OF_MULTIPLIER;
+            long versionValue = 0;
+            for (int i = 0; i < SIZE_OF_MULTIPLIER; i++) {
+                versionValue = (versionValue << SIZE_OF_BYTE) | (content[offset + i] & 0xff);
+            }
+            
+            return versionValue == 0 ? -1 : versionValue;
         }
         
-        return versionList.get(versionIndex);
+        if (versionIndex >= versionCount) {
+            return -1;
+        }
+        
+        int block = versionIndex / blockSize;
+        if (cursorIndex < 0 || cursorIndex > versionIndex || cursorIndex / blockSize != block) {
+            cursorIndex = block * blockSize;
+            cursorVersion = blockFirstVersions[block];
+            position = blockOffsets[block];
+        }
+        
+        while (cursorIndex < versionIndex) {
+            long delta = readVarLong();
+            cursorVersion += (delta >>> 1) ^ -(delta & 1);
+            cursorIndex++;
+        }
+        
+        return cursorVersion;
     }
 
-    // Utility method to obtain next version.
-    private long getNextVersion() throws RepositoryException {
-        // Logic reads the input stream 8 times and build the
-        // 64 bit long value
-        int shiftLimit = SIZE_OF_LONG / SIZE_OF_BYTE;
-        long versionValue = 0;
+    /**
+     * Method to obtain the number of versions held by this retriever.
+     *
+     * @return the number of versions.
+     * @throws RepositoryException if the operation failed.
+     */
+    public int getVersionCount() throws RepositoryException {
+        decode();
+        
+        return versionCount;
+    }
+
+    // Utility method to read the content and the block index, on first use.
+    private void decode() throws RepositoryException {
+        if (decoded) {
+            return;
+        }
+        
+        if (content == null) {
+            content = RepositoryUtils.getByteArray(inputStream);
+            inputStream = null;
+        }
+        
+        if (content.length < VersionInputStream.HEADER_LENGTH ||
+                (content[0] & 0xff) != VersionInputStream.FORMAT_MARKER) {
+            compact = false;
+            versionCount = content.length / SIZE_OF_MULTIPLIER;
+            decoded = true;
+            return;
+        }
+        
+        if (content[1] != VersionInputStream.FORMAT_VERSION) {
+            String msg = "Unsupported version list format " + content[1] + ".";
+            log.error(msg);
+            throw new RepositoryServerException(msg);
+        }
+        
+        if ((content[2] & VersionInputStream.FLAG_DEFLATED) != 0) {
+            content = inflate(content, VersionInputStream.HEADER_LENGTH);
+            position = 0;
+        } else {
+            position = VersionInputStream.HEADER_LENGTH;
+        }
+        
+        compact = true;
+        versionCount = (int) readVarLong();
+        blockSize = (int) readVarLong();
+        int blockCount = (int) readVarLong();
+        blockFirstVersions = new long[blockCount];
+        blockOffsets = new int[blockCount];
+        
+        int offset = 0;
+        for (int i = 0; i < blockCount; i++) {
+            blockFirstVersions[i] = readVarLong();
+            offset += (int) readVarLong();
+            blockOffsets[i] = offset;
+        }
+        
+        for (int i = 0; i < blockCount; i++) {
+            blockOffsets[i] += position;
+        }
+        decoded = true;
+    }
+
+    // Utility method to read a variable-length value at the current position.
+    private long readVarLong() throws RepositoryException {
+        long value = 0;
+        
+        for (int shift = 0; shift < SIZE_OF_LONG; shift += 7) {
+            if (position >= content.length) {
+                break;
+            }
+            
+            int nextByte = content[position++];
+            value |= (long) (nextByte & 0x7F) << shift;
+            if ((nextByte & 0x80) == 0) {
+                return value;
+            }
+        }
+        
+        String msg = "Failed to read the stream to get the version value. The version list is corrupted.";
+        log.error(msg);
+        throw new RepositoryServerException(msg);
+    }
+
+    // Utility method to inflate a deflated version list.
+    private static byte[] inflate(byte[] deflated, int offset) throws RepositoryException {
+        Inflater inflater = new Inflater();
         
         try {
-            for (int i = 0; i < shiftLimit; i++) {
-                int nextByte = inputStream.read();
-                if (i != 0) {
-                    // left shift one byte
-                    versionValue <<= SIZE_OF_BYTE;
+            inflater.setInput(deflated, offset, deflated.length - offset);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(deflated.length * 4);
+            byte[] buffer = new byte[4096];
+            
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Unexpected end of the deflated version list.");
                 }
-                // do 'or' with the current byte.
-                versionValue |= nextByte;
+                out.write(buffer, 0, count);
             }
-        } catch (IOException e) {
+            
+            return out.toByteArray();
+        } catch (DataFormatException e) {
             String msg = "Failed to read the stream to get the version value. " + e.getMessage();
             log.error(msg, e);
             throw new RepositoryServerException(msg, e);
+        } finally {
+            inflater.end();
         }
-        
-        return versionValue;
     }
 }
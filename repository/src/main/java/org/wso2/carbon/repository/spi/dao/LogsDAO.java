@@ -17,6 +17,7 @@
 package org.wso2.carbon.repository.spi.dao;
 
 import org.wso2.carbon.repository.api.Activity;
+import org.wso2.carbon.repository.api.ActivityPage;
 import org.wso2.carbon.repository.api.exceptions.RepositoryException;
 import org.wso2.carbon.repository.core.utils.LogRecord;
 import org.wso2.carbon.repository.spi.dataaccess.DataAccessManager;
@@ -103,4 +104,26 @@ public interface LogsDAO {
      * @throws RepositoryException if an error occurred.
      */
     int getLogsCount(String resourcePath, int action, String userName, Date from, Date to, boolean descending) throws RepositoryException;
+
+    /**
+     * Method to get a page of log entries. The entries are ordered by the time they were logged,
+     * and a page continues after the last entry of the page identified by the given token, instead
+     * of skipping the entries of the previous pages.
+     *
+     * @param resourcePath    the resource path.
+     * @param action          the action in concern.
+     * @param userName        the name of the user who we want to get logs for.
+     * @param from            the starting date.
+     * @param to              the ending date.
+     * @param descending      whether descending or ascending.
+     * @param pageToken       the token of the previous page, or null for the first page.
+     * @param pageLen         the maximum number of entries in the page.
+     * @param countActivities whether to count the matching entries, up to a limit.
+     *
+     * @return the page of log entries.
+     * @throws RepositoryException if an error occurred while obtaining logs.
+     */
+    ActivityPage getLogs(String resourcePath, int action, String userName, Date from, Date to,
+                         boolean descending, String pageToken, int pageLen,
+                         boolean countActivities) throws RepositoryException;
 }
@@ -17,7 +17,10 @@
 package org.wso2.carbon.repository.spi.dao;
 
 import java.io.InputStream;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.wso2.carbon.repository.api.exceptions.RepositoryException;
 import org.wso2.carbon.repository.core.CollectionImpl;
@@ -240,7 +243,8 @@ public interface ResourceDAO {
     ResourceIDImpl createResourceID(String path, ResourceIDImpl parentID, boolean isCollection) throws RepositoryException;
 
     /**
-     * delete the content for a given content id.
+     * delete the content for a given content id. If content deduplication is enabled, the content
+     * is only deleted once it is no longer referenced by any resource.
      *
      * @param contentID content id.
      *
@@ -348,6 +352,29 @@ public interface ResourceDAO {
      */
     ResourceImpl getResourceMetaData(ResourceIDImpl resourceID) throws RepositoryException;
 
+    /**
+     * Method to return the resource meta data (excluding properties, content and children) of a
+     * set of paths, reading the path ids and the resources in as few queries as possible.
+     *
+     * @param paths the paths of the resources
+     *
+     * @return a map of paths to the resource instances with the meta data filled. Paths at which
+     *         no resource exists are not included.
+     * @throws RepositoryException throws if the operation failed.
+     */
+    Map<String, ResourceImpl> getResourcesMetaData(List<String> paths) throws RepositoryException;
+
+    /**
+     * Fill the content, children and properties of a set of resources as done by
+     * {@link #fillResource(ResourceImpl)}, reading the content and properties in as few queries as
+     * possible.
+     *
+     * @param resources the resource objects.
+     *
+     * @throws RepositoryException throws if resource filling failed.
+     */
+    void fillResources(List<ResourceImpl> resources) throws RepositoryException;
+
     /**
      * Method to get resource without setting the resource modified flags on.
      *
@@ -389,7 +416,8 @@ public interface ResourceDAO {
 
     /**
      * Update the content id of a resource, Normally this should be called after calling
-     * addResourceWithoutContentId is called.
+     * addResourceWithoutContentId is called. The current version of the resource is changed in
+     * place, so it must not be archived.
      *
      * @param resourceImpl       the resource object.
      *
@@ -464,7 +492,9 @@ public interface ResourceDAO {
     void addContent(ResourceImpl resourceImpl) throws RepositoryException;
 
     /**
-     * Add the content to the content table and return the auto generated id of content table.
+     * Add the content to the content table and return the auto generated id of content table. If
+     * content deduplication is enabled and the same content has already been added, the id of the
+     * existing content is returned instead.
      *
      * @param contentStream the input stream.
      *
@@ -473,6 +503,30 @@ public interface ResourceDAO {
      */
     int addContentBytes(InputStream contentStream) throws RepositoryException;
 
+    /**
+     * Add the content to the content table and return the auto generated id of content table. The
+     * content is encoded with the codec that is configured for the given media type.
+     *
+     * @param contentStream the input stream.
+     * @param mediaType     the media type of the resource, or null if it is not known.
+     *
+     * @return the auto generated id of content table.
+     * @throws RepositoryException throws if the operation failed.
+     * @see org.wso2.carbon.repository.core.utils.MediaTypesUtils#getContentCodec(String)
+     */
+    int addContentBytes(InputStream contentStream, String mediaType) throws RepositoryException;
+
+    /**
+     * Add a copy of the given content to the content table, without reading the content out of
+     * the database. If content deduplication is enabled, the given content is shared instead.
+     *
+     * @param contentID the id of the content to copy.
+     *
+     * @return the id of the copy.
+     * @throws RepositoryException throws if the operation failed.
+     */
+    int copyContent(int contentID) throws RepositoryException;
+
     /**
      * Method to return resourceDO from a version number.
      *
@@ -503,6 +557,112 @@ public interface ResourceDAO {
      */
     List<ResourceIDImpl> getChildPathIds(ResourceIDImpl resourceID) throws RepositoryException;
 
+    /**
+     * Get the paths of a collection and of all the collections below it.
+     *
+     * @param resourceID the resource id of the collection.
+     *
+     * @return a map of path ids to paths, starting with the given collection.
+     * @throws RepositoryException throws if the operation failed.
+     */
+    Map<Integer, String> getSubTreePaths(ResourceIDImpl resourceID) throws RepositoryException;
+
+    /**
+     * Get the path entries of a path and of all the paths below it, including the entries of
+     * paths at which no resource exists.
+     *
+     * @param path the path at the root of the sub tree.
+     *
+     * @return a map of path ids to paths.
+     * @throws RepositoryException throws if the operation failed.
+     */
+    Map<Integer, String> getPathEntries(String path) throws RepositoryException;
+
+    /**
+     * Change the values of a set of path entries, replacing the source path prefix of each with
+     * the target path, so that the resources and properties of the entries are moved with them.
+     * The entry of the source path is moved under the given target parent.
+     *
+     * @param paths          a map of path ids to paths, all of which start with the source path.
+     * @param sourcePath     the source path.
+     * @param targetPath     the target path.
+     * @param targetParentID the resource id of the parent collection of the target path.
+     *
+     * @throws RepositoryException throws if the operation failed.
+     */
+    void movePathEntries(Map<Integer, String> paths, String sourcePath, String targetPath,
+                         ResourceIDImpl targetParentID) throws RepositoryException;
+
+    /**
+     * Get the paths of the resources in a sub tree that were added or updated after the given
+     * time, including the root of the sub tree.
+     *
+     * @param path  the path at the root of the sub tree.
+     * @param since the time after which the resources were changed.
+     *
+     * @return the list of paths of the changed resources.
+     * @throws RepositoryException throws if the operation failed.
+     */
+    List<String> getChangedResourcePaths(String path, Date since) throws RepositoryException;
+
+    /**
+     * Record that the resources at a path, and below it, were removed or replaced without being
+     * updated, so that incremental dumps can include the change. Nothing is recorded unless path
+     * tombstones are enabled in the repository configuration.
+     *
+     * @param path the path.
+     *
+     * @throws RepositoryException throws if the operation failed.
+     */
+    void addTombstone(String path) throws RepositoryException;
+
+    /**
+     * Get the paths in a sub tree at which resources were removed or replaced after the given
+     * time. If an ancestor of the sub tree was replaced, the root of the sub tree is returned.
+     *
+     * @param path  the path at the root of the sub tree.
+     * @param since the time after which the resources were removed or replaced.
+     *
+     * @return the list of paths, which may contain duplicates.
+     * @throws RepositoryException throws if path tombstones are not enabled, or if the operation
+     *                             failed.
+     */
+    List<String> getTombstones(String path, Date since) throws RepositoryException;
+
+    /**
+     * Checks whether any resource in the given collections, other than the given collection
+     * itself, has the non-recursive property set.
+     *
+     * @param resourceID the resource id of the collection at the root of the sub tree.
+     * @param pathIds    the path ids of the collections in the sub tree.
+     *
+     * @return true if a non-recursive resource exists, false otherwise.
+     * @throws RepositoryException throws if the operation failed.
+     */
+    boolean isNonRecursiveResourceExist(ResourceIDImpl resourceID, List<Integer> pathIds)
+            throws RepositoryException;
+
+    /**
+     * Get the resource data objects of all the resources in the given collections, including the
+     * collections themselves.
+     *
+     * @param pathIds the path ids of the collections.
+     *
+     * @return the list of resource data objects.
+     * @throws RepositoryException throws if the operation failed.
+     */
+    List<ResourceDO> getResourceDOs(List<Integer> pathIds) throws RepositoryException;
+
+    /**
+     * Delete all the resources in the given collections, including the collections themselves,
+     * together with their content. Properties are deleted unless the resource has a history.
+     *
+     * @param pathIds the path ids of the collections.
+     *
+     * @throws RepositoryException throws if the operation failed.
+     */
+    void deleteResources(List<Integer> pathIds) throws RepositoryException;
+
     /**
      * Get the path from the path id.
      *
@@ -513,6 +673,17 @@ public interface ResourceDAO {
      */
     String getPathFromId(int pathId) throws RepositoryException;
 
+    /**
+     * Get the paths of a set of path ids.
+     *
+     * @param pathIds the path ids.
+     *
+     * @return a map of path ids to the corresponding paths. Path ids that do not exist are not
+     *         included.
+     * @throws RepositoryException throws if operation failed.
+     */
+    Map<Integer, String> getPathsFromIds(Set<Integer> pathIds) throws RepositoryException;
+
     /**
      * Get the path provided the resource version.
      *
@@ -537,7 +708,9 @@ public interface ResourceDAO {
     String getPath(int pathId, String resourceName, boolean checkExistence) throws RepositoryException;
 
     /**
-     * Move resource provided the source and target resource ids.
+     * Move resource provided the source and target resource ids. The current versions of the
+     * resources are changed in place; snapshots give the resources they archive new versions, so
+     * that archived versions keep their paths.
      *
      * @param source the resource Id of the source.
      * @param target the resource id of the target.
@@ -17,6 +17,7 @@
 package org.wso2.carbon.repository.spi.dao;
 
 import java.io.InputStream;
+import java.util.List;
 
 import org.wso2.carbon.repository.api.exceptions.RepositoryException;
 import org.wso2.carbon.repository.core.CollectionImpl;
@@ -187,6 +188,16 @@ public interface ResourceVersionDAO {
      */
     boolean isResourceHistoryExist(ResourceIDImpl resourceID) throws RepositoryException;
 
+    /**
+     * Check whether any version or snapshot of a resource refers to one of the given path ids.
+     *
+     * @param pathIds the path ids.
+     *
+     * @return true if a version or a snapshot refers to a path id, false otherwise.
+     * @throws RepositoryException if the operation failed.
+     */
+    boolean isHistoryExist(List<Integer> pathIds) throws RepositoryException;
+
     /**
      * Check whether the content is already in the history.
      *
@@ -227,6 +238,31 @@ public interface ResourceVersionDAO {
      * @throws RepositoryException if the operation failed.
      */
     void putResourceToHistory(ResourceDO resourceDO) throws RepositoryException;
+
+    /**
+     * Archive the current versions of all the resources in the given collections, including the
+     * collections themselves, together with their content. Versions and content that are already
+     * archived are skipped.
+     *
+     * @param pathIds the path ids of the collections.
+     *
+     * @throws RepositoryException if the operation failed.
+     * @see #putResourceToHistory
+     */
+    void putResourcesToHistory(List<Integer> pathIds) throws RepositoryException;
+
+    /**
+     * Give new versions to the current resources in the given collections, including the
+     * collections themselves, whose versions are archived. The resources keep their content, so
+     * that a resource that is later changed in place, such as by a move, does not change an
+     * archived version.
+     *
+     * @param pathIds the path ids of the collections.
+     *
+     * @throws RepositoryException if the operation failed.
+     * @see #putResourcesToHistory
+     */
+    void renewResources(List<Integer> pathIds) throws RepositoryException;
     
     /**
      * Removes a snapshot of a given resource.
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.registry.core.test.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.testng.Assert;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+import org.wso2.carbon.repository.core.jdbc.dataaccess.BlockIdAllocator;
+
+public class BlockIdAllocatorTest {
+
+    private JdbcDataSource dataSource;
+
+    @BeforeTest
+    public void setUp() throws SQLException {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:idblocktest;DB_CLOSE_DELAY=-1");
+        Connection conn = dataSource.getConnection();
+        try {
+            Statement statement = conn.createStatement();
+            statement.execute("CREATE TABLE REG_ID_BLOCK (REG_TABLE_NAME VARCHAR (50), " +
+                    "REG_TENANT_ID INTEGER DEFAULT 0, REG_NEXT_ID INTEGER NOT NULL, " +
+                    "PRIMARY KEY (REG_TABLE_NAME, REG_TENANT_ID))");
+            statement.execute("CREATE TABLE REG_CONTENT (REG_CONTENT_ID INTEGER, " +
+                    "REG_TENANT_ID INTEGER DEFAULT 0)");
+            statement.execute("INSERT INTO REG_CONTENT VALUES (5, 0)");
+            statement.close();
+        } finally {
+            conn.close();
+        }
+    }
+
+    @Test
+    public void testIdsContinueAfterExistingRows() throws SQLException {
+        BlockIdAllocator allocator = new BlockIdAllocator(dataSource, 3);
+        Assert.assertEquals(allocator.nextId("REG_CONTENT", "REG_CONTENT_ID", 0), 6);
+        Assert.assertEquals(allocator.nextId("REG_CONTENT", "REG_CONTENT_ID", 0), 7);
+        Assert.assertEquals(allocator.nextId("REG_CONTENT", "REG_CONTENT_ID", 0), 8);
+
+        // a second allocator sharing the database reserves the next block.
+        BlockIdAllocator other = new BlockIdAllocator(dataSource, 3);
+        Assert.assertEquals(other.nextId("REG_CONTENT", "REG_CONTENT_ID", 0), 9);
+        Assert.assertEquals(allocator.nextId("REG_CONTENT", "REG_CONTENT_ID", 0), 12);
+    }
+
+    @Test
+    public void testConcurrentAllocation() throws Exception {
+        final BlockIdAllocator allocator = new BlockIdAllocator(dataSource, 10);
+        final Set<Integer> ids = Collections.synchronizedSet(new HashSet<Integer>());
+        final int idsPerThread = 200;
+        Thread[] threads = new Thread[8];
+        final Throwable[] failure = new Throwable[1];
+
+        for (int i = 0; i < threads.length; i++) {
+            final int tenantId = i % 2 + 1;
+            threads[i] = new Thread() {
+                public void run() {
+                    try {
+                        for (int j = 0; j < idsPerThread; j++) {
+                            int id = allocator.nextId("REG_CONTENT", "REG_CONTENT_ID", tenantId);
+                            Assert.assertTrue(ids.add(tenantId * 1000000 + id),
+                                    "Duplicate id " + id + " for tenant " + tenantId);
+                        }
+                    } catch (Throwable e) {
+                        failure[0] = e;
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertNull(failure[0]);
+        Assert.assertEquals(ids.size(), threads.length * idsPerThread);
+    }
+}
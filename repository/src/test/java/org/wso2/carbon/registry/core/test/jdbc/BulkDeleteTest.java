@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.registry.core.test.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterTest;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+import org.wso2.carbon.registry.core.test.utils.BaseTestCase;
+import org.wso2.carbon.repository.api.Collection;
+import org.wso2.carbon.repository.api.Repository;
+import org.wso2.carbon.repository.api.RepositoryConstants;
+import org.wso2.carbon.repository.api.Resource;
+import org.wso2.carbon.repository.api.exceptions.RepositoryException;
+import org.wso2.carbon.repository.api.utils.RepositoryUtils;
+import org.wso2.carbon.repository.core.ResourceImpl;
+import org.wso2.carbon.repository.core.jdbc.dataaccess.JDBCDataAccessManager;
+
+public class BulkDeleteTest extends BaseTestCase {
+
+    private static final String SHARED_CONTENT = "content shared within and outside the tree";
+
+    @BeforeTest
+    public void setUp() {
+        super.setUp();
+        ctx.setContentDeduplication(true);
+
+        try {
+            RealmUnawareRegistryCoreServiceComponent comp = new RealmUnawareRegistryCoreServiceComponent();
+            comp.registerBuiltInHandlers(embeddedRegistryService);
+        } catch (RepositoryException e) {
+            Assert.fail("Failed to initialize the registry. Caused by: " + e.getMessage());
+        }
+    }
+
+    @AfterTest
+    public void tearDown() {
+        ctx.setContentDeduplication(false);
+    }
+
+    @Test
+    public void testDeleteTree() throws Exception {
+        Repository registry = getRepository(false);
+        putResource(registry, "/test/bulkkeep1/r0", SHARED_CONTENT);
+        putResource(registry, "/test/bulkdel1/r1", SHARED_CONTENT, "p1", "v1");
+        Collection c1 = registry.newCollection();
+        c1.setProperty("pc", "vc");
+        registry.put("/test/bulkdel1/c1", c1);
+        putResource(registry, "/test/bulkdel1/c1/r2", "versioned content", "p2", "v2");
+        putResource(registry, "/test/bulkdel1/c1/c2/r3", SHARED_CONTENT, "p3", "v3", "v4");
+        registry.createVersion("/test/bulkdel1/c1/r2");
+
+        int contentId = getContentId(registry, "/test/bulkdel1/r1");
+        Assert.assertEquals(getContentId(registry, "/test/bulkdel1/c1/c2/r3"), contentId);
+        Assert.assertEquals(getReferenceCount(contentId), 3);
+
+        int rootId = getPathId("/test/bulkdel1");
+        int c1Id = getPathId("/test/bulkdel1/c1");
+        int c2Id = getPathId("/test/bulkdel1/c1/c2");
+        List<Integer> removedPropertyIds = new ArrayList<Integer>();
+        removedPropertyIds.addAll(getPropertyIds(rootId, "r1"));
+        removedPropertyIds.addAll(getPropertyIds(c1Id, null));
+        removedPropertyIds.addAll(getPropertyIds(c2Id, "r3"));
+        Assert.assertEquals(removedPropertyIds.size(), 4);
+        List<Integer> keptPropertyIds = getPropertyIds(c1Id, "r2");
+        Assert.assertEquals(keptPropertyIds.size(), 1);
+
+        registry.delete("/test/bulkdel1");
+
+        Assert.assertFalse(registry.resourceExists("/test/bulkdel1"));
+        Assert.assertFalse(registry.resourceExists("/test/bulkdel1/c1/c2/r3"));
+        Assert.assertEquals(countResources(rootId, c1Id, c2Id), 0, "Resources of the tree were kept.");
+
+        // the shared content is kept for the resource outside the tree.
+        Assert.assertEquals(getReferenceCount(contentId), 1);
+        Assert.assertTrue(contentExists(contentId), "The shared content was deleted.");
+        Assert.assertEquals(getContent(registry, "/test/bulkkeep1/r0"), SHARED_CONTENT);
+
+        // properties are only kept for the resource that has a history.
+        for (int propertyId : removedPropertyIds) {
+            Assert.assertFalse(propertyExists(propertyId), "Property " + propertyId + " was kept.");
+        }
+        Assert.assertTrue(getPropertyIds(rootId, "r1").isEmpty());
+        Assert.assertTrue(getPropertyIds(c1Id, null).isEmpty());
+        Assert.assertTrue(getPropertyIds(c2Id, "r3").isEmpty());
+        Assert.assertEquals(getPropertyIds(c1Id, "r2"), keptPropertyIds);
+        Assert.assertTrue(propertyExists(keptPropertyIds.get(0)), "Property of a versioned resource was removed.");
+        Assert.assertEquals(countHistory(c1Id, "r2"), 1);
+    }
+
+    @Test
+    public void testDeleteTreeVersionedOnChange() throws Exception {
+        Repository registry = getRepository(true);
+        putResource(registry, "/test/bulkkeep2/r0", SHARED_CONTENT);
+        putResource(registry, "/test/bulkdel2/r1", SHARED_CONTENT, "p1", "v1");
+        Collection c1 = registry.newCollection();
+        c1.setProperty("pc", "vc");
+        registry.put("/test/bulkdel2/c1", c1);
+        putResource(registry, "/test/bulkdel2/c1/r2", "own content", "p2", "v2");
+
+        int sharedContentId = getContentId(registry, "/test/bulkdel2/r1");
+        int ownContentId = getContentId(registry, "/test/bulkdel2/c1/r2");
+        Assert.assertEquals(getReferenceCount(sharedContentId), 2);
+
+        int rootId = getPathId("/test/bulkdel2");
+        int c1Id = getPathId("/test/bulkdel2/c1");
+        List<Integer> collectionPropertyIds = getPropertyIds(c1Id, null);
+        Assert.assertEquals(collectionPropertyIds.size(), 1);
+        List<Integer> r1PropertyIds = getPropertyIds(rootId, "r1");
+        List<Integer> r2PropertyIds = getPropertyIds(c1Id, "r2");
+
+        registry.delete("/test/bulkdel2");
+
+        Assert.assertFalse(registry.resourceExists("/test/bulkdel2"));
+        Assert.assertEquals(countResources(rootId, c1Id), 0, "Resources of the tree were kept.");
+
+        // non-collections are versioned before they are deleted, with their content and properties.
+        Assert.assertEquals(countHistory(rootId, "r1"), 1);
+        Assert.assertEquals(countHistory(c1Id, "r2"), 1);
+        Assert.assertTrue(contentHistoryExists(sharedContentId), "The shared content was not versioned.");
+        Assert.assertTrue(contentHistoryExists(ownContentId), "The content was not versioned.");
+        Assert.assertFalse(contentExists(ownContentId), "The content was kept.");
+        Assert.assertEquals(getPropertyIds(rootId, "r1"), r1PropertyIds);
+        Assert.assertEquals(getPropertyIds(c1Id, "r2"), r2PropertyIds);
+
+        // the collection has no history, so its properties are removed.
+        Assert.assertTrue(getPropertyIds(c1Id, null).isEmpty());
+        Assert.assertFalse(propertyExists(collectionPropertyIds.get(0)), "Property of the collection was kept.");
+
+        Assert.assertEquals(getReferenceCount(sharedContentId), 1);
+        Assert.assertEquals(getContent(registry, "/test/bulkkeep2/r0"), SHARED_CONTENT);
+    }
+
+    @Test
+    public void testDeleteTreeWithNonRecursiveResource() throws Exception {
+        Repository registry = getRepository(false);
+        putResource(registry, "/test/bulkkeep3/r0", SHARED_CONTENT);
+        putResource(registry, "/test/bulkdel3/r1", SHARED_CONTENT,
+                RepositoryConstants.REGISTRY_NON_RECURSIVE, "true");
+        putResource(registry, "/test/bulkdel3/c1/r2", SHARED_CONTENT, "p2", "v2");
+
+        int contentId = getContentId(registry, "/test/bulkdel3/r1");
+        Assert.assertEquals(getReferenceCount(contentId), 3);
+
+        int rootId = getPathId("/test/bulkdel3");
+        int c1Id = getPathId("/test/bulkdel3/c1");
+        List<Integer> propertyIds = new ArrayList<Integer>();
+        propertyIds.addAll(getPropertyIds(rootId, "r1"));
+        propertyIds.addAll(getPropertyIds(c1Id, "r2"));
+        Assert.assertEquals(propertyIds.size(), 2);
+
+        // the tree is deleted one resource at a time, as it has a non recursive resource.
+        registry.delete("/test/bulkdel3");
+
+        Assert.assertFalse(registry.resourceExists("/test/bulkdel3"));
+        Assert.assertEquals(countResources(rootId, c1Id), 0, "Resources of the tree were kept.");
+        for (int propertyId : propertyIds) {
+            Assert.assertFalse(propertyExists(propertyId), "Property " + propertyId + " was kept.");
+        }
+        Assert.assertEquals(getReferenceCount(contentId), 1);
+        Assert.assertEquals(getContent(registry, "/test/bulkkeep3/r0"), SHARED_CONTENT);
+    }
+
+    // The repository reads whether to version resources on change when it is first used.
+    private Repository getRepository(boolean versionOnChange) throws RepositoryException {
+        boolean configured = ctx.isVersionOnChange();
+        ctx.setVersionOnChange(versionOnChange);
+        try {
+            Repository registry = embeddedRegistryService.getRepository("admin");
+            registry.resourceExists(RepositoryConstants.ROOT_PATH);
+            return registry;
+        } finally {
+            ctx.setVersionOnChange(configured);
+        }
+    }
+
+    private void putResource(Repository registry, String path, String content, String... property)
+            throws RepositoryException {
+        Resource resource = registry.newResource();
+        resource.setContent(content);
+        if (property.length > 0) {
+            resource.setProperty(property[0], Arrays.asList(property).subList(1, property.length));
+        }
+        registry.put(path, resource);
+    }
+
+    private int getContentId(Repository registry, String path) throws RepositoryException {
+        return ((ResourceImpl) registry.get(path)).getDbBasedContentID();
+    }
+
+    private String getContent(Repository registry, String path) throws RepositoryException {
+        return RepositoryUtils.decodeBytes((byte[]) registry.get(path).getContent());
+    }
+
+    private int getPathId(String path) throws SQLException {
+        return queryForInts("SELECT REG_PATH_ID FROM REG_PATH WHERE REG_PATH_VALUE=?", path).get(0);
+    }
+
+    private List<Integer> getPropertyIds(int pathId, String resourceName) throws SQLException {
+        if (resourceName == null) {
+            return queryForInts("SELECT REG_PROPERTY_ID FROM REG_RESOURCE_PROPERTY WHERE REG_PATH_ID=? AND " +
+                    "REG_RESOURCE_NAME IS NULL ORDER BY REG_PROPERTY_ID", pathId);
+        }
+        return queryForInts("SELECT REG_PROPERTY_ID FROM REG_RESOURCE_PROPERTY WHERE REG_PATH_ID=? AND " +
+                "REG_RESOURCE_NAME=? ORDER BY REG_PROPERTY_ID", pathId, resourceName);
+    }
+
+    private boolean propertyExists(int propertyId) throws SQLException {
+        return !queryForInts("SELECT REG_ID FROM REG_PROPERTY WHERE REG_ID=?", propertyId).isEmpty();
+    }
+
+    private int countResources(Integer... pathIds) throws SQLException {
+        int count = 0;
+        for (int pathId : pathIds) {
+            count += queryForInts("SELECT REG_VERSION FROM REG_RESOURCE WHERE REG_PATH_ID=?", pathId).size();
+        }
+        return count;
+    }
+
+    private int countHistory(int pathId, String resourceName) throws SQLException {
+        return queryForInts("SELECT REG_VERSION FROM REG_RESOURCE_HISTORY WHERE REG_PATH_ID=? AND " +
+                "REG_NAME=?", pathId, resourceName).size();
+    }
+
+    // Returns -1 if the content has no digest.
+    private int getReferenceCount(int contentId) throws SQLException {
+        List<Integer> counts = queryForInts("SELECT REG_REF_COUNT FROM REG_CONTENT_DIGEST WHERE " +
+                "REG_CONTENT_ID=?", contentId);
+        return counts.isEmpty() ? -1 : counts.get(0);
+    }
+
+    private boolean contentExists(int contentId) throws SQLException {
+        return !queryForInts("SELECT REG_CONTENT_ID FROM REG_CONTENT WHERE REG_CONTENT_ID=?", contentId).isEmpty();
+    }
+
+    private boolean contentHistoryExists(int contentId) throws SQLException {
+        return !queryForInts("SELECT REG_CONTENT_ID FROM REG_CONTENT_HISTORY WHERE REG_CONTENT_ID=?",
+                contentId).isEmpty();
+    }
+
+    private List<Integer> queryForInts(String sql, Object... parameters) throws SQLException {
+        Connection conn = ((JDBCDataAccessManager) ctx.getDataAccessManager()).getDataSource().getConnection();
+        try {
+            PreparedStatement ps = conn.prepareStatement(sql);
+            for (int i = 0; i < parameters.length; i++) {
+                ps.setObject(i + 1, parameters[i]);
+            }
+            ResultSet result = ps.executeQuery();
+            List<Integer> values = new ArrayList<Integer>();
+            while (result.next()) {
+                values.add(result.getInt(1));
+            }
+            return values;
+        } finally {
+            conn.close();
+        }
+    }
+}
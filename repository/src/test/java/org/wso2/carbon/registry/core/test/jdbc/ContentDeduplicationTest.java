@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.registry.core.test.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterTest;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+import org.wso2.carbon.registry.core.test.utils.BaseTestCase;
+import org.wso2.carbon.repository.api.Repository;
+import org.wso2.carbon.repository.api.Resource;
+import org.wso2.carbon.repository.api.exceptions.RepositoryException;
+import org.wso2.carbon.repository.api.utils.RepositoryUtils;
+import org.wso2.carbon.repository.core.ResourceImpl;
+import org.wso2.carbon.repository.core.jdbc.dataaccess.JDBCDataAccessManager;
+
+public class ContentDeduplicationTest extends BaseTestCase {
+
+    protected static Repository registry = null;
+
+    @BeforeTest
+    public void setUp() {
+        super.setUp();
+        ctx.setContentDeduplication(true);
+
+        try {
+            RealmUnawareRegistryCoreServiceComponent comp = new RealmUnawareRegistryCoreServiceComponent();
+            comp.registerBuiltInHandlers(embeddedRegistryService);
+            registry = embeddedRegistryService.getRepository("admin");
+        } catch (RepositoryException e) {
+            Assert.fail("Failed to initialize the registry. Caused by: " + e.getMessage());
+        }
+    }
+
+    @AfterTest
+    public void tearDown() {
+        ctx.setContentDeduplication(false);
+    }
+
+    @Test
+    public void testSharedContent() throws Exception {
+        Resource r1 = registry.newResource();
+        r1.setContent("shared content");
+        registry.put("/test/dedup/r1", r1);
+
+        Resource r2 = registry.newResource();
+        r2.setContent("shared content");
+        registry.put("/test/dedup/r2", r2);
+
+        registry.copy("/test/dedup/r1", "/test/dedup/r3");
+
+        int contentId = getContentId("/test/dedup/r1");
+        Assert.assertEquals(getContentId("/test/dedup/r2"), contentId, "Equal content is not shared.");
+        Assert.assertEquals(getContentId("/test/dedup/r3"), contentId, "Copied content is not shared.");
+        Assert.assertEquals(getReferenceCount(contentId), 3);
+
+        // removing a resource keeps the content of the others that share it.
+        registry.delete("/test/dedup/r1");
+        Assert.assertEquals(getReferenceCount(contentId), 2);
+        Assert.assertEquals(getContent("/test/dedup/r2"), "shared content");
+        Assert.assertEquals(getContent("/test/dedup/r3"), "shared content");
+
+        // updating a resource does not change the content of the others.
+        r2 = registry.get("/test/dedup/r2");
+        r2.setContent("new content");
+        registry.put("/test/dedup/r2", r2);
+        Assert.assertEquals(getContent("/test/dedup/r2"), "new content");
+        Assert.assertEquals(getContent("/test/dedup/r3"), "shared content");
+        Assert.assertEquals(getReferenceCount(contentId), 1);
+
+        // the content is deleted with its last reference.
+        registry.delete("/test/dedup/r3");
+        Assert.assertEquals(getReferenceCount(contentId), -1, "The digest of the content was kept.");
+        Assert.assertFalse(contentExists(contentId), "The content was kept.");
+        registry.delete("/test/dedup");
+        Assert.assertFalse(registry.resourceExists("/test/dedup/r2"));
+
+        Resource r4 = registry.newResource();
+        r4.setContent("shared content");
+        registry.put("/test/dedup2/r4", r4);
+        Assert.assertEquals(getContent("/test/dedup2/r4"), "shared content");
+    }
+
+    @Test
+    public void testReferencesAfterDeduplicationIsDisabled() throws Exception {
+        Resource r1 = registry.newResource();
+        r1.setContent("content stored by digest");
+        registry.put("/test/dedup3/r1", r1);
+        Resource r2 = registry.newResource();
+        r2.setContent("content stored by digest");
+        registry.put("/test/dedup3/r2", r2);
+        int contentId = getContentId("/test/dedup3/r1");
+
+        ctx.setContentDeduplication(false);
+        try {
+            // content stored while the option was enabled is still released by reference.
+            registry.delete("/test/dedup3/r1");
+            Assert.assertEquals(getContent("/test/dedup3/r2"), "content stored by digest");
+            Assert.assertEquals(getReferenceCount(contentId), 1);
+
+            registry.delete("/test/dedup3");
+            Assert.assertEquals(getReferenceCount(contentId), -1);
+            Assert.assertFalse(contentExists(contentId), "The content was kept.");
+        } finally {
+            ctx.setContentDeduplication(true);
+        }
+    }
+
+    private int getContentId(String path) throws RepositoryException {
+        return ((ResourceImpl) registry.get(path)).getDbBasedContentID();
+    }
+
+    // Returns -1 if the content has no digest.
+    private int getReferenceCount(int contentId) throws SQLException {
+        Integer count = queryForInt("SELECT REG_REF_COUNT FROM REG_CONTENT_DIGEST WHERE REG_CONTENT_ID=?",
+                contentId);
+        return count == null ? -1 : count;
+    }
+
+    private boolean contentExists(int contentId) throws SQLException {
+        return queryForInt("SELECT REG_CONTENT_ID FROM REG_CONTENT WHERE REG_CONTENT_ID=?", contentId) != null;
+    }
+
+    private Integer queryForInt(String sql, int id) throws SQLException {
+        Connection conn = ((JDBCDataAccessManager) ctx.getDataAccessManager()).getDataSource().getConnection();
+        try {
+            PreparedStatement ps = conn.prepareStatement(sql);
+            ps.setInt(1, id);
+            ResultSet result = ps.executeQuery();
+            return result.next() ? result.getInt(1) : null;
+        } finally {
+            conn.close();
+        }
+    }
+
+    private String getContent(String path) throws RepositoryException {
+        return RepositoryUtils.decodeBytes((byte[]) registry.get(path).getContent());
+    }
+}
@@ -16,7 +16,10 @@
 
 package org.wso2.carbon.registry.core.test.jdbc;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.testng.Assert;
+import org.testng.SkipException;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 import org.wso2.carbon.repository.core.utils.DumpReader;
@@ -28,6 +31,7 @@ import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.XMLStreamWriter;
 
 import java.io.FileReader;
+import java.io.Reader;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
@@ -35,6 +39,8 @@ import java.util.List;
 
 public class DumpReaderTest {
 
+    private static final Log log = LogFactory.getLog(DumpReaderTest.class);
+
     String dumpDir;
     
     @BeforeTest
@@ -134,10 +140,10 @@ public class DumpReaderTest {
         processDump(dumpReader, result, "");
         Assert.assertEquals(62, result.size());
 
-        System.out.println("total read: " + DumpReader.getTotalRead());
-        System.out.println("total buffered: " + DumpReader.getTotalBuffered());
-        System.out.println("maximum buffer size: " + DumpReader.getMaxBufferedSize());
-        System.out.println("total buffer read size: " + DumpReader.getTotalBufferedRead());
+        System.out.println("total read: " + dumpReader.getTotalRead());
+        System.out.println("total buffered: " + dumpReader.getTotalBuffered());
+        System.out.println("maximum buffer size: " + dumpReader.getMaxBufferedSize());
+        System.out.println("total buffer read size: " + dumpReader.getTotalBufferedRead());
     }
 
     @Test
@@ -149,6 +155,30 @@ public class DumpReaderTest {
         Assert.assertEquals(3, result.size());
     }
 
+    @Test
+    public void testDumpReadThroughput() throws Exception {
+        // the dump is generated while it is read, so it is only measured when the size in
+        // characters is given, e.g. -Ddump.reader.benchmark.size=1073741824 for a 1 GB dump.
+        Long dumpSize = Long.getLong("dump.reader.benchmark.size");
+        if (dumpSize == null) {
+            throw new SkipException("dump.reader.benchmark.size is not set");
+        }
+        int childCount = (int) (dumpSize / 1024);
+        DumpReader dumpReader = new DumpReader(new GeneratedDumpReader(childCount, 1000));
+        List<String> result = new ArrayList<String>();
+
+        long start = System.nanoTime();
+        processDump(dumpReader, result, "");
+        long time = System.nanoTime() - start;
+
+        Assert.assertEquals(childCount + 1, result.size());
+        Assert.assertEquals("1:" + (childCount + 1), result.get(childCount));
+
+        log.info("total read: " + dumpReader.getTotalRead() + " in " + (time / 1000000) + " ms");
+        log.info("throughput (chars/s): " + (long) (dumpReader.getTotalRead() * 1e9 / time));
+        log.info("maximum buffer size: " + dumpReader.getMaxBufferedSize());
+    }
+
     @Test
     public void testDumpWriter1() throws Exception {
         Writer writer = new StringWriter();
@@ -251,6 +281,58 @@ public class DumpReaderTest {
                 "<test>bang</test></resource></wrapper>", writerStr);
     }
     
+    /**
+     * Reader generating the dump of a collection with the given number of child resources,
+     * without keeping the dump in memory.
+     */
+    private static class GeneratedDumpReader extends Reader {
+
+        private final int childCount;
+        private final String content;
+        private int nextChild = 0;
+        private String chunk = "<resource n=\"1\" isCollection=\"true\"><children>";
+        private int chunkIndex = 0;
+
+        public GeneratedDumpReader(int childCount, int contentLength) {
+            this.childCount = childCount;
+            StringBuilder content = new StringBuilder(contentLength);
+            for (int i = 0; i < contentLength; i++) {
+                content.append((char) ('a' + i % 26));
+            }
+            this.content = content.toString();
+        }
+
+        public int read(char[] cbuf, int off, int len) {
+            if (chunk == null) {
+                return -1;
+            }
+            int read = 0;
+            while (read < len && chunk != null) {
+                int count = Math.min(len - read, chunk.length() - chunkIndex);
+                chunk.getChars(chunkIndex, chunkIndex + count, cbuf, off + read);
+                chunkIndex += count;
+                read += count;
+                if (chunkIndex == chunk.length()) {
+                    chunk = nextChunk();
+                    chunkIndex = 0;
+                }
+            }
+            return read;
+        }
+
+        private String nextChunk() {
+            nextChild++;
+            if (nextChild <= childCount) {
+                return "<resource n=\"" + (nextChild + 1) + "\"><content>" + content +
+                        "</content></resource>";
+            }
+            return (nextChild == childCount + 1) ? "</children></resource>" : null;
+        }
+
+        public void close() {
+        }
+    }
+
     public void processDump(DumpReader dumpReader, List<String>result, String prefix) throws Exception {
         XMLStreamReader xmlReader = XMLInputFactory.newInstance().createXMLStreamReader(dumpReader);
 
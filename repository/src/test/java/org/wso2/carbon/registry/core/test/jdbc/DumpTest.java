@@ -16,9 +16,13 @@
 
 package org.wso2.carbon.registry.core.test.jdbc;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.util.Date;
 
 import javax.xml.stream.XMLStreamException;
 
@@ -32,6 +36,7 @@ import org.wso2.carbon.repository.api.Resource;
 import org.wso2.carbon.repository.api.exceptions.RepositoryException;
 import org.wso2.carbon.repository.api.utils.RepositoryUtils;
 import org.wso2.carbon.repository.core.CollectionImpl;
+import org.wso2.carbon.repository.core.DumpConstants;
 
 public class DumpTest extends BaseTestCase {
 
@@ -40,6 +45,8 @@ public class DumpTest extends BaseTestCase {
     @BeforeTest
     public void setUp() {
         super.setUp();
+        // incremental dumps require the removed and replaced paths to be recorded.
+        ctx.setPathTombstones(true);
 
         try {
             RealmUnawareRegistryCoreServiceComponent comp = new RealmUnawareRegistryCoreServiceComponent();
@@ -382,4 +389,136 @@ public class DumpTest extends BaseTestCase {
         	Assert.assertTrue(false);
         }
     }
+
+    @Test
+    public void testArchiveDump() throws RepositoryException {
+        Collection c = registry.newCollection();
+        c.setProperty("key1", "value1");
+        registry.put("/testArchive", c);
+
+        Resource r = registry.newResource();
+        r.setProperty("key2", "value2");
+        r.addProperty("key2", "value3");
+        r.setContent("content 1");
+        registry.put("/testArchive/c1/r1", r);
+
+        r = registry.newResource();
+        r.setContent(new byte[]{0, 1, 2, (byte) 255});
+        registry.put("/testArchive/r2", r);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        registry.dump("/testArchive", outputStream);
+        byte[] archive = outputStream.toByteArray();
+
+        // restoring replaces the resources at the path.
+        registry.put("/testArchiveDup/stale", registry.newResource());
+        registry.restore("/testArchiveDup", new ByteArrayInputStream(archive));
+
+        Assert.assertFalse(registry.resourceExists("/testArchiveDup/stale"));
+        Assert.assertEquals(registry.get("/testArchiveDup").getPropertyValue("key1"), "value1");
+
+        r = registry.get("/testArchiveDup/c1/r1");
+        Assert.assertEquals(RepositoryUtils.decodeBytes((byte[]) r.getContent()), "content 1");
+        Assert.assertEquals(r.getPropertyValues("key2").size(), 2);
+        Assert.assertTrue(r.getPropertyValues("key2").contains("value3"));
+
+        r = registry.get("/testArchiveDup/r2");
+        Assert.assertEquals((byte[]) r.getContent(), new byte[]{0, 1, 2, (byte) 255});
+
+        // restoring again gives the same resources.
+        registry.restore("/testArchiveDup", new ByteArrayInputStream(archive));
+        Collection restored = (Collection) registry.get("/testArchiveDup");
+        Assert.assertEquals(restored.getChildCount(), 2);
+    }
+
+    @Test
+    public void testCorruptedArchiveRestore() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        DataOutputStream archive = new DataOutputStream(outputStream);
+        archive.writeInt(DumpConstants.ARCHIVE_MAGIC);
+        archive.writeInt(DumpConstants.ARCHIVE_FORMAT_VERSION);
+        archive.writeBoolean(false);
+        archive.writeByte(DumpConstants.ARCHIVE_RECORD_RESOURCE);
+        // the length of the relative path is corrupted.
+        archive.writeInt(Integer.MAX_VALUE);
+        archive.close();
+
+        try {
+            registry.restore("/testCorruptedArchive", new ByteArrayInputStream(outputStream.toByteArray()));
+            Assert.fail("A corrupted archive was restored.");
+        } catch (RepositoryException expected) {
+        }
+        Assert.assertFalse(registry.resourceExists("/testCorruptedArchive"));
+    }
+
+    @Test
+    public void testIncrementalArchiveDump() throws Exception {
+        Resource r = registry.newResource();
+        r.setContent("unchanged");
+        registry.put("/testDelta/c1/r1", r);
+        r = registry.newResource();
+        r.setContent("content 1");
+        registry.put("/testDelta/c1/r2", r);
+        registry.put("/testDelta/c2/r3", registry.newResource());
+        registry.put("/testDelta/c3/r4", registry.newResource());
+
+        Date baseTime = new Date();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        registry.dump("/testDelta", outputStream);
+        byte[] base = outputStream.toByteArray();
+        registry.restore("/testDeltaDup", new ByteArrayInputStream(base));
+        Thread.sleep(100);
+
+        r = registry.get("/testDelta/c1/r2");
+        r.setContent("content 2");
+        r.setProperty("key1", "value1");
+        registry.put("/testDelta/c1/r2", r);
+        registry.put("/testDelta/c1/r5", registry.newResource());
+        registry.delete("/testDelta/c2");
+
+        Date deltaTime = new Date();
+        outputStream = new ByteArrayOutputStream();
+        registry.dump("/testDelta", baseTime, outputStream);
+        byte[] delta = outputStream.toByteArray();
+        Thread.sleep(100);
+
+        // moved resources keep their times, so the move is dumped through tombstones.
+        registry.move("/testDelta/c3", "/testDelta/c4");
+
+        outputStream = new ByteArrayOutputStream();
+        registry.dump("/testDelta", deltaTime, outputStream);
+        byte[] secondDelta = outputStream.toByteArray();
+
+        registry.restore("/testDeltaDup", new ByteArrayInputStream(delta));
+        registry.restore("/testDeltaDup", new ByteArrayInputStream(secondDelta));
+
+        Assert.assertEquals(RepositoryUtils.decodeBytes(
+                (byte[]) registry.get("/testDeltaDup/c1/r1").getContent()), "unchanged");
+        r = registry.get("/testDeltaDup/c1/r2");
+        Assert.assertEquals(RepositoryUtils.decodeBytes((byte[]) r.getContent()), "content 2");
+        Assert.assertEquals(r.getPropertyValue("key1"), "value1");
+        Assert.assertTrue(registry.resourceExists("/testDeltaDup/c1/r5"));
+        Assert.assertFalse(registry.resourceExists("/testDeltaDup/c2"));
+        Assert.assertFalse(registry.resourceExists("/testDeltaDup/c3"));
+        Assert.assertTrue(registry.resourceExists("/testDeltaDup/c4/r4"));
+
+        Assert.assertTrue(delta.length < base.length,
+                "The incremental dump holds unchanged resources.");
+    }
+
+    @Test
+    public void testIncrementalDumpWithoutTombstones() throws Exception {
+        registry.put("/testNoTombstones/r1", registry.newResource());
+        Date since = new Date();
+
+        ctx.setPathTombstones(false);
+        try {
+            // a removal after the watermark could not be dumped.
+            registry.dump("/testNoTombstones", since, new ByteArrayOutputStream());
+            Assert.fail("An incremental dump was written without path tombstones.");
+        } catch (RepositoryException expected) {
+        } finally {
+            ctx.setPathTombstones(true);
+        }
+    }
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.registry.core.test.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+import org.wso2.carbon.registry.core.test.utils.BaseTestCase;
+import org.wso2.carbon.repository.api.Activity;
+import org.wso2.carbon.repository.api.ActivityPage;
+import org.wso2.carbon.repository.api.Repository;
+import org.wso2.carbon.repository.api.exceptions.RepositoryException;
+import org.wso2.carbon.repository.api.utils.Actions;
+import org.wso2.carbon.repository.core.jdbc.dataaccess.JDBCDataAccessManager;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+public class LogPagingTest extends BaseTestCase {
+
+    // the number of log entries up to which the entries of a page are counted.
+    private static final int MAX_COUNTED_LOGS = 10000;
+
+    protected static Repository registry = null;
+
+    @BeforeTest
+    public void setUp() {
+        super.setUp();
+
+        try {
+            RealmUnawareRegistryCoreServiceComponent comp = new RealmUnawareRegistryCoreServiceComponent();
+            comp.registerBuiltInHandlers(embeddedRegistryService);
+            registry = embeddedRegistryService.getRepository("admin");
+        } catch (RepositoryException e) {
+            Assert.fail("Failed to initialize the registry. Caused by: " + e.getMessage());
+        }
+    }
+
+    @Test
+    public void testPagesOfEntriesLoggedAtTheSameTime() throws Exception {
+        String path = "/test/logpages/r1";
+        long time = System.currentTimeMillis() - 60000;
+        // the later entries are logged first, so that the entries logged at the same time are not
+        // first in the order of their ids.
+        addLogs(path, time + 1000, "e5", "e6");
+        addLogs(path, time, "e0", "e1", "e2", "e3", "e4");
+
+        List<String> entries = new ArrayList<String>();
+        List<Integer> pageSizes = new ArrayList<Integer>();
+        String pageToken = null;
+        do {
+            ActivityPage page = registry.getLogs(path, -1, null, null, null, false, pageToken, 2, false);
+            for (Activity activity : page.getActivities()) {
+                entries.add(activity.getActionData());
+            }
+            pageSizes.add(page.getActivities().length);
+            pageToken = page.getNextPageToken();
+        } while (pageToken != null && pageSizes.size() < 10);
+
+        Assert.assertEquals(entries, Arrays.asList("e0", "e1", "e2", "e3", "e4", "e5", "e6"));
+        Assert.assertEquals(pageSizes, Arrays.asList(2, 2, 2, 1));
+
+        entries.clear();
+        pageToken = null;
+        do {
+            ActivityPage page = registry.getLogs(path, -1, null, null, null, true, pageToken, 3, false);
+            for (Activity activity : page.getActivities()) {
+                entries.add(activity.getActionData());
+            }
+            pageToken = page.getNextPageToken();
+        } while (pageToken != null && entries.size() < 10);
+
+        Assert.assertEquals(entries, Arrays.asList("e6", "e5", "e4", "e3", "e2", "e1", "e0"));
+    }
+
+    @Test
+    public void testLastPage() throws Exception {
+        String path = "/test/logpages/r2";
+        addLogs(path, System.currentTimeMillis() - 60000, "e0", "e1", "e2", "e3");
+
+        ActivityPage page = registry.getLogs(path, -1, null, null, null, false, null, 2, false);
+        Assert.assertEquals(page.getActivities().length, 2);
+        Assert.assertNotNull(page.getNextPageToken(), "The first page has no next page token.");
+
+        // a page that ends with the last entry has no next page token.
+        page = registry.getLogs(path, -1, null, null, null, false, page.getNextPageToken(), 2, false);
+        Assert.assertEquals(page.getActivities().length, 2);
+        Assert.assertEquals(page.getActivities()[1].getActionData(), "e3");
+        Assert.assertNull(page.getNextPageToken(), "The last page has a next page token.");
+
+        page = registry.getLogs(path, -1, null, null, null, false, null, 4, false);
+        Assert.assertEquals(page.getActivities().length, 4);
+        Assert.assertNull(page.getNextPageToken(), "The only page has a next page token.");
+
+        page = registry.getLogs("/test/logpages/none", -1, null, null, null, false, null, 4, false);
+        Assert.assertEquals(page.getActivities().length, 0);
+        Assert.assertNull(page.getNextPageToken());
+    }
+
+    @Test
+    public void testMalformedPageToken() throws Exception {
+        for (String pageToken : new String[]{"", "abc", "1:2", "1:2:x", "1:2:3:4", "x:0:1"}) {
+            try {
+                registry.getLogs("/test/logpages/r2", -1, null, null, null, false, pageToken, 2, false);
+                Assert.fail("The page token \"" + pageToken + "\" was accepted.");
+            } catch (RepositoryException expected) {
+                // the token is rejected.
+            }
+        }
+    }
+
+    @Test
+    public void testCount() throws Exception {
+        String path = "/test/logpages/r3";
+        addLogs(path, System.currentTimeMillis() - 60000, "e0", "e1", "e2");
+
+        ActivityPage page = registry.getLogs(path, -1, null, null, null, false, null, 2, true);
+        Assert.assertEquals(page.getCount(), 3);
+        Assert.assertTrue(page.isCountExact());
+
+        page = registry.getLogs(path, -1, null, null, null, false, null, 2, false);
+        Assert.assertEquals(page.getCount(), -1);
+        Assert.assertFalse(page.isCountExact());
+
+        // entries are counted only up to the limit.
+        path = "/test/logpages/r4";
+        String[] actionData = new String[MAX_COUNTED_LOGS + 5];
+        Arrays.fill(actionData, "e");
+        addLogs(path, System.currentTimeMillis() - 60000, actionData);
+
+        page = registry.getLogs(path, -1, null, null, null, true, null, 10, true);
+        Assert.assertEquals(page.getActivities().length, 10);
+        Assert.assertEquals(page.getCount(), MAX_COUNTED_LOGS);
+        Assert.assertFalse(page.isCountExact());
+    }
+
+    // Adds log entries logged at the given time, in the given order.
+    private void addLogs(String path, long time, String... actionData) throws SQLException {
+        Connection conn = ((JDBCDataAccessManager) ctx.getDataAccessManager()).getDataSource().getConnection();
+        try {
+            PreparedStatement ps = conn.prepareStatement("INSERT INTO REG_LOG (REG_PATH, REG_USER_ID, " +
+                    "REG_LOGGED_TIME, REG_ACTION, REG_ACTION_DATA, REG_TENANT_ID) VALUES (?, ?, ?, ?, ?, ?)");
+            for (String data : actionData) {
+                ps.setString(1, path);
+                ps.setString(2, "admin");
+                ps.setTimestamp(3, new Timestamp(time));
+                ps.setInt(4, Actions.UPDATE.getId());
+                ps.setString(5, data);
+                ps.setInt(6, MultitenantConstants.SUPER_TENANT_ID);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            ps.close();
+        } finally {
+            conn.close();
+        }
+    }
+}
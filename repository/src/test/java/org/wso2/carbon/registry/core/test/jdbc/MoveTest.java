@@ -198,4 +198,45 @@ public class MoveTest extends BaseTestCase {
         
         Assert.assertTrue(failed, "Moved resource should not be accessible from the old path.");
     }
+
+    @Test
+    public void testSubTreeMove() throws RepositoryException {
+        for (int i = 0; i < 3; i++) {
+            Resource r1 = registry.newResource();
+            r1.setProperty("test", "move" + i);
+            r1.setContent("c" + i);
+            registry.put("/bulkMove/src/c" + i + "/d/r" + i, r1);
+        }
+        Collection c1 = registry.newCollection();
+        c1.setProperty("test", "collection");
+        registry.put("/bulkMove/src/empty", c1);
+
+        // the target paths are cached as missing before the move.
+        Assert.assertFalse(registry.resourceExists("/bulkMove/target/c1/d/r1"));
+
+        registry.move("/bulkMove/src", "/bulkMove/target");
+
+        for (int i = 0; i < 3; i++) {
+            Resource newR1 = registry.get("/bulkMove/target/c" + i + "/d/r" + i);
+            Assert.assertEquals(newR1.getPropertyValue("test"), "move" + i);
+            Assert.assertEquals(new String((byte[]) newR1.getContent()), "c" + i);
+            Assert.assertFalse(registry.resourceExists("/bulkMove/src/c" + i + "/d/r" + i),
+                    "Moved resource should not be accessible from the old path.");
+        }
+        Assert.assertEquals(registry.get("/bulkMove/target/empty").getPropertyValue("test"), "collection");
+        Assert.assertEquals(((Collection) registry.get("/bulkMove/target")).getChildCount(), 4);
+        Assert.assertFalse(registry.resourceExists("/bulkMove/src"));
+
+        // a sub tree with versions is moved one resource at a time, keeping the versions at the
+        // old paths.
+        registry.createVersion("/bulkMove/target/c0/d/r0");
+        registry.move("/bulkMove/target", "/bulkMove/src");
+        Assert.assertEquals(registry.get("/bulkMove/src/c0/d/r0").getPropertyValue("test"), "move0");
+        Assert.assertEquals(registry.get("/bulkMove/src/c2/d/r2").getPropertyValue("test"), "move2");
+        Assert.assertFalse(registry.resourceExists("/bulkMove/target/c1/d/r1"));
+
+        // the sub tree can be moved back to paths that had resources before.
+        registry.move("/bulkMove/src/c1", "/bulkMove/target/c1");
+        Assert.assertEquals(registry.get("/bulkMove/target/c1/d/r1").getPropertyValue("test"), "move1");
+    }
 }
@@ -16,14 +16,28 @@
 
 package org.wso2.carbon.registry.core.test.jdbc;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
 import org.testng.Assert;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 import org.wso2.carbon.registry.core.test.utils.BaseTestCase;
+import org.wso2.carbon.repository.api.Collection;
 import org.wso2.carbon.repository.api.Repository;
+import org.wso2.carbon.repository.api.RepositoryConstants;
 import org.wso2.carbon.repository.api.Resource;
 import org.wso2.carbon.repository.api.exceptions.RepositoryException;
+import org.wso2.carbon.repository.core.CurrentContext;
 import org.wso2.carbon.repository.core.caching.PathCache;
+import org.wso2.carbon.repository.core.utils.InternalConstants;
+import org.wso2.carbon.repository.core.utils.InternalUtils;
+import org.wso2.carbon.repository.spi.dao.ResourceDAO;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
 public class PathCacheTest extends BaseTestCase {
     protected static Repository registry = null;
@@ -72,4 +86,74 @@ public class PathCacheTest extends BaseTestCase {
         double rate7 = PathCache.getPathCache().hitRate();
         Assert.assertTrue(rate7 >= rate6, "Rate7 >= Rate6");
     }
+
+    @Test
+    public void testGetPaths() throws RepositoryException {
+        Map<String, Integer> pathIds = new LinkedHashMap<String, Integer>();
+        for (int i = 0; i < InternalConstants.MAX_PATH_IDS_PER_QUERY + 10; i++) {
+            registry.put("/test/bulkpaths/c" + i, registry.newCollection());
+            pathIds.put("/test/bulkpaths/c" + i, null);
+        }
+
+        registry.beginTransaction();
+        CurrentContext.setTenantId(MultitenantConstants.SUPER_TENANT_ID);
+        try {
+            ResourceDAO resourceDAO = ctx.getDataAccessManager().getDAOManager().getResourceDAO();
+            for (String path : pathIds.keySet()) {
+                pathIds.put(path, resourceDAO.getResourceID(path, true).getPathID());
+            }
+
+            // every other path is cached, and the rest are read from the database in chunks.
+            InternalUtils.getResourcePathCache(InternalConstants.PATH_CACHE_ID).removeAll();
+            int i = 0;
+            for (int pathId : pathIds.values()) {
+                if (i++ % 2 == 0) {
+                    resourceDAO.getPathFromId(pathId);
+                }
+            }
+
+            Set<Integer> ids = new HashSet<Integer>(pathIds.values());
+            ids.add(Integer.MAX_VALUE);
+            Map<Integer, String> paths = resourceDAO.getPathsFromIds(ids);
+            Assert.assertEquals(paths.size(), pathIds.size(), "Paths of unknown ids were returned.");
+            for (Map.Entry<String, Integer> entry : pathIds.entrySet()) {
+                Assert.assertEquals(paths.get(entry.getValue()), entry.getKey());
+                Assert.assertEquals(resourceDAO.getPathFromId(entry.getValue()), entry.getKey());
+            }
+
+            // the paths read in bulk are cached.
+            Assert.assertEquals(resourceDAO.getPathsFromIds(ids), paths);
+        } finally {
+            CurrentContext.removeTenantId();
+            registry.rollbackTransaction();
+        }
+    }
+
+    @Test
+    public void testQueryResultPaths() throws RepositoryException {
+        Repository systemRegistry = embeddedRegistryService.getSystemRepository();
+        Map<String, Resource> resources = new HashMap<String, Resource>();
+        resources.put("/bulkpathr1", systemRegistry.newResource());
+        resources.put("/test/bulkpaths2/r2", systemRegistry.newResource());
+        resources.put("/test/bulkpaths2/c1", systemRegistry.newCollection());
+        resources.put("/test/bulkpaths2/c1/r3", systemRegistry.newResource());
+        for (Map.Entry<String, Resource> entry : resources.entrySet()) {
+            entry.getValue().setDescription("bulk path resolution");
+            systemRegistry.put(entry.getKey(), entry.getValue());
+        }
+
+        Resource query = systemRegistry.newResource();
+        query.setContent("SELECT REG_PATH_ID, REG_NAME FROM REG_RESOURCE R WHERE R.REG_DESCRIPTION=?");
+        query.setMediaType(RepositoryConstants.SQL_QUERY_MEDIA_TYPE);
+        systemRegistry.put("/test/bulkpaths2/q1", query);
+
+        InternalUtils.getResourcePathCache(InternalConstants.PATH_CACHE_ID).removeAll();
+        Map<String, String> parameters = new HashMap<String, String>();
+        parameters.put("1", "bulk path resolution");
+        Collection results = systemRegistry.executeQuery("/test/bulkpaths2/q1", parameters);
+
+        // names are joined to the paths of their collections, including the root collection.
+        Assert.assertEquals(new HashSet<String>(Arrays.asList((String[]) results.getContent())),
+                resources.keySet());
+    }
 }
@@ -16,6 +16,8 @@
 
 package org.wso2.carbon.registry.core.test.jdbc;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 
 import org.testng.Assert;
@@ -82,6 +84,31 @@ public class PropertiesTest extends BaseTestCase {
         Assert.assertTrue(propValues.contains("p1v2"), "Property p1 of /propTest/r1 should contain the value p1v2");
     }
 
+    @Test
+    public void testManyMultiValuedProperties() throws RepositoryException {
+        Resource r1 = registry.newResource();
+        r1.setContent("Some content for r1");
+        for (int i = 0; i < 20; i++) {
+            for (int j = 0; j < 10; j++) {
+                r1.addProperty("p" + i, "p" + i + "v" + j);
+            }
+        }
+        registry.put("/propTest5/r1", r1);
+
+        Resource r1b = registry.get("/propTest5/r1");
+        Assert.assertEquals(r1b.getPropertyKeys().size(), 20);
+        for (int i = 0; i < 20; i++) {
+            List<String> expected = new ArrayList<String>();
+            for (int j = 0; j < 10; j++) {
+                expected.add("p" + i + "v" + j);
+            }
+            List<String> propValues = r1b.getPropertyValues("p" + i);
+            Assert.assertEquals(propValues.size(), 10, "Property p" + i + " of /propTest5/r1 should have 10 values");
+            Assert.assertEquals(new HashSet<String>(propValues), new HashSet<String>(expected),
+                    "Property p" + i + " of /propTest5/r1 has wrong values");
+        }
+    }
+
     @Test
     public void testNullValuedProperties() throws RepositoryException {
         Resource r2 = registry.newResource();
@@ -16,10 +16,14 @@
 
 package org.wso2.carbon.registry.core.test.jdbc;
 
+import java.util.Arrays;
+import java.util.Map;
+
 import org.testng.Assert;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 import org.wso2.carbon.registry.core.test.utils.BaseTestCase;
+import org.wso2.carbon.repository.api.Collection;
 import org.wso2.carbon.repository.api.Repository;
 import org.wso2.carbon.repository.api.Resource;
 import org.wso2.carbon.repository.api.exceptions.RepositoryException;
@@ -59,4 +63,41 @@ public class ResourcesTest extends BaseTestCase {
         String r1e2Content = RepositoryUtils.decodeBytes((byte[]) r1e2.getContent());
         Assert.assertEquals(r1e2Content, "c1", "r1 content should be c1");
     }
+
+    @Test
+    public void testBulkGet() throws RepositoryException {
+        for (int i = 0; i < 3; i++) {
+            Resource r = registry.newResource();
+            r.setContent("c" + i);
+            r.setProperty("p", "v" + i);
+            registry.put("/bulkTest/r" + i, r);
+        }
+        Resource c = registry.newCollection();
+        c.setProperty("p", "vc");
+        registry.put("/bulkTest/c", c);
+
+        // r0 is cached before the bulk read, and the others are read in bulk.
+        registry.get("/bulkTest/r0");
+        Map<String, Resource> resources = registry.get(Arrays.asList("/bulkTest/r2", "/bulkTest/missing",
+                "/bulkTest/r0", "/bulkTest/c", "/bulkTest/r1"));
+
+        Assert.assertEquals(resources.keySet().toArray(), new String[]{"/bulkTest/r2", "/bulkTest/r0",
+                "/bulkTest/c", "/bulkTest/r1"}, "Resources should be returned in the order of the paths");
+        for (int i = 0; i < 3; i++) {
+            Resource r = resources.get("/bulkTest/r" + i);
+            Assert.assertEquals(r.getPath(), "/bulkTest/r" + i);
+            Assert.assertEquals(RepositoryUtils.decodeBytes((byte[]) r.getContent()), "c" + i);
+            Assert.assertEquals(r.getPropertyValue("p"), "v" + i);
+        }
+        Assert.assertTrue(resources.get("/bulkTest/c") instanceof Collection);
+        Assert.assertEquals(resources.get("/bulkTest/c").getPropertyValue("p"), "vc");
+
+        Map<String, Resource> metaData = registry.getMetaData(Arrays.asList("/bulkTest/r1", "/bulkTest/missing"));
+        Assert.assertEquals(metaData.size(), 1);
+        Assert.assertEquals(metaData.get("/bulkTest/r1").getPath(), "/bulkTest/r1");
+
+        // deleting a resource read in bulk removes it from the cache.
+        registry.delete("/bulkTest/r1");
+        Assert.assertFalse(registry.get(Arrays.asList("/bulkTest/r1")).containsKey("/bulkTest/r1"));
+    }
 }
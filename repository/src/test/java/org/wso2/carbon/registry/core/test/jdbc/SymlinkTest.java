@@ -16,6 +16,9 @@
 
 package org.wso2.carbon.registry.core.test.jdbc;
 
+import java.util.Arrays;
+import java.util.Map;
+
 import org.testng.Assert;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
@@ -89,6 +92,21 @@ public class SymlinkTest extends BaseTestCase {
         Assert.assertEquals(mountedResource.getPropertyValue("name"), "value1");
     }    
 
+    @Test
+    public void testGetPathsBelowSymLink() throws RepositoryException {
+        Resource testResource = registry.newResource();
+        testResource.setProperty("name", "value1");
+        registry.put("/a5/b5/r1", testResource);
+        registry.createLink("/p5", "/a5/b5"); // now p5 is a link to b5
+
+        Map<String, Resource> resources = registry.get(Arrays.asList("/p5/r1", "/a5/b5/r1", "/p5/r2"));
+
+        Assert.assertEquals(resources.size(), 2, "Only the existing resources should be returned");
+        Assert.assertEquals(resources.get("/p5/r1").getPropertyValue("name"), "value1");
+        Assert.assertEquals(resources.get("/a5/b5/r1").getPropertyValue("name"), "value1");
+        Assert.assertFalse(resources.containsKey("/p5/r2"), "p5 should not have resource r2");
+    }
+
     @Test
     public void testCopySourceSymLinkRoot() throws RepositoryException {
         Collection testResource = registry.newCollection();
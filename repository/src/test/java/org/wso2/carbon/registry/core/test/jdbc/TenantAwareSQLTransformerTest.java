@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.registry.core.test.jdbc;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.registry.core.test.utils.BaseTestCase;
+import org.wso2.carbon.repository.api.exceptions.RepositoryException;
+import org.wso2.carbon.repository.core.jdbc.dataaccess.TenantAwareSQLTransformer;
+
+public class TenantAwareSQLTransformerTest extends BaseTestCase {
+
+    private static final String QUERY = "SELECT R.REG_PATH_ID, R.REG_NAME FROM REG_RESOURCE R " +
+            "WHERE R.REG_NAME LIKE ?";
+
+    @Test
+    public void testTransformerReuse() throws Exception {
+        TenantAwareSQLTransformer.clearCache();
+
+        TenantAwareSQLTransformer transformer = TenantAwareSQLTransformer.getTransformer(QUERY, "H2");
+        Assert.assertSame(TenantAwareSQLTransformer.getTransformer(QUERY, "H2"), transformer,
+                "Transformer of a repeated query was not reused.");
+        Assert.assertNotSame(TenantAwareSQLTransformer.getTransformer(QUERY, "MySQL"), transformer,
+                "Transformer shared across databases.");
+
+        TenantAwareSQLTransformer.clearCache();
+        Assert.assertNotSame(TenantAwareSQLTransformer.getTransformer(QUERY, "H2"), transformer);
+    }
+
+    @Test
+    public void testInvalidQueryNotCached() throws Exception {
+        String query = "SELECT * FROM REG_RESOURCE; DROP TABLE REG_RESOURCE";
+        for (int i = 0; i < 2; i++) {
+            try {
+                TenantAwareSQLTransformer.getTransformer(query, "H2");
+                Assert.fail("Invalid query was transformed.");
+            } catch (RepositoryException ignored) {
+            }
+        }
+    }
+}
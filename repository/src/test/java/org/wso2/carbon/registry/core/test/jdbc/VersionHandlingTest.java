@@ -390,4 +390,76 @@ public class VersionHandlingTest extends BaseTestCase {
         Assert.assertTrue(RepositoryUtils.containsAsSubString("/vtr1", rootV1Children), "Root should have child vtr1");
         Assert.assertFalse(RepositoryUtils.containsAsSubString("/vtc2", rootV1Children), "Root should not have child vtc2");
     }
+
+    @Test
+    public void testDeepCollectionVersioning() throws RepositoryException {
+        for (int i = 0; i < 3; i++) {
+            Resource r1 = registry.newResource();
+            r1.setContent("r" + i + "c1");
+            r1.setProperty("p", "v" + i);
+            registry.put("/test/v15/c1/c" + i + "/c" + i + i + "/r" + i, r1);
+        }
+
+        registry.createVersion("/test/v15/c1");
+
+        Resource r1e1 = registry.get("/test/v15/c1/c1/c11/r1");
+        r1e1.setContent("r1c2");
+        registry.put("/test/v15/c1/c1/c11/r1", r1e1);
+        registry.delete("/test/v15/c1/c2");
+        registry.put("/test/v15/c1/c3", registry.newCollection());
+
+        registry.createVersion("/test/v15/c1");
+
+        String[] c1Versions = registry.getVersions("/test/v15/c1");
+        Assert.assertEquals(c1Versions.length, 2, "c1 should have 2 versions");
+
+        Collection c1v1 = (Collection) registry.get(c1Versions[1]);
+        String[] c1v1Children = (String[]) c1v1.getContent();
+        Assert.assertTrue(RepositoryUtils.containsAsSubString("/test/v15/c1/c2", c1v1Children), "Version 1 of c1 should have child c2");
+        Assert.assertFalse(RepositoryUtils.containsAsSubString("/test/v15/c1/c3", c1v1Children), "Version 1 of c1 should not have child c3");
+
+        registry.restoreVersion(c1Versions[1]);
+
+        Assert.assertFalse(registry.resourceExists("/test/v15/c1/c3"), "Version 1 of c1 should not have child c3");
+        for (int i = 0; i < 3; i++) {
+            Resource r = registry.get("/test/v15/c1/c" + i + "/c" + i + i + "/r" + i);
+            Assert.assertEquals(RepositoryUtils.decodeBytes((byte[]) r.getContent()), "r" + i + "c1");
+            Assert.assertEquals(r.getPropertyValue("p"), "v" + i);
+        }
+
+        registry.restoreVersion(c1Versions[0]);
+
+        Resource r1e2 = registry.get("/test/v15/c1/c1/c11/r1");
+        Assert.assertEquals(RepositoryUtils.decodeBytes((byte[]) r1e2.getContent()), "r1c2");
+        Assert.assertEquals(r1e2.getPropertyValue("p"), "v1");
+        Assert.assertEquals(registry.get("/test/v15/c1/c0/c00/r0").getPropertyValue("p"), "v0");
+        Assert.assertFalse(registry.resourceExists("/test/v15/c1/c2"), "Version 2 of c1 should not have child c2");
+        Assert.assertTrue(registry.resourceExists("/test/v15/c1/c3"), "Version 2 of c1 should have child c3");
+    }
+
+    @Test
+    public void testCollectionVersionAfterMove() throws RepositoryException {
+        Resource r1 = registry.newResource();
+        r1.setContent("moved content");
+        registry.put("/test/v16/c1/r1", r1);
+
+        registry.createVersion("/test/v16/c1");
+
+        // the move changes the resource in place, after its version was archived.
+        registry.move("/test/v16/c1/r1", "/test/v16/c1/r2");
+
+        registry.createVersion("/test/v16/c1");
+
+        String[] c1Versions = registry.getVersions("/test/v16/c1");
+        Assert.assertEquals(c1Versions.length, 2, "c1 should have 2 versions");
+
+        registry.restoreVersion(c1Versions[1]);
+        Assert.assertTrue(registry.resourceExists("/test/v16/c1/r1"), "Version 1 of c1 should have child r1");
+        Assert.assertFalse(registry.resourceExists("/test/v16/c1/r2"), "Version 1 of c1 should not have child r2");
+
+        registry.restoreVersion(c1Versions[0]);
+        Assert.assertFalse(registry.resourceExists("/test/v16/c1/r1"), "Version 2 of c1 should not have child r1");
+        Resource r2 = registry.get("/test/v16/c1/r2");
+        Assert.assertEquals(RepositoryUtils.decodeBytes((byte[]) r2.getContent()), "moved content");
+    }
 }
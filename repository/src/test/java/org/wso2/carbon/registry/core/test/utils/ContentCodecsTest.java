@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.registry.core.test.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.repository.api.exceptions.RepositoryException;
+import org.wso2.carbon.repository.api.utils.RepositoryUtils;
+import org.wso2.carbon.repository.core.utils.ContentCodec;
+import org.wso2.carbon.repository.core.utils.ContentCodecs;
+import org.wso2.carbon.repository.core.utils.DeflateContentCodec;
+
+public class ContentCodecsTest extends BaseTestCase {
+
+    @Test
+    public void testCompressedContent() throws RepositoryException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            sb.append("<element attribute=\"value\">text</element>");
+        }
+        byte[] content = RepositoryUtils.encodeString(sb.toString());
+        ContentCodec codec = ContentCodecs.getCodec(DeflateContentCodec.NAME);
+
+        InputStream encoded = ContentCodecs.encode(new ByteArrayInputStream(content), codec);
+        byte[] encodedBytes = RepositoryUtils.getByteArray(encoded);
+        Assert.assertTrue(encodedBytes.length < content.length / 5,
+                "Content was not compressed: " + encodedBytes.length + " bytes.");
+
+        InputStream decoded = ContentCodecs.decode(new ByteArrayInputStream(encodedBytes));
+        Assert.assertEquals(RepositoryUtils.getByteArray(decoded), content);
+    }
+
+    @Test
+    public void testUnencodedContent() throws RepositoryException {
+        // content written before a codec was configured is read as it is.
+        byte[] content = RepositoryUtils.encodeString("legacy content");
+        Assert.assertEquals(RepositoryUtils.getByteArray(
+                ContentCodecs.decode(new ByteArrayInputStream(content))), content);
+
+        byte[] shortContent = new byte[]{0, 'R'};
+        Assert.assertEquals(RepositoryUtils.getByteArray(
+                ContentCodecs.decode(new ByteArrayInputStream(shortContent))), shortContent);
+    }
+
+    @Test
+    public void testContentStartingWithMarker() throws RepositoryException {
+        byte[] content = new byte[]{0, 'R', 'E', 'G', 'C', 'O', 'D', 'E', 'C', 1, 2, 3};
+
+        InputStream encoded = ContentCodecs.encode(new ByteArrayInputStream(content), null);
+        byte[] encodedBytes = RepositoryUtils.getByteArray(encoded);
+        Assert.assertTrue(encodedBytes.length > content.length,
+                "Content starting with the marker was written without a header.");
+
+        InputStream decoded = ContentCodecs.decode(new ByteArrayInputStream(encodedBytes));
+        Assert.assertEquals(RepositoryUtils.getByteArray(decoded), content);
+    }
+}
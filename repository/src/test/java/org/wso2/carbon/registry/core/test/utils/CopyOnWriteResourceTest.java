@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.registry.core.test.utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.repository.core.CollectionImpl;
+import org.wso2.carbon.repository.core.ResourceImpl;
+
+public class CopyOnWriteResourceTest extends BaseTestCase {
+
+    @Test
+    public void testPropertiesAreCopiedOnWrite() throws Exception {
+        ResourceImpl cached = new ResourceImpl();
+        cached.setProperty("p1", "v1");
+
+        ResourceImpl copy = new ResourceImpl(cached);
+        Assert.assertEquals(copy.getPropertyValue("p1"), "v1");
+
+        copy.addProperty("p1", "v2");
+        copy.setProperty("p2", "v3");
+        Assert.assertEquals(copy.getPropertyValues("p1").size(), 2);
+        Assert.assertEquals(copy.getPropertyValue("p2"), "v3");
+
+        Assert.assertEquals(cached.getPropertyValues("p1").size(), 1);
+        Assert.assertNull(cached.getPropertyValue("p2"));
+
+        ResourceImpl other = new ResourceImpl(cached);
+        other.removeProperty("p1");
+        Assert.assertNull(other.getPropertyValue("p1"));
+        Assert.assertEquals(cached.getPropertyValue("p1"), "v1");
+    }
+
+    @Test
+    public void testChildrenAreCopiedWhenHandedOut() throws Exception {
+        CollectionImpl cached = new CollectionImpl(new String[]{"/c1/r1", "/c1/r2"});
+
+        CollectionImpl copy = new CollectionImpl(cached);
+        Assert.assertEquals(copy.getChildPaths().length, 2);
+
+        String[] children = (String[]) copy.getContent();
+        children[0] = "/c1/r3";
+        Assert.assertEquals(cached.getChildPaths()[0], "/c1/r1");
+        Assert.assertEquals(copy.getChildPaths()[0], "/c1/r3");
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.registry.core.test.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.repository.api.ResourcePath;
+import org.wso2.carbon.repository.api.exceptions.RepositoryException;
+import org.wso2.carbon.repository.api.handlers.Filter;
+import org.wso2.carbon.repository.api.handlers.Handler;
+import org.wso2.carbon.repository.api.handlers.HandlerContext;
+import org.wso2.carbon.repository.api.utils.Method;
+import org.wso2.carbon.repository.core.handlers.HandlerManager;
+import org.wso2.carbon.repository.core.handlers.builtin.URLMatcher;
+
+public class HandlerDispatchTest extends BaseTestCase {
+
+    private final List<String> invocations = new ArrayList<String>();
+
+    @Test
+    public void testPathPatterns() throws RepositoryException {
+        HandlerManager handlerManager = new HandlerManager();
+        handlerManager.addHandler(new Method[] {Method.PUT},
+                createHandler(new RecordingHandler("prefix") {}, "/a/.*"));
+        handlerManager.addHandler(new Method[] {Method.PUT},
+                createHandler(new RecordingHandler("exact") {}, "/a/b"));
+        handlerManager.addHandler(new Method[] {Method.PUT},
+                createHandler(new RecordingHandler("regex") {}, "/[ab]/b\\d?"));
+        handlerManager.addHandler(new Method[] {Method.PUT},
+                createHandler(new RecordingHandler("all") {}, ".*"));
+        handlerManager.addHandler(null,
+                createHandler(new RecordingHandler("none") {}, null));
+
+        assertInvocations(handlerManager, "/a/b", "prefix", "exact", "regex", "all");
+        assertInvocations(handlerManager, "/a/b1", "prefix", "regex", "all");
+        assertInvocations(handlerManager, "/b/b", "regex", "all");
+        assertInvocations(handlerManager, "/a", "all");
+        // as in regular expressions, prefix patterns do not match line terminators.
+        assertInvocations(handlerManager, "/a/\nb");
+        // the outcome of the patterns is cached for the path.
+        assertInvocations(handlerManager, "/a/b", "prefix", "exact", "regex", "all");
+    }
+
+    @Test
+    public void testChangedHandlers() throws RepositoryException {
+        HandlerManager handlerManager = new HandlerManager();
+        Handler first = createHandler(new RecordingHandler("first") {}, "/a/.*");
+        Handler second = createHandler(new RecordingHandler("second") {}, "/a/b");
+        handlerManager.addHandler(new Method[] {Method.PUT}, first);
+        handlerManager.addHandler(new Method[] {Method.PUT}, second);
+        assertInvocations(handlerManager, "/a/b", "first", "second");
+
+        handlerManager.removeHandler(first);
+        assertInvocations(handlerManager, "/a/b", "second");
+
+        // filters changed after the handler was registered are still honoured.
+        ((URLMatcher) second.getFilters().iterator().next()).setPutPattern("/c");
+        assertInvocations(handlerManager, "/a/b");
+        second.setFilters(createFilters("/a/.*"));
+        assertInvocations(handlerManager, "/a/b", "second");
+    }
+
+    @Test
+    public void testMovePatterns() throws RepositoryException {
+        HandlerManager handlerManager = new HandlerManager();
+        Handler handler = new RecordingHandler("move");
+        URLMatcher filter = new URLMatcher();
+        filter.setMovePattern("/target/.*");
+        Set<Filter> filters = new LinkedHashSet<Filter>();
+        filters.add(filter);
+        handler.setFilters(filters);
+        handlerManager.addHandler(new Method[] {Method.MOVE}, handler);
+
+        HandlerContext requestContext = new HandlerContext(null);
+        requestContext.setSourcePath("/source/r1");
+        requestContext.setInstanceId("/target/r1");
+        invocations.clear();
+        handlerManager.move(requestContext);
+        Assert.assertEquals(invocations, Arrays.asList("move"), "Handler not engaged for the target path.");
+
+        requestContext = new HandlerContext(null);
+        requestContext.setSourcePath("/source/r1");
+        requestContext.setInstanceId("/other/r1");
+        invocations.clear();
+        handlerManager.move(requestContext);
+        Assert.assertTrue(invocations.isEmpty(), "Handler engaged for unmatched paths.");
+    }
+
+    @Test
+    public void testPathChangedByHandler() throws RepositoryException {
+        HandlerManager handlerManager = new HandlerManager();
+        handlerManager.addHandler(new Method[] {Method.PUT},
+                createHandler(new RecordingHandler("rewriting") {
+                    public void put(HandlerContext requestContext) throws RepositoryException {
+                        super.put(requestContext);
+                        requestContext.setResourcePath(new ResourcePath("/b/r1"));
+                    }
+                }, "/a/.*"));
+        handlerManager.addHandler(new Method[] {Method.PUT},
+                createHandler(new RecordingHandler("a") {}, "/a/.*"));
+        handlerManager.addHandler(new Method[] {Method.PUT},
+                createHandler(new RecordingHandler("b") {}, "/b/.*"));
+
+        // handlers after the rewriting handler are matched against the rewritten path.
+        assertInvocations(handlerManager, "/a/r1", "rewriting", "b");
+    }
+
+    private void assertInvocations(HandlerManager handlerManager, String path, String... expected)
+            throws RepositoryException {
+        HandlerContext requestContext = new HandlerContext(null);
+        requestContext.setResourcePath(new ResourcePath(path));
+        invocations.clear();
+        handlerManager.put(requestContext);
+        Assert.assertEquals(invocations, Arrays.asList(expected), "Handlers engaged for " + path + " incorrect.");
+    }
+
+    // handlers of the same class are equal, so each handler is created with a class of its own.
+    private Handler createHandler(Handler handler, String putPattern) {
+        handler.setFilters(createFilters(putPattern));
+        return handler;
+    }
+
+    private Set<Filter> createFilters(String putPattern) {
+        URLMatcher filter = new URLMatcher();
+        if (putPattern != null) {
+            filter.setPutPattern(putPattern);
+        } else {
+            filter.setGetPattern(".*");
+        }
+        Set<Filter> filters = new LinkedHashSet<Filter>();
+        filters.add(filter);
+        return filters;
+    }
+
+    private class RecordingHandler extends Handler {
+
+        private final String name;
+
+        private RecordingHandler(String name) {
+            this.name = name;
+        }
+
+        public void put(HandlerContext requestContext) throws RepositoryException {
+            invocations.add(name);
+        }
+
+        public String move(HandlerContext requestContext) throws RepositoryException {
+            invocations.add(name);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.registry.core.test.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.repository.api.utils.Actions;
+import org.wso2.carbon.repository.core.config.LogWriterConfiguration;
+import org.wso2.carbon.repository.core.utils.LogQueue;
+import org.wso2.carbon.repository.core.utils.LogRecord;
+import org.wso2.carbon.repository.core.utils.LogWriter;
+import org.wso2.carbon.repository.spi.dao.LogsDAO;
+import org.wso2.carbon.repository.spi.dataaccess.DAOManager;
+import org.wso2.carbon.repository.spi.dataaccess.DataAccessManager;
+
+public class LogWriterTest {
+
+    @Test
+    public void testBatchesAreBounded() throws Exception {
+        List<LogRecord[]> batches = Collections.synchronizedList(new ArrayList<LogRecord[]>());
+        LogWriterConfiguration configuration = new LogWriterConfiguration();
+        configuration.setBatchSize(10);
+        configuration.setFlushInterval(50);
+
+        LogWriter logWriter = new LogWriter(new LogQueue(), createDataAccessManager(batches),
+                configuration);
+        for (int i = 0; i < 35; i++) {
+            logWriter.addLog("/test/r" + i, "admin", Actions.UPDATE, null);
+        }
+        logWriter.start();
+        logWriter.shutdown();
+        logWriter.join(10000);
+
+        Assert.assertTrue(logWriter.isShutdownComplete());
+        Assert.assertEquals(countRecords(batches), 35);
+        for (LogRecord[] batch : batches) {
+            Assert.assertTrue(batch.length <= 10, "Batch of " + batch.length + " records");
+        }
+        Assert.assertEquals(logWriter.getWrittenRecordCount(), 35);
+        Assert.assertEquals(logWriter.getBatchCount(), batches.size());
+    }
+
+    @Test
+    public void testRecordsAreWrittenAfterFlushInterval() throws Exception {
+        List<LogRecord[]> batches = Collections.synchronizedList(new ArrayList<LogRecord[]>());
+        LogWriterConfiguration configuration = new LogWriterConfiguration();
+        configuration.setBatchSize(100);
+        configuration.setFlushInterval(20);
+
+        LogWriter logWriter = new LogWriter(new LogQueue(), createDataAccessManager(batches),
+                configuration);
+        logWriter.start();
+        logWriter.addLog("/test/r1", "admin", Actions.ADD, null);
+        for (int i = 0; i < 500 && batches.isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(countRecords(batches), 1);
+
+        logWriter.shutdown();
+        logWriter.join(10000);
+    }
+
+    @Test
+    public void testDropWhenQueueIsFull() throws Exception {
+        List<LogRecord[]> batches = Collections.synchronizedList(new ArrayList<LogRecord[]>());
+        LogWriterConfiguration configuration = new LogWriterConfiguration();
+        configuration.setOverflowPolicy(LogWriterConfiguration.OverflowPolicy.DROP);
+
+        LogWriter logWriter = new LogWriter(new LogQueue(5), createDataAccessManager(batches),
+                configuration);
+        for (int i = 0; i < 8; i++) {
+            logWriter.addLog("/test/r" + i, "admin", Actions.UPDATE, null);
+        }
+        Assert.assertEquals(logWriter.getQueueDepth(), 5);
+        Assert.assertEquals(logWriter.getDroppedRecordCount(), 3);
+
+        logWriter.start();
+        logWriter.shutdown();
+        logWriter.join(10000);
+        Assert.assertEquals(countRecords(batches), 5);
+    }
+
+    @Test
+    public void testSpillWhenQueueIsFull() throws Exception {
+        List<LogRecord[]> batches = Collections.synchronizedList(new ArrayList<LogRecord[]>());
+        LogWriterConfiguration configuration = new LogWriterConfiguration();
+        configuration.setOverflowPolicy(LogWriterConfiguration.OverflowPolicy.SPILL);
+
+        LogWriter logWriter = new LogWriter(new LogQueue(5), createDataAccessManager(batches),
+                configuration);
+        for (int i = 0; i < 8; i++) {
+            logWriter.addLog("/test/r" + i, "admin", Actions.UPDATE, i % 2 == 0 ? "data" : null);
+        }
+        Assert.assertEquals(logWriter.getSpilledRecordCount(), 3);
+
+        logWriter.start();
+        logWriter.shutdown();
+        logWriter.join(10000);
+        Assert.assertEquals(countRecords(batches), 8);
+        Assert.assertEquals(logWriter.getDroppedRecordCount(), 0);
+
+        LogRecord[] lastBatch = batches.get(batches.size() - 1);
+        LogRecord spilled = lastBatch[lastBatch.length - 1];
+        Assert.assertEquals(spilled.getResourcePath(), "/test/r7");
+        Assert.assertEquals(spilled.getUserName(), "admin");
+        Assert.assertEquals(spilled.getAction(), Actions.UPDATE);
+        Assert.assertNull(spilled.getActionData());
+    }
+
+    @Test
+    public void testRecordsQueuedDuringShutdownAreWritten() throws Exception {
+        List<LogRecord[]> batches = Collections.synchronizedList(new ArrayList<LogRecord[]>());
+        LogWriterConfiguration configuration = new LogWriterConfiguration();
+        configuration.setOverflowPolicy(LogWriterConfiguration.OverflowPolicy.BLOCK);
+
+        final LogWriter logWriter = new LogWriter(new LogQueue(1), createDataAccessManager(batches),
+                configuration);
+        logWriter.addLog("/test/r1", "admin", Actions.UPDATE, null);
+
+        // this thread blocks on the full queue until the writer takes the first record.
+        Thread producer = new Thread() {
+            public void run() {
+                try {
+                    logWriter.addLog("/test/r2", "admin", Actions.UPDATE, null);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        producer.start();
+        for (int i = 0; i < 500 && producer.getState() != Thread.State.WAITING; i++) {
+            Thread.sleep(10);
+        }
+
+        logWriter.start();
+        logWriter.shutdown();
+        logWriter.join(10000);
+        producer.join(10000);
+
+        Assert.assertEquals(countRecords(batches), 2);
+        Assert.assertEquals(logWriter.getQueueDepth(), 0);
+    }
+
+    private static int countRecords(List<LogRecord[]> batches) {
+        int count = 0;
+        synchronized (batches) {
+            for (LogRecord[] batch : batches) {
+                count += batch.length;
+            }
+        }
+        return count;
+    }
+
+    private static DataAccessManager createDataAccessManager(final List<LogRecord[]> batches) {
+        final LogsDAO logsDAO = (LogsDAO) Proxy.newProxyInstance(
+                LogsDAO.class.getClassLoader(), new Class[]{LogsDAO.class},
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if ("saveLogBatch".equals(method.getName())) {
+                            batches.add((LogRecord[]) args[0]);
+                        }
+                        return null;
+                    }
+                });
+        final DAOManager daoManager = (DAOManager) Proxy.newProxyInstance(
+                DAOManager.class.getClassLoader(), new Class[]{DAOManager.class},
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        return "getLogsDAO".equals(method.getName()) ? logsDAO : null;
+                    }
+                });
+        return (DataAccessManager) Proxy.newProxyInstance(
+                DataAccessManager.class.getClassLoader(), new Class[]{DataAccessManager.class},
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        return "getDAOManager".equals(method.getName()) ? daoManager : null;
+                    }
+                });
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.registry.core.test.utils;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.repository.api.exceptions.RepositoryException;
+import org.wso2.carbon.repository.core.CurrentContext;
+import org.wso2.carbon.repository.core.utils.MediaTypesUtils;
+
+public class MediaTypesUtilsTest extends BaseTestCase {
+
+    private String defaultMediaTypes;
+
+    @BeforeMethod
+    public void saveMediaTypes() throws RepositoryException {
+        defaultMediaTypes = MediaTypesUtils.getResourceMediaTypes();
+    }
+
+    @AfterMethod
+    public void restoreMediaTypes() throws RepositoryException {
+        MediaTypesUtils.setResourceMediaTypes(defaultMediaTypes);
+    }
+
+    @Test
+    public void testExtensionLookup() throws RepositoryException {
+        MediaTypesUtils.setResourceMediaTypes("xml:application/xml,gz:application/x-gzip," +
+                "tar.gz:application/x-tgz,jpg:image/jpeg,xml:text/xml");
+
+        Assert.assertEquals(MediaTypesUtils.getMediaType("abc.xml"), "application/xml");
+        Assert.assertEquals(MediaTypesUtils.getMediaType("abc.JPG"), "image/jpeg");
+        Assert.assertNull(MediaTypesUtils.getMediaType("abc.ml"), "Media type found for a partial extension.");
+        Assert.assertNull(MediaTypesUtils.getMediaType("abc"));
+        Assert.assertNull(MediaTypesUtils.getMediaType("abc."));
+
+        // the longest extension with a media type is used.
+        Assert.assertEquals(MediaTypesUtils.getMediaType("abc.tar.gz"), "application/x-tgz");
+        Assert.assertEquals(MediaTypesUtils.getMediaType("abc.gz"), "application/x-gzip");
+        Assert.assertEquals(MediaTypesUtils.getMediaType("abctar.gz"), "application/x-gzip");
+        Assert.assertEquals(MediaTypesUtils.getMediaType("tar.gz"), "application/x-gzip");
+    }
+
+    @Test
+    public void testTenantMediaTypes() throws RepositoryException {
+        MediaTypesUtils.setResourceMediaTypes("txt:text/plain");
+
+        CurrentContext.setTenantId(7);
+        try {
+            Assert.assertEquals(MediaTypesUtils.getMediaType("abc.txt"), "text/plain");
+            MediaTypesUtils.setResourceMediaTypes("txt:text/x-tenant");
+            Assert.assertEquals(MediaTypesUtils.getMediaType("abc.txt"), "text/x-tenant");
+            Assert.assertEquals(MediaTypesUtils.getResourceMediaTypes(), "txt:text/x-tenant");
+        } finally {
+            CurrentContext.removeTenantId();
+        }
+
+        Assert.assertEquals(MediaTypesUtils.getMediaType("abc.txt"), "text/plain",
+                "Media types of a tenant used outside of its session.");
+
+        CurrentContext.setTenantId(7);
+        try {
+            MediaTypesUtils.setResourceMediaTypes(null);
+            Assert.assertEquals(MediaTypesUtils.getMediaType("abc.txt"), "text/plain");
+        } finally {
+            CurrentContext.removeTenantId();
+        }
+    }
+}
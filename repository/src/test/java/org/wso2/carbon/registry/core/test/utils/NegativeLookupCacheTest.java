@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.registry.core.test.utils;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.repository.core.caching.NegativeLookupCache;
+import org.wso2.carbon.repository.core.caching.RepositoryCacheKey;
+import org.wso2.carbon.repository.core.utils.InternalConstants;
+
+public class NegativeLookupCacheTest extends BaseTestCase {
+
+    @BeforeMethod
+    public void enableCaches() {
+        NegativeLookupCache.configure(InternalConstants.DEFAULT_NEGATIVE_LOOKUP_CACHE_SIZE,
+                InternalConstants.DEFAULT_NEGATIVE_LOOKUP_CACHE_TTL);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        // the caches are disabled unless configured.
+        NegativeLookupCache.configure(0, InternalConstants.DEFAULT_NEGATIVE_LOOKUP_CACHE_TTL);
+    }
+
+    @Test
+    public void testInvalidation() {
+        NegativeLookupCache cache = NegativeLookupCache.getResourceCache();
+        cache.clear();
+        for (String path : new String[]{"/a", "/a/b", "/a/b/c", "/a/bc", "/d"}) {
+            cache.addMissing(new RepositoryCacheKey(path, 1, "conn"), cache.getGeneration());
+        }
+        cache.addMissing(new RepositoryCacheKey("/a/b", 2, "conn"), cache.getGeneration());
+        Assert.assertTrue(cache.isMissing(new RepositoryCacheKey("/a/b", 1, "conn")));
+        Assert.assertFalse(cache.isMissing(new RepositoryCacheKey("/a/b", 1, "other")),
+                "Missing path found for another connection.");
+
+        // adding /a/b adds /a as well, and moving a collection to /a/b adds its sub tree.
+        cache.invalidate(1, "/a/b", true);
+        Assert.assertFalse(cache.isMissing(new RepositoryCacheKey("/a", 1, "conn")));
+        Assert.assertFalse(cache.isMissing(new RepositoryCacheKey("/a/b", 1, "conn")));
+        Assert.assertFalse(cache.isMissing(new RepositoryCacheKey("/a/b/c", 1, "conn")));
+        Assert.assertTrue(cache.isMissing(new RepositoryCacheKey("/a/bc", 1, "conn")));
+        Assert.assertTrue(cache.isMissing(new RepositoryCacheKey("/d", 1, "conn")));
+        Assert.assertTrue(cache.isMissing(new RepositoryCacheKey("/a/b", 2, "conn")),
+                "Missing path of another tenant invalidated.");
+        Assert.assertEquals(cache.size(), 3);
+    }
+
+    @Test
+    public void testInvalidationDuringLookup() {
+        NegativeLookupCache cache = NegativeLookupCache.getResourceCache();
+        cache.clear();
+        RepositoryCacheKey key = new RepositoryCacheKey("/x", 1, "conn");
+
+        long lookupGeneration = cache.getGeneration();
+        cache.invalidate(1, "/x", false);
+        cache.addMissing(key, lookupGeneration);
+        Assert.assertFalse(cache.isMissing(key), "Path added during the lookup cached as missing.");
+        Assert.assertEquals(cache.size(), 0);
+    }
+
+    @Test
+    public void testBoundsAndExpiry() throws InterruptedException {
+        NegativeLookupCache.configure(2, 50);
+        NegativeLookupCache cache = NegativeLookupCache.getPathCache();
+        cache.addMissing(new RepositoryCacheKey("/p1", 1, "conn"), cache.getGeneration());
+        cache.addMissing(new RepositoryCacheKey("/p2", 1, "conn"), cache.getGeneration());
+        cache.addMissing(new RepositoryCacheKey("/p3", 1, "conn"), cache.getGeneration());
+        Assert.assertEquals(cache.size(), 2);
+        Assert.assertFalse(cache.isMissing(new RepositoryCacheKey("/p3", 1, "conn")));
+        Assert.assertFalse(NegativeLookupCache.getResourceCache().isMissing(
+                new RepositoryCacheKey("/p1", 1, "conn")), "Missing path entry read as a missing resource.");
+
+        // expired entries are purged to make room for new ones.
+        Thread.sleep(100);
+        cache.addMissing(new RepositoryCacheKey("/p3", 1, "conn"), cache.getGeneration());
+        Assert.assertTrue(cache.isMissing(new RepositoryCacheKey("/p3", 1, "conn")));
+        Assert.assertFalse(cache.isMissing(new RepositoryCacheKey("/p1", 1, "conn")));
+        Assert.assertEquals(cache.size(), 1);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.registry.core.test.utils;
+
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.repository.api.utils.Method;
+import org.wso2.carbon.repository.core.statistics.LatencyHistogram;
+import org.wso2.carbon.repository.core.statistics.OperationStatistics;
+import org.wso2.carbon.repository.core.statistics.StripedCounter;
+
+public class OperationStatisticsTest extends BaseTestCase {
+
+    @Test
+    public void testStripedCounter() throws Exception {
+        final StripedCounter counter = new StripedCounter();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        counter.increment();
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(counter.sum(), 80000L, "Concurrent increments lost.");
+
+        counter.reset();
+        Assert.assertEquals(counter.sum(), 0L);
+    }
+
+    @Test
+    public void testLatencyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.getSnapshot();
+        Assert.assertEquals(snapshot.getCount(), 1000L);
+        Assert.assertEquals(snapshot.getMax(), 1000000L);
+        Assert.assertEquals(snapshot.getMean(), 500500.0, 0.001);
+
+        long median = snapshot.getPercentile(50);
+        Assert.assertTrue(median >= 500000 && median <= 500000 * 1.125,
+                "Median outside the bucket precision: " + median);
+        long p99 = snapshot.getPercentile(99);
+        Assert.assertTrue(p99 >= 990000 && p99 <= 1000000, "99th percentile incorrect: " + p99);
+        Assert.assertEquals(snapshot.getPercentile(100), 1000000L);
+
+        histogram.reset();
+        Assert.assertEquals(histogram.getSnapshot().getPercentile(50), 0L);
+    }
+
+    @Test
+    public void testConcurrentLatencyHistogram() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            final long largest = (i + 1) * 1000L;
+            threads[i] = new Thread() {
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        histogram.record(j % 2 == 0 ? 100 : largest);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.getSnapshot();
+        Assert.assertEquals(snapshot.getCount(), 80000L, "Concurrent records lost.");
+        Assert.assertEquals(snapshot.getMax(), 8000L);
+        Assert.assertTrue(snapshot.getPercentile(50) <= 100 * 1.125,
+                "Median incorrect: " + snapshot.getPercentile(50));
+    }
+
+    @Test
+    public void testOperationStatistics() {
+        OperationStatistics statistics = OperationStatistics.getInstance();
+        statistics.reset();
+
+        statistics.recordInvocation(Method.GET, 1);
+        statistics.recordInvocation(Method.GET, 1);
+        statistics.recordInvocation(Method.GET, 2);
+        statistics.recordInvocation(Method.PUT, 2);
+        statistics.recordLatency(Method.GET, 1, 2000000);
+        statistics.recordLatency(Method.GET, 2, 4000000);
+
+        Assert.assertEquals(statistics.getInvocationCount(Method.GET), 3L);
+        Assert.assertEquals(statistics.getInvocationCount(Method.GET, 1), 2L);
+        Assert.assertEquals(statistics.getInvocationCount(Method.PUT, 1), 0L);
+        Assert.assertEquals(statistics.getInvocationCount(Method.DELETE), 0L);
+        Assert.assertEquals(statistics.getTenantInvocationCount("PUT", 2), 1L);
+        Assert.assertEquals(statistics.getLatencies(Method.GET).getCount(), 2L);
+        Assert.assertEquals(statistics.getMaxLatency("GET"), 4.0, 0.001);
+        Assert.assertEquals(statistics.getMeanLatency("GET"), 3.0, 0.001);
+
+        Assert.assertTrue(Arrays.equals(statistics.getRecordedMethods(), new String[]{"GET", "PUT"}),
+                "Recorded methods incorrect: " + Arrays.toString(statistics.getRecordedMethods()));
+        Assert.assertTrue(Arrays.equals(statistics.getRecordedTenants(), new int[]{1, 2}));
+
+        statistics.reset();
+        Assert.assertEquals(statistics.getInvocationCount(Method.GET), 0L);
+        Assert.assertEquals(statistics.getRecordedTenants().length, 0);
+    }
+
+    @Test
+    public void testRecordOperation() {
+        OperationStatistics statistics = OperationStatistics.getInstance();
+        statistics.reset();
+
+        statistics.recordOperation(Method.DELETE, 3, 1000000);
+        Assert.assertEquals(statistics.getInvocationCount(Method.DELETE, 3), 1L);
+        Assert.assertEquals(statistics.getLatencies(Method.DELETE, 3).getCount(), 1L,
+                "The invocation and its latency must be recorded together.");
+
+        statistics.reset();
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.registry.core.test.utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.repository.api.RepositoryConstants;
+import org.wso2.carbon.repository.core.caching.RepositoryCacheKey;
+import org.wso2.carbon.repository.core.config.RepositoryContext;
+import org.wso2.carbon.repository.core.utils.InternalUtils;
+
+public class RepositoryCacheKeyTest extends BaseTestCase {
+
+    @Test
+    public void testCacheKeys() {
+        RepositoryContext registryContext = RepositoryContext.getBaseInstance(false, embeddedRegistryService);
+
+        RepositoryCacheKey key = InternalUtils.buildRegistryCacheKey("User@JDBC:H2:db", 1, "/a");
+        RepositoryCacheKey sameKey = InternalUtils.buildRegistryCacheKey("User@JDBC:H2:db", 1, "/a");
+        Assert.assertEquals(sameKey, key);
+        Assert.assertEquals(sameKey.hashCode(), key.hashCode());
+        Assert.assertSame(sameKey.getConnectionURL(), key.getConnectionURL(),
+                "The connection URL is computed for each key.");
+        Assert.assertEquals(key.getConnectionURL(), "user@jdbc:h2:db");
+
+        Assert.assertFalse(key.equals(InternalUtils.buildRegistryCacheKey("User@JDBC:H2:db", 2, "/a")));
+        Assert.assertFalse(key.equals(InternalUtils.buildRegistryCacheKey("User@JDBC:H2:db", 1, "/b")));
+        Assert.assertEquals(key, new RepositoryCacheKey("/a", 1, "user@jdbc:h2:db"));
+
+        // resources of the local repository are cached per node.
+        String localPath = InternalUtils.getAbsolutePath(registryContext,
+                RepositoryConstants.LOCAL_REPOSITORY_BASE_PATH) + "/r1";
+        RepositoryCacheKey localKey = InternalUtils.buildRegistryCacheKey("User@JDBC:H2:db", 1, localPath);
+        Assert.assertEquals(localKey.getConnectionURL(),
+                registryContext.getNodeIdentifier() + ":user@jdbc:h2:db");
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.registry.core.test.utils;
+
+import java.util.SortedSet;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.repository.core.caching.RepositoryCacheKey;
+import org.wso2.carbon.repository.core.caching.ResourceCacheIndex;
+
+public class ResourceCacheIndexTest extends BaseTestCase {
+
+    @Test
+    public void testPathsWithPrefix() {
+        ResourceCacheIndex.clear();
+        ResourceCacheIndex.keyAdded(new RepositoryCacheKey("/a", 1, "conn"));
+        ResourceCacheIndex.keyAdded(new RepositoryCacheKey("/a/b", 1, "conn"));
+        ResourceCacheIndex.keyAdded(new RepositoryCacheKey("/a/b/c", 1, "conn"));
+        ResourceCacheIndex.keyAdded(new RepositoryCacheKey("/a/b;start=0;pageSize=10", 1, "conn"));
+        ResourceCacheIndex.keyAdded(new RepositoryCacheKey("/a/bc", 1, "node:conn"));
+        ResourceCacheIndex.keyAdded(new RepositoryCacheKey("/d", 1, "conn"));
+        ResourceCacheIndex.keyAdded(new RepositoryCacheKey("/a/b/c", 2, "conn"));
+
+        SortedSet<String> paths = ResourceCacheIndex.getPathsWithPrefix(1, "/a/b");
+        Assert.assertEquals(paths.size(), 4, "Paths under /a/b incorrect.");
+        Assert.assertTrue(paths.contains("/a/bc"), "Paths of other connections not found.");
+        Assert.assertFalse(paths.contains("/a"), "Parent path found.");
+
+        paths = ResourceCacheIndex.getPathsWithPrefix(1, "/a/b;start=");
+        Assert.assertEquals(paths.size(), 1, "Paged paths incorrect.");
+
+        Assert.assertEquals(ResourceCacheIndex.getPathsWithPrefix(2, "/").size(), 1,
+                "Paths of other tenants found.");
+        Assert.assertEquals(ResourceCacheIndex.getPathsWithPrefix(3, "/").size(), 0,
+                "Paths found for an unknown tenant.");
+    }
+
+    @Test
+    public void testKeyRemoved() {
+        ResourceCacheIndex.clear();
+        ResourceCacheIndex.keyAdded(new RepositoryCacheKey("/x/y", 1, "conn"));
+        ResourceCacheIndex.keyAdded(new RepositoryCacheKey("/x/y", 1, "node:conn"));
+        Assert.assertEquals(ResourceCacheIndex.size(1), 2);
+
+        ResourceCacheIndex.keyRemoved(new RepositoryCacheKey("/x/y", 1, "conn"));
+        Assert.assertEquals(ResourceCacheIndex.size(1), 1);
+        Assert.assertEquals(ResourceCacheIndex.getPathsWithPrefix(1, "/x").first(), "/x/y");
+
+        ResourceCacheIndex.keyRemoved(new RepositoryCacheKey("/x/y", 1, "node:conn"));
+        Assert.assertEquals(ResourceCacheIndex.size(1), 0);
+    }
+
+    @Test
+    public void testDisabledIndex() {
+        ResourceCacheIndex.clear();
+        ResourceCacheIndex.keyAdded(new RepositoryCacheKey("/x/y", 1, "conn"));
+        ResourceCacheIndex.setEnabled(false);
+        try {
+            Assert.assertEquals(ResourceCacheIndex.size(1), 0, "Paths kept by a disabled index.");
+            ResourceCacheIndex.keyAdded(new RepositoryCacheKey("/x/z", 1, "conn"));
+            Assert.assertEquals(ResourceCacheIndex.size(1), 0, "Paths added to a disabled index.");
+        } finally {
+            ResourceCacheIndex.setEnabled(true);
+        }
+        ResourceCacheIndex.keyAdded(new RepositoryCacheKey("/x/z", 1, "conn"));
+        Assert.assertEquals(ResourceCacheIndex.size(1), 1);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.registry.core.test.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.repository.api.exceptions.RepositoryException;
+import org.wso2.carbon.repository.api.utils.RepositoryUtils;
+import org.wso2.carbon.repository.core.ResourceImpl;
+import org.wso2.carbon.repository.core.utils.SpooledContent;
+
+public class SpooledContentTest extends BaseTestCase {
+
+    @Test
+    public void testSmallContentInMemory() throws RepositoryException {
+        byte[] content = createContent(100);
+        InputStream stream = SpooledContent.getContentStream(new ByteArrayInputStream(content), 1024);
+        Assert.assertFalse(stream instanceof SpooledContent.SpooledInputStream,
+                "Content below the threshold was spooled.");
+        Assert.assertEquals(RepositoryUtils.getByteArray(stream), content);
+    }
+
+    @Test
+    public void testLargeContentSpooled() throws RepositoryException {
+        byte[] content = createContent(10000);
+        InputStream stream = SpooledContent.getContentStream(new ByteArrayInputStream(content), 1024);
+        Assert.assertTrue(stream instanceof SpooledContent.SpooledInputStream,
+                "Content above the threshold was not spooled.");
+
+        SpooledContent spooledContent = ((SpooledContent.SpooledInputStream) stream).getSpooledContent();
+        Assert.assertEquals(spooledContent.getLength(), content.length);
+        // the content can be read again while a stream over it is open.
+        Assert.assertEquals(spooledContent.getBytes(), content);
+        Assert.assertEquals(RepositoryUtils.getByteArray(stream), content);
+
+        try {
+            spooledContent.getInputStream();
+            Assert.fail("Spooled content kept after its last stream was closed.");
+        } catch (RepositoryException expected) {
+            // the temporary file has been removed.
+        }
+    }
+
+    @Test
+    public void testSpooledResourceContent() throws RepositoryException {
+        byte[] content = createContent(5000);
+        InputStream stream = SpooledContent.getContentStream(new ByteArrayInputStream(content), 1024);
+        SpooledContent spooledContent = ((SpooledContent.SpooledInputStream) stream).getSpooledContent();
+        ResourceImpl resource = new ResourceImpl();
+        resource.setContentStreamWithNoUpdate(stream);
+
+        // the content stream can be obtained more than once.
+        Assert.assertEquals(RepositoryUtils.getByteArray(resource.getContentStream()), content);
+        Assert.assertEquals(RepositoryUtils.getByteArray(resource.getContentStream()), content);
+        // content below the content buffer threshold is read into memory, and the spooled content
+        // is released.
+        Assert.assertEquals(resource.getContent(), content);
+        assertRemoved(spooledContent);
+    }
+
+    @Test
+    public void testLargeSpooledResourceContent() throws Exception {
+        byte[] content = createContent(SpooledContent.getContentBufferThreshold() + 1);
+        InputStream stream = SpooledContent.getContentStream(new ByteArrayInputStream(content), 1024);
+        SpooledContent spooledContent = ((SpooledContent.SpooledInputStream) stream).getSpooledContent();
+        ResourceImpl resource = new ResourceImpl();
+        resource.setContentStreamWithNoUpdate(stream);
+        ResourceImpl copy = new ResourceImpl(resource);
+
+        // content above the content buffer threshold is returned as a stream.
+        Object resourceContent = resource.getContent();
+        Assert.assertTrue(resourceContent instanceof InputStream,
+                "Content above the threshold was read into memory.");
+
+        // the content is kept while a stream over it is open, or another resource holds it.
+        resource.close();
+        Assert.assertEquals(RepositoryUtils.getByteArray((InputStream) resourceContent), content);
+        Assert.assertEquals(RepositoryUtils.getByteArray(copy.getContentStream()), content);
+
+        copy.close();
+        assertRemoved(spooledContent);
+    }
+
+    @Test
+    public void testResourceClosedWhileReading() throws Exception {
+        byte[] content = createContent(5000);
+        InputStream stream = SpooledContent.getContentStream(new ByteArrayInputStream(content), 1024);
+        SpooledContent spooledContent = ((SpooledContent.SpooledInputStream) stream).getSpooledContent();
+        ResourceImpl resource = new ResourceImpl();
+        resource.setContentStreamWithNoUpdate(stream);
+
+        InputStream contentStream = resource.getContentStream();
+        resource.close();
+        Assert.assertEquals(RepositoryUtils.getByteArray(contentStream), content);
+        // the temporary file is removed once the last stream is closed.
+        assertRemoved(spooledContent);
+    }
+
+    private void assertRemoved(SpooledContent spooledContent) {
+        try {
+            spooledContent.getInputStream();
+            Assert.fail("Spooled content kept after it was released.");
+        } catch (RepositoryException expected) {
+            // the temporary file has been removed.
+        }
+    }
+
+    private byte[] createContent(int length) {
+        byte[] content = new byte[length];
+        for (int i = 0; i < length; i++) {
+            content[i] = (byte) (i % 127);
+        }
+        return content;
+    }
+}
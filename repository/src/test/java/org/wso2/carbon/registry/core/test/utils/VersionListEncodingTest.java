@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2013, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.registry.core.test.utils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.repository.api.utils.RepositoryUtils;
+import org.wso2.carbon.repository.core.utils.VersionInputStream;
+import org.wso2.carbon.repository.core.utils.VersionRetriever;
+
+public class VersionListEncodingTest extends BaseTestCase {
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        List<Long> versions = Arrays.asList(42L, 7L, 1000000000000L, 43L, 44L, 3L);
+        VersionRetriever retriever = new VersionRetriever(new VersionInputStream(versions));
+
+        Assert.assertEquals(retriever.getVersionCount(), versions.size());
+        for (int i = 0; i < versions.size(); i++) {
+            Assert.assertEquals(retriever.getVersion(i), versions.get(i).longValue());
+        }
+        Assert.assertEquals(retriever.getVersion(versions.size()), -1L);
+        Assert.assertEquals(retriever.getVersion(-1), -1L);
+    }
+
+    @Test
+    public void testEmptyList() throws Exception {
+        VersionRetriever retriever = new VersionRetriever(new VersionInputStream(new ArrayList<Long>()));
+        Assert.assertEquals(retriever.getVersionCount(), 0);
+        Assert.assertEquals(retriever.getVersion(0), -1L);
+    }
+
+    @Test
+    public void testLargeCollection() throws Exception {
+        List<Long> versions = new ArrayList<Long>();
+        for (int i = 0; i < 100000; i++) {
+            versions.add(5000000L + i * 3 + (i % 7));
+        }
+
+        for (boolean compress : new boolean[]{true, false}) {
+            byte[] encoded = RepositoryUtils.getByteArray(new VersionInputStream(versions, compress));
+            Assert.assertTrue(encoded.length * 4 < versions.size() * 8,
+                    "Compact encoding not smaller than the 8-byte encoding: " + encoded.length);
+
+            VersionRetriever retriever = new VersionRetriever(encoded);
+            Assert.assertEquals(retriever.getVersion(99999), versions.get(99999).longValue());
+            Assert.assertEquals(retriever.getVersion(12345), versions.get(12345).longValue());
+            Assert.assertEquals(retriever.getVersion(128), versions.get(128).longValue());
+            for (int i = 0; i < versions.size(); i++) {
+                Assert.assertEquals(retriever.getVersion(i), versions.get(i).longValue());
+            }
+        }
+    }
+
+    @Test
+    public void testLegacyFormat() throws Exception {
+        long[] versions = {1L, 300L, 70000L, 1L << 40};
+        ByteBuffer buffer = ByteBuffer.allocate(versions.length * 8);
+        for (long version : versions) {
+            buffer.putLong(version);
+        }
+
+        VersionRetriever retriever = new VersionRetriever(new ByteArrayInputStream(buffer.array()));
+        Assert.assertEquals(retriever.getVersionCount(), versions.length);
+        Assert.assertEquals(retriever.getVersion(3), versions[3]);
+        for (int i = 0; i < versions.length; i++) {
+            Assert.assertEquals(retriever.getVersion(i), versions[i]);
+        }
+        Assert.assertEquals(retriever.getVersion(versions.length), -1L);
+    }
+}